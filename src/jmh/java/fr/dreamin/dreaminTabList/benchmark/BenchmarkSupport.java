@@ -0,0 +1,131 @@
+package fr.dreamin.dreaminTabList.benchmark;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.PacketEventsAPI;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.player.GameMode;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import io.github.retrooper.packetevents.impl.netty.NettyManagerImpl;
+import net.kyori.adventure.text.Component;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared fixtures for the benchmarks.
+ *
+ * <p>Benchmarks run without a server: PacketEvents is backed by a stub API
+ * reporting a fixed server version and the real Netty buffer allocator,
+ * and the API implementation is a mock with a silent logger. Profiles are
+ * generated from a fixed seed so every run measures the same data.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+final class BenchmarkSupport {
+
+  /**
+   * Server version the packets are encoded for.
+   */
+  static final ServerVersion SERVER_VERSION = ServerVersion.V_1_21_4;
+
+  /**
+   * A real, signed-looking texture payload, sized like the ones returned by Mojang.
+   */
+  static final String TEXTURE = "ewogICJ0aW1lc3RhbXAiIDogMTcwMDAwMDAwMDAwMCwKICAicHJvZmlsZUlkIiA6ICIwMDAwMDAwMDAwMDAwMDAwMDAw"
+    + "MDAwMDAwMDAwMDAwMCIsCiAgInByb2ZpbGVOYW1lIiA6ICJCZW5jaCIsCiAgInRleHR1cmVzIiA6IHsKICAgICJTS0lOIiA6IHsKICAgICAgInVybCIg"
+    + "OiAiaHR0cDovL3RleHR1cmVzLm1pbmVjcmFmdC5uZXQvdGV4dHVyZS8wMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMCIKICAgIH0KICB9Cn0=";
+
+  /**
+   * Signature of {@link #TEXTURE}.
+   */
+  static final String SIGNATURE = "c2lnbmF0dXJlLWZvci1iZW5jaG1hcmtzLW9ubHktbm90LWEtcmVhbC1zaWduYXR1cmUtYnV0LXNpemVkLWxpa2Utb25l".repeat(8);
+
+  private static boolean packetEventsInstalled = false;
+
+  private BenchmarkSupport() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+  }
+
+  /**
+   * Installs a stub PacketEvents API, once per JVM.
+   */
+  static synchronized void installPacketEvents() {
+    if (packetEventsInstalled) return;
+
+    PacketEventsAPI<?> api = Mockito.mock(PacketEventsAPI.class, Answers.RETURNS_DEEP_STUBS);
+    Mockito.when(api.getServerManager().getVersion()).thenReturn(SERVER_VERSION);
+    Mockito.when(api.getNettyManager()).thenReturn(new NettyManagerImpl());
+    PacketEvents.setAPI(api);
+
+    packetEventsInstalled = true;
+  }
+
+  /**
+   * Creates a mocked API implementation with a silent logger.
+   *
+   * @return the mocked API
+   */
+  static TabListAPIImpl mockApi() {
+    Logger logger = Logger.getLogger("DreaminTabList-Benchmark");
+    logger.setLevel(Level.OFF);
+
+    // Stub-only: a regular mock records every invocation and grows for the whole run
+    TabListAPIImpl api = Mockito.mock(TabListAPIImpl.class, Mockito.withSettings().stubOnly());
+    Mockito.when(api.getLogger()).thenReturn(logger);
+    return api;
+  }
+
+  /**
+   * Creates deterministic profiles.
+   *
+   * @param count the number of profiles
+   * @param groups the number of distinct groups
+   * @return the profiles
+   */
+  static List<TabProfile> profiles(int count, int groups) {
+    List<TabProfile> profiles = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      profiles.add(profile(i, groups));
+    }
+    return profiles;
+  }
+
+  /**
+   * Creates a deterministic profile.
+   *
+   * @param index the profile index
+   * @param groups the number of distinct groups
+   * @return the profile
+   */
+  static TabProfile profile(int index, int groups) {
+    return new TabProfileBuilderImpl()
+      .uuid(new UUID(0x5EEDL, index))
+      .name(name(index))
+      .displayName(Component.text("[Rank] " + name(index)))
+      .gameMode(GameMode.SURVIVAL)
+      .latency(index % 300)
+      .sortOrder(index)
+      .group("group-" + (index % groups))
+      .customSkin(TEXTURE, SIGNATURE)
+      .build();
+  }
+
+  /**
+   * Gets the name of a deterministic profile.
+   *
+   * @param index the profile index
+   * @return a valid player name
+   */
+  static String name(int index) {
+    return "Player_" + index;
+  }
+}
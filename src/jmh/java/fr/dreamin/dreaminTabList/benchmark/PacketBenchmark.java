@@ -0,0 +1,88 @@
+package fr.dreamin.dreaminTabList.benchmark;
+
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.packet.EncodedPacket;
+import fr.dreamin.dreaminTabList.impl.packet.TabPackets;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks of PlayerInfoUpdate construction and encoding.
+ *
+ * <p>Encoding uses the real PacketEvents serializers and an unpooled Netty
+ * buffer, as the server does for every viewer.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@State(Scope.Thread)
+public class PacketBenchmark {
+
+  @Param({"1", "20", "100"})
+  public int entries;
+
+  private List<TabProfileImpl> profiles;
+  private WrapperPlayServerPlayerInfoUpdate addPacket;
+  private WrapperPlayServerPlayerInfoUpdate updatePacket;
+
+  @Setup
+  public void setUp() {
+    BenchmarkSupport.installPacketEvents();
+
+    this.profiles = new ArrayList<>(entries);
+    for (TabProfile profile : BenchmarkSupport.profiles(entries, 4)) {
+      profiles.add((TabProfileImpl) profile);
+    }
+
+    this.addPacket = TabPackets.add(profiles);
+    this.updatePacket = TabPackets.update(profiles);
+  }
+
+  /**
+   * Builds an add packet, including the user profiles and skins.
+   */
+  @Benchmark
+  public WrapperPlayServerPlayerInfoUpdate constructAdd() {
+    return TabPackets.add(profiles);
+  }
+
+  /**
+   * Builds a cosmetic update packet.
+   */
+  @Benchmark
+  public WrapperPlayServerPlayerInfoUpdate constructUpdate() {
+    return TabPackets.update(profiles);
+  }
+
+  /**
+   * Encodes an add packet.
+   */
+  @Benchmark
+  public int encodeAdd() {
+    return encode(addPacket);
+  }
+
+  /**
+   * Encodes a cosmetic update packet.
+   */
+  @Benchmark
+  public int encodeUpdate() {
+    return encode(updatePacket);
+  }
+
+  private static int encode(WrapperPlayServerPlayerInfoUpdate packet) {
+    EncodedPacket encoded = EncodedPacket.encode(packet);
+    int size = encoded.getSize();
+    encoded.release();
+    return size;
+  }
+}
@@ -0,0 +1,91 @@
+package fr.dreamin.dreaminTabList.benchmark;
+
+import com.github.retrooper.packetevents.protocol.player.GameMode;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+
+/**
+ * Benchmarks of profile creation and replacement checks.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@State(Scope.Thread)
+public class ProfileBenchmark {
+
+  private static final UUID PROFILE_ID = new UUID(0x5EEDL, 42L);
+  private static final Component DISPLAY_NAME = Component.text("[Rank] Player_42");
+
+  private TabProfileImpl profile;
+  private TabProfileImpl updated;
+  private TabProfileImpl reskinned;
+
+  @Setup
+  public void setUp() {
+    this.profile = (TabProfileImpl) BenchmarkSupport.profile(42, 4);
+    this.updated = (TabProfileImpl) profile.toBuilder().latency(120).build();
+    this.reskinned = (TabProfileImpl) profile.toBuilder()
+      .customSkin(BenchmarkSupport.TEXTURE, "other-" + BenchmarkSupport.SIGNATURE)
+      .build();
+  }
+
+  /**
+   * Builds a profile from scratch, including name validation.
+   */
+  @Benchmark
+  public TabProfile build() {
+    return new TabProfileBuilderImpl()
+      .uuid(PROFILE_ID)
+      .name("Player_42")
+      .displayName(DISPLAY_NAME)
+      .gameMode(GameMode.SURVIVAL)
+      .latency(42)
+      .sortOrder(42)
+      .group("group-2")
+      .customSkin(BenchmarkSupport.TEXTURE, BenchmarkSupport.SIGNATURE)
+      .build();
+  }
+
+  /**
+   * Copies a profile into a builder and builds it back with a new latency,
+   * as done for every cosmetic update.
+   */
+  @Benchmark
+  public TabProfile toBuilderRoundTrip() {
+    return profile.toBuilder().latency(120).build();
+  }
+
+  /**
+   * Builds the PacketEvents user profile sent in add packets.
+   */
+  @Benchmark
+  public UserProfile buildUserProfile() {
+    return profile.buildUserProfile();
+  }
+
+  /**
+   * Compares a profile with an update keeping its name and skin.
+   */
+  @Benchmark
+  public boolean needsReplacementUnchanged() {
+    return TabProfileImpl.needsReplacement(profile, updated);
+  }
+
+  /**
+   * Compares a profile with an update changing its skin.
+   */
+  @Benchmark
+  public boolean needsReplacementReskinned() {
+    return TabProfileImpl.needsReplacement(profile, reskinned);
+  }
+}
@@ -0,0 +1,69 @@
+package fr.dreamin.dreaminTabList.benchmark;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileManagerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Benchmarks of global profile lookups.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@State(Scope.Thread)
+public class ProfileManagerBenchmark {
+
+  @Param({"100", "1000"})
+  public int profiles;
+
+  private TabProfileManagerImpl manager;
+  private UUID knownId;
+  private String knownName;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    this.manager = new TabProfileManagerImpl(BenchmarkSupport.mockApi());
+
+    List<TabProfile> generated = BenchmarkSupport.profiles(profiles, 10);
+    manager.initializeProfiles(generated);
+
+    TabProfile middle = generated.get(profiles / 2);
+    this.knownId = middle.getUniqueId();
+    this.knownName = middle.getName();
+  }
+
+  @Benchmark
+  public TabProfile findByUuid() {
+    return manager.findProfile(knownId);
+  }
+
+  @Benchmark
+  public TabProfile findByName() {
+    return manager.findProfile(knownName);
+  }
+
+  @Benchmark
+  public TabProfile findMissingByName() {
+    return manager.findProfile("Missing_" + (cursor++ & 7));
+  }
+
+  @Benchmark
+  public Collection<TabProfile> findByGroup() {
+    return manager.findProfilesByGroup("group-3");
+  }
+
+  @Benchmark
+  public Collection<TabProfile> getGlobalProfiles() {
+    return manager.getGlobalProfiles();
+  }
+}
@@ -0,0 +1,269 @@
+package fr.dreamin.dreaminTabList.benchmark;
+
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoRemove;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerListHeaderAndFooter;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
+import fr.dreamin.dreaminTabList.event.packet.PacketRecorder;
+import fr.dreamin.dreaminTabList.event.packet.PacketRecording;
+import fr.dreamin.dreaminTabList.impl.network.UpdateRate;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
+import fr.dreamin.dreaminTabList.impl.packet.EncodedPacket;
+import fr.dreamin.dreaminTabList.impl.packet.TabPackets;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.kyori.adventure.text.Component;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Replays a packet recording through the encoder and the viewer connections.
+ *
+ * <p>The recording is read from the path of the {@code dreamin.recording}
+ * system property (set with {@code -PjmhRecording=<file>}). Without it, a
+ * synthetic recording of profile additions, latency updates, removals and
+ * header/footer changes is generated, so the benchmark always runs.
+ *
+ * <p>Records are decoded once during setup; the benchmarks measure
+ * re-encoding every packet, and pushing the recorded changes through
+ * rate-limited viewer connections where cosmetic updates are coalesced.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+  private static final long TICK_NANOS = 50_000_000L;
+  private static final UpdateRate REPLAY_RATE = new UpdateRate(20, 40);
+
+  private List<PacketWrapper<?>> packets;
+  private List<Step> steps;
+  private User user;
+
+  @Setup
+  public void setUp() throws IOException {
+    BenchmarkSupport.installPacketEvents();
+    this.user = Mockito.mock(User.class, Mockito.withSettings().stubOnly());
+
+    String property = System.getProperty("dreamin.recording");
+    Path path = property != null && !property.isEmpty() ? Path.of(property) : syntheticRecording();
+    List<PacketRecording.Record> records = PacketRecording.read(path).getRecords();
+
+    this.packets = new ArrayList<>(records.size());
+    for (PacketRecording.Record record : records) {
+      packets.add(decode(record));
+    }
+    this.steps = steps(records, packets);
+  }
+
+  /**
+   * Encodes every recorded packet again.
+   */
+  @Benchmark
+  public long reencode() {
+    long bytes = 0L;
+    for (PacketWrapper<?> packet : packets) {
+      EncodedPacket encoded = EncodedPacket.encode(packet);
+      bytes += encoded.getSize();
+      encoded.release();
+    }
+    return bytes;
+  }
+
+  /**
+   * Sends the recorded changes through rate-limited viewer connections,
+   * flushing them every recorded tick.
+   */
+  @Benchmark
+  public void replayThroughConnections(Blackhole blackhole) {
+    Map<UUID, ViewerConnection> connections = new HashMap<>();
+    for (Step step : steps) {
+      if (step.viewer() == null) {
+        connections.values().forEach(ViewerConnection::flush);
+        continue;
+      }
+      step.action().accept(connections.computeIfAbsent(step.viewer(), viewer -> new ViewerConnection(user, REPLAY_RATE, 0L)));
+    }
+
+    for (ViewerConnection connection : connections.values()) {
+      blackhole.consume(connection.getPendingCount());
+    }
+  }
+
+  /**
+   * Decodes a recorded packet into its wrapper.
+   */
+  private static PacketWrapper<?> decode(PacketRecording.Record record) {
+    PacketWrapper<?> wrapper = switch (record.kind()) {
+      case PLAYER_INFO_UPDATE -> new WrapperPlayServerPlayerInfoUpdate(
+        EnumSet.noneOf(WrapperPlayServerPlayerInfoUpdate.Action.class), Collections.emptyList());
+      case PLAYER_INFO_REMOVE -> new WrapperPlayServerPlayerInfoRemove(Collections.emptyList());
+      case HEADER_FOOTER -> new WrapperPlayServerPlayerListHeaderAndFooter(Component.empty(), Component.empty());
+    };
+
+    wrapper.setBuffer(Unpooled.wrappedBuffer(record.body().duplicate()));
+    wrapper.read();
+    return wrapper;
+  }
+
+  /**
+   * Turns decoded packets into replayable steps, rebuilding the profiles
+   * each viewer was sent and inserting a flush at every tick boundary.
+   */
+  private static List<Step> steps(List<PacketRecording.Record> records, List<PacketWrapper<?>> packets) {
+    List<Step> steps = new ArrayList<>();
+    Map<UUID, Map<UUID, TabProfileImpl>> sent = new HashMap<>();
+    long nextTick = TICK_NANOS;
+
+    for (int i = 0; i < records.size(); i++) {
+      PacketRecording.Record record = records.get(i);
+      while (record.offsetNanos() >= nextTick) {
+        steps.add(new Step(null, null));
+        nextTick += TICK_NANOS;
+      }
+
+      UUID viewer = record.viewer();
+      Map<UUID, TabProfileImpl> profiles = sent.computeIfAbsent(viewer, key -> new HashMap<>());
+      PacketWrapper<?> packet = packets.get(i);
+
+      if (packet instanceof WrapperPlayServerPlayerInfoUpdate update) {
+        boolean add = update.getActions().contains(WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER);
+        for (WrapperPlayServerPlayerInfoUpdate.PlayerInfo info : update.getEntries()) {
+          TabProfileImpl profile = add ? added(info) : updated(profiles.get(info.getProfileId()), update, info);
+          if (profile == null) continue;
+
+          profiles.put(profile.getUniqueId(), profile);
+          steps.add(new Step(viewer, add ? connection -> connection.sendAdd(profile) : connection -> connection.sendUpdate(profile)));
+        }
+      } else if (packet instanceof WrapperPlayServerPlayerInfoRemove remove) {
+        remove.getProfileIds().forEach(profiles::remove);
+        steps.add(new Step(viewer, connection -> connection.sendRemove(remove.getProfileIds())));
+      } else if (packet instanceof WrapperPlayServerPlayerListHeaderAndFooter headerFooter) {
+        steps.add(new Step(viewer, connection -> connection.sendHeaderAndFooter(headerFooter.getHeader(), headerFooter.getFooter())));
+      }
+    }
+    return steps;
+  }
+
+  private static TabProfileImpl added(WrapperPlayServerPlayerInfoUpdate.PlayerInfo info) {
+    try {
+      TabProfileBuilder builder = new TabProfileBuilderImpl()
+        .uuid(info.getProfileId())
+        .name(info.getGameProfile().getName())
+        .gameMode(info.getGameMode())
+        .latency(Math.max(0, info.getLatency()))
+        .listed(info.isListed());
+      if (info.getDisplayName() != null) builder.displayName(info.getDisplayName());
+
+      for (TextureProperty property : info.getGameProfile().getTextureProperties()) {
+        if (property.getName().equals("textures") && property.getSignature() != null) {
+          builder.customSkin(property.getValue(), property.getSignature());
+        }
+      }
+      return (TabProfileImpl) builder.build();
+    } catch (RuntimeException e) {
+      // Entries the API cannot represent, such as invalid names, are not replayed
+      return null;
+    }
+  }
+
+  private static TabProfileImpl updated(TabProfileImpl known, WrapperPlayServerPlayerInfoUpdate update,
+                                        WrapperPlayServerPlayerInfoUpdate.PlayerInfo info) {
+    if (known == null) return null;
+
+    TabProfileBuilder builder = new TabProfileBuilderImpl(known);
+    if (update.getActions().contains(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY)) builder.latency(Math.max(0, info.getLatency()));
+    if (update.getActions().contains(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED)) builder.listed(info.isListed());
+    if (update.getActions().contains(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_DISPLAY_NAME) && info.getDisplayName() != null) {
+      builder.displayName(info.getDisplayName());
+    }
+    return (TabProfileImpl) builder.build();
+  }
+
+  /**
+   * Records synthetic traffic: 20 viewers receive 100 profiles, then
+   * 40 ticks of latency updates and header changes, then a group removal.
+   * Ticks are recorded in real time, so setup takes about two seconds.
+   */
+  private static Path syntheticRecording() throws IOException {
+    Path path = Files.createTempDirectory("dreamin-replay").resolve("synthetic.dtlr");
+    PacketRecorder recorder = PacketRecorder.start(path, 64 * 1024 * 1024, BenchmarkSupport.SERVER_VERSION.getProtocolVersion());
+    try {
+      List<TabProfileImpl> profiles = new ArrayList<>();
+      for (TabProfile profile : BenchmarkSupport.profiles(100, 4)) {
+        profiles.add((TabProfileImpl) profile);
+      }
+
+      List<UUID> viewers = new ArrayList<>();
+      for (int viewer = 0; viewer < 20; viewer++) {
+        viewers.add(new UUID(0xD0L, viewer));
+        record(recorder, PacketRecorder.Kind.PLAYER_INFO_UPDATE, viewers.get(viewer), TabPackets.add(profiles));
+      }
+
+      for (int tick = 0; tick < 40; tick++) {
+        for (UUID viewer : viewers) {
+          for (TabProfileImpl profile : profiles) {
+            TabProfileImpl updated = (TabProfileImpl) new TabProfileBuilderImpl(profile).latency((tick * 7) % 300).build();
+            record(recorder, PacketRecorder.Kind.PLAYER_INFO_UPDATE, viewer, TabPackets.update(Collections.singletonList(updated)));
+          }
+          record(recorder, PacketRecorder.Kind.HEADER_FOOTER, viewer,
+            new WrapperPlayServerPlayerListHeaderAndFooter(Component.text("Tick " + tick), Component.text("Online: 100")));
+        }
+        Thread.sleep(TICK_NANOS / 1_000_000L);
+      }
+
+      List<UUID> removed = profiles.stream().filter(profile -> "group-0".equals(profile.getGroup())).map(TabProfile::getUniqueId).toList();
+      for (UUID viewer : viewers) {
+        record(recorder, PacketRecorder.Kind.PLAYER_INFO_REMOVE, viewer, TabPackets.remove(removed));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while recording", e);
+    } finally {
+      PacketRecorder.stop();
+    }
+    return path;
+  }
+
+  private static void record(PacketRecorder recorder, PacketRecorder.Kind kind, UUID viewer, PacketWrapper<?> packet) {
+    ByteBuf buffer = (ByteBuf) UnpooledByteBufAllocationHelper.buffer();
+    try {
+      packet.setBuffer(buffer);
+      packet.write();
+      recorder.record(kind, viewer, buffer);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * A replayed change, or a tick flushing every connection when the viewer is null.
+   */
+  private record Step(UUID viewer, Consumer<ViewerConnection> action) {
+  }
+}
@@ -7,8 +7,10 @@ import fr.dreamin.dreaminTabList.api.TabListAPI;
 import fr.dreamin.dreaminTabList.cmd.DreaminTabListCmd;
 import fr.dreamin.dreaminTabList.config.Codex;
 import fr.dreamin.dreaminTabList.event.packet.PacketEvent;
+import fr.dreamin.dreaminTabList.event.packet.PacketRecorder;
 import fr.dreamin.dreaminTabList.event.player.PlayerEvent;
 import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.scheduler.TabScheduler;
 import fr.dreamin.dreaminTabList.player.core.PlayerTabListManager;
 import fr.dreamin.mctools.McTools;
 import io.github.retrooper.packetevents.factory.spigot.SpigotPacketEventsBuilder;
@@ -96,6 +98,11 @@ public class DreaminTabList extends JavaPlugin {
   @Getter @Deprecated
   private static PlayerTabListManager playerTabListManager;
 
+  /**
+   * The scheduler running tab tasks on the thread owning them.
+   */
+  private TabScheduler tabScheduler;
+
   // New API components
   private TabListAPIImpl apiImpl;
 
@@ -137,6 +144,9 @@ public class DreaminTabList extends JavaPlugin {
       // Set singleton instance (for backward compatibility)
       instance = this;
 
+      // Pick the Bukkit or region scheduler matching the server
+      tabScheduler = TabScheduler.create(this);
+
       // Initialize legacy components
       playerTabListManager = new PlayerTabListManager();
 
@@ -193,6 +203,10 @@ public class DreaminTabList extends JavaPlugin {
         getLogger().info("Public API shut down");
       }
 
+      // Finalize a packet recording left running
+      PacketRecorder recorder = PacketRecorder.stop();
+      if (recorder != null) getLogger().info("Packet recording saved to " + recorder.getPath());
+
       // Terminate PacketEvents
       PacketEvents.getAPI().terminate();
       getLogger().info("PacketEvents terminated");
@@ -263,7 +277,7 @@ public class DreaminTabList extends JavaPlugin {
 
     try {
       // Create the API implementation
-      apiImpl = new TabListAPIImpl(this);
+      apiImpl = new TabListAPIImpl(this, tabScheduler);
 
       // Initialize and register with the factory
       apiImpl.initialize();
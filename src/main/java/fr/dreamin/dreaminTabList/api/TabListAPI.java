@@ -2,12 +2,17 @@ package fr.dreamin.dreaminTabList.api;
 
 import fr.dreamin.dreaminTabList.api.player.PlayerTabManager;
 import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.api.sync.SyncTransport;
+import fr.dreamin.dreaminTabList.api.visibility.VisibilityManager;
 import fr.dreamin.dreaminTabList.api.exceptions.PlayerNotFoundException;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.Function;
+
 /**
  * Main API interface for DreaminTabList functionality.
  * 
@@ -56,6 +61,19 @@ public interface TabListAPI {
     @NotNull
     TabProfileManager getProfileManager();
     
+    /**
+     * Gets the visibility manager deciding which global profiles each
+     * player sees.
+     * 
+     * <p>Rules map viewer attributes to the profile groups they reveal.
+     * Without rules, every player sees every global profile.
+     * 
+     * @return the visibility manager, never null
+     * @since 0.0.4
+     */
+    @NotNull
+    VisibilityManager getVisibilityManager();
+    
     /**
      * Gets the player-specific tab manager for a player.
      * 
@@ -149,6 +167,111 @@ public interface TabListAPI {
      */
     void removeHeaderAndFooterForAll();
     
+    /**
+     * Sets header and footer templates for all online players.
+     * 
+     * <p>Templates support legacy color codes and placeholders written as
+     * {@code %key%}. Each template is compiled once and rendered per player,
+     * so placeholders like {@code %player%} or {@code %ping%} show each
+     * viewer their own values. Rendered output is refreshed on the interval
+     * configured by {@code header-footer.update-interval}, and packets are
+     * only sent to players whose rendered header or footer changed.
+     * 
+     * <p>Example:
+     * <pre>{@code
+     * api.setHeaderAndFooterTemplateForAll(
+     *     "§6§lMy Server\n§7Welcome %player%!",
+     *     "§7Players: %online%/%max_players% §8| §7Ping: %ping%ms"
+     * );
+     * }</pre>
+     * 
+     * @param header the header template, null to remove header
+     * @param footer the footer template, null to remove footer
+     * @since 0.0.4
+     * @see #registerPlaceholder(String, Function)
+     */
+    void setHeaderAndFooterTemplateForAll(@Nullable String header, @Nullable String footer);
+    
+    /**
+     * Registers a placeholder usable in header and footer templates.
+     * 
+     * <p>The resolver is called with the viewing player each time their
+     * templates are refreshed, so it should be cheap. Registering a key
+     * that already exists replaces the previous resolver. Keys are
+     * case-insensitive.
+     * 
+     * <p>Example:
+     * <pre>{@code
+     * api.registerPlaceholder("coins", player -> String.valueOf(economy.getCoins(player)));
+     * }</pre>
+     * 
+     * @param key the placeholder key without the surrounding {@code %}, must not be null
+     * @param resolver the function resolving the value for a viewer, must not be null
+     * @throws IllegalArgumentException if key or resolver is null
+     * @since 0.0.4
+     */
+    void registerPlaceholder(@NotNull String key, @NotNull Function<Player, String> resolver);
+    
+    /**
+     * Unregisters a placeholder.
+     * 
+     * <p>Templates that still reference the placeholder render it as
+     * its original {@code %key%} text.
+     * 
+     * @param key the placeholder key, must not be null
+     * @throws IllegalArgumentException if key is null
+     * @since 0.0.4
+     */
+    void unregisterPlaceholder(@NotNull String key);
+    
+    /**
+     * Plays an animated header and footer for all online players.
+     * 
+     * <p>Animations are defined in the {@code animations} section of the
+     * configuration. Frames are parsed and encoded once when the
+     * configuration is loaded, and a single task broadcasts the
+     * pre-encoded bytes of each frame to every viewer.
+     * 
+     * <p>Players joining later also see the animation until another
+     * header and footer is set for all players.
+     * 
+     * @param name the animation name, must not be null
+     * @return true if the animation exists and is now playing, false otherwise
+     * @throws IllegalArgumentException if name is null
+     * @since 0.0.4
+     * @see PlayerTabManager#playAnimation(String)
+     */
+    boolean playAnimationForAll(@NotNull String name);
+    
+    /**
+     * Sets the default rate at which cosmetic updates are sent to players.
+     * 
+     * <p>Players with a rate of their own, set through
+     * {@link PlayerTabManager#setUpdateRate(double, int)}, are not affected.
+     * The value is not saved to the configuration.
+     * 
+     * @param updatesPerSecond the number of updates released per second and per player, 0 or less to disable limiting
+     * @param burst the number of updates that can be sent at once
+     * @throws IllegalArgumentException if limiting is enabled and burst is less than 1
+     * @since 0.0.4
+     */
+    void setDefaultUpdateRate(double updatesPerSecond, int burst);
+    
+    /**
+     * Gets the runtime metrics of the tab list system.
+     * 
+     * <p>Metrics include packets sent per action type, encoded bytes,
+     * broadcast fan-out, join processing time, skin resolution latency,
+     * cache hit rates and packet interception time. They are also shown
+     * by the {@code /dreamintablist stats} command.
+     * 
+     * @return the metrics, never null
+     * @since 0.0.4
+     * @see TabListMetrics
+     */
+    @NotNull
+    TabListMetrics getMetrics();
+    
     /**
      * Gets the current number of players being managed by this API.
      * 
@@ -188,8 +311,10 @@ public interface TabListAPI {
      * <p>This will reload settings such as default tab visibility,
      * header/footer configuration, and other global settings.
      * 
-     * <p>Note: This operation may cause a brief interruption in
-     * tab list functionality as settings are reapplied.
+     * <p>The file is parsed off the main thread and applied on the next
+     * tick. Only the settings that changed are reapplied, so a reload
+     * leaving the file untouched sends no packet. A file that does not
+     * parse is ignored and the current settings are kept.
      * 
      * @since 0.0.1
      */
@@ -210,6 +335,71 @@ public interface TabListAPI {
      * @since 0.0.2
      */
     void setGlobalTabHidden(boolean value);
+    
+    /**
+     * Scopes the tab list per world.
+     * 
+     * <p>When enabled, players only see the players of their world, plus
+     * the global profiles not representing an online player. Players
+     * changing world only receive the entries that appear or disappear.
+     * 
+     * @param scoped true to scope the tab list per world
+     * @since 0.0.4
+     */
+    void setTabScopedPerWorld(boolean scoped);
+    
+    /**
+     * Checks if the tab list is scoped per world.
+     * 
+     * @return true if players only see the players of their world
+     * @since 0.0.4
+     */
+    boolean isTabScopedPerWorld();
+    
+    /**
+     * Limits the tab list to the players within a radius.
+     * 
+     * <p>When enabled, players only see the players within the radius,
+     * plus the global profiles not representing an online player. Ranges
+     * are updated every few ticks, and a player only leaves the range a
+     * few blocks past the radius.
+     * 
+     * @param radius the radius in blocks, or 0 to show players at any distance
+     * @throws IllegalArgumentException if the radius is negative
+     * @since 0.0.4
+     */
+    void setProximityRadius(double radius);
+    
+    /**
+     * Gets the radius the tab list is limited to.
+     * 
+     * @return the radius in blocks, or 0 if players are shown at any distance
+     * @since 0.0.4
+     */
+    double getProximityRadius();
+    
+    /**
+     * Synchronizes the global profiles with the other servers of the
+     * network, through a transport.
+     * 
+     * <p>Changes of the global profiles of this server are published every
+     * few ticks, and the profiles of the other servers are shown as global
+     * profiles. The previous transport is closed, and the profiles received
+     * through it are removed.
+     * 
+     * @param transport the transport, or null to stop synchronizing
+     * @since 0.0.4
+     */
+    void setSyncTransport(@Nullable SyncTransport transport);
+    
+    /**
+     * Gets the transport synchronizing the global profiles.
+     * 
+     * @return the transport, or null if the profiles are not synchronized
+     * @since 0.0.4
+     */
+    @Nullable
+    SyncTransport getSyncTransport();
 
 
 }
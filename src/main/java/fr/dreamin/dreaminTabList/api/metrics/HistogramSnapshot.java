@@ -0,0 +1,132 @@
+package fr.dreamin.dreaminTabList.api.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a histogram.
+ *
+ * <p>Values are counted in power-of-two buckets: bucket 0 holds the value
+ * 0 (and negative values), and bucket {@code i} holds values in
+ * {@code [2^(i-1), 2^i)}. Percentiles are therefore approximate and
+ * reported as the upper bound of their bucket, capped by the maximum.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class HistogramSnapshot {
+
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+    private final long[] buckets;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param count the number of recorded values
+     * @param sum the sum of recorded values
+     * @param min the smallest recorded value
+     * @param max the largest recorded value
+     * @param buckets the number of values per power-of-two bucket
+     */
+    public HistogramSnapshot(long count, long sum, long min, long max, @NotNull long[] buckets) {
+        if (buckets == null) throw new IllegalArgumentException("Buckets cannot be null");
+
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.buckets = buckets.clone();
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the value count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of recorded values.
+     *
+     * @return the value sum
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the smallest recorded value.
+     *
+     * @return the minimum, 0 if nothing was recorded
+     */
+    public long getMin() {
+        return count > 0 ? min : 0L;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return the maximum, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return count > 0 ? max : 0L;
+    }
+
+    /**
+     * Gets the mean of recorded values.
+     *
+     * @return the mean, 0 if nothing was recorded
+     */
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0D;
+    }
+
+    /**
+     * Gets an approximate percentile of recorded values.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the upper bound of the bucket holding the quantile, 0 if nothing was recorded
+     * @throws IllegalArgumentException if quantile is not between 0 and 1
+     */
+    public long percentile(double quantile) {
+        if (quantile < 0D || quantile > 1D) throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        if (count == 0) return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0L;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return Math.min(max, upperBound(i));
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of values per power-of-two bucket.
+     *
+     * @return a copy of the buckets
+     */
+    @NotNull
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{count=" + count + ", mean=" + getMean() + ", min=" + getMin() + ", max=" + getMax()
+            + ", buckets=" + Arrays.toString(buckets) + "}";
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket == 0) return 0L;
+        if (bucket >= 63) return Long.MAX_VALUE;
+        return (1L << bucket) - 1L;
+    }
+}
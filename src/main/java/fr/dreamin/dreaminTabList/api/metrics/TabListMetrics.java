@@ -0,0 +1,183 @@
+package fr.dreamin.dreaminTabList.api.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Read access to the runtime metrics of DreaminTabList.
+ *
+ * <p>Metrics are always recorded. Recording is lock-free and cheap enough
+ * to stay enabled in production. Two kinds of metrics exist:
+ * <ul>
+ *   <li><strong>Counters:</strong> monotonically increasing totals, such as
+ *   the number of packets sent per action type</li>
+ *   <li><strong>Histograms:</strong> distributions of values, such as the
+ *   time spent processing a join, bucketed by powers of two</li>
+ * </ul>
+ *
+ * <p>The unit of a histogram is the suffix of its name ({@code .ns},
+ * {@code .us}, {@code .ms} or {@code .bytes}), and counters of packets
+ * sent are suffixed by the packet kind ({@code add}, {@code update},
+ * {@code remove}, {@code listed}, {@code replace}, {@code header_footer},
+ * {@code raw}).
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * TabListMetrics metrics = api.getMetrics();
+ *
+ * long updates = metrics.getCounter(TabListMetrics.PACKETS_SENT + "update");
+ * HistogramSnapshot joins = metrics.getHistogram(TabListMetrics.JOIN_TIME);
+ * if (joins != null) getLogger().info("p99 join time: " + joins.percentile(0.99) + "us");
+ * }</pre>
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public interface TabListMetrics {
+
+    /**
+     * Prefix of the counters of packets sent, followed by the packet kind.
+     */
+    String PACKETS_SENT = "packets.sent.";
+
+    /**
+     * Prefix of the counters of tab entries sent, followed by the packet kind.
+     */
+    String ENTRIES_SENT = "entries.sent.";
+
+    /**
+     * Counter of cosmetic updates replaced by a newer value before being sent.
+     */
+    String UPDATES_COALESCED = "updates.coalesced";
+
+    /**
+     * Counter of cosmetic updates held back by the rate limit or backpressure.
+     */
+    String UPDATES_DEFERRED = "updates.deferred";
+
+    /**
+     * Counter of connections that exceeded their buffered byte cap.
+     */
+    String CONNECTION_OVERFLOWS = "connection.overflows";
+
+    /**
+     * Counter of packets dropped by overflowed connections.
+     */
+    String PACKETS_DROPPED = "packets.dropped";
+
+    /**
+     * Counter of bytes of tab packets encoded.
+     */
+    String BYTES_ENCODED = "bytes.encoded";
+
+    /**
+     * Histogram of encoded tab packet sizes, in bytes.
+     */
+    String PACKET_SIZE = "packet.size.bytes";
+
+    /**
+     * Histogram of the number of players reached by a broadcast.
+     */
+    String BROADCAST_FANOUT = "broadcast.fanout";
+
+    /**
+     * Histogram of the time spent registering a joining player, in microseconds.
+     */
+    String JOIN_TIME = "join.time.us";
+
+    /**
+     * Histogram of the time joining players waited to be admitted into the
+     * tab list, in milliseconds.
+     */
+    String ADMISSION_WAIT = "admission.wait.ms";
+
+    /**
+     * Histogram of the number of joining players admitted in the same tick.
+     */
+    String ADMISSION_BATCH = "admission.batch";
+
+    /**
+     * Histogram of the time spent resolving a skin, in milliseconds.
+     */
+    String SKIN_RESOLVE_TIME = "skin.resolve.time.ms";
+
+    /**
+     * Counter of skin resolutions that failed.
+     */
+    String SKIN_RESOLVE_FAILURES = "skin.resolve.failures";
+
+    /**
+     * Counter of external lookups that missed their deadline.
+     */
+    String LOOKUP_TIMEOUTS = "lookup.timeouts";
+
+    /**
+     * Prefix of counters of requests made to Mojang's servers, followed by
+     * the endpoint ({@code bulk} or {@code textures}).
+     */
+    String LOOKUP_REQUESTS = "lookup.requests.";
+
+    /**
+     * Prefix of cache hit counters, followed by the cache name.
+     */
+    String CACHE_HIT = "cache.hit.";
+
+    /**
+     * Prefix of cache miss counters, followed by the cache name.
+     */
+    String CACHE_MISS = "cache.miss.";
+
+    /**
+     * Histogram of the time spent intercepting outgoing tab packets, in nanoseconds.
+     */
+    String INTERCEPT_TIME = "intercept.time.ns";
+
+    /**
+     * Gets the value of a counter.
+     *
+     * @param name the counter name, must not be null
+     * @return the counter value, 0 if the counter was never incremented
+     * @throws IllegalArgumentException if name is null
+     * @since 0.0.4
+     */
+    long getCounter(@NotNull String name);
+
+    /**
+     * Gets the values of every counter.
+     *
+     * @return a sorted snapshot of the counters by name, never null
+     * @since 0.0.4
+     */
+    @NotNull
+    Map<String, Long> getCounters();
+
+    /**
+     * Gets a snapshot of a histogram.
+     *
+     * @param name the histogram name, must not be null
+     * @return the histogram snapshot, or null if nothing was recorded
+     * @throws IllegalArgumentException if name is null
+     * @since 0.0.4
+     */
+    @Nullable
+    HistogramSnapshot getHistogram(@NotNull String name);
+
+    /**
+     * Gets snapshots of every histogram.
+     *
+     * @return a sorted snapshot of the histograms by name, never null
+     * @since 0.0.4
+     */
+    @NotNull
+    Map<String, HistogramSnapshot> getHistograms();
+
+    /**
+     * Resets every counter and histogram to zero.
+     *
+     * @since 0.0.4
+     */
+    void reset();
+}
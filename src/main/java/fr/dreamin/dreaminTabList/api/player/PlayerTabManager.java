@@ -1,5 +1,6 @@
 package fr.dreamin.dreaminTabList.api.player;
 
+import fr.dreamin.dreaminTabList.api.TabListAPI;
 import fr.dreamin.dreaminTabList.api.profile.TabProfile;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
@@ -300,6 +301,87 @@ public interface PlayerTabManager {
     @Nullable
     Component getFooter();
     
+    /**
+     * Sets header and footer templates for this player.
+     * 
+     * <p>Templates support legacy color codes and placeholders written as
+     * {@code %key%}, such as {@code %player%}, {@code %ping%} or {@code %online%}.
+     * They are compiled once, rendered for this player and refreshed on the
+     * configured interval. A packet is only sent when the rendered text
+     * actually changes.
+     * 
+     * <p>Setting a template replaces any header or footer component
+     * previously set with {@link #setHeaderAndFooter(Component, Component)}.
+     * 
+     * @param header the header template, null to remove header
+     * @param footer the footer template, null to remove footer
+     * @since 0.0.4
+     * @see TabListAPI#registerPlaceholder(String, java.util.function.Function)
+     */
+    void setHeaderAndFooterTemplate(@Nullable String header, @Nullable String footer);
+    
+    /**
+     * Plays an animated header and footer for this player.
+     * 
+     * <p>Animations are defined in the {@code animations} section of the
+     * configuration. Their frames are encoded once and shared by every
+     * player watching the same animation. While an animation is playing,
+     * it replaces the static header and footer of this player.
+     * 
+     * @param name the animation name, must not be null
+     * @return true if the animation exists and is now playing, false otherwise
+     * @throws IllegalArgumentException if name is null
+     * @since 0.0.4
+     * @see #stopAnimation()
+     */
+    boolean playAnimation(@NotNull String name);
+    
+    /**
+     * Stops the animation played for this player.
+     * 
+     * <p>The static header and footer (or templates) set for this player
+     * are displayed again. Does nothing if no animation is playing.
+     * 
+     * @since 0.0.4
+     * @see #playAnimation(String)
+     */
+    void stopAnimation();
+    
+    /**
+     * Gets the name of the animation played for this player.
+     * 
+     * @return the animation name, or null if no animation is playing
+     * @since 0.0.4
+     */
+    @Nullable
+    String getAnimation();
+    
+    /**
+     * Sets the rate at which cosmetic updates are sent to this player.
+     * 
+     * <p>Cosmetic updates (display name, latency, game mode, hat and list
+     * order) beyond this rate are held back, only the latest value of
+     * each profile being kept, and released as the budget refills.
+     * Additions and removals are never delayed.
+     * 
+     * <p>This overrides the {@code rate-limit} configuration for this
+     * player until {@link #resetUpdateRate()} is called.
+     * 
+     * @param updatesPerSecond the number of updates released per second, 0 or less to disable limiting
+     * @param burst the number of updates that can be sent at once
+     * @throws IllegalArgumentException if limiting is enabled and burst is less than 1
+     * @since 0.0.4
+     */
+    void setUpdateRate(double updatesPerSecond, int burst);
+    
+    /**
+     * Resets the cosmetic update rate of this player to the configured default.
+     * 
+     * @since 0.0.4
+     * @see #setUpdateRate(double, int)
+     */
+    void resetUpdateRate();
+    
     /**
      * Resets the tab to vanilla Minecraft behavior for this player.
      * 
@@ -128,9 +128,12 @@ public interface TabProfile {
      * Gets the sort order of this profile.
      * 
      * <p>Profiles are sorted in the tab list based on this value.
-     * Lower values appear higher in the list. Profiles with the
+     * Higher values appear higher in the list. Profiles with the
      * same sort order are sorted alphabetically by name.
      * 
+     * <p>When automatic sorting is enabled, global profiles carry the
+     * order derived from their rank instead.
+     * 
      * @return the sort order value
      * @since 0.0.1
      */
@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Builder for creating and modifying TabProfile instances.
@@ -136,7 +137,7 @@ public interface TabProfileBuilder {
     /**
      * Sets the sort order of the profile.
      * 
-     * <p>Lower values appear higher in the tab list. Profiles with
+     * <p>Higher values appear higher in the tab list. Profiles with
      * the same sort order are sorted alphabetically by name.
      * 
      * @param order the sort order value
@@ -198,6 +199,45 @@ public interface TabProfileBuilder {
      */
     @NotNull
     TabProfileBuilder skinFromPlayer(@NotNull String playerName);
+
+    /**
+     * Sets the skin of the profile by copying from an online player, without
+     * blocking the calling thread.
+     * 
+     * <p>The skin is fetched on a background thread shared by the plugin,
+     * which limits the number of concurrent requests to Mojang's servers.
+     * The lookup is cancelled if the player quits before it completes.
+     * The builder must not be modified until the returned future completes.
+     * 
+     * @param player the player to copy the skin from, must not be null and must be online
+     * @return a future completed with this builder once the skin is set, or
+     *         exceptionally if the skin cannot be fetched in time
+     * @throws IllegalArgumentException if player is null or not online
+     * @since 0.0.4
+     */
+    @NotNull
+    CompletableFuture<TabProfileBuilder> skinFromPlayerAsync(@NotNull Player player);
+
+    /**
+     * Sets the skin of the profile by player name, without blocking the
+     * calling thread.
+     * 
+     * <p>The skin is fetched on a background thread shared by the plugin,
+     * which limits the number of concurrent requests to Mojang's servers.
+     * Names requested at about the same time, for example while building
+     * a roster of profiles, are resolved together in bulk requests.
+     * The builder must not be modified until the returned future completes.
+     * 
+     * @param playerName the player name to get skin from, must not be null
+     * @return a future completed with this builder once the skin is set, or
+     *         exceptionally with an {@link InvalidProfileException} if the skin
+     *         cannot be fetched, or a {@link java.util.concurrent.TimeoutException}
+     *         if it is not fetched in time
+     * @throws IllegalArgumentException if playerName is null or invalid
+     * @since 0.0.4
+     */
+    @NotNull
+    CompletableFuture<TabProfileBuilder> skinFromPlayerAsync(@NotNull String playerName);
     
     /**
      * Sets a custom skin for the profile.
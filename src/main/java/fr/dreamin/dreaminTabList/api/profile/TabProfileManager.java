@@ -34,7 +34,7 @@ import java.util.function.Predicate;
  *     .displayName(Component.text("§c[BOT] §fServer"))
  *     .gameMode(GameMode.CREATIVE)
  *     .latency(0)
- *     .sortOrder(-100)  // Appears at top
+ *     .sortOrder(100)  // Appears at top
  *     .build();
  * 
  * manager.addGlobalProfile(staff);
@@ -275,5 +275,108 @@ public interface TabProfileManager {
      * @since 0.0.1
      */
     void refreshGlobalProfiles();
+    
+    /**
+     * Enables or disables automatic sorting of global profiles.
+     * 
+     * <p>When enabled, global profiles are ranked by the weight of their
+     * group, then their score, both in descending order, then their name.
+     * Their sort order is derived from that rank, replacing the one they
+     * were built with. A profile changing rank usually gets a new order
+     * while the others keep theirs, so only its entry is sent again.
+     * Disabling it keeps the current orders.
+     * 
+     * @param enabled true to derive sort orders automatically
+     * @since 0.0.4
+     */
+    void setAutoSortEnabled(boolean enabled);
+    
+    /**
+     * Checks if global profiles are sorted automatically.
+     * 
+     * @return true if sort orders are derived automatically
+     * @since 0.0.4
+     */
+    boolean isAutoSortEnabled();
+    
+    /**
+     * Sets the weight of a group for automatic sorting.
+     * 
+     * <p>Profiles of heavier groups appear first. Groups have a weight
+     * of 0 until set.
+     * 
+     * @param group the group name, must not be null
+     * @param weight the group weight
+     * @throws IllegalArgumentException if group is null
+     * @since 0.0.4
+     */
+    void setGroupWeight(@NotNull String group, int weight);
+    
+    /**
+     * Gets the weight of a group for automatic sorting.
+     * 
+     * @param group the group name, must not be null
+     * @return the group weight, 0 if never set
+     * @throws IllegalArgumentException if group is null
+     * @since 0.0.4
+     */
+    int getGroupWeight(@NotNull String group);
+    
+    /**
+     * Sets the score of a profile for automatic sorting.
+     * 
+     * <p>Within a group, profiles with a higher score appear first.
+     * The score may be set before the profile is added, and is
+     * forgotten when it is removed.
+     * 
+     * @param profileId the UUID of the profile, must not be null
+     * @param score the profile score
+     * @throws IllegalArgumentException if profileId is null
+     * @since 0.0.4
+     */
+    void setScore(@NotNull UUID profileId, int score);
+    
+    /**
+     * Gets the score of a profile for automatic sorting.
+     * 
+     * @param profileId the UUID of the profile, must not be null
+     * @return the profile score, 0 if never set
+     * @throws IllegalArgumentException if profileId is null
+     * @since 0.0.4
+     */
+    int getScore(@NotNull UUID profileId);
+    
+    /**
+     * Sets the display name template of a profile.
+     * 
+     * <p>The template is written in MiniMessage, or with legacy color
+     * codes (§), and references placeholders as {@code %key%}:
+     * {@code %name%}, {@code %ping%} and {@code %group%} are read from
+     * the profile, any other placeholder is resolved for the player the
+     * profile belongs to through the placeholder registry. The template
+     * is compiled once, and the display name is only sent again when
+     * its rendered output changes.
+     * 
+     * <p>The template may be set before the profile is added, and is
+     * forgotten when it is removed. It replaces the default template
+     * of the configuration for a player's profile.
+     * 
+     * @param profileId the UUID of the profile, must not be null
+     * @param template the template, or null to keep the last rendered name
+     * @throws IllegalArgumentException if profileId is null
+     * @since 0.0.4
+     */
+    void setDisplayNameTemplate(@NotNull UUID profileId, @Nullable String template);
+    
+    /**
+     * Gets the display name template of a profile.
+     * 
+     * @param profileId the UUID of the profile, must not be null
+     * @return the template, or null if none was set for this profile
+     * @throws IllegalArgumentException if profileId is null
+     * @since 0.0.4
+     */
+    @Nullable
+    String getDisplayNameTemplate(@NotNull UUID profileId);
 }
 
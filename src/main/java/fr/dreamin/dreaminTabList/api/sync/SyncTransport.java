@@ -0,0 +1,76 @@
+package fr.dreamin.dreaminTabList.api.sync;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries tab synchronization messages between the servers of a network.
+ * 
+ * <p>Each server publishes the changes of its global profiles as compact
+ * binary messages, and applies the messages of the other servers as global
+ * profiles. A transport only moves the bytes: it may be backed by plugin
+ * messaging through the proxy, a publish/subscribe broker or sockets.
+ * 
+ * <p>Messages may be delivered on any thread, duplicated, or delivered
+ * back to their sender; they are ignored in that case. Messages lost in
+ * transit are detected and resent in full.
+ * 
+ * <p>Example usage:
+ * <pre>{@code
+ * api.setSyncTransport(new SyncTransport() {
+ *     public void publish(byte[] message) {
+ *         redis.publish("tab", message);
+ *     }
+ * 
+ *     public void subscribe(Consumer<byte[]> receiver) {
+ *         redis.subscribe("tab", receiver);
+ *     }
+ * });
+ * }</pre>
+ * 
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public interface SyncTransport {
+    
+    /**
+     * Sends a message to every other server of the network.
+     * 
+     * @param message the encoded message, must not be modified
+     * @since 0.0.4
+     */
+    void publish(@NotNull byte[] message);
+    
+    /**
+     * Starts delivering the messages of the other servers.
+     * 
+     * <p>Called once, when the transport is installed.
+     * 
+     * @param receiver the receiver of the messages, may be called from any thread
+     * @since 0.0.4
+     */
+    void subscribe(@NotNull Consumer<byte[]> receiver);
+    
+    /**
+     * Gets the largest message the transport can carry. Larger batches of
+     * changes are split across several messages.
+     * 
+     * @return the maximum message size in bytes
+     * @since 0.0.4
+     */
+    default int getMaxMessageSize() {
+        return Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Stops delivering messages and releases the resources of the transport.
+     * 
+     * <p>Called when the transport is replaced or the plugin is disabled.
+     * 
+     * @since 0.0.4
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,133 @@
+package fr.dreamin.dreaminTabList.api.visibility;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Manages which global profiles each player sees, by group.
+ * 
+ * <p>Visibility is declared with rules mapping a viewer attribute to the
+ * profile groups it reveals. A group named by at least one rule is
+ * restricted: its profiles are only shown to viewers holding an attribute
+ * whose rule names it. Groups named by no rule, and profiles without
+ * group, stay visible to everyone. Players always see their own profile.
+ * 
+ * <p>Changing a rule or the attributes of a viewer only sends the profiles
+ * that appear or disappear, to the affected viewers. Player-specific
+ * profiles are not subject to the rules.
+ * 
+ * <p>Example usage:
+ * <pre>{@code
+ * VisibilityManager visibility = api.getVisibilityManager();
+ * 
+ * // Only staff members see the profiles of the "vanished" group
+ * visibility.setRule("staff", Set.of("vanished"));
+ * 
+ * visibility.addViewerAttribute(moderator.getUniqueId(), "staff");
+ * }</pre>
+ * 
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public interface VisibilityManager {
+    
+    /**
+     * Sets the profile groups revealed by a viewer attribute, replacing
+     * the previous rule of that attribute.
+     * 
+     * <p>An empty collection removes the rule.
+     * 
+     * @param attribute the viewer attribute, must not be null
+     * @param groups the profile groups revealed, must not be null
+     * @throws IllegalArgumentException if attribute or groups is null
+     * @since 0.0.4
+     */
+    void setRule(@NotNull String attribute, @NotNull Collection<String> groups);
+    
+    /**
+     * Removes the rule of a viewer attribute.
+     * 
+     * @param attribute the viewer attribute, must not be null
+     * @throws IllegalArgumentException if attribute is null
+     * @since 0.0.4
+     */
+    void removeRule(@NotNull String attribute);
+    
+    /**
+     * Gets the profile groups revealed by a viewer attribute.
+     * 
+     * @param attribute the viewer attribute, must not be null
+     * @return the revealed groups, empty if the attribute has no rule
+     * @throws IllegalArgumentException if attribute is null
+     * @since 0.0.4
+     */
+    @NotNull
+    Set<String> getRule(@NotNull String attribute);
+    
+    /**
+     * Removes every rule, showing every profile to everyone.
+     * 
+     * @since 0.0.4
+     */
+    void clearRules();
+    
+    /**
+     * Sets the attributes of a viewer, replacing the previous ones.
+     * 
+     * <p>Attributes may be set before the player joins, and are
+     * forgotten when they leave.
+     * 
+     * @param viewer the UUID of the viewer, must not be null
+     * @param attributes the viewer attributes, must not be null
+     * @throws IllegalArgumentException if viewer or attributes is null
+     * @since 0.0.4
+     */
+    void setViewerAttributes(@NotNull UUID viewer, @NotNull Collection<String> attributes);
+    
+    /**
+     * Adds an attribute to a viewer.
+     * 
+     * @param viewer the UUID of the viewer, must not be null
+     * @param attribute the attribute to add, must not be null
+     * @throws IllegalArgumentException if viewer or attribute is null
+     * @since 0.0.4
+     */
+    void addViewerAttribute(@NotNull UUID viewer, @NotNull String attribute);
+    
+    /**
+     * Removes an attribute from a viewer.
+     * 
+     * @param viewer the UUID of the viewer, must not be null
+     * @param attribute the attribute to remove, must not be null
+     * @throws IllegalArgumentException if viewer or attribute is null
+     * @since 0.0.4
+     */
+    void removeViewerAttribute(@NotNull UUID viewer, @NotNull String attribute);
+    
+    /**
+     * Gets the attributes of a viewer.
+     * 
+     * @param viewer the UUID of the viewer, must not be null
+     * @return the viewer attributes, empty if none
+     * @throws IllegalArgumentException if viewer is null
+     * @since 0.0.4
+     */
+    @NotNull
+    Set<String> getViewerAttributes(@NotNull UUID viewer);
+    
+    /**
+     * Checks if a viewer sees a global profile under the current rules.
+     * 
+     * @param viewer the UUID of the viewer, must not be null
+     * @param profile the profile, must not be null
+     * @return true if the profile is visible to the viewer
+     * @throws IllegalArgumentException if viewer or profile is null
+     * @since 0.0.4
+     */
+    boolean canSee(@NotNull UUID viewer, @NotNull TabProfile profile);
+}
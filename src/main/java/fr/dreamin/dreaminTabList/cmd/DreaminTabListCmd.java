@@ -1,7 +1,16 @@
 package fr.dreamin.dreaminTabList.cmd;
 
+import com.github.retrooper.packetevents.PacketEvents;
 import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.api.metrics.HistogramSnapshot;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.event.packet.PacketRecorder;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.audit.AuditLog;
+import fr.dreamin.dreaminTabList.impl.audit.AuditRecord;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -10,10 +19,20 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class DreaminTabListCmd implements CommandExecutor, TabExecutor {
+
+  private static final int DEFAULT_RECORDING_SIZE_MB = 64;
+  private static final int AUDIT_LINES = 10;
+  private static final DateTimeFormatter RECORDING_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
   @Override
   public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String @NotNull [] args) {
     Player player = (Player) sender;
@@ -21,9 +40,32 @@ public class DreaminTabListCmd implements CommandExecutor, TabExecutor {
     switch (args[0]) {
       case "reload" -> {
         player.sendMessage(Component.text("Reload en cours"));
-        DreaminTabList.getCodex().refresh();
+        if (DreaminTabList.getInstance().isAPIAvailable()) DreaminTabList.getInstance().getAPI().reloadConfiguration();
+        else DreaminTabList.getCodex().refresh();
         player.sendMessage(Component.text("Reload effectué"));
       }
+      case "stats" -> {
+        TabListMetrics metrics = MetricsRegistry.global();
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+          metrics.reset();
+          player.sendMessage(Component.text("Statistiques réinitialisées"));
+        } else {
+          sendStats(player, metrics);
+        }
+      }
+      case "record" -> {
+        if (args.length > 1 && args[1].equalsIgnoreCase("stop")) stopRecording(player);
+        else startRecording(player, args.length > 2 ? args[2] : null);
+      }
+      case "audit" -> {
+        if (!DreaminTabList.getInstance().isAPIAvailable()) {
+          player.sendMessage(Component.text("API indisponible", NamedTextColor.RED));
+        } else if (args.length > 1 && args[1].equalsIgnoreCase("dump")) {
+          dumpAudit(player, ((TabListAPIImpl) DreaminTabList.getInstance().getAPI()).getAuditLog());
+        } else {
+          sendAudit(player, ((TabListAPIImpl) DreaminTabList.getInstance().getAPI()).getAuditLog());
+        }
+      }
       default -> throw new IllegalStateException("Unexpected value: " + args[0]);
     }
 
@@ -36,8 +78,97 @@ public class DreaminTabListCmd implements CommandExecutor, TabExecutor {
 
     Player player = (Player) sender;
 
-    if (player.isOp()) result.add("reload");
+    if (!player.isOp()) return result;
+
+    if (args.length <= 1) {
+      result.add("reload");
+      result.add("stats");
+      result.add("record");
+      result.add("audit");
+    } else if (args.length == 2 && args[0].equals("audit")) {
+      result.add("dump");
+    } else if (args.length == 2 && args[0].equals("stats")) {
+      result.add("reset");
+    } else if (args.length == 2 && args[0].equals("record")) {
+      result.add(PacketRecorder.current() == null ? "start" : "stop");
+    }
 
     return result;
   }
+
+  private void startRecording(@NotNull CommandSender sender, @Nullable String maxSizeMb) {
+    String fileName = "tab-" + LocalDateTime.now().format(RECORDING_NAME) + ".dtlr";
+    Path path = DreaminTabList.getInstance().getDataFolder().toPath().resolve("recordings").resolve(fileName);
+    int protocolVersion = PacketEvents.getAPI().getServerManager().getVersion().getProtocolVersion();
+
+    try {
+      int sizeMb = maxSizeMb != null ? Integer.parseInt(maxSizeMb) : DEFAULT_RECORDING_SIZE_MB;
+      PacketRecorder.start(path, Math.multiplyExact(sizeMb, 1024 * 1024), protocolVersion);
+      sender.sendMessage(Component.text("Enregistrement démarré : " + path.getFileName(), NamedTextColor.GREEN));
+    } catch (IllegalStateException | IllegalArgumentException | ArithmeticException e) {
+      sender.sendMessage(Component.text("Impossible de démarrer l'enregistrement : " + e.getMessage(), NamedTextColor.RED));
+    } catch (IOException e) {
+      DreaminTabList.getInstance().getLogger().warning("Failed to start packet recording: " + e.getMessage());
+      sender.sendMessage(Component.text("Impossible de créer le fichier d'enregistrement", NamedTextColor.RED));
+    }
+  }
+
+  private void stopRecording(@NotNull CommandSender sender) {
+    try {
+      PacketRecorder recorder = PacketRecorder.stop();
+      if (recorder == null) {
+        sender.sendMessage(Component.text("Aucun enregistrement en cours", NamedTextColor.RED));
+        return;
+      }
+
+      sender.sendMessage(Component.text(String.format("Enregistrement arrêté : %s (%d paquets, %d ignorés, %d Ko)",
+        recorder.getPath().getFileName(), recorder.getRecordedCount(), recorder.getDroppedCount(), recorder.getSize() / 1024),
+        NamedTextColor.GREEN));
+    } catch (IOException e) {
+      DreaminTabList.getInstance().getLogger().warning("Failed to finalize packet recording: " + e.getMessage());
+      sender.sendMessage(Component.text("Impossible de finaliser l'enregistrement", NamedTextColor.RED));
+    }
+  }
+
+  private void sendAudit(@NotNull CommandSender sender, @NotNull AuditLog auditLog) {
+    List<AuditRecord> records = auditLog.snapshot();
+    sender.sendMessage(Component.text("Dernières opérations (" + records.size() + " en mémoire)", NamedTextColor.GOLD));
+
+    for (AuditRecord record : records.subList(Math.max(0, records.size() - AUDIT_LINES), records.size())) {
+      sender.sendMessage(Component.text(record.type().getKey() + " ", NamedTextColor.GRAY)
+        .append(Component.text(String.format("%s viewers=%d %dµs",
+          record.name() != null ? record.name() : "-", record.viewers(), record.durationNanos() / 1_000L), NamedTextColor.WHITE)));
+    }
+  }
+
+  private void dumpAudit(@NotNull CommandSender sender, @NotNull AuditLog auditLog) {
+    String fileName = "dump-" + LocalDateTime.now().format(RECORDING_NAME) + ".log";
+    Path path = DreaminTabList.getInstance().getDataFolder().toPath().resolve("audit").resolve(fileName);
+
+    try {
+      int count = auditLog.dump(path);
+      sender.sendMessage(Component.text("Audit exporté : " + path.getFileName() + " (" + count + " opérations)", NamedTextColor.GREEN));
+    } catch (IOException e) {
+      DreaminTabList.getInstance().getLogger().warning("Failed to dump the audit log: " + e.getMessage());
+      sender.sendMessage(Component.text("Impossible d'exporter l'audit", NamedTextColor.RED));
+    }
+  }
+
+  private void sendStats(@NotNull CommandSender sender, @NotNull TabListMetrics metrics) {
+    sender.sendMessage(Component.text("DreaminTabList stats", NamedTextColor.GOLD));
+
+    for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+      if (counter.getValue() == 0) continue;
+      sender.sendMessage(Component.text(counter.getKey() + ": ", NamedTextColor.GRAY)
+        .append(Component.text(counter.getValue(), NamedTextColor.WHITE)));
+    }
+
+    for (Map.Entry<String, HistogramSnapshot> entry : metrics.getHistograms().entrySet()) {
+      HistogramSnapshot histogram = entry.getValue();
+      sender.sendMessage(Component.text(entry.getKey() + ": ", NamedTextColor.GRAY)
+        .append(Component.text(String.format("n=%d mean=%.1f p50=%d p99=%d max=%d",
+          histogram.getCount(), histogram.getMean(), histogram.percentile(0.5), histogram.percentile(0.99), histogram.getMax()),
+          NamedTextColor.WHITE)));
+    }
+  }
 }
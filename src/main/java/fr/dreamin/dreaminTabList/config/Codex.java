@@ -1,14 +1,32 @@
 package fr.dreamin.dreaminTabList.config;
 
 import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.config.animation.HeaderFooterAnimation;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.audit.AuditLog;
+import fr.dreamin.dreaminTabList.impl.concurrent.LookupExecutor;
+import fr.dreamin.dreaminTabList.impl.header.HeaderFooterTemplate;
+import fr.dreamin.dreaminTabList.impl.network.UpdateRate;
+import fr.dreamin.dreaminTabList.impl.player.JoinAdmissionQueue;
+import fr.dreamin.dreaminTabList.impl.profile.DisplayNameRenderer;
+import fr.dreamin.dreaminTabList.impl.store.ProfileStore;
+import fr.dreamin.dreaminTabList.impl.sync.ProfileReplicator;
+import fr.dreamin.dreaminTabList.impl.visibility.ProximityTracker;
 import lombok.Getter;
 import lombok.Setter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Configuration manager for the DreaminTabList plugin.
@@ -22,9 +40,23 @@ import java.util.List;
  * <ul>
  *   <li><strong>hide-tab:</strong> Whether to hide the tab list for all players by default</li>
  *   <li><strong>hide-player-join:</strong> Whether to hide new players when they join</li>
+ *   <li><strong>world-scoping:</strong> Whether players only see the players of their world</li>
  *   <li><strong>header-footer.enabled:</strong> Whether to enable custom header and footer</li>
+ *   <li><strong>header-footer.update-interval:</strong> Ticks between placeholder refreshes</li>
+ *   <li><strong>header-footer.animation:</strong> Animation played for all players, if any</li>
+ *   <li><strong>animations:</strong> Animated header/footer frame sequences</li>
  *   <li><strong>header-footer.header:</strong> List of header lines</li>
  *   <li><strong>header-footer.footer:</strong> List of footer lines</li>
+ *   <li><strong>rate-limit:</strong> Per-player budget of cosmetic tab updates</li>
+ *   <li><strong>backpressure.max-buffered-bytes:</strong> Bytes buffered per player before tab packets are dropped</li>
+ *   <li><strong>lookups:</strong> Concurrency cap and deadline of skin and profile lookups</li>
+ *   <li><strong>admission:</strong> Per-tick budget of admitting joining players into the tab list</li>
+ *   <li><strong>proximity:</strong> Radius players are shown within, and how often ranges are updated</li>
+ *   <li><strong>sync:</strong> Synchronization of the global profiles across the servers of the network</li>
+ *   <li><strong>persistence:</strong> Storage of the global profiles across restarts</li>
+ *   <li><strong>display-name:</strong> Display name template of the players, and how often it is rendered</li>
+ *   <li><strong>audit:</strong> Sampling, memory and file of the tab operation records, and the console summaries</li>
+ *   <li><strong>auto-reload:</strong> Whether edits of the configuration file are applied automatically</li>
  * </ul>
  *
  * <p>Example configuration:
@@ -33,6 +65,7 @@ import java.util.List;
  * hide-player-join: false
  * header-footer:
  *   enabled: true
+ *   update-interval: 20
  *   header:
  *     - "§6§lMy Server"
  *     - "§7Welcome to our community!"
@@ -84,6 +117,11 @@ public class Codex {
   @Getter
   private boolean hidePlayerJoin;
 
+  /**
+   * Whether players only see the players of their world.
+   */
+  private boolean worldScoping;
+
   /**
    * Whether custom header and footer are enabled.
    * -- GETTER --
@@ -111,6 +149,181 @@ public class Codex {
    */
   private Component footers = Component.empty();
 
+  /**
+   * The compiled header template.
+   *
+   * <p>The template is compiled once from the configured header lines and
+   * rendered per player, resolving placeholders such as {@code %player%}.
+   */
+  private HeaderFooterTemplate headerTemplate = HeaderFooterTemplate.compile("");
+
+  /**
+   * The compiled footer template.
+   *
+   * <p>The template is compiled once from the configured footer lines and
+   * rendered per player, resolving placeholders such as {@code %online%}.
+   */
+  private HeaderFooterTemplate footerTemplate = HeaderFooterTemplate.compile("");
+
+  /**
+   * The number of ticks between two placeholder refreshes of the
+   * header and footer templates. A value of 0 disables refreshing.
+   */
+  private long headerFooterUpdateInterval = 20L;
+
+  /**
+   * The default rate at which cosmetic tab updates are sent to each player.
+   */
+  private UpdateRate updateRate = UpdateRate.UNLIMITED;
+
+  /**
+   * The maximum number of bytes waiting in a player's channel before tab
+   * packets are dropped and the player is resynchronized once it drained.
+   * A value of 0 disables the cap.
+   */
+  private long maxBufferedBytes = 262144L;
+
+  /**
+   * The maximum number of skin and profile lookups running at once.
+   */
+  private int lookupMaxConcurrent = LookupExecutor.DEFAULT_MAX_CONCURRENT;
+
+  /**
+   * The time allowed for a skin or profile lookup, waiting included.
+   */
+  private Duration lookupTimeout = LookupExecutor.DEFAULT_TIMEOUT;
+
+  /**
+   * The maximum number of tab packets sent per tick to admit joining
+   * players. A value of 0 disables the limit.
+   */
+  private int admissionMaxPacketsPerTick = JoinAdmissionQueue.DEFAULT_MAX_PACKETS_PER_TICK;
+
+  /**
+   * The time spent per tick admitting joining players. Zero disables the limit.
+   */
+  private Duration admissionTimeBudget = JoinAdmissionQueue.DEFAULT_TIME_BUDGET;
+
+  /**
+   * Whether players only see the players within the proximity radius.
+   */
+  private boolean proximityEnabled;
+
+  /**
+   * The radius players are seen within, in blocks.
+   */
+  private double proximityRadius = ProximityTracker.DEFAULT_RADIUS;
+
+  /**
+   * The margin past the radius before a player leaves the range, in blocks.
+   */
+  private double proximityHysteresis = ProximityTracker.DEFAULT_HYSTERESIS;
+
+  /**
+   * The number of ticks between two proximity range updates.
+   */
+  private int proximityInterval = ProximityTracker.DEFAULT_INTERVAL;
+
+  /**
+   * Whether global profiles are synchronized across the network.
+   */
+  private boolean syncEnabled;
+
+  /**
+   * The id of this server in the network. A random one is used when
+   * none is configured.
+   */
+  private String syncServerId = UUID.randomUUID().toString();
+
+  /**
+   * The plugin messaging subchannel shared by the servers of the network.
+   */
+  private String syncChannel = "DreaminTabList";
+
+  /**
+   * The number of ticks between two published profile changes.
+   */
+  private int syncInterval = ProfileReplicator.DEFAULT_INTERVAL;
+
+  /**
+   * Whether global profiles are stored across restarts.
+   */
+  private boolean persistenceEnabled;
+
+  /**
+   * The directory holding the stored profiles, relative to the plugin folder.
+   */
+  private String persistenceDirectory = "profiles";
+
+  /**
+   * The number of ticks between two writes of the profile changes.
+   */
+  private int persistenceInterval = ProfileStore.DEFAULT_INTERVAL;
+
+  /**
+   * The display name template of the players, or null to keep their names.
+   */
+  private String displayNameTemplate;
+
+  /**
+   * The number of ticks between two renders of the display names.
+   */
+  private int displayNameInterval = DisplayNameRenderer.DEFAULT_INTERVAL;
+
+  /**
+   * The number of tab operation records kept in memory.
+   */
+  private int auditCapacity = AuditLog.DEFAULT_CAPACITY;
+
+  /**
+   * One tab operation out of this many of each type is recorded.
+   */
+  private int auditSampleEvery = 1;
+
+  /**
+   * The number of ticks between two activity summaries in the console, 0 to disable them.
+   */
+  private long auditSummaryInterval = AuditLog.DEFAULT_SUMMARY_INTERVAL;
+
+  /**
+   * Whether the tab operation records are streamed to a file.
+   */
+  private boolean auditFileEnabled;
+
+  /**
+   * The directory of the audit file, relative to the plugin folder.
+   */
+  private String auditDirectory = "audit";
+
+  /**
+   * The size in bytes the audit file is rotated at.
+   */
+  private long auditMaxFileBytes = 10L * 1024L * 1024L;
+
+  /**
+   * The number of rotated audit files kept.
+   */
+  private int auditMaxFiles = 5;
+
+  /**
+   * Whether the configuration file is watched and reloaded when edited.
+   */
+  private boolean autoReload;
+
+  /**
+   * The animations loaded from the configuration, by name.
+   *
+   * <p>Frames are parsed and encoded once when the configuration is
+   * loaded, so playing an animation never serializes components.
+   */
+  private Map<String, HeaderFooterAnimation> animations = Collections.emptyMap();
+
+  /**
+   * The name of the animation played for all players, or null if the
+   * configured header and footer templates are used instead.
+   */
+  private String defaultAnimation;
+
   /**
    * Creates a new configuration manager.
    *
@@ -129,6 +342,26 @@ public class Codex {
     refresh();
   }
 
+  /**
+   * Creates a configuration manager from an already loaded configuration.
+   *
+   * <p>The settings are parsed but not applied to the players, so a
+   * reloaded configuration can be parsed off the main thread and later
+   * {@linkplain #adopt(Codex, ConfigDiff) adopted} by the active one.
+   *
+   * @param instance the plugin instance, must not be null
+   * @param config the loaded configuration, must not be null
+   * @throws IllegalArgumentException if instance or config is null
+   */
+  public Codex(@NotNull DreaminTabList instance, @NotNull FileConfiguration config) {
+    if (instance == null) throw new IllegalArgumentException("Plugin instance cannot be null");
+    if (config == null) throw new IllegalArgumentException("Configuration cannot be null");
+
+    this.instance = instance;
+    this.config = config;
+    initGlobal();
+  }
+
   /**
    * Refreshes the configuration by reloading the file and applying changes.
    *
@@ -146,6 +379,9 @@ public class Codex {
     reloadConfigFile();
     initGlobal();
 
+    // Apply settings to all online players
+    updateAllPlayer();
+
     instance.getLogger().info("Configuration refreshed successfully");
   }
 
@@ -162,20 +398,172 @@ public class Codex {
     instance.getLogger().fine("Configuration file reloaded");
   }
 
+  /**
+   * Takes the settings of a configuration parsed off the main thread.
+   *
+   * <p>Animations are only replaced when they changed, so the ones playing
+   * keep their encoded frames; the animations left unused are released
+   * once the animation broadcaster no longer sends them.
+   * Settings only read when the plugin starts, such as the lookup limits,
+   * the network synchronization transport and the profile storage, keep
+   * their current values until the next restart.
+   *
+   * @param parsed the parsed configuration
+   * @param diff the settings that differ from this configuration
+   */
+  public void adopt(@NotNull Codex parsed, @NotNull ConfigDiff diff) {
+    if (parsed == null) throw new IllegalArgumentException("Parsed configuration cannot be null");
+    if (diff == null) throw new IllegalArgumentException("Diff cannot be null");
+
+    this.config = parsed.config;
+    this.hideTab = parsed.hideTab;
+    this.hidePlayerJoin = parsed.hidePlayerJoin;
+    this.worldScoping = parsed.worldScoping;
+    this.headerFooterEnabled = parsed.headerFooterEnabled;
+    this.headerFooterUpdateInterval = parsed.headerFooterUpdateInterval;
+    this.headers = parsed.headers;
+    this.footers = parsed.footers;
+    this.headerTemplate = parsed.headerTemplate;
+    this.footerTemplate = parsed.footerTemplate;
+    this.updateRate = parsed.updateRate;
+    this.maxBufferedBytes = parsed.maxBufferedBytes;
+    this.admissionMaxPacketsPerTick = parsed.admissionMaxPacketsPerTick;
+    this.admissionTimeBudget = parsed.admissionTimeBudget;
+    this.proximityEnabled = parsed.proximityEnabled;
+    this.proximityRadius = parsed.proximityRadius;
+    this.proximityHysteresis = parsed.proximityHysteresis;
+    this.proximityInterval = parsed.proximityInterval;
+    this.syncInterval = parsed.syncInterval;
+    this.persistenceInterval = parsed.persistenceInterval;
+    this.displayNameTemplate = parsed.displayNameTemplate;
+    this.displayNameInterval = parsed.displayNameInterval;
+    this.auditCapacity = parsed.auditCapacity;
+    this.auditSampleEvery = parsed.auditSampleEvery;
+    this.auditSummaryInterval = parsed.auditSummaryInterval;
+    this.auditFileEnabled = parsed.auditFileEnabled;
+    this.auditDirectory = parsed.auditDirectory;
+    this.auditMaxFileBytes = parsed.auditMaxFileBytes;
+    this.auditMaxFiles = parsed.auditMaxFiles;
+    this.autoReload = parsed.autoReload;
+    this.defaultAnimation = parsed.defaultAnimation;
+
+    if (diff.changed("animations")) {
+      Map<String, HeaderFooterAnimation> previous = this.animations;
+      this.animations = parsed.animations;
+      retireAnimations(previous);
+    } else {
+      parsed.releaseAnimations();
+    }
+  }
+
+  /**
+   * Releases the encoded frames of the animations, once this configuration
+   * is discarded.
+   */
+  void releaseAnimations() {
+    animations.values().forEach(HeaderFooterAnimation::release);
+  }
+
+  /**
+   * Releases replaced animations, once the animation broadcaster can no
+   * longer be sending their frames. They are released at once when the
+   * API is not running.
+   *
+   * @param replaced the replaced animations
+   */
+  private void retireAnimations(Map<String, HeaderFooterAnimation> replaced) {
+    if (replaced.isEmpty()) return;
+
+    if (instance.isAPIAvailable() && instance.getAPI() instanceof TabListAPIImpl api) {
+      api.getAnimationBroadcaster().retire(replaced.values());
+    } else {
+      replaced.values().forEach(HeaderFooterAnimation::release);
+    }
+  }
+
   /**
    * Initializes global configuration settings.
    *
    * <p>This method parses all configuration values from the loaded
    * configuration file and converts them to the appropriate internal
-   * representations. It also applies the settings to all online players.
+   * representations.
    */
   private void initGlobal() {
     // Load basic settings with defaults
     this.hideTab = this.config.getBoolean("hide-tab", false);
     this.hidePlayerJoin = this.config.getBoolean("hide-player-join", false);
+    this.worldScoping = this.config.getBoolean("world-scoping", false);
 
     // Load header/footer settings
     this.headerFooterEnabled = this.config.getBoolean("header-footer.enabled", false);
+    this.headerFooterUpdateInterval = this.config.getLong("header-footer.update-interval", 20L);
+
+    // Compile header/footer templates once for per-player rendering
+    this.headerTemplate = HeaderFooterTemplate.compile(this.config.getStringList("header-footer.header"));
+    this.footerTemplate = HeaderFooterTemplate.compile(this.config.getStringList("header-footer.footer"));
+
+    // Load the cosmetic update budget
+    if (this.config.getBoolean("rate-limit.enabled", true)) {
+      this.updateRate = new UpdateRate(
+        this.config.getDouble("rate-limit.updates-per-second", 20D),
+        Math.max(1, this.config.getInt("rate-limit.burst", 40))
+      );
+    } else {
+      this.updateRate = UpdateRate.UNLIMITED;
+    }
+
+    this.maxBufferedBytes = this.config.getLong("backpressure.max-buffered-bytes", 262144L);
+
+    // Load the external lookup limits, applied when the plugin is enabled
+    this.lookupMaxConcurrent = Math.max(1, this.config.getInt("lookups.max-concurrent", LookupExecutor.DEFAULT_MAX_CONCURRENT));
+    this.lookupTimeout = Duration.ofMillis(Math.max(1L, this.config.getLong("lookups.timeout-ms", LookupExecutor.DEFAULT_TIMEOUT.toMillis())));
+
+    // Load the join admission budget
+    this.admissionMaxPacketsPerTick = Math.max(0, this.config.getInt("admission.max-packets-per-tick", JoinAdmissionQueue.DEFAULT_MAX_PACKETS_PER_TICK));
+    this.admissionTimeBudget = Duration.ofMillis(Math.max(0L, this.config.getLong("admission.time-budget-ms", JoinAdmissionQueue.DEFAULT_TIME_BUDGET.toMillis())));
+
+    // Load the proximity range
+    this.proximityEnabled = this.config.getBoolean("proximity.enabled", false);
+    double radius = this.config.getDouble("proximity.radius", ProximityTracker.DEFAULT_RADIUS);
+    this.proximityRadius = radius > 0 ? radius : ProximityTracker.DEFAULT_RADIUS;
+    this.proximityHysteresis = Math.max(0D, this.config.getDouble("proximity.hysteresis", ProximityTracker.DEFAULT_HYSTERESIS));
+    this.proximityInterval = Math.max(1, this.config.getInt("proximity.update-interval", ProximityTracker.DEFAULT_INTERVAL));
+
+    // Load the network synchronization, the transport is started with the plugin
+    this.syncEnabled = this.config.getBoolean("sync.enabled", false);
+    String serverId = this.config.getString("sync.server-id", "");
+    if (serverId != null && !serverId.isBlank()) this.syncServerId = serverId;
+    String channel = this.config.getString("sync.channel", "DreaminTabList");
+    this.syncChannel = channel == null || channel.isBlank() ? "DreaminTabList" : channel;
+    this.syncInterval = Math.max(1, this.config.getInt("sync.interval", ProfileReplicator.DEFAULT_INTERVAL));
+
+    // Load the profile storage, the stored profiles are loaded with the plugin
+    this.persistenceEnabled = this.config.getBoolean("persistence.enabled", false);
+    String directory = this.config.getString("persistence.directory", "profiles");
+    this.persistenceDirectory = directory == null || directory.isBlank() ? "profiles" : directory;
+    this.persistenceInterval = Math.max(1, this.config.getInt("persistence.write-interval", ProfileStore.DEFAULT_INTERVAL));
+
+    // Load the display name template, compiled once by the renderer
+    String template = this.config.getString("display-name.template", "");
+    this.displayNameTemplate = template == null || template.isBlank() ? null : template;
+    this.displayNameInterval = Math.max(1, this.config.getInt("display-name.update-interval", DisplayNameRenderer.DEFAULT_INTERVAL));
+
+    // Load the audit log, replacing a console line per tab operation
+    this.auditCapacity = Math.max(1, this.config.getInt("audit.capacity", AuditLog.DEFAULT_CAPACITY));
+    this.auditSampleEvery = Math.max(1, this.config.getInt("audit.sample-every", 1));
+    this.auditSummaryInterval = this.config.getLong("audit.summary-interval", AuditLog.DEFAULT_SUMMARY_INTERVAL);
+    this.auditFileEnabled = this.config.getBoolean("audit.file.enabled", false);
+    String auditDirectory = this.config.getString("audit.file.directory", "audit");
+    this.auditDirectory = auditDirectory == null || auditDirectory.isBlank() ? "audit" : auditDirectory;
+    this.auditMaxFileBytes = Math.max(1L, this.config.getLong("audit.file.max-size-kb", 10240L)) * 1024L;
+    this.auditMaxFiles = Math.max(0, this.config.getInt("audit.file.max-files", 5));
+
+    this.autoReload = this.config.getBoolean("auto-reload", false);
+
+    // Parse and encode animation frames once
+    loadAnimations();
+    String animation = this.config.getString("header-footer.animation", "");
+    this.defaultAnimation = animation == null || animation.isBlank() ? null : animation;
 
     // Build header component from configuration
     buildHeaderComponent();
@@ -183,14 +571,41 @@ public class Codex {
     // Build footer component from configuration
     buildFooterComponent();
 
-    // Apply settings to all online players
-    updateAllPlayer();
-
     instance.getLogger().fine("Global configuration initialized - hideTab: " + hideTab +
       ", hidePlayerJoin: " + hidePlayerJoin +
       ", headerFooterEnabled: " + headerFooterEnabled);
   }
 
+  /**
+   * Loads and encodes the animations from the configuration.
+   *
+   * <p>Previously loaded animations are retired once the new ones are
+   * in place. Invalid animations are skipped with a warning.
+   */
+  private void loadAnimations() {
+    Map<String, HeaderFooterAnimation> loaded = new LinkedHashMap<>();
+    ConfigurationSection section = this.config.getConfigurationSection("animations");
+
+    if (section != null) {
+      for (String name : section.getKeys(false)) {
+        ConfigurationSection animationSection = section.getConfigurationSection(name);
+        if (animationSection == null) continue;
+
+        try {
+          loaded.put(name, HeaderFooterAnimation.load(name, animationSection));
+        } catch (Exception e) {
+          instance.getLogger().warning("Failed to load animation '" + name + "': " + e.getMessage());
+        }
+      }
+    }
+
+    Map<String, HeaderFooterAnimation> previous = this.animations;
+    this.animations = Collections.unmodifiableMap(loaded);
+    retireAnimations(previous);
+
+    instance.getLogger().fine("Loaded " + loaded.size() + " header/footer animations");
+  }
+
   /**
    * Builds the header component from the configuration.
    *
@@ -257,9 +672,9 @@ public class Codex {
    *
    * <p>If no players are online, this method does nothing.
    */
-  private void updateAllPlayer() {
+  void updateAllPlayer() {
     // Check if there are any players to update
-    if (DreaminTabList.getPlayerTabListManager().getPlayerTabListSet().isEmpty()) {
+    if (DreaminTabList.getPlayerTabListManager() == null || DreaminTabList.getPlayerTabListManager().getPlayerTabListSet().isEmpty()) {
       instance.getLogger().fine("No players online, skipping configuration update");
       return;
     }
@@ -302,5 +717,36 @@ public class Codex {
   public Component getFooters() {
     return footers;
   }
+
+  /**
+   * Gets an animation by name.
+   *
+   * @param name the animation name
+   * @return the animation, or null if no animation has this name
+   */
+  @Nullable
+  public HeaderFooterAnimation getAnimation(@NotNull String name) {
+    return animations.get(name);
+  }
+
+  /**
+   * Gets the compiled header template.
+   *
+   * @return the header template, never null but may be empty
+   */
+  @NotNull
+  public HeaderFooterTemplate getHeaderTemplate() {
+    return headerTemplate;
+  }
+
+  /**
+   * Gets the compiled footer template.
+   *
+   * @return the footer template, never null but may be empty
+   */
+  @NotNull
+  public HeaderFooterTemplate getFooterTemplate() {
+    return footerTemplate;
+  }
 }
 
@@ -0,0 +1,116 @@
+package fr.dreamin.dreaminTabList.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The settings that differ between two versions of the configuration.
+ *
+ * <p>Values are compared leaf by leaf, so a setting is reported changed
+ * when it was edited, added or removed, and a section is reported changed
+ * when any setting under it is. Sections themselves are never compared.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ConfigDiff {
+
+  /**
+   * A diff without any change.
+   */
+  public static final ConfigDiff EMPTY = new ConfigDiff(Collections.emptySet());
+
+  private final Set<String> paths;
+
+  private ConfigDiff(Set<String> paths) {
+    this.paths = paths;
+  }
+
+  /**
+   * Computes the settings that differ between two configurations.
+   *
+   * @param previous the configuration in use
+   * @param next the configuration replacing it
+   * @return the diff
+   */
+  @NotNull
+  public static ConfigDiff between(@NotNull ConfigurationSection previous, @NotNull ConfigurationSection next) {
+    if (previous == null) throw new IllegalArgumentException("Previous configuration cannot be null");
+    if (next == null) throw new IllegalArgumentException("Next configuration cannot be null");
+
+    Map<String, Object> before = leaves(previous);
+    Map<String, Object> after = leaves(next);
+
+    Set<String> changed = new TreeSet<>();
+    for (Map.Entry<String, Object> entry : before.entrySet()) {
+      if (!Objects.equals(entry.getValue(), after.get(entry.getKey()))) changed.add(entry.getKey());
+    }
+    for (String path : after.keySet()) {
+      if (!before.containsKey(path)) changed.add(path);
+    }
+    return changed.isEmpty() ? EMPTY : new ConfigDiff(Collections.unmodifiableSet(changed));
+  }
+
+  /**
+   * Checks if a setting, or any setting of a section, changed.
+   *
+   * @param path the path of the setting or section, such as {@code "header-footer"}
+   * @return true if the setting or a setting under it changed
+   */
+  public boolean changed(@NotNull String path) {
+    if (path == null) throw new IllegalArgumentException("Path cannot be null");
+
+    for (String changed : paths) {
+      if (changed.equals(path) || changed.startsWith(path) && changed.charAt(path.length()) == '.') return true;
+    }
+    return false;
+  }
+
+  /**
+   * Checks if any of the given settings or sections changed.
+   *
+   * @param paths the paths of the settings or sections
+   * @return true if at least one of them changed
+   */
+  public boolean changedAny(@NotNull String... paths) {
+    for (String path : paths) {
+      if (changed(path)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Checks if nothing changed.
+   *
+   * @return true if both configurations hold the same settings
+   */
+  public boolean isEmpty() {
+    return paths.isEmpty();
+  }
+
+  /**
+   * Gets the paths of the changed settings.
+   *
+   * @return the sorted paths, unmodifiable
+   */
+  @NotNull
+  public Set<String> getChangedPaths() {
+    return paths;
+  }
+
+  private static Map<String, Object> leaves(ConfigurationSection section) {
+    Map<String, Object> leaves = new HashMap<>();
+    section.getValues(true).forEach((path, value) -> {
+      if (!(value instanceof ConfigurationSection)) leaves.put(path, value);
+    });
+    return leaves;
+  }
+
+  @Override
+  public String toString() {
+    return "ConfigDiff" + paths;
+  }
+}
@@ -0,0 +1,179 @@
+package fr.dreamin.dreaminTabList.config;
+
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reloads the configuration file, applying only the settings that changed.
+ *
+ * <p>The file is read and parsed on a background thread into a new
+ * {@link Codex}, which is handed to the tick. The tick diffs it against the
+ * active configuration, lets the active configuration adopt the new
+ * settings, and applies the changed ones to the tab lists. A reload leaving
+ * the settings untouched sends no packet, and a file that does not parse
+ * is ignored, keeping the active settings.
+ *
+ * <p>When {@code auto-reload} is enabled, the file is watched and reloaded
+ * each time it is edited.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ConfigReloader {
+
+  private final TabListAPIImpl api;
+  private final Codex codex;
+  private final Path file;
+  private final AtomicReference<Codex> pending = new AtomicReference<>();
+  private final ExecutorService parser = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("DreaminTabList-config").daemon().factory());
+  private ConfigWatcher watcher;
+
+  /**
+   * Creates a reloader.
+   *
+   * @param api the API the changed settings are applied to
+   * @param codex the active configuration, adopting the reloaded settings
+   * @param file the configuration file
+   */
+  public ConfigReloader(@NotNull TabListAPIImpl api, @NotNull Codex codex, @NotNull Path file) {
+    if (api == null) throw new IllegalArgumentException("API cannot be null");
+    if (codex == null) throw new IllegalArgumentException("Codex cannot be null");
+    if (file == null) throw new IllegalArgumentException("File cannot be null");
+
+    this.api = api;
+    this.codex = codex;
+    this.file = file;
+  }
+
+  /**
+   * Reads and parses the configuration file off the main thread. The new
+   * settings are applied on the next tick.
+   *
+   * @return a future completed with the parsed configuration, or exceptionally if the file is invalid
+   */
+  @NotNull
+  public CompletableFuture<Codex> reload() {
+    return CompletableFuture.supplyAsync(this::parse, parser).whenComplete((parsed, error) -> {
+      if (error != null) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        api.getLogger().warning("Configuration not reloaded, the active settings are kept: " + cause.getMessage());
+        return;
+      }
+
+      // A newer parse replaces one the tick did not apply yet
+      Codex replaced = pending.getAndSet(parsed);
+      if (replaced != null) replaced.releaseAnimations();
+    });
+  }
+
+  /**
+   * Applies the configuration parsed since the last call, if any. Called by
+   * the tick.
+   */
+  public void applyPending() {
+    Codex parsed = pending.getAndSet(null);
+    if (parsed != null) apply(parsed);
+  }
+
+  /**
+   * Applies a parsed configuration, if it differs from the active one.
+   *
+   * @param parsed the parsed configuration
+   * @return the settings that changed
+   */
+  @NotNull
+  public ConfigDiff apply(@NotNull Codex parsed) {
+    if (parsed == null) throw new IllegalArgumentException("Parsed configuration cannot be null");
+
+    ConfigDiff diff = ConfigDiff.between(codex.getConfig(), parsed.getConfig());
+    if (diff.isEmpty()) {
+      parsed.releaseAnimations();
+      api.getLogger().info("Configuration reloaded, nothing changed");
+      return diff;
+    }
+
+    codex.adopt(parsed, diff);
+
+    // The legacy tab lists go first, the API then renders its own header over theirs
+    if (diff.changedAny("hide-tab", "header-footer")) codex.updateAllPlayer();
+    api.applyConfiguration(codex, diff);
+    if (diff.changed("auto-reload")) setWatching(codex.isAutoReload());
+
+    api.getLogger().info("Configuration reloaded, changed: " + String.join(", ", diff.getChangedPaths()));
+    return diff;
+  }
+
+  /**
+   * Starts or stops reloading the configuration when its file is edited.
+   *
+   * @param watching true to watch the file
+   */
+  public synchronized void setWatching(boolean watching) {
+    if (watching == (watcher != null)) return;
+
+    if (!watching) {
+      watcher.close();
+      watcher = null;
+      return;
+    }
+
+    try {
+      watcher = new ConfigWatcher(file, this::reload, ConfigWatcher.DEFAULT_DEBOUNCE, api.getLogger());
+    } catch (IOException e) {
+      api.getLogger().warning("Cannot watch the configuration file, edits must be reloaded by hand: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Checks if the configuration file is watched.
+   *
+   * @return true if edits of the file are reloaded automatically
+   */
+  public synchronized boolean isWatching() {
+    return watcher != null;
+  }
+
+  /**
+   * Stops watching the file and discards a configuration not applied yet.
+   */
+  public void shutdown() {
+    setWatching(false);
+    parser.shutdownNow();
+
+    Codex discarded = pending.getAndSet(null);
+    if (discarded != null) discarded.releaseAnimations();
+  }
+
+  private Codex parse() {
+    YamlConfiguration config = new YamlConfiguration();
+    try {
+      config.load(file.toFile());
+
+      // Missing settings fall back to the bundled configuration, as on startup
+      InputStream defaults = codex.getInstance().getResource("config.yml");
+      if (defaults != null) {
+        try (Reader reader = new InputStreamReader(defaults, StandardCharsets.UTF_8)) {
+          config.setDefaults(YamlConfiguration.loadConfiguration(reader));
+        }
+      }
+    } catch (IOException | InvalidConfigurationException e) {
+      throw new IllegalStateException("Invalid configuration file " + file.getFileName() + ": " + e.getMessage(), e);
+    }
+    return new Codex(codex.getInstance(), config);
+  }
+}
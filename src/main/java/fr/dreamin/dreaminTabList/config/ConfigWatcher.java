@@ -0,0 +1,115 @@
+package fr.dreamin.dreaminTabList.config;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the configuration file and reports its edits.
+ *
+ * <p>The directory of the file is watched by a daemon thread blocked on a
+ * {@link WatchService}, so nothing runs while the file is left alone.
+ * Editors often write a file in several steps, or through a temporary file
+ * moved over it: the events are debounced, and a single change is reported
+ * once the file stayed untouched for the debounce delay.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ConfigWatcher implements AutoCloseable {
+
+  /**
+   * Default time the file must stay untouched before its change is reported.
+   */
+  public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+  private final Path file;
+  private final Runnable listener;
+  private final Duration debounce;
+  private final Logger logger;
+  private final WatchService watchService;
+  private final Thread thread;
+
+  /**
+   * Starts watching a file.
+   *
+   * @param file the watched file
+   * @param listener called on the watcher thread after each edit of the file
+   * @param debounce the time the file must stay untouched before an edit is reported
+   * @param logger the logger of the watch failures
+   * @throws IOException if the directory of the file cannot be watched
+   */
+  public ConfigWatcher(@NotNull Path file, @NotNull Runnable listener, @NotNull Duration debounce, @NotNull Logger logger) throws IOException {
+    if (file == null) throw new IllegalArgumentException("File cannot be null");
+    if (listener == null) throw new IllegalArgumentException("Listener cannot be null");
+    if (debounce == null || debounce.isNegative()) throw new IllegalArgumentException("Debounce cannot be null or negative");
+    if (logger == null) throw new IllegalArgumentException("Logger cannot be null");
+
+    this.file = file.toAbsolutePath();
+    this.listener = listener;
+    this.debounce = debounce;
+    this.logger = logger;
+    this.watchService = this.file.getFileSystem().newWatchService();
+    try {
+      this.file.getParent().register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException | RuntimeException e) {
+      this.watchService.close();
+      throw e;
+    }
+
+    this.thread = Thread.ofPlatform().name("DreaminTabList-config-watcher").daemon().start(this::run);
+  }
+
+  /**
+   * Stops watching the file.
+   */
+  @Override
+  public void close() {
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      logger.log(Level.FINE, "Failed to close the configuration watcher", e);
+    }
+    thread.interrupt();
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        if (!touched(watchService.take())) continue;
+
+        // Wait for the file to settle, every event restarting the delay
+        WatchKey key;
+        while ((key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) touched(key);
+
+        try {
+          listener.run();
+        } catch (RuntimeException e) {
+          logger.log(Level.WARNING, "Failed to reload the edited configuration", e);
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Closed
+    }
+  }
+
+  /**
+   * Consumes the events of a key.
+   *
+   * @return true if one of them is about the watched file
+   */
+  private boolean touched(WatchKey key) {
+    boolean touched = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) touched = true;
+    }
+    key.reset();
+    return touched;
+  }
+}
@@ -0,0 +1,144 @@
+package fr.dreamin.dreaminTabList.config.animation;
+
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerListHeaderAndFooter;
+import fr.dreamin.dreaminTabList.impl.packet.EncodedPacket;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An animated header and footer loaded from the configuration.
+ *
+ * <p>Every frame is parsed and encoded into a header/footer packet once,
+ * when the configuration is loaded. Playing the animation then only
+ * consists of writing the pre-encoded bytes of the current frame to each
+ * viewer.
+ *
+ * <p>Example configuration:
+ * <pre>{@code
+ * animations:
+ *   server-ip:
+ *     interval: 5
+ *     frames:
+ *       - header: "§6§lDREAMIN"
+ *         footer: "§eplay.dreamin.fr"
+ *       - header: "§e§lDREAMIN"
+ *         footer: "§6play.dreamin.fr"
+ * }</pre>
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class HeaderFooterAnimation {
+
+  private final String name;
+  private final int interval;
+  private final List<EncodedPacket> frames;
+
+  private HeaderFooterAnimation(@NotNull String name, int interval, @NotNull List<EncodedPacket> frames) {
+    this.name = name;
+    this.interval = interval;
+    this.frames = Collections.unmodifiableList(frames);
+  }
+
+  /**
+   * Loads and encodes an animation from a configuration section.
+   *
+   * <p>Each frame may define its header and footer either as a single
+   * string or as a list of lines. Legacy color codes are supported.
+   *
+   * @param name the animation name
+   * @param section the configuration section of the animation
+   * @return the loaded animation, never null
+   * @throws IllegalArgumentException if the animation has no frame
+   */
+  @NotNull
+  public static HeaderFooterAnimation load(@NotNull String name, @NotNull ConfigurationSection section) {
+    int interval = Math.max(1, section.getInt("interval", 20));
+
+    List<EncodedPacket> frames = new ArrayList<>();
+    for (Map<?, ?> frame : section.getMapList("frames")) {
+      Component header = parseLines(frame.get("header"));
+      Component footer = parseLines(frame.get("footer"));
+
+      frames.add(EncodedPacket.encode(new WrapperPlayServerPlayerListHeaderAndFooter(header, footer)));
+    }
+
+    if (frames.isEmpty()) throw new IllegalArgumentException("Animation '" + name + "' has no frame");
+
+    return new HeaderFooterAnimation(name, interval, frames);
+  }
+
+  /**
+   * Gets the name of this animation.
+   *
+   * @return the animation name
+   */
+  @NotNull
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of ticks each frame is displayed.
+   *
+   * @return the frame interval in ticks, at least 1
+   */
+  public int getInterval() {
+    return interval;
+  }
+
+  /**
+   * Gets the number of frames.
+   *
+   * @return the frame count, at least 1
+   */
+  public int getFrameCount() {
+    return frames.size();
+  }
+
+  /**
+   * Gets the frame displayed at a given server tick.
+   *
+   * @param tick the animation clock, in ticks
+   * @return the encoded frame
+   */
+  @NotNull
+  public EncodedPacket getFrameAt(long tick) {
+    return frames.get((int) ((tick / interval) % frames.size()));
+  }
+
+  /**
+   * Checks if the displayed frame changes at a given tick.
+   *
+   * @param tick the animation clock, in ticks
+   * @return true if a new frame starts at this tick
+   */
+  public boolean isFrameStart(long tick) {
+    return tick % interval == 0 && frames.size() > 1;
+  }
+
+  /**
+   * Releases the encoded frames.
+   */
+  public void release() {
+    frames.forEach(EncodedPacket::release);
+  }
+
+  private static Component parseLines(Object value) {
+    if (value == null) return Component.empty();
+
+    List<String> lines = new ArrayList<>();
+    if (value instanceof List<?> list) list.forEach(line -> lines.add(String.valueOf(line)));
+    else lines.add(String.valueOf(value));
+
+    return LegacyComponentSerializer.legacySection().deserialize(String.join("\n", lines));
+  }
+}
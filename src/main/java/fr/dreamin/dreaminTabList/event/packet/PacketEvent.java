@@ -2,22 +2,88 @@ package fr.dreamin.dreaminTabList.event.packet;
 
 import com.github.retrooper.packetevents.event.PacketListener;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
 import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
 import fr.dreamin.dreaminTabList.event.custom.playerUpdate.PacketPlayerUpdateEvent;
+import fr.dreamin.dreaminTabList.impl.jfr.PacketInterceptEvent;
+import fr.dreamin.dreaminTabList.impl.metrics.Histogram;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PacketEvent implements PacketListener {
 
+  private static final Histogram INTERCEPT_TIME = MetricsRegistry.global().histogram(TabListMetrics.INTERCEPT_TIME);
+  private static final Histogram PACKET_SIZE = MetricsRegistry.global().histogram(TabListMetrics.PACKET_SIZE);
+  private static final LongAdder BYTES_ENCODED = MetricsRegistry.global().counter(TabListMetrics.BYTES_ENCODED);
+  private static final UUID UNKNOWN_VIEWER = new UUID(0L, 0L);
+
   @Override
   public void onPacketSend(PacketSendEvent event) {
     if (event.getPacketType().equals(PacketType.Play.Server.PLAYER_INFO_UPDATE)) {
+      PacketInterceptEvent interceptEvent = new PacketInterceptEvent();
+      interceptEvent.begin();
+      long start = System.nanoTime();
+      int size = ByteBufHelper.readableBytes(event.getByteBuf());
+      BYTES_ENCODED.add(size);
+      PACKET_SIZE.record(size);
+
       WrapperPlayServerPlayerInfoUpdate packet = new WrapperPlayServerPlayerInfoUpdate(event);
       PacketPlayerUpdateEvent packetEvent = new PacketPlayerUpdateEvent(event.getUser().getUUID(), packet);
       DreaminTabList.getInstance().callEvent(packetEvent);
       if (packetEvent.isCancelled()) event.setCancelled(true);
       packet.setActions(packetEvent.getActions());
       packet.setEntries(packetEvent.getPlayerInfos());
+
+      INTERCEPT_TIME.recordSince(start, 1L);
+
+      interceptEvent.end();
+      if (interceptEvent.shouldCommit()) {
+        interceptEvent.viewer = event.getUser().getProfile().getName();
+        interceptEvent.entries = packet.getEntries().size();
+        interceptEvent.bytes = size;
+        interceptEvent.cancelled = event.isCancelled();
+        interceptEvent.commit();
+      }
+
+      // The listeners may have changed the packet, its buffer is only rewritten once they all ran
+      PacketRecorder recorder = PacketRecorder.current();
+      if (recorder != null && !event.isCancelled()) record(recorder, event, packet);
+      return;
     }
+
+    PacketRecorder recorder = PacketRecorder.current();
+    if (recorder != null && !event.isCancelled()) record(recorder, event);
+  }
+
+  private void record(PacketRecorder recorder, PacketSendEvent event) {
+    PacketRecorder.Kind kind = PacketRecorder.Kind.of(event.getPacketType());
+    if (kind == null) return;
+
+    recorder.record(kind, viewerOf(event), (ByteBuf) event.getByteBuf());
+  }
+
+  private void record(PacketRecorder recorder, PacketSendEvent event, WrapperPlayServerPlayerInfoUpdate packet) {
+    Object buffer = packet.getBuffer();
+    Object encoded = UnpooledByteBufAllocationHelper.buffer();
+    try {
+      packet.setBuffer(encoded);
+      packet.write();
+      recorder.record(PacketRecorder.Kind.PLAYER_INFO_UPDATE, viewerOf(event), (ByteBuf) encoded);
+    } finally {
+      packet.setBuffer(buffer);
+      ByteBufHelper.release(encoded);
+    }
+  }
+
+  private static UUID viewerOf(PacketSendEvent event) {
+    UUID viewer = event.getUser().getUUID();
+    return viewer != null ? viewer : UNKNOWN_VIEWER;
   }
 }
@@ -0,0 +1,276 @@
+package fr.dreamin.dreaminTabList.event.packet;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Records outbound tab packets to a memory-mapped, append-only file.
+ *
+ * <p>The file is preallocated and mapped once, so recording a packet is a
+ * position reservation and a copy of the encoded bytes into the mapping,
+ * without any system call. Viewers never wait on each other: they only
+ * share the read side of a lock, whose write side is taken when the
+ * recording is stopped. Recording stops accepting packets once the file is
+ * full, and the file is truncated to its content when the recording is
+ * stopped.
+ *
+ * <p>Packets are recorded as sent, after the packet listeners ran: cancelled
+ * packets are not recorded, and player info updates changed by a listener
+ * are recorded with the changes.
+ *
+ * <p>File layout (big-endian):
+ * <pre>
+ * header: int magic, int format version, int protocol version, long start time (epoch ms)
+ * record: int body length, byte kind, long time since start (ns), long viewer UUID msb,
+ *         long viewer UUID lsb, body (the packet as encoded, without its id)
+ * </pre>
+ * A record becomes visible once its length is written, which happens last,
+ * so a reader never sees a partially written record.
+ *
+ * <p>At most one recording runs at a time; it is controlled with
+ * {@link #start(Path, int, int)} and {@link #stop()}, and read back with
+ * {@link PacketRecording}.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class PacketRecorder {
+
+  /**
+   * Magic number at the start of every recording ("DTLR").
+   */
+  public static final int MAGIC = 0x44544C52;
+
+  /**
+   * Version of the file layout.
+   */
+  public static final int FORMAT_VERSION = 1;
+
+  /**
+   * Size of the file header, in bytes.
+   */
+  public static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+  /**
+   * Size of the header of a record, in bytes.
+   */
+  public static final int RECORD_HEADER_SIZE = 4 + 1 + 8 + 8 + 8;
+
+  private static volatile PacketRecorder current;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer mapped;
+  private final long startNanos = System.nanoTime();
+  private final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+  private final LongAdder recorded = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private boolean closed = false;
+
+  private PacketRecorder(@NotNull Path path, int capacity, int protocolVersion) throws IOException {
+    this.path = path;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    } catch (IOException e) {
+      channel.close();
+      Files.deleteIfExists(path);
+      throw e;
+    }
+
+    mapped.putInt(0, MAGIC);
+    mapped.putInt(4, FORMAT_VERSION);
+    mapped.putInt(8, protocolVersion);
+    mapped.putLong(12, System.currentTimeMillis());
+  }
+
+  /**
+   * Starts a new recording.
+   *
+   * @param path the file to create, must not exist
+   * @param capacity the maximum size of the file, in bytes
+   * @param protocolVersion the protocol version the packets are encoded with
+   * @return the started recorder
+   * @throws IllegalStateException if a recording is already running
+   * @throws IOException if the file cannot be created
+   */
+  @NotNull
+  public static synchronized PacketRecorder start(@NotNull Path path, int capacity, int protocolVersion) throws IOException {
+    if (path == null) throw new IllegalArgumentException("Path cannot be null");
+    if (capacity <= HEADER_SIZE) throw new IllegalArgumentException("Capacity must be greater than " + HEADER_SIZE + " bytes");
+    if (current != null) throw new IllegalStateException("A recording is already running: " + current.path);
+
+    if (path.getParent() != null) Files.createDirectories(path.getParent());
+    current = new PacketRecorder(path, capacity, protocolVersion);
+    return current;
+  }
+
+  /**
+   * Stops the running recording, if any.
+   *
+   * @return the stopped recorder, or null if no recording was running
+   * @throws IOException if the file cannot be finalized
+   */
+  @Nullable
+  public static synchronized PacketRecorder stop() throws IOException {
+    PacketRecorder recorder = current;
+    if (recorder == null) return null;
+
+    current = null;
+    recorder.close();
+    return recorder;
+  }
+
+  /**
+   * Gets the running recording.
+   *
+   * @return the running recorder, or null if no recording is running
+   */
+  @Nullable
+  public static PacketRecorder current() {
+    return current;
+  }
+
+  /**
+   * Records a packet.
+   *
+   * <p>The readable bytes of the buffer are copied without moving its
+   * reader index. The packet is dropped if the file is full.
+   *
+   * @param kind the kind of packet
+   * @param viewer the player receiving the packet
+   * @param body the encoded packet, without its id
+   */
+  public void record(@NotNull Kind kind, @NotNull UUID viewer, @NotNull ByteBuf body) {
+    int length = body.readableBytes();
+    int size = RECORD_HEADER_SIZE + length;
+
+    lock.readLock().lock();
+    try {
+      if (closed) return;
+
+      int start;
+      do {
+        start = position.get();
+        if (start > mapped.capacity() - size) {
+          dropped.increment();
+          return;
+        }
+      } while (!position.compareAndSet(start, start + size));
+
+      mapped.put(start + 4, (byte) kind.ordinal());
+      mapped.putLong(start + 5, System.nanoTime() - startNanos);
+      mapped.putLong(start + 13, viewer.getMostSignificantBits());
+      mapped.putLong(start + 21, viewer.getLeastSignificantBits());
+      body.getBytes(body.readerIndex(), mapped.slice(start + RECORD_HEADER_SIZE, length));
+      mapped.putInt(start, length);
+      recorded.increment();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the recording file.
+   *
+   * @return the file path
+   */
+  @NotNull
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the number of packets recorded.
+   *
+   * @return the recorded packet count
+   */
+  public long getRecordedCount() {
+    return recorded.sum();
+  }
+
+  /**
+   * Gets the number of packets dropped because the file was full.
+   *
+   * @return the dropped packet count
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Gets the number of bytes written, header included.
+   *
+   * @return the file size once stopped
+   */
+  public int getSize() {
+    return position.get();
+  }
+
+  private void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (closed) return;
+
+      closed = true;
+      mapped.force();
+      channel.truncate(position.get());
+      channel.close();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * The kinds of packets recorded.
+   */
+  public enum Kind {
+    PLAYER_INFO_UPDATE,
+    PLAYER_INFO_REMOVE,
+    HEADER_FOOTER;
+
+    /**
+     * Gets the kind of a packet type.
+     *
+     * @param type the packet type
+     * @return the kind, or null if packets of this type are not recorded
+     */
+    @Nullable
+    public static Kind of(@NotNull PacketTypeCommon type) {
+      if (type == PacketType.Play.Server.PLAYER_INFO_UPDATE) return PLAYER_INFO_UPDATE;
+      if (type == PacketType.Play.Server.PLAYER_INFO_REMOVE) return PLAYER_INFO_REMOVE;
+      if (type == PacketType.Play.Server.PLAYER_LIST_HEADER_AND_FOOTER) return HEADER_FOOTER;
+      return null;
+    }
+
+    /**
+     * Gets a kind by its identifier in recordings.
+     *
+     * @param id the identifier
+     * @return the kind
+     * @throws IllegalArgumentException if the identifier is unknown
+     */
+    @NotNull
+    public static Kind byId(int id) {
+      Kind[] kinds = values();
+      if (id < 0 || id >= kinds.length) throw new IllegalArgumentException("Unknown packet kind: " + id);
+      return kinds[id];
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package fr.dreamin.dreaminTabList.event.packet;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A recording written by {@link PacketRecorder}, read back for replay.
+ *
+ * <p>The file is mapped read-only and its records are read in order,
+ * stopping at the first record that was never completed. Bodies are
+ * read-only views of the mapping and are not copied.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class PacketRecording {
+
+  private final int protocolVersion;
+  private final long startTime;
+  private final List<Record> records;
+
+  private PacketRecording(int protocolVersion, long startTime, @NotNull List<Record> records) {
+    this.protocolVersion = protocolVersion;
+    this.startTime = startTime;
+    this.records = Collections.unmodifiableList(records);
+  }
+
+  /**
+   * Reads a recording.
+   *
+   * @param path the recording file
+   * @return the recording
+   * @throws IOException if the file cannot be read or is not a recording
+   */
+  @NotNull
+  public static PacketRecording read(@NotNull Path path) throws IOException {
+    if (path == null) throw new IllegalArgumentException("Path cannot be null");
+
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (mapped.capacity() < PacketRecorder.HEADER_SIZE || mapped.getInt(0) != PacketRecorder.MAGIC) {
+      throw new IOException("Not a packet recording: " + path);
+    }
+    if (mapped.getInt(4) != PacketRecorder.FORMAT_VERSION) {
+      throw new IOException("Unsupported recording format " + mapped.getInt(4) + ": " + path);
+    }
+
+    List<Record> records = new ArrayList<>();
+    int position = PacketRecorder.HEADER_SIZE;
+    while (position <= mapped.capacity() - PacketRecorder.RECORD_HEADER_SIZE) {
+      int length = mapped.getInt(position);
+      int end = position + PacketRecorder.RECORD_HEADER_SIZE + length;
+      if (length <= 0 || end > mapped.capacity()) break;
+
+      records.add(new Record(
+        PacketRecorder.Kind.byId(mapped.get(position + 4)),
+        mapped.getLong(position + 5),
+        new UUID(mapped.getLong(position + 13), mapped.getLong(position + 21)),
+        mapped.slice(position + PacketRecorder.RECORD_HEADER_SIZE, length).asReadOnlyBuffer()
+      ));
+      position = end;
+    }
+
+    return new PacketRecording(mapped.getInt(8), mapped.getLong(12), records);
+  }
+
+  /**
+   * Gets the protocol version the packets were encoded with.
+   *
+   * @return the protocol version
+   */
+  public int getProtocolVersion() {
+    return protocolVersion;
+  }
+
+  /**
+   * Gets the time the recording started.
+   *
+   * @return the start time, in epoch milliseconds
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Gets the recorded packets.
+   *
+   * @return the records, in recording order
+   */
+  @NotNull
+  public List<Record> getRecords() {
+    return records;
+  }
+
+  /**
+   * A recorded packet.
+   *
+   * @param kind the kind of packet
+   * @param offsetNanos the time the packet was sent, since the start of the recording
+   * @param viewer the player the packet was sent to
+   * @param body the encoded packet, without its id
+   */
+  public record Record(@NotNull PacketRecorder.Kind kind, long offsetNanos, @NotNull UUID viewer, @NotNull ByteBuffer body) {
+  }
+}
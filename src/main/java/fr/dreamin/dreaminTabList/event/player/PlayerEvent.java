@@ -6,14 +6,20 @@ import fr.dreamin.dreaminTabList.event.custom.PlayerTabListJoinEvent;
 import fr.dreamin.dreaminTabList.event.custom.PlayerTabListLeaveEvent;
 import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
 import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.impl.skin.SkinPrefetchCache;
 import fr.dreamin.dreaminTabList.player.core.PlayerTabList;
 import fr.dreamin.dreaminTabList.player.tab.TabListProfile;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -25,9 +31,12 @@ import org.jetbrains.annotations.NotNull;
  *
  * <p>Key responsibilities:
  * <ul>
+ *   <li>Start resolving skins while players are logging in</li>
  *   <li>Register players with the TabList system when they join</li>
  *   <li>Initialize player-specific tab list configurations</li>
  *   <li>Handle player visibility settings (hide new players if configured)</li>
+ *   <li>Track the world of players when the tab list is scoped per world</li>
+ *   <li>Track the position of players when the tab list is limited by distance</li>
  *   <li>Clean up player data when players disconnect</li>
  *   <li>Fire custom TabList events for other plugins to listen to</li>
  * </ul>
@@ -36,12 +45,45 @@ import org.jetbrains.annotations.NotNull;
  * other plugins have processed the join/quit events, but before any plugins
  * that might depend on the TabList system being initialized.
  *
+ * <p>On region-threaded (Folia) servers, join and quit events fire on the
+ * region thread owning the player rather than a single main thread. The
+ * handlers only touch the player's own state and thread-safe managers, and
+ * delayed work is scheduled through the plugin's
+ * {@link fr.dreamin.dreaminTabList.impl.scheduler.TabScheduler}.
+ *
  * @author Dreamin
  * @version 0.0.3
  * @since 0.0.1
  */
 public class PlayerEvent implements Listener {
 
+  /**
+   * Handles asynchronous pre-login events.
+   *
+   * <p>This method runs on the login thread, before the player joins. It
+   * starts resolving the player's skin and parks the result in the
+   * {@link SkinPrefetchCache}, so registration on join only assembles
+   * cached data. The textures sent by the session server are used when
+   * present; otherwise the skin is looked up by name in the background.
+   *
+   * <p>The listener runs at monitor priority so only logins allowed by
+   * every other plugin trigger a resolution.
+   *
+   * @param event the pre-login event, automatically provided by Bukkit
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPreLogin(@NotNull AsyncPlayerPreLoginEvent event) {
+    if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+    if (!DreaminTabList.getInstance().isAPIAvailable()) return;
+
+    try {
+      SkinPrefetchCache.global().prefetch(event.getUniqueId(), event.getName(), SkinPrefetchCache.texturesOf(event.getPlayerProfile()));
+    } catch (Exception e) {
+      // The skin will be missing, but the login must go on
+      DreaminTabList.getInstance().getLogger().warning("Failed to prefetch skin for " + event.getName() + ": " + e.getMessage());
+    }
+  }
+
   /**
    * Handles player join events.
    *
@@ -77,7 +119,7 @@ public class PlayerEvent implements Listener {
         PlayerTabManagerImpl apiManager = apiImpl.registerPlayer(player);
 
         // Log successful registration
-        if (apiManager != null) DreaminTabList.getInstance().getLogger().info("Player registered with TabList API system: " + player.getName());
+        if (apiManager != null) DreaminTabList.getInstance().getLogger().fine("Player registered with TabList API system: " + player.getName());
       }
 
       // Fire custom join event for other plugins to listen to
@@ -87,7 +129,7 @@ public class PlayerEvent implements Listener {
       // Apply hide-player-join setting if configured
       if (DreaminTabList.getCodex().isHidePlayerJoin()) {
         hidePlayerFromOthers(player);
-        DreaminTabList.getInstance().getLogger().info("Hidden new player from others: " + player.getName());
+        DreaminTabList.getInstance().getLogger().fine("Hidden new player from others: " + player.getName());
       }
 
     } catch (Exception e) {
@@ -132,7 +174,7 @@ public class PlayerEvent implements Listener {
         TabListAPIImpl apiImpl = (TabListAPIImpl) DreaminTabList.getInstance().getAPI();
         apiImpl.unregisterPlayer(player);
 
-        DreaminTabList.getInstance().getLogger().info("Player unregistered from TabList API system: " + player.getName());
+        DreaminTabList.getInstance().getLogger().fine("Player unregistered from TabList API system: " + player.getName());
       }
 
     } catch (Exception e) {
@@ -142,6 +184,69 @@ public class PlayerEvent implements Listener {
     }
   }
 
+  /**
+   * Handles player world change events.
+   *
+   * <p>The new world of the player is recorded by the API. When the tab
+   * list is scoped per world, the player and the players of both worlds
+   * only receive the entries that appear or disappear.
+   *
+   * @param event the world change event, automatically provided by Bukkit
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onWorldChange(@NotNull PlayerChangedWorldEvent event) {
+    if (!DreaminTabList.getInstance().isAPIAvailable()) return;
+
+    Player player = event.getPlayer();
+    try {
+      TabListAPIImpl apiImpl = (TabListAPIImpl) DreaminTabList.getInstance().getAPI();
+      apiImpl.getWorldScopes().move(player.getUniqueId(), player.getWorld().getName());
+    } catch (Exception e) {
+      DreaminTabList.getInstance().getLogger().warning("Failed to update the world of " + player.getName() + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Handles player movement events.
+   *
+   * <p>Only moves to another block are recorded, the proximity ranges are
+   * updated from them every few ticks by the API.
+   *
+   * @param event the move event, automatically provided by Bukkit
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onMove(@NotNull PlayerMoveEvent event) {
+    Location from = event.getFrom();
+    Location to = event.getTo();
+    if (from.getBlockX() == to.getBlockX() && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld()) return;
+
+    trackPosition(event.getPlayer(), to);
+  }
+
+  /**
+   * Handles player teleport events, recording the destination for the
+   * proximity ranges.
+   *
+   * @param event the teleport event, automatically provided by Bukkit
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onTeleport(@NotNull PlayerTeleportEvent event) {
+    trackPosition(event.getPlayer(), event.getTo());
+  }
+
+  /**
+   * Records the position of a player for the proximity ranges.
+   *
+   * @param player the player who moved
+   * @param location the new location of the player
+   */
+  private void trackPosition(@NotNull Player player, @NotNull Location location) {
+    if (!DreaminTabList.getInstance().isAPIAvailable() || location.getWorld() == null) return;
+
+    TabListAPIImpl apiImpl = (TabListAPIImpl) DreaminTabList.getInstance().getAPI();
+    apiImpl.getProximityTracker().update(player.getUniqueId(), location.getWorld().getName(), location.getX(), location.getZ());
+  }
+
   /**
    * Hides a newly joined player from all other online players.
    *
@@ -1,9 +1,8 @@
 package fr.dreamin.dreaminTabList.impl;
 
 import com.github.retrooper.packetevents.protocol.player.GameMode;
-import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
-import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoRemove;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
 import fr.dreamin.dreaminTabList.DreaminTabList;
 import fr.dreamin.dreaminTabList.api.TabListAPI;
@@ -11,21 +10,55 @@ import fr.dreamin.dreaminTabList.api.TabListAPIFactory;
 import fr.dreamin.dreaminTabList.api.events.PlayerTabJoinEvent;
 import fr.dreamin.dreaminTabList.api.events.PlayerTabLeaveEvent;
 import fr.dreamin.dreaminTabList.api.exceptions.PlayerNotFoundException;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
 import fr.dreamin.dreaminTabList.api.player.PlayerTabManager;
 import fr.dreamin.dreaminTabList.api.profile.TabProfile;
 import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.api.sync.SyncTransport;
+import fr.dreamin.dreaminTabList.config.Codex;
+import fr.dreamin.dreaminTabList.config.ConfigDiff;
+import fr.dreamin.dreaminTabList.config.ConfigReloader;
+import fr.dreamin.dreaminTabList.impl.audit.AuditLog;
+import fr.dreamin.dreaminTabList.impl.audit.AuditType;
+import fr.dreamin.dreaminTabList.impl.concurrent.LookupExecutor;
+import fr.dreamin.dreaminTabList.impl.header.AnimationBroadcaster;
+import fr.dreamin.dreaminTabList.impl.header.HeaderFooterTemplate;
+import fr.dreamin.dreaminTabList.impl.header.PlaceholderRegistry;
+import fr.dreamin.dreaminTabList.impl.jfr.BroadcastEvent;
+import fr.dreamin.dreaminTabList.impl.jfr.PlayerRegisterEvent;
+import fr.dreamin.dreaminTabList.impl.metrics.Histogram;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import fr.dreamin.dreaminTabList.impl.network.UpdateRate;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
+import fr.dreamin.dreaminTabList.impl.player.HiddenJournal;
+import fr.dreamin.dreaminTabList.impl.player.JoinAdmissionQueue;
 import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.impl.profile.DisplayNameRenderer;
 import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
 import fr.dreamin.dreaminTabList.impl.profile.TabProfileManagerImpl;
+import fr.dreamin.dreaminTabList.impl.scheduler.TabScheduler;
+import fr.dreamin.dreaminTabList.impl.scheduler.TabTask;
+import fr.dreamin.dreaminTabList.impl.skin.SkinPrefetchCache;
+import fr.dreamin.dreaminTabList.impl.store.ProfileStore;
+import fr.dreamin.dreaminTabList.impl.sync.PluginMessageTransport;
+import fr.dreamin.dreaminTabList.impl.sync.ProfileReplicator;
+import fr.dreamin.dreaminTabList.impl.visibility.ProximityTracker;
+import fr.dreamin.dreaminTabList.impl.visibility.VisibilityManagerImpl;
+import fr.dreamin.dreaminTabList.impl.visibility.WorldScopes;
 import lombok.Getter;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -52,6 +85,9 @@ public class TabListAPIImpl implements TabListAPI {
 
   private static final String API_VERSION = "0.0.2";
 
+  private static final Histogram FANOUT = MetricsRegistry.global().histogram(TabListMetrics.BROADCAST_FANOUT);
+  private static final Histogram JOIN_TIME = MetricsRegistry.global().histogram(TabListMetrics.JOIN_TIME);
+
   private final DreaminTabList plugin;
   /**
    * -- GETTER --
@@ -61,25 +97,150 @@ public class TabListAPIImpl implements TabListAPI {
    */
   @Getter
   private final Logger logger;
+  /**
+   * -- GETTER --
+   *  Gets the scheduler running the global and per-player tab tasks.
+   *
+   * @return the scheduler
+   */
+  @Getter
+  private final TabScheduler scheduler;
   private final TabProfileManagerImpl profileManager;
+  private final VisibilityManagerImpl visibilityManager;
+  /**
+   * -- GETTER --
+   *  Gets the players of each world, scoping the tab list per world.
+   *
+   * @return the world scopes
+   */
+  @Getter
+  private final WorldScopes worldScopes;
+  /**
+   * -- GETTER --
+   *  Gets the positions of players, limiting the tab list by distance.
+   *
+   * @return the proximity tracker
+   */
+  @Getter
+  private final ProximityTracker proximityTracker;
+  /**
+   * -- GETTER --
+   *  Gets the replicator synchronizing global profiles across the network.
+   *
+   * @return the profile replicator
+   */
+  @Getter
+  private final ProfileReplicator replicator;
+  /**
+   * -- GETTER --
+   *  Gets the store persisting global profiles across restarts.
+   *
+   * @return the profile store
+   */
+  @Getter
+  private final ProfileStore profileStore;
+  /**
+   * -- GETTER --
+   *  Gets the audit log recording the tab list operations.
+   *
+   * @return the audit log
+   */
+  @Getter
+  private final AuditLog auditLog;
+  /**
+   * -- GETTER --
+   *  Gets the renderer of the display name templates.
+   *
+   * @return the display name renderer
+   */
+  @Getter
+  private final DisplayNameRenderer displayNames;
+  /**
+   * -- GETTER --
+   *  Gets the reloader applying the changed settings of the configuration file.
+   *
+   * @return the configuration reloader, or null without the plugin configuration
+   */
+  @Getter @Nullable
+  private final ConfigReloader configReloader;
   private final Map<UUID, PlayerTabManagerImpl> playerManagers = new ConcurrentHashMap<>();
+  /**
+   * -- GETTER --
+   *  Gets the placeholder registry used by header and footer templates.
+   *
+   * @return the placeholder registry
+   */
+  @Getter
+  private final PlaceholderRegistry placeholders;
+  /**
+   * -- GETTER --
+   *  Gets the broadcaster playing header/footer animations.
+   *
+   * @return the animation broadcaster
+   */
+  @Getter
+  private final AnimationBroadcaster animationBroadcaster;
+  /**
+   * -- GETTER --
+   *  Gets the queue admitting joining players into the tab list.
+   *
+   * @return the admission queue
+   */
+  @Getter
+  private final JoinAdmissionQueue admissionQueue;
+
+  // Global state, readable from any thread
+  private volatile boolean enabled = true;
+  private volatile boolean globalTabHidden = false;
+  private volatile boolean globalHidePlayerJoin;
+  private volatile Component globalHeader;
+  private volatile Component globalFooter;
+  private volatile HeaderFooterTemplate globalHeaderTemplate;
+  private volatile HeaderFooterTemplate globalFooterTemplate;
+  private volatile long headerFooterUpdateInterval = 20L;
+  private volatile String globalAnimation;
+  private volatile UpdateRate defaultUpdateRate = UpdateRate.UNLIMITED;
+  private volatile long maxBufferedBytes = 0L;
+
+  // Scheduled tasks
+  private TabTask headerFooterTask;
+  private TabTask animationTask;
+  private TabTask flushTask;
 
-  // Global state
-  private boolean enabled = true;
-  private boolean globalTabHidden = false;
-  private boolean globalHidePlayerJoin;
-  private Component globalHeader;
-  private Component globalFooter;
+  /**
+   * Creates a new TabListAPI implementation scheduling its tasks with the
+   * scheduler matching the running server.
+   *
+   * @param plugin the DreaminTabList plugin instance
+   */
+  public TabListAPIImpl(@NotNull DreaminTabList plugin) {
+    this(plugin, TabScheduler.create(Objects.requireNonNull(plugin, "Plugin cannot be null")));
+  }
 
   /**
    * Creates a new TabListAPI implementation.
    *
    * @param plugin the DreaminTabList plugin instance
+   * @param scheduler the scheduler running the tab tasks
    */
-  public TabListAPIImpl(@NotNull DreaminTabList plugin) {
+  public TabListAPIImpl(@NotNull DreaminTabList plugin, @NotNull TabScheduler scheduler) {
     this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+    this.scheduler = Objects.requireNonNull(scheduler, "Scheduler cannot be null");
     this.logger = plugin.getLogger();
+    this.auditLog = new AuditLog(this.logger);
     this.profileManager = new TabProfileManagerImpl(this);
+    this.worldScopes = new WorldScopes(this);
+    this.proximityTracker = new ProximityTracker(this);
+    this.replicator = new ProfileReplicator(this, DreaminTabList.getCodex() != null ? DreaminTabList.getCodex().getSyncServerId() : UUID.randomUUID().toString());
+    this.profileStore = new ProfileStore(this);
+    this.displayNames = new DisplayNameRenderer(this);
+    this.configReloader = DreaminTabList.getCodex() != null
+      ? new ConfigReloader(this, DreaminTabList.getCodex(), plugin.getDataFolder().toPath().resolve("config.yml"))
+      : null;
+    this.visibilityManager = new VisibilityManagerImpl(this);
+    this.placeholders = new PlaceholderRegistry(this.logger);
+    this.animationBroadcaster = new AnimationBroadcaster(this);
+    this.admissionQueue = new JoinAdmissionQueue(this);
 
     // Initialize global settings from config
     loadGlobalSettings();
@@ -93,6 +254,12 @@ public class TabListAPIImpl implements TabListAPI {
     return profileManager;
   }
 
+  @Override
+  @NotNull
+  public VisibilityManagerImpl getVisibilityManager() {
+    return visibilityManager;
+  }
+
   @Override @NotNull
   public PlayerTabManager getPlayerManager(@NotNull Player player) {
     if (player == null) throw new IllegalArgumentException("Player cannot be null");
@@ -134,6 +301,9 @@ public class TabListAPIImpl implements TabListAPI {
 
   @Override
   public void setHeaderAndFooterForAll(@Nullable Component header, @Nullable Component footer) {
+    this.globalAnimation = null;
+    this.globalHeaderTemplate = null;
+    this.globalFooterTemplate = null;
     this.globalHeader = header;
     this.globalFooter = footer;
 
@@ -150,6 +320,64 @@ public class TabListAPIImpl implements TabListAPI {
     setHeaderAndFooterForAll(null, null);
   }
 
+  @Override
+  public void setHeaderAndFooterTemplateForAll(@Nullable String header, @Nullable String footer) {
+    this.globalAnimation = null;
+    this.globalHeader = null;
+    this.globalFooter = null;
+    this.globalHeaderTemplate = header != null ? HeaderFooterTemplate.compile(header) : null;
+    this.globalFooterTemplate = footer != null ? HeaderFooterTemplate.compile(footer) : null;
+
+    // Templates are compiled once and shared by every player manager
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      manager.setHeaderAndFooterTemplates(this.globalHeaderTemplate, this.globalFooterTemplate);
+    }
+
+    this.logger.info("Set header and footer templates for all players");
+  }
+
+  @Override
+  public boolean playAnimationForAll(@NotNull String name) {
+    if (name == null) throw new IllegalArgumentException("Animation name cannot be null");
+
+    if (DreaminTabList.getCodex() == null || DreaminTabList.getCodex().getAnimation(name) == null) return false;
+
+    this.globalAnimation = name;
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      manager.playAnimation(name);
+    }
+
+    this.logger.info("Playing animation '" + name + "' for all players");
+    return true;
+  }
+
+  @Override
+  public void registerPlaceholder(@NotNull String key, @NotNull Function<Player, String> resolver) {
+    this.placeholders.register(key, resolver);
+  }
+
+  @Override
+  public void unregisterPlaceholder(@NotNull String key) {
+    this.placeholders.unregister(key);
+  }
+
+  @Override
+  public void setDefaultUpdateRate(double updatesPerSecond, int burst) {
+    if (updatesPerSecond > 0 && burst < 1) throw new IllegalArgumentException("Burst must be at least 1");
+
+    this.defaultUpdateRate = new UpdateRate(updatesPerSecond, burst);
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      manager.applyDefaultUpdateRate(this.defaultUpdateRate);
+      manager.getConnection().setMaxBufferedBytes(this.maxBufferedBytes);
+    }
+  }
+
+  @Override
+  @NotNull
+  public TabListMetrics getMetrics() {
+    return MetricsRegistry.global();
+  }
+
   @Override
   public int getManagedPlayerCount() {
     return playerManagers.size();
@@ -168,16 +396,14 @@ public class TabListAPIImpl implements TabListAPI {
 
   @Override
   public void reloadConfiguration() {
-    // Reload plugin configuration
-    this.plugin.reloadConfig();
-
-    // Reload global settings
-    loadGlobalSettings();
-
-    // Apply settings to all players
-    applyGlobalSettingsToAllPlayers();
+    // Without the plugin configuration there is nothing to apply
+    if (this.configReloader == null) {
+      this.plugin.reloadConfig();
+      return;
+    }
 
-    this.logger.info("Configuration reloaded");
+    // Parsed off the main thread, the changed settings are applied on the next tick
+    this.configReloader.reload();
   }
 
   @Override
@@ -198,18 +424,63 @@ public class TabListAPIImpl implements TabListAPI {
 
   }
 
+  @Override
+  public void setTabScopedPerWorld(boolean scoped) {
+    this.worldScopes.setEnabled(scoped);
+  }
+
+  @Override
+  public boolean isTabScopedPerWorld() {
+    return this.worldScopes.isEnabled();
+  }
+
+  @Override
+  public void setProximityRadius(double radius) {
+    if (radius < 0) throw new IllegalArgumentException("Radius cannot be negative");
+
+    if (radius > 0) this.proximityTracker.setRange(radius, this.proximityTracker.getHysteresis(), this.proximityTracker.getInterval());
+    this.proximityTracker.setEnabled(radius > 0);
+  }
+
+  @Override
+  public double getProximityRadius() {
+    return this.proximityTracker.isEnabled() ? this.proximityTracker.getRadius() : 0D;
+  }
+
+  @Override
+  public void setSyncTransport(@Nullable SyncTransport transport) {
+    this.replicator.setTransport(transport);
+  }
+
+  @Override
+  @Nullable
+  public SyncTransport getSyncTransport() {
+    return this.replicator.getTransport();
+  }
+
   /**
    * Registers a player with the TabList system.
    *
    * <p>This method is called when a player joins the server and creates
    * a new PlayerTabManager for them. It also fires the PlayerTabJoinEvent.
    *
+   * <p>No lookup is made here: a skin resolved during login is taken from
+   * the {@link SkinPrefetchCache}, and one still being resolved is applied
+   * once ready.
+   *
+   * <p>Nothing is sent either: the player is queued in the
+   * {@link JoinAdmissionQueue}, which sends its tab list and shows it to
+   * the others within the per-tick budget.
+   *
    * @param player the player to register
    * @return the created PlayerTabManager
    */
   public PlayerTabManagerImpl registerPlayer(@NotNull Player player) {
     if (player == null) throw new IllegalArgumentException("Player cannot be null");
 
+    PlayerRegisterEvent registerEvent = new PlayerRegisterEvent();
+    registerEvent.begin();
+    long start = System.nanoTime();
     UUID uuid = player.getUniqueId();
 
     // Remove existing manager if present (shouldn't happen normally)
@@ -219,24 +490,87 @@ public class TabListAPIImpl implements TabListAPI {
     // Create new manager
     PlayerTabManagerImpl manager = new PlayerTabManagerImpl(this, player);
     playerManagers.put(uuid, manager);
-
-    this.profileManager.addGlobalProfile(this.profileManager.createProfileFromPlayer(player));
+    this.admissionQueue.enqueue(manager);
+    this.worldScopes.join(uuid, player.getWorld() != null ? player.getWorld().getName() : null);
+    Location location = player.getLocation();
+    if (location != null && location.getWorld() != null) this.proximityTracker.update(uuid, location.getWorld().getName(), location.getX(), location.getZ());
+
+    TabProfile profile = this.profileManager.createProfileFromPlayer(player);
+    CompletableFuture<TextureProperty> prefetched = SkinPrefetchCache.global().take(uuid);
+
+    // Custom profile factories may set their own skin, only fill in a missing one
+    if (prefetched != null && profile.getSkinTexture() == null) {
+      TextureProperty textures = SkinPrefetchCache.completedTextures(prefetched);
+      if (textures != null) profile = withSkin(profile, textures);
+      else if (!prefetched.isDone()) applySkinWhenResolved(uuid, prefetched);
+    }
+    this.replicator.claim(uuid);
+    this.profileManager.addGlobalProfile(profile);
 
     // Fire join event
     PlayerTabJoinEvent joinEvent = new PlayerTabJoinEvent(player, manager);
     this.plugin.callEvent(joinEvent);
 
     if (joinEvent.isCancelled()) {
-      // Remove the manager if event was cancelled
+      // Remove the manager if event was cancelled, the profile is still shown to others
       playerManagers.remove(uuid);
-      this.logger.info("Player registration cancelled for: " + player.getName());
+      this.admissionQueue.remove(uuid);
+      this.worldScopes.leave(uuid);
+      this.proximityTracker.forget(uuid);
+      sendProfileToAllPlayers(profile);
+      commitRegisterEvent(registerEvent, player, true);
+      this.logger.fine("Player registration cancelled for: " + player.getName());
       return null;
     }
 
-    this.logger.info("Registered player: " + player.getName());
+    JOIN_TIME.recordSince(start, MetricsRegistry.MICROS);
+    commitRegisterEvent(registerEvent, player, false);
+    this.auditLog.record(AuditType.PLAYER_REGISTER, uuid, player.getName(), playerManagers.size(), start);
     return manager;
   }
 
+  /**
+   * Applies a skin still being resolved when its player registered.
+   *
+   * @param uuid the player UUID, registered without skin
+   * @param prefetched the pending skin resolution
+   */
+  private void applySkinWhenResolved(UUID uuid, CompletableFuture<TextureProperty> prefetched) {
+    prefetched.whenComplete((textures, error) -> {
+      if (error != null || textures == null || textures.getSignature() == null) return;
+      if (!enabled || !playerManagers.containsKey(uuid)) return;
+
+      // Skipped if the profile was removed or got a skin meanwhile
+      TabProfile current = this.profileManager.findProfile(uuid);
+      if (current != null && current.getSkinTexture() == null) this.profileManager.replaceGlobalProfile(current, withSkin(current, textures));
+    });
+  }
+
+  private static TabProfile withSkin(TabProfile profile, TextureProperty textures) {
+    return profile.toBuilder().customSkin(textures.getValue(), textures.getSignature()).build();
+  }
+
+  /**
+   * Gets the managers of every registered player, admitted or not.
+   *
+   * @return an unmodifiable view of the managers
+   */
+  @NotNull
+  public Collection<PlayerTabManagerImpl> getPlayerManagers() {
+    return Collections.unmodifiableCollection(playerManagers.values());
+  }
+
+  /**
+   * Finds the manager of a registered player.
+   *
+   * @param uuid the player's UUID
+   * @return the player's manager, or null if the player is not registered
+   */
+  @Nullable
+  public PlayerTabManagerImpl findPlayerManager(@NotNull UUID uuid) {
+    return playerManagers.get(uuid);
+  }
+
   /**
    * Unregisters a player from the TabList system.
    *
@@ -248,15 +582,26 @@ public class TabListAPIImpl implements TabListAPI {
   public void unregisterPlayer(@NotNull Player player) {
     if (player == null) throw new IllegalArgumentException("Player cannot be null");
 
+    long start = System.nanoTime();
     UUID uuid = player.getUniqueId();
     PlayerTabManagerImpl manager = playerManagers.remove(uuid);
 
+    // Lookups made for the player are no longer needed
+    this.admissionQueue.remove(uuid);
+    this.visibilityManager.forgetViewer(uuid);
+    this.worldScopes.leave(uuid);
+    this.proximityTracker.forget(uuid);
+    LookupExecutor.global().cancel(uuid);
+    SkinPrefetchCache.global().invalidate(uuid);
+
     if (manager != null) {
+      animationBroadcaster.stop(manager);
+
       // Fire leave event
       PlayerTabLeaveEvent leaveEvent = new PlayerTabLeaveEvent(player);
       this.plugin.callEvent(leaveEvent);
 
-      this.logger.info("Unregistered player: " + player.getName());
+      this.auditLog.record(AuditType.PLAYER_UNREGISTER, uuid, player.getName(), playerManagers.size(), start);
     }
   }
 
@@ -264,58 +609,225 @@ public class TabListAPIImpl implements TabListAPI {
    * Sends a profile to all online players.
    *
    * @param profile the profile to send
+   * @return the number of players the profile was sent to
    */
-  public void sendProfileToAllPlayers(@NotNull TabProfile profile) {
-    if (!(profile instanceof TabProfileImpl)) return;
+  public int sendProfileToAllPlayers(@NotNull TabProfile profile) {
+    if (!(profile instanceof TabProfileImpl)) return 0;
 
-    TabProfileImpl impl = (TabProfileImpl) profile;
+    // Sent on admission, with the state of that time
+    if (admissionQueue.isPending(profile.getUniqueId())) return 0;
 
-    for (PlayerTabManagerImpl manager : playerManagers.values()) {
-      if (!manager.isTabHidden()) sendAddProfilePacket(manager.getPacketUser(), impl);
+    TabProfileImpl impl = (TabProfileImpl) profile;
+    BroadcastEvent broadcastEvent = new BroadcastEvent();
+    broadcastEvent.begin();
+
+    int fanout = 0;
+    for (PlayerTabManagerImpl manager : viewersOf(impl)) {
+      if (admissionQueue.isPending(manager.getPlayerUUID())) continue;
+      if (!visibilityManager.canSee(manager.getPlayerUUID(), impl)) continue;
+
+      // Recorded instead by the viewer's executor while hidden, in order with hide/show calls
+      ViewerConnection connection = manager.getConnection();
+      connection.execute(() -> {
+        HiddenJournal journal = manager.getHiddenJournal();
+        if (journal != null) journal.added(impl);
+        else connection.sendAdd(impl);
+      });
+      fanout++;
     }
+    FANOUT.record(fanout);
+    commitBroadcastEvent(broadcastEvent, "add", 1, fanout);
+    return fanout;
   }
 
   /**
    * Updates a profile for all online players.
    *
+   * <p>When its group changed, the profile is added for the players who
+   * now see it and unlisted for the ones who no longer do.
+   *
+   * @param previous the profile being replaced, may be null
    * @param profile the profile to update
+   * @return the number of players the update was sent to
    */
-  public void updateProfileForAllPlayers(@NotNull TabProfile profile) {
+  public int updateProfileForAllPlayers(@Nullable TabProfile previous, @NotNull TabProfile profile) {
+    if (!(profile instanceof TabProfileImpl)) return 0;
+
+    // Sent on admission, with the state of that time
+    if (admissionQueue.isPending(profile.getUniqueId())) return 0;
+
+    TabProfileImpl impl = (TabProfileImpl) profile;
+    BroadcastEvent broadcastEvent = new BroadcastEvent();
+    broadcastEvent.begin();
+
+    boolean regrouped = previous != null && !Objects.equals(previous.getGroup(), impl.getGroup());
+
+    boolean replaced = TabProfileImpl.needsReplacement(previous, impl);
+
+    int fanout = 0;
+    for (PlayerTabManagerImpl manager : viewersOf(impl)) {
+      UUID viewer = manager.getPlayerUUID();
+      if (admissionQueue.isPending(viewer)) continue;
+
+      boolean visible = visibilityManager.canSee(viewer, impl);
+      boolean wasVisible = regrouped ? visibilityManager.canSee(viewer, previous) : visible;
+      if (!visible && !wasVisible) continue;
+
+      ViewerConnection connection = manager.getConnection();
+      connection.execute(() -> {
+        HiddenJournal journal = manager.getHiddenJournal();
+        if (journal != null) {
+          if (!visible) journal.unlisted(Collections.singletonList(impl));
+          else if (!wasVisible) journal.added(impl);
+          else if (replaced) journal.replaced(impl);
+          else journal.updated(impl);
+          return;
+        }
+
+        if (!visible) connection.sendListed(Collections.singletonList(impl), false);
+        else if (!wasVisible) connection.sendAdd(impl);
+        else if (replaced) connection.sendReplace(impl);
+        else connection.sendUpdate(impl);
+      });
+      fanout++;
+    }
+    FANOUT.record(fanout);
+    commitBroadcastEvent(broadcastEvent, "update", 1, fanout);
+    return fanout;
+  }
+
+  /**
+   * Replaces a profile already shown to all online players, removing it
+   * before adding it again so clients pick up its new skin.
+   *
+   * @param profile the new profile
+   */
+  public void replaceProfileForAllPlayers(@NotNull TabProfile profile) {
     if (!(profile instanceof TabProfileImpl)) return;
 
+    // Sent on admission, with the state of that time
+    if (admissionQueue.isPending(profile.getUniqueId())) return;
+
     TabProfileImpl impl = (TabProfileImpl) profile;
+    BroadcastEvent broadcastEvent = new BroadcastEvent();
+    broadcastEvent.begin();
+
+    int fanout = 0;
+    for (PlayerTabManagerImpl manager : viewersOf(impl)) {
+      if (admissionQueue.isPending(manager.getPlayerUUID())) continue;
+      if (!visibilityManager.canSee(manager.getPlayerUUID(), impl)) continue;
+
+      ViewerConnection connection = manager.getConnection();
+      connection.execute(() -> {
+        HiddenJournal journal = manager.getHiddenJournal();
+        if (journal != null) {
+          journal.replaced(impl);
+          return;
+        }
+
+        connection.sendReplace(impl);
+      });
+      fanout++;
+    }
+    FANOUT.record(fanout);
+    commitBroadcastEvent(broadcastEvent, "replace", 1, fanout);
+  }
 
-    for (PlayerTabManagerImpl manager : playerManagers.values()) {
-      if (!manager.isTabHidden()) sendUpdateProfilePacket(manager.getPacketUser(), impl);
+  /**
+   * Gets the players a profile may be shown to: the players of its world
+   * when the tab list is scoped per world, every player otherwise.
+   *
+   * @param profile the profile
+   * @return the candidate viewers
+   */
+  private Collection<PlayerTabManagerImpl> viewersOf(TabProfileImpl profile) {
+    String world = worldScopes.scopeOf(profile.getUniqueId());
+    if (world == null) return playerManagers.values();
+
+    List<PlayerTabManagerImpl> viewers = new ArrayList<>();
+    for (UUID uuid : worldScopes.membersOf(world)) {
+      PlayerTabManagerImpl manager = playerManagers.get(uuid);
+      if (manager != null) viewers.add(manager);
     }
+    return viewers;
   }
 
   /**
-   * Removes a profile from all online players.
+   * Sends the new list order of profiles to all online players, in one
+   * packet per player.
    *
-   * @param profileId the UUID of the profile to remove
+   * @param profiles the reordered profiles, carrying their new order
    */
-  public void removeProfileFromAllPlayers(@NotNull UUID profileId) {
-    WrapperPlayServerPlayerInfoRemove packet = new WrapperPlayServerPlayerInfoRemove(profileId);
+  public void sendListOrderToAllPlayers(@NotNull Collection<TabProfileImpl> profiles) {
+    // Profiles of players waiting for admission are sent on admission
+    List<TabProfileImpl> reordered = new ArrayList<>(profiles.size());
+    for (TabProfileImpl profile : profiles) {
+      if (!admissionQueue.isPending(profile.getUniqueId())) reordered.add(profile);
+    }
+    if (reordered.isEmpty()) return;
 
+    BroadcastEvent broadcastEvent = new BroadcastEvent();
+    broadcastEvent.begin();
+
+    int fanout = 0;
     for (PlayerTabManagerImpl manager : playerManagers.values()) {
-      if (!manager.isTabHidden()) manager.getPacketUser().sendPacket(packet);
+      if (admissionQueue.isPending(manager.getPlayerUUID())) continue;
+
+      // Shared unless groups are hidden from the player
+      List<TabProfileImpl> visible = visibilityManager.visibleTo(manager.getPlayerUUID(), reordered);
+      if (visible.isEmpty()) continue;
+
+      ViewerConnection connection = manager.getConnection();
+      connection.execute(() -> {
+        HiddenJournal journal = manager.getHiddenJournal();
+        if (journal != null) journal.updated(visible);
+        else connection.sendListOrder(visible);
+      });
+      fanout++;
     }
+    FANOUT.record(fanout);
+    commitBroadcastEvent(broadcastEvent, "order", reordered.size(), fanout);
+  }
+
+  /**
+   * Removes a profile from all online players.
+   *
+   * @param profileId the UUID of the profile to remove
+   * @return the number of players the removal was sent to
+   */
+  public int removeProfileFromAllPlayers(@NotNull UUID profileId) {
+    return removeProfilesFromAllPlayers(Collections.singletonList(profileId));
   }
 
   /**
    * Removes multiple profiles from all online players.
    *
    * @param profileIds the UUIDs of the profiles to remove
+   * @return the number of players the removal was sent to
    */
-  public void removeProfilesFromAllPlayers(@NotNull Collection<UUID> profileIds) {
-    if (profileIds.isEmpty()) return;
+  public int removeProfilesFromAllPlayers(@NotNull Collection<UUID> profileIds) {
+    if (profileIds.isEmpty()) return 0;
 
-    WrapperPlayServerPlayerInfoRemove packet = new WrapperPlayServerPlayerInfoRemove(new ArrayList<>(profileIds));
+    BroadcastEvent broadcastEvent = new BroadcastEvent();
+    broadcastEvent.begin();
+    List<UUID> removal = List.copyOf(profileIds);
+    proximityTracker.forgetEntries(removal);
 
+    int fanout = 0;
     for (PlayerTabManagerImpl manager : playerManagers.values()) {
-      if (!manager.isTabHidden()) manager.getPacketUser().sendPacket(packet);
+      if (admissionQueue.isPending(manager.getPlayerUUID())) continue;
+
+      ViewerConnection connection = manager.getConnection();
+      connection.execute(() -> {
+        HiddenJournal journal = manager.getHiddenJournal();
+        if (journal != null) journal.removed(removal);
+        else connection.sendRemove(removal);
+      });
+      fanout++;
     }
+    FANOUT.record(fanout);
+    commitBroadcastEvent(broadcastEvent, "remove", profileIds.size(), fanout);
+    return fanout;
   }
 
   /**
@@ -327,7 +839,8 @@ public class TabListAPIImpl implements TabListAPI {
     PlayerTabManagerImpl manager = playerManagers.get(player.getUniqueId());
     if (manager == null) return;
 
-    User packetUser = manager.getPacketUser();
+    ViewerConnection connection = manager.getConnection();
+    connection.clearPending();
 
     // Remove all current profiles
     Collection<TabProfile> visible = manager.getVisibleProfiles();
@@ -336,8 +849,7 @@ public class TabListAPIImpl implements TabListAPI {
       .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
 
     if (!toRemove.isEmpty()) {
-      WrapperPlayServerPlayerInfoRemove removePacket = new WrapperPlayServerPlayerInfoRemove(toRemove);
-      packetUser.sendPacket(removePacket);
+      connection.sendRemove(toRemove);
     }
 
     // Add all online players with vanilla appearance
@@ -367,98 +879,119 @@ public class TabListAPIImpl implements TabListAPI {
         info
       );
 
-      packetUser.sendPacket(updatePacket);
+      connection.send(updatePacket);
     }
   }
 
   /**
-   * Sends an add profile packet to a specific user.
+   * Gets the default cosmetic update rate of players.
    *
-   * @param user the packet user
-   * @param profile the profile to add
+   * @return the default rate
    */
-  public void sendAddProfilePacket(@NotNull User user, @NotNull TabProfileImpl profile) {
-    UserProfile userProfile = profile.buildUserProfile();
-
-    WrapperPlayServerPlayerInfoUpdate.PlayerInfo info = new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
-      userProfile,
-      profile.isListed(),
-      profile.getLatency(),
-      profile.getGameMode(),
-      profile.getDisplayName(),
-      null,
-      profile.getSortOrder(),
-      profile.isShowHat()
-    );
-
-    WrapperPlayServerPlayerInfoUpdate packet = new WrapperPlayServerPlayerInfoUpdate(
-      EnumSet.of(
-        WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_DISPLAY_NAME,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_HAT,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LIST_ORDER
-      ),
-      info
-    );
-
-    user.sendPacket(packet);
-
-    // Update change tracking
-    profile.snapshotState();
+  @NotNull
+  public UpdateRate getDefaultUpdateRate() {
+    return this.defaultUpdateRate;
   }
 
   /**
-   * Sends an update profile packet to a specific user.
+   * Gets the maximum number of bytes waiting in a player's channel before
+   * their tab packets are dropped and resynchronized later.
    *
-   * @param user the packet user
-   * @param profile the profile to update
+   * @return the byte cap, 0 or less for no cap
    */
-  public void sendUpdateProfilePacket(@NotNull User user, @NotNull TabProfileImpl profile) {
-    // Check if full replacement is needed (name or skin change)
-    boolean requiresFullReplace = profile.hasNameChanged() || profile.hasSkinChanged();
-
-    if (requiresFullReplace) {
-      // Remove and re-add
-      WrapperPlayServerPlayerInfoRemove removePacket = new WrapperPlayServerPlayerInfoRemove(profile.getUniqueId());
-      user.sendPacket(removePacket);
+  public long getMaxBufferedBytes() {
+    return this.maxBufferedBytes;
+  }
 
-      sendAddProfilePacket(user, profile);
-      return;
+  /**
+   * Gets the total number of connection overflows of online players.
+   *
+   * @return the overflow count
+   */
+  public long getOverflowCount() {
+    long total = 0L;
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      total += manager.getConnection().getOverflowCount();
     }
+    return total;
+  }
 
-    // Standard update
-    UserProfile userProfile = profile.buildUserProfile();
+  /**
+   * Gets the total number of tab packets dropped by overflowed connections
+   * of online players.
+   *
+   * @return the dropped packet count
+   */
+  public long getDroppedPacketCount() {
+    long total = 0L;
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      total += manager.getConnection().getDroppedPackets();
+    }
+    return total;
+  }
 
-    WrapperPlayServerPlayerInfoUpdate.PlayerInfo info = new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
-      userProfile,
-      profile.isListed(),
-      profile.getLatency(),
-      profile.getGameMode(),
-      profile.getDisplayName(),
-      null,
-      profile.getSortOrder(),
-      profile.isShowHat()
-    );
+  /**
+   * Runs the work of a tick: admits joining players within the admission
+   * budget, applies a reloaded configuration, updates the proximity ranges,
+   * renders the display name templates, publishes the profile changes to
+   * the network and writes them to the store every interval, releases the
+   * pending cosmetic updates, then hands the audit records to their file.
+   */
+  public void tick() {
+    this.admissionQueue.run();
+    if (this.configReloader != null) this.configReloader.applyPending();
+    this.proximityTracker.tick();
+    this.displayNames.tick();
+    this.replicator.tick();
+    this.profileStore.tick();
+    flushPendingUpdates();
+    this.auditLog.tick();
+  }
 
-    WrapperPlayServerPlayerInfoUpdate packet = new WrapperPlayServerPlayerInfoUpdate(
-      EnumSet.of(
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_DISPLAY_NAME,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_HAT,
-        WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LIST_ORDER
-      ),
-      info
-    );
+  /**
+   * Releases the pending cosmetic updates of every player within their
+   * rate budget, and resynchronizes players whose channel drained after
+   * an overflow.
+   */
+  public void flushPendingUpdates() {
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      manager.getConnection().flush();
+    }
+  }
 
-    user.sendPacket(packet);
+  /**
+   * Commits a registration JFR event if it is recorded.
+   *
+   * @param event the event started at the beginning of the registration
+   * @param player the registered player
+   * @param cancelled whether the registration was cancelled
+   */
+  private void commitRegisterEvent(@NotNull PlayerRegisterEvent event, @NotNull Player player, boolean cancelled) {
+    event.end();
+    if (!event.shouldCommit()) return;
+
+    event.player = player.getName();
+    event.managedPlayers = playerManagers.size();
+    event.cancelled = cancelled;
+    event.commit();
+  }
 
-    // Update change tracking
-    profile.snapshotState();
+  /**
+   * Commits a broadcast JFR event if it is recorded.
+   *
+   * @param event the event started at the beginning of the broadcast
+   * @param operation the broadcast operation
+   * @param entries the number of tab entries broadcast
+   * @param fanout the number of viewers reached
+   */
+  private void commitBroadcastEvent(@NotNull BroadcastEvent event, @NotNull String operation, int entries, int fanout) {
+    event.end();
+    if (!event.shouldCommit()) return;
+
+    event.operation = operation;
+    event.entries = entries;
+    event.fanout = fanout;
+    event.commit();
   }
 
   /**
@@ -470,6 +1003,59 @@ public class TabListAPIImpl implements TabListAPI {
     return this.globalHeader != null || this.globalFooter != null;
   }
 
+  /**
+   * Checks if there are global header/footer templates configured.
+   *
+   * @return true if a global header or footer template is set
+   */
+  public boolean hasGlobalHeaderFooterTemplate() {
+    return this.globalHeaderTemplate != null || this.globalFooterTemplate != null;
+  }
+
+  /**
+   * Gets the global header template.
+   *
+   * @return the global header template, may be null
+   */
+  @Nullable
+  public HeaderFooterTemplate getGlobalHeaderTemplate() {
+    return this.globalHeaderTemplate;
+  }
+
+  /**
+   * Gets the global footer template.
+   *
+   * @return the global footer template, may be null
+   */
+  @Nullable
+  public HeaderFooterTemplate getGlobalFooterTemplate() {
+    return this.globalFooterTemplate;
+  }
+
+  /**
+   * Gets the animation played for all players.
+   *
+   * @return the animation name, or null if none
+   */
+  @Nullable
+  public String getGlobalAnimation() {
+    return this.globalAnimation;
+  }
+
+  /**
+   * Re-renders the header/footer templates of every player.
+   *
+   * <p>Players whose templates have no placeholders are skipped, and
+   * players whose rendered output did not change receive no packet.
+   * Each render runs on the thread owning the player, as placeholders
+   * read the player's state.
+   */
+  public void refreshHeaderFooterTemplates() {
+    for (PlayerTabManagerImpl manager : playerManagers.values()) {
+      if (manager.hasDynamicTemplates()) manager.renderTemplates(false);
+    }
+  }
+
   /**
    * Gets the global header.
    *
@@ -504,6 +1090,23 @@ public class TabListAPIImpl implements TabListAPI {
    */
   public void initialize() {
     TabListAPIFactory.initialize(this);
+    if (DreaminTabList.getCodex() != null) {
+      LookupExecutor.install(new LookupExecutor(DreaminTabList.getCodex().getLookupMaxConcurrent(), DreaminTabList.getCodex().getLookupTimeout()));
+    }
+    if (DreaminTabList.getCodex() != null && DreaminTabList.getCodex().isPersistenceEnabled()) {
+      try {
+        this.profileStore.open(this.plugin.getDataFolder().toPath().resolve(DreaminTabList.getCodex().getPersistenceDirectory()));
+      } catch (IOException e) {
+        this.logger.log(Level.SEVERE, "Failed to load the stored profiles, they will not be persisted", e);
+      }
+    }
+    startHeaderFooterTask();
+    this.animationTask = this.scheduler.runGlobalTimer(this.animationBroadcaster, 1L, 1L);
+    this.flushTask = this.scheduler.runGlobalTimer(this::tick, 1L, 1L);
+    if (this.configReloader != null) this.configReloader.setWatching(DreaminTabList.getCodex().isAutoReload());
+    if (DreaminTabList.getCodex() != null && DreaminTabList.getCodex().isSyncEnabled()) {
+      setSyncTransport(new PluginMessageTransport(this.plugin, DreaminTabList.getCodex().getSyncChannel()));
+    }
     this.logger.info("TabListAPI registered with factory");
   }
 
@@ -513,12 +1116,42 @@ public class TabListAPIImpl implements TabListAPI {
   public void shutdown() {
     enabled = false;
 
+    if (headerFooterTask != null) {
+      headerFooterTask.cancel();
+      headerFooterTask = null;
+    }
+
+    if (animationTask != null) {
+      animationTask.cancel();
+      animationTask = null;
+    }
+    animationBroadcaster.releaseRetired();
+
+    if (flushTask != null) {
+      flushTask.cancel();
+      flushTask = null;
+    }
+
+    if (this.configReloader != null) this.configReloader.shutdown();
+
+    // Write the last profile changes, then tell the other servers our profiles are gone
+    this.profileStore.close();
+    this.replicator.shutdown();
+
     // Clear all player managers
+    this.admissionQueue.clear();
     playerManagers.clear();
 
+    // Interrupt pending skin and profile lookups
+    LookupExecutor.shutdownGlobal();
+    SkinPrefetchCache.reset();
+
     // Shutdown factory
     TabListAPIFactory.shutdown();
 
+    // Write the last audit records
+    this.auditLog.close();
+
     this.logger.info("TabListAPI shut down");
   }
 
@@ -530,31 +1163,154 @@ public class TabListAPIImpl implements TabListAPI {
       this.globalTabHidden = DreaminTabList.getCodex().isHideTab();
       this.globalHidePlayerJoin = DreaminTabList.getCodex().isHidePlayerJoin();
 
-      if (DreaminTabList.getCodex().isHeaderFooterEnabled()) {
-        this.globalHeader = DreaminTabList.getCodex().getHeaders();
-        this.globalFooter = DreaminTabList.getCodex().getFooters();
-      } else {
-        this.globalHeader = null;
-        this.globalFooter = null;
-      }
+      this.headerFooterUpdateInterval = DreaminTabList.getCodex().getHeaderFooterUpdateInterval();
+      this.defaultUpdateRate = DreaminTabList.getCodex().getUpdateRate();
+      this.maxBufferedBytes = DreaminTabList.getCodex().getMaxBufferedBytes();
+      this.admissionQueue.setBudget(DreaminTabList.getCodex().getAdmissionMaxPacketsPerTick(), DreaminTabList.getCodex().getAdmissionTimeBudget());
+      this.worldScopes.setEnabled(DreaminTabList.getCodex().isWorldScoping());
+      this.proximityTracker.setRange(DreaminTabList.getCodex().getProximityRadius(), DreaminTabList.getCodex().getProximityHysteresis(), DreaminTabList.getCodex().getProximityInterval());
+      this.proximityTracker.setEnabled(DreaminTabList.getCodex().isProximityEnabled());
+      this.replicator.setInterval(DreaminTabList.getCodex().getSyncInterval());
+      this.profileStore.setInterval(DreaminTabList.getCodex().getPersistenceInterval());
+      this.displayNames.setDefaultTemplate(DreaminTabList.getCodex().getDisplayNameTemplate());
+      this.displayNames.setInterval(DreaminTabList.getCodex().getDisplayNameInterval());
+      loadAuditSettings(DreaminTabList.getCodex());
+
+      loadHeaderFooterSettings(DreaminTabList.getCodex());
     }
   }
 
   /**
-   * Applies global settings to all online players.
+   * Loads the audit log settings from the configuration.
+   *
+   * @param codex the configuration
    */
-  private void applyGlobalSettingsToAllPlayers() {
-    for (PlayerTabManagerImpl manager : playerManagers.values()) {
-      // Apply tab visibility
-      manager.setTabHiddenInternal(this.globalTabHidden);
-
-      // Apply header/footer
-      if (hasGlobalHeaderFooter()) {
-        manager.setHeaderAndFooter(this.globalHeader, this.globalFooter);
-      } else {
-        manager.removeHeaderAndFooter();
+  private void loadAuditSettings(Codex codex) {
+    this.auditLog.setCapacity(codex.getAuditCapacity());
+    this.auditLog.setSampleEvery(codex.getAuditSampleEvery());
+    this.auditLog.setSummaryInterval(codex.getAuditSummaryInterval());
+    this.auditLog.setFile(
+      codex.isAuditFileEnabled() ? this.plugin.getDataFolder().toPath().resolve(codex.getAuditDirectory()) : null,
+      codex.getAuditMaxFileBytes(),
+      codex.getAuditMaxFiles()
+    );
+  }
+
+  /**
+   * Loads the global header/footer from the configuration. Configured
+   * header/footer lines are rendered per player as templates.
+   *
+   * @param codex the configuration
+   */
+  private void loadHeaderFooterSettings(Codex codex) {
+    this.globalHeader = null;
+    this.globalFooter = null;
+    if (codex.isHeaderFooterEnabled()) {
+      this.globalHeaderTemplate = codex.getHeaderTemplate();
+      this.globalFooterTemplate = codex.getFooterTemplate();
+      this.globalAnimation = codex.getDefaultAnimation();
+    } else {
+      this.globalHeaderTemplate = null;
+      this.globalFooterTemplate = null;
+      this.globalAnimation = null;
+    }
+  }
+
+  /**
+   * Starts (or restarts) the task refreshing header/footer templates.
+   *
+   * <p>The task runs every {@code header-footer.update-interval} ticks.
+   * An interval of 0 or less disables periodic refreshing.
+   */
+  private void startHeaderFooterTask() {
+    if (headerFooterTask != null) {
+      headerFooterTask.cancel();
+      headerFooterTask = null;
+    }
+
+    if (headerFooterUpdateInterval <= 0) return;
+
+    headerFooterTask = this.scheduler.runGlobalTimer(
+      this::refreshHeaderFooterTemplates,
+      headerFooterUpdateInterval,
+      headerFooterUpdateInterval
+    );
+  }
+
+  /**
+   * Applies the settings that changed in a reloaded configuration. Only
+   * the players affected by a change receive packets, and a setting left
+   * untouched is not reapplied, so the header, footer and visibility set
+   * through the API since the last reload are kept.
+   *
+   * @param codex the active configuration, holding the new settings
+   * @param diff the settings that changed
+   */
+  public void applyConfiguration(@NotNull Codex codex, @NotNull ConfigDiff diff) {
+    if (codex == null) throw new IllegalArgumentException("Codex cannot be null");
+    if (diff == null) throw new IllegalArgumentException("Diff cannot be null");
+
+    if (diff.changed("hide-player-join")) this.globalHidePlayerJoin = codex.isHidePlayerJoin();
+    if (diff.changed("world-scoping")) this.worldScopes.setEnabled(codex.isWorldScoping());
+    if (diff.changed("admission")) this.admissionQueue.setBudget(codex.getAdmissionMaxPacketsPerTick(), codex.getAdmissionTimeBudget());
+    if (diff.changed("proximity")) {
+      this.proximityTracker.setRange(codex.getProximityRadius(), codex.getProximityHysteresis(), codex.getProximityInterval());
+      this.proximityTracker.setEnabled(codex.isProximityEnabled());
+    }
+    if (diff.changed("sync")) this.replicator.setInterval(codex.getSyncInterval());
+    if (diff.changed("persistence")) this.profileStore.setInterval(codex.getPersistenceInterval());
+    if (diff.changed("audit")) loadAuditSettings(codex);
+    if (diff.changed("display-name")) {
+      this.displayNames.setDefaultTemplate(codex.getDisplayNameTemplate());
+      this.displayNames.setInterval(codex.getDisplayNameInterval());
+    }
+
+    if (diff.changedAny("rate-limit", "backpressure")) {
+      this.defaultUpdateRate = codex.getUpdateRate();
+      this.maxBufferedBytes = codex.getMaxBufferedBytes();
+      for (PlayerTabManagerImpl manager : playerManagers.values()) {
+        manager.applyDefaultUpdateRate(this.defaultUpdateRate);
+        manager.getConnection().setMaxBufferedBytes(this.maxBufferedBytes);
+      }
+    }
+
+    // The entries are actually hidden or shown again, not only flagged
+    if (diff.changed("hide-tab") && codex.isHideTab() != this.globalTabHidden) {
+      if (codex.isHideTab()) hideTabForAll();
+      else showTabForAll();
+    }
+
+    if (diff.changed("header-footer.update-interval")) {
+      this.headerFooterUpdateInterval = codex.getHeaderFooterUpdateInterval();
+      startHeaderFooterTask();
+    }
+
+    // Edited animations only matter if one is played for all players
+    String previousAnimation = this.globalAnimation;
+    boolean animationChanged = diff.changed("animations") && (previousAnimation != null || codex.getDefaultAnimation() != null);
+    if (animationChanged || diff.changedAny("header-footer.enabled", "header-footer.header", "header-footer.footer", "header-footer.animation")) {
+      loadHeaderFooterSettings(codex);
+      for (PlayerTabManagerImpl manager : playerManagers.values()) {
+        applyGlobalHeaderFooter(manager);
       }
     }
   }
+
+  /**
+   * Sends the global header/footer to a player, unless an animation owns it.
+   *
+   * @param manager the manager of the player
+   */
+  private void applyGlobalHeaderFooter(PlayerTabManagerImpl manager) {
+    if (this.globalAnimation != null && manager.playAnimation(this.globalAnimation)) return;
+
+    if (hasGlobalHeaderFooterTemplate()) {
+      manager.setHeaderAndFooterTemplates(this.globalHeaderTemplate, this.globalFooterTemplate);
+    } else if (hasGlobalHeaderFooter()) {
+      manager.setHeaderAndFooter(this.globalHeader, this.globalFooter);
+    } else {
+      manager.removeHeaderAndFooter();
+    }
+  }
 }
 
@@ -0,0 +1,362 @@
+package fr.dreamin.dreaminTabList.impl.audit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the tab list operations, replacing a console line per operation.
+ *
+ * <p>Every operation is counted, and the counts are logged as a single
+ * summary line every summary interval. One operation out of
+ * {@code sampleEvery} of each type is also recorded in full (type, target,
+ * viewer count and duration) in a fixed-size ring buffer, which keeps the
+ * latest records for {@linkplain #dump(Path) dumping} on demand.
+ *
+ * <p>When a file is set, the sampled records are also appended to it as
+ * JSON lines by a background thread, rotating the file once it reaches
+ * its maximum size.
+ *
+ * <p>Operations may be recorded from any thread; the summaries and the
+ * file writes are driven by the tick.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class AuditLog {
+
+  /**
+   * Default number of records kept in memory.
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /**
+   * Default number of ticks between two console summaries.
+   */
+  public static final long DEFAULT_SUMMARY_INTERVAL = 1200L;
+
+  /**
+   * Name of the file the records are streamed to, in the audit directory.
+   */
+  public static final String FILE_NAME = "audit.log";
+
+  private static final AuditType[] TYPES = AuditType.values();
+
+  private final Logger logger;
+  private final AtomicLongArray operations = new AtomicLongArray(TYPES.length);
+  private final AtomicLongArray summarized = new AtomicLongArray(TYPES.length);
+  private final Queue<AuditRecord> unwritten = new ConcurrentLinkedQueue<>();
+  private volatile int sampleEvery = 1;
+  private volatile long summaryInterval = DEFAULT_SUMMARY_INTERVAL;
+  private long ticks; // Only counted by the tick thread
+
+  // Guarded by this
+  private AuditRecord[] ring = new AuditRecord[DEFAULT_CAPACITY];
+  private long recorded;
+
+  // File streaming, guarded by this
+  private Path file;
+  private long maxFileBytes;
+  private int maxFiles;
+  private ExecutorService writer;
+
+  // Only touched by the writer thread
+  private long fileBytes = -1L;
+
+  /**
+   * Creates an audit log keeping the default number of records in memory.
+   *
+   * @param logger the logger of the summaries
+   */
+  public AuditLog(@NotNull Logger logger) {
+    if (logger == null) throw new IllegalArgumentException("Logger cannot be null");
+
+    this.logger = logger;
+  }
+
+  /**
+   * Counts an operation, and records it if it is sampled.
+   *
+   * @param type the kind of operation
+   * @param target the UUID of the profile or player, null for bulk operations
+   * @param name the name of the profile or player, or the group of a bulk operation
+   * @param viewers the number of players the operation was sent to
+   * @param start the {@link System#nanoTime()} at the start of the operation
+   */
+  public void record(@NotNull AuditType type, @Nullable UUID target, @Nullable String name, int viewers, long start) {
+    long count = operations.getAndIncrement(type.ordinal());
+    if (count % sampleEvery != 0) return;
+
+    AuditRecord record = new AuditRecord(System.currentTimeMillis(), type, target, name, viewers, System.nanoTime() - start);
+    synchronized (this) {
+      ring[(int) (recorded++ % ring.length)] = record;
+      if (writer != null) unwritten.add(record);
+    }
+  }
+
+  /**
+   * Gets the records kept in memory.
+   *
+   * @return the records, oldest first
+   */
+  @NotNull
+  public synchronized List<AuditRecord> snapshot() {
+    int size = (int) Math.min(recorded, ring.length);
+    List<AuditRecord> records = new ArrayList<>(size);
+    for (long i = recorded - size; i < recorded; i++) records.add(ring[(int) (i % ring.length)]);
+    return records;
+  }
+
+  /**
+   * Writes the records kept in memory to a file, as JSON lines.
+   *
+   * @param path the file to write, replaced if it exists
+   * @return the number of records written
+   * @throws IOException if the file cannot be written
+   */
+  public int dump(@NotNull Path path) throws IOException {
+    if (path == null) throw new IllegalArgumentException("Path cannot be null");
+
+    List<AuditRecord> records = snapshot();
+    if (path.getParent() != null) Files.createDirectories(path.getParent());
+    try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      for (AuditRecord record : records) {
+        out.write(record.toJson());
+        out.newLine();
+      }
+    }
+    return records.size();
+  }
+
+  /**
+   * Gets the number of operations of a type counted since the start.
+   *
+   * @param type the kind of operation
+   * @return the number of operations, sampled or not
+   */
+  public long getCount(@NotNull AuditType type) {
+    return operations.get(type.ordinal());
+  }
+
+  /**
+   * Sets the number of records kept in memory, keeping the latest ones.
+   *
+   * @param capacity the number of records, at least 1
+   */
+  public synchronized void setCapacity(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1");
+    if (capacity == ring.length) return;
+
+    List<AuditRecord> records = snapshot();
+    this.ring = new AuditRecord[capacity];
+    this.recorded = 0L;
+    for (AuditRecord record : records.subList(Math.max(0, records.size() - capacity), records.size())) {
+      ring[(int) (recorded++ % capacity)] = record;
+    }
+  }
+
+  /**
+   * Sets the sampling of the recorded operations.
+   *
+   * @param sampleEvery record one operation out of this many of each type, at least 1
+   */
+  public void setSampleEvery(int sampleEvery) {
+    if (sampleEvery < 1) throw new IllegalArgumentException("Sampling must be at least 1");
+
+    this.sampleEvery = sampleEvery;
+  }
+
+  /**
+   * Sets the number of ticks between two console summaries.
+   *
+   * @param summaryInterval the interval in ticks, 0 or less to disable the summaries
+   */
+  public void setSummaryInterval(long summaryInterval) {
+    this.summaryInterval = summaryInterval;
+  }
+
+  /**
+   * Streams the sampled records to a file, or stops streaming them.
+   *
+   * <p>Once the file reaches its maximum size, it is renamed with the
+   * suffix {@code .1}, the older files shifted, and the oldest deleted.
+   *
+   * @param directory the directory of the audit file, or null to stop streaming
+   * @param maxFileBytes the size a file is rotated at
+   * @param maxFiles the number of rotated files kept besides the current one
+   */
+  public synchronized void setFile(@Nullable Path directory, long maxFileBytes, int maxFiles) {
+    Path next = directory != null ? directory.resolve(FILE_NAME) : null;
+    this.maxFileBytes = Math.max(1L, maxFileBytes);
+    this.maxFiles = Math.max(0, maxFiles);
+    if (next != null && next.equals(file)) return;
+
+    stopWriter();
+    this.file = next;
+    if (next == null) return;
+
+    this.writer = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("DreaminTabList-audit").daemon().factory());
+  }
+
+  /**
+   * Gets the file the sampled records are streamed to.
+   *
+   * @return the audit file, or null if the records are only kept in memory
+   */
+  @Nullable
+  public synchronized Path getFile() {
+    return file;
+  }
+
+  /**
+   * Counts a tick, handing the sampled records to the file writer and
+   * logging a summary every summary interval.
+   */
+  public void tick() {
+    flush();
+
+    long interval = this.summaryInterval;
+    if (interval <= 0 || ++ticks < interval) return;
+
+    ticks = 0;
+    String summary = summarize();
+    if (summary != null) logger.info("Tab activity over the last " + interval + " ticks: " + summary);
+  }
+
+  /**
+   * Builds the summary of the operations counted since the previous one.
+   *
+   * @return the summary, or null if nothing happened
+   */
+  @Nullable
+  String summarize() {
+    StringBuilder summary = new StringBuilder();
+    for (AuditType type : TYPES) {
+      long total = operations.get(type.ordinal());
+      long count = total - summarized.getAndSet(type.ordinal(), total);
+      if (count == 0) continue;
+
+      if (!summary.isEmpty()) summary.append(", ");
+      summary.append(count).append(' ').append(type.getSummary());
+    }
+    return summary.isEmpty() ? null : summary.toString();
+  }
+
+  /**
+   * Hands the sampled records to the file writer.
+   */
+  public synchronized void flush() {
+    if (writer == null || unwritten.isEmpty()) return;
+
+    List<AuditRecord> records = new ArrayList<>();
+    AuditRecord record;
+    while ((record = unwritten.poll()) != null) records.add(record);
+
+    Path path = this.file;
+    long maxBytes = this.maxFileBytes;
+    int rotated = this.maxFiles;
+    writer.execute(() -> append(path, records, maxBytes, rotated));
+  }
+
+  /**
+   * Writes the pending records and stops streaming them.
+   */
+  public synchronized void close() {
+    flush();
+    stopWriter();
+    this.file = null;
+  }
+
+  /**
+   * Waits for the writer to finish the records handed to it so far.
+   *
+   * @throws Exception if the writer was interrupted or is shut down
+   */
+  synchronized void awaitWrites() throws Exception {
+    writer.submit(() -> {
+    }).get();
+  }
+
+  private void stopWriter() {
+    if (writer == null) return;
+
+    flush();
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(5L, TimeUnit.SECONDS)) logger.warning("Timed out writing the audit log");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    writer = null;
+    fileBytes = -1L;
+    unwritten.clear();
+  }
+
+  private void append(Path path, List<AuditRecord> records, long maxBytes, int rotated) {
+    try {
+      if (fileBytes < 0) {
+        Files.createDirectories(path.getParent());
+        fileBytes = Files.exists(path) ? Files.size(path) : 0L;
+      }
+
+      StringBuilder lines = new StringBuilder(records.size() * 160);
+      for (AuditRecord record : records) lines.append(record.toJson()).append('\n');
+      byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+      if (fileBytes > 0 && fileBytes + bytes.length > maxBytes) {
+        rotate(path, rotated);
+        fileBytes = 0L;
+      }
+
+      Files.write(path, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      fileBytes += bytes.length;
+    } catch (IOException e) {
+      fileBytes = -1L;
+      logger.log(Level.WARNING, "Failed to write the audit log", e);
+    }
+  }
+
+  private static void rotate(Path path, int rotated) throws IOException {
+    if (rotated == 0) {
+      Files.delete(path);
+      return;
+    }
+
+    Files.deleteIfExists(rotatedFile(path, rotated));
+    for (int i = rotated - 1; i >= 1; i--) {
+      Path older = rotatedFile(path, i);
+      if (Files.exists(older)) Files.move(older, rotatedFile(path, i + 1), StandardCopyOption.REPLACE_EXISTING);
+    }
+    Files.move(path, rotatedFile(path, 1), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Gets the path of a rotated audit file.
+   *
+   * @param path the current audit file
+   * @param index the rotation index, 1 for the most recent
+   * @return the rotated file, such as {@code audit.log.1}
+   */
+  static Path rotatedFile(Path path, int index) {
+    return path.resolveSibling(path.getFileName() + "." + index);
+  }
+}
@@ -0,0 +1,63 @@
+package fr.dreamin.dreaminTabList.impl.audit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A tab list operation recorded in the audit log.
+ *
+ * @param time the time of the operation, in epoch milliseconds
+ * @param type the kind of operation
+ * @param target the UUID of the profile or player, null for bulk operations
+ * @param name the name of the profile or player, or the group of a bulk operation
+ * @param viewers the number of players the operation was sent to
+ * @param durationNanos the time spent in the operation, in nanoseconds
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public record AuditRecord(long time, @NotNull AuditType type, @Nullable UUID target, @Nullable String name,
+                          int viewers, long durationNanos) {
+
+  /**
+   * Formats this record as a single JSON line.
+   *
+   * @return the JSON object, without line separator
+   */
+  @NotNull
+  public String toJson() {
+    StringBuilder builder = new StringBuilder(160)
+      .append("{\"time\":\"").append(Instant.ofEpochMilli(time)).append('"')
+      .append(",\"type\":\"").append(type.getKey()).append('"');
+    if (target != null) builder.append(",\"target\":\"").append(target).append('"');
+    if (name != null) appendString(builder.append(",\"name\":"), name);
+    return builder
+      .append(",\"viewers\":").append(viewers)
+      .append(",\"durationUs\":").append(durationNanos / 1_000L)
+      .append('}')
+      .toString();
+  }
+
+  private static void appendString(StringBuilder builder, String value) {
+    builder.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> builder.append("\\\"");
+        case '\\' -> builder.append("\\\\");
+        case '\n' -> builder.append("\\n");
+        case '\r' -> builder.append("\\r");
+        case '\t' -> builder.append("\\t");
+        default -> {
+          if (c < 0x20) builder.append(String.format("\\u%04x", (int) c));
+          else builder.append(c);
+        }
+      }
+    }
+    builder.append('"');
+  }
+}
@@ -0,0 +1,48 @@
+package fr.dreamin.dreaminTabList.impl.audit;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The kinds of tab list operations recorded in the audit log.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public enum AuditType {
+
+  PROFILE_ADD("profile.add", "profile additions"),
+  PROFILE_UPDATE("profile.update", "profile updates"),
+  PROFILE_REMOVE("profile.remove", "profile removals"),
+  PROFILE_CLEAR("profile.clear", "profile clears"),
+  PLAYER_REGISTER("player.register", "player registrations"),
+  PLAYER_UNREGISTER("player.unregister", "player unregistrations");
+
+  private final String key;
+  private final String summary;
+
+  AuditType(String key, String summary) {
+    this.key = key;
+    this.summary = summary;
+  }
+
+  /**
+   * Gets the key written in the audit records.
+   *
+   * @return the key, such as {@code profile.add}
+   */
+  @NotNull
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Gets the plural description used in the console summaries.
+   *
+   * @return the description, such as {@code profile additions}
+   */
+  @NotNull
+  public String getSummary() {
+    return summary;
+  }
+}
@@ -0,0 +1,275 @@
+package fr.dreamin.dreaminTabList.impl.concurrent;
+
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs blocking external lookups (skins, profiles) on virtual threads.
+ *
+ * <p>Every lookup gets its own virtual thread, so a slow remote service
+ * never blocks the caller nor a platform thread. A semaphore caps the
+ * number of lookups talking to the remote service at once; lookups past
+ * the cap wait for a permit without holding a platform thread.
+ *
+ * <p>Each lookup has a deadline covering both the wait for a permit and
+ * the call itself. A lookup missing its deadline, or cancelled, completes
+ * exceptionally and its thread is interrupted. Lookups made on behalf of
+ * a player can be cancelled together when the player quits.
+ *
+ * <p>A single executor is shared by the plugin, like the
+ * {@link MetricsRegistry}, so profile builders can use it without access
+ * to the API instance.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class LookupExecutor {
+
+  /**
+   * Default maximum number of concurrent lookups.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT = 16;
+
+  /**
+   * Default deadline of a lookup.
+   */
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+  private static volatile LookupExecutor global;
+
+  private final ExecutorService threads = Executors.newThreadPerTaskExecutor(
+    Thread.ofVirtual().name("DreaminTabList-lookup-", 0).factory());
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final Duration timeout;
+  private final Map<UUID, Set<CompletableFuture<?>>> byOwner = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an executor.
+   *
+   * @param maxConcurrent the maximum number of lookups running at once
+   * @param timeout the default deadline of a lookup
+   */
+  public LookupExecutor(int maxConcurrent, @NotNull Duration timeout) {
+    if (maxConcurrent <= 0) throw new IllegalArgumentException("Max concurrent lookups must be positive");
+    if (timeout == null) throw new IllegalArgumentException("Timeout cannot be null");
+    if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("Timeout must be positive");
+
+    this.maxConcurrent = maxConcurrent;
+    this.timeout = timeout;
+    this.permits = new Semaphore(maxConcurrent, true);
+  }
+
+  /**
+   * Gets the executor shared by the plugin, creating one with the default
+   * settings if none was installed.
+   *
+   * @return the global executor
+   */
+  @NotNull
+  public static LookupExecutor global() {
+    LookupExecutor executor = global;
+    if (executor != null) return executor;
+
+    synchronized (LookupExecutor.class) {
+      if (global == null) global = new LookupExecutor(DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT);
+      return global;
+    }
+  }
+
+  /**
+   * Replaces the shared executor, shutting down the previous one.
+   *
+   * @param executor the new global executor
+   */
+  public static synchronized void install(@NotNull LookupExecutor executor) {
+    if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+
+    LookupExecutor previous = global;
+    global = executor;
+    if (previous != null && previous != executor) previous.shutdown();
+  }
+
+  /**
+   * Shuts down the shared executor, if any. The next call to
+   * {@link #global()} creates a new one.
+   */
+  public static synchronized void shutdownGlobal() {
+    if (global == null) return;
+
+    global.shutdown();
+    global = null;
+  }
+
+  /**
+   * Runs a lookup with the default deadline.
+   *
+   * @param lookup the blocking lookup
+   * @param owner the player the lookup is made for, or null if none
+   * @param <T> the lookup result type
+   * @return a future completed with the result, or exceptionally with a
+   *         {@link TimeoutException} past the deadline
+   */
+  @NotNull
+  public <T> CompletableFuture<T> submit(@NotNull Callable<T> lookup, @Nullable UUID owner) {
+    return submit(lookup, owner, timeout);
+  }
+
+  /**
+   * Runs a lookup.
+   *
+   * @param lookup the blocking lookup
+   * @param owner the player the lookup is made for, or null if none
+   * @param deadline the time allowed for the lookup, waiting included
+   * @param <T> the lookup result type
+   * @return a future completed with the result, or exceptionally with a
+   *         {@link TimeoutException} past the deadline
+   */
+  @NotNull
+  public <T> CompletableFuture<T> submit(@NotNull Callable<T> lookup, @Nullable UUID owner, @NotNull Duration deadline) {
+    if (lookup == null) throw new IllegalArgumentException("Lookup cannot be null");
+    if (deadline == null) throw new IllegalArgumentException("Deadline cannot be null");
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+    Future<?> running;
+    try {
+      running = threads.submit(() -> run(lookup, result, deadlineNanos));
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(new CancellationException("Lookup executor is shut down"));
+      return result;
+    }
+
+    result.orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+      // Interrupts the lookup if it is still running, after a timeout or a cancellation
+      running.cancel(true);
+      if (error instanceof TimeoutException) MetricsRegistry.global().increment(TabListMetrics.LOOKUP_TIMEOUTS);
+    });
+    return bind(result, owner);
+  }
+
+  /**
+   * Ties a future to a player, so it is cancelled with the lookups made for
+   * that player. Used for futures derived from shared lookups, where the
+   * shared lookup must keep running for the other requesters.
+   *
+   * @param future the future to cancel when the player quits
+   * @param owner the player, or null to leave the future untied
+   * @param <T> the future result type
+   * @return the given future
+   */
+  @NotNull
+  public <T> CompletableFuture<T> bind(@NotNull CompletableFuture<T> future, @Nullable UUID owner) {
+    if (future == null) throw new IllegalArgumentException("Future cannot be null");
+    if (owner == null) return future;
+
+    byOwner.computeIfAbsent(owner, key -> ConcurrentHashMap.newKeySet()).add(future);
+    future.whenComplete((value, error) -> untrack(owner, future));
+    return future;
+  }
+
+  /**
+   * Cancels the lookups made for a player.
+   *
+   * @param owner the player
+   * @return the number of lookups cancelled
+   */
+  public int cancel(@NotNull UUID owner) {
+    if (owner == null) throw new IllegalArgumentException("Owner cannot be null");
+
+    Set<CompletableFuture<?>> futures = byOwner.remove(owner);
+    if (futures == null) return 0;
+
+    int cancelled = 0;
+    for (CompletableFuture<?> future : futures) {
+      if (future.cancel(true)) cancelled++;
+    }
+    return cancelled;
+  }
+
+  /**
+   * Gets the number of lookups holding a permit.
+   *
+   * @return the running lookup count
+   */
+  public int getRunningCount() {
+    return maxConcurrent - permits.availablePermits();
+  }
+
+  /**
+   * Gets the maximum number of lookups running at once.
+   *
+   * @return the concurrency cap
+   */
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  /**
+   * Gets the default deadline of a lookup.
+   *
+   * @return the default timeout
+   */
+  @NotNull
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Stops accepting lookups and interrupts the running ones.
+   */
+  public void shutdown() {
+    threads.shutdownNow();
+    for (UUID owner : byOwner.keySet()) {
+      cancel(owner);
+    }
+  }
+
+  private <T> void run(Callable<T> lookup, CompletableFuture<T> result, long deadlineNanos) {
+    boolean acquired = false;
+    try {
+      acquired = permits.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (!acquired) {
+        result.completeExceptionally(new TimeoutException("No lookup slot freed before the deadline"));
+        return;
+      }
+      if (result.isDone()) return;
+
+      result.complete(lookup.call());
+    } catch (InterruptedException e) {
+      // Timed out or cancelled, the future is already completed
+      result.cancel(false);
+    } catch (Throwable throwable) {
+      result.completeExceptionally(throwable);
+    } finally {
+      if (acquired) permits.release();
+    }
+  }
+
+  private void untrack(UUID owner, CompletableFuture<?> future) {
+    byOwner.computeIfPresent(owner, (key, futures) -> {
+      futures.remove(future);
+      return futures.isEmpty() ? null : futures;
+    });
+  }
+}
@@ -0,0 +1,93 @@
+package fr.dreamin.dreaminTabList.impl.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free mailbox running tasks one at a time, in submission order.
+ *
+ * <p>There is no dedicated thread: the thread submitting a task drains
+ * the mailbox if no other thread is draining it, otherwise the task is
+ * left to the draining thread. Without contention a task therefore runs
+ * synchronously on the caller's thread. A task submitted from a task of
+ * the same executor runs immediately, as part of the current task.
+ *
+ * <p>State owned by an executor may only be touched from its tasks, which
+ * are guaranteed to never run concurrently and to see the writes of every
+ * previous task.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class SerialExecutor implements Executor {
+
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+  private final AtomicReference<Thread> owner = new AtomicReference<>();
+  private final Consumer<Throwable> errorHandler;
+
+  /**
+   * Creates an executor.
+   *
+   * @param errorHandler receives the exceptions thrown by tasks, which never
+   *                     stop the tasks queued after them
+   */
+  public SerialExecutor(@NotNull Consumer<Throwable> errorHandler) {
+    if (errorHandler == null) throw new IllegalArgumentException("Error handler cannot be null");
+
+    this.errorHandler = errorHandler;
+  }
+
+  /**
+   * Runs a task after every task submitted before it.
+   *
+   * @param task the task to run
+   */
+  @Override
+  public void execute(@NotNull Runnable task) {
+    if (task == null) throw new IllegalArgumentException("Task cannot be null");
+
+    Thread current = Thread.currentThread();
+    if (owner.get() == current) {
+      run(task);
+      return;
+    }
+
+    mailbox.offer(task);
+
+    // Drain until the mailbox is empty, then re-check for a task offered
+    // between the last poll and the release of ownership
+    while (!mailbox.isEmpty() && owner.compareAndSet(null, current)) {
+      try {
+        Runnable next;
+        while ((next = mailbox.poll()) != null) {
+          run(next);
+        }
+      } finally {
+        owner.set(null);
+      }
+    }
+  }
+
+  /**
+   * Checks if the current thread is running a task of this executor.
+   *
+   * @return true if called from a task
+   */
+  public boolean isOwnedByCurrentThread() {
+    return owner.get() == Thread.currentThread();
+  }
+
+  private void run(Runnable task) {
+    try {
+      task.run();
+    } catch (Throwable throwable) {
+      errorHandler.accept(throwable);
+    }
+  }
+}
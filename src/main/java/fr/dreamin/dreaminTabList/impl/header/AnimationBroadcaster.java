@@ -0,0 +1,175 @@
+package fr.dreamin.dreaminTabList.impl.header;
+
+import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.config.animation.HeaderFooterAnimation;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.packet.EncodedPacket;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Broadcasts animated header/footer frames to their viewers.
+ *
+ * <p>A single task drives every animation from a shared tick clock.
+ * Viewers are grouped by animation, and when a new frame starts the
+ * pre-encoded frame bytes are written once to each viewer of that
+ * animation. No component is serialized while animations are playing.
+ *
+ * <p>Frames go through the {@link fr.dreamin.dreaminTabList.impl.network.ViewerConnection}
+ * of each viewer, so they are held rather than buffered while its channel
+ * is not writable.
+ *
+ * <p>Animations replaced by a configuration reload are {@linkplain
+ * #retire(Collection) retired} rather than released: a tick may still be
+ * sending their frames, so they are only released by the next one.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public class AnimationBroadcaster implements Runnable {
+
+  private final TabListAPIImpl api;
+  private final Function<String, HeaderFooterAnimation> animations;
+  private final Map<String, Set<UUID>> viewersByAnimation = new ConcurrentHashMap<>();
+  private final Queue<HeaderFooterAnimation> retired = new ConcurrentLinkedQueue<>();
+  private volatile long tick = 0L;
+
+  /**
+   * Creates a new broadcaster.
+   *
+   * @param api the main API instance
+   */
+  public AnimationBroadcaster(@NotNull TabListAPIImpl api) {
+    this(api, AnimationBroadcaster::findConfiguredAnimation);
+  }
+
+  /**
+   * Creates a new broadcaster playing the animations of a lookup.
+   *
+   * @param api the main API instance
+   * @param animations the lookup of the animations by name, returning null for unknown names
+   */
+  AnimationBroadcaster(@NotNull TabListAPIImpl api, @NotNull Function<String, HeaderFooterAnimation> animations) {
+    this.api = api;
+    this.animations = animations;
+  }
+
+  @Override
+  public void run() {
+    // Retired before this tick, the previous one was the last to send their frames
+    releaseRetired();
+    tick++;
+
+    for (Map.Entry<String, Set<UUID>> entry : viewersByAnimation.entrySet()) {
+      Set<UUID> viewers = entry.getValue();
+      if (viewers.isEmpty()) continue;
+
+      HeaderFooterAnimation animation = findAnimation(entry.getKey());
+      if (animation == null || !animation.isFrameStart(tick)) continue;
+
+      EncodedPacket frame = animation.getFrameAt(tick);
+      for (UUID viewer : viewers) {
+        PlayerTabManagerImpl manager = api.findPlayerManager(viewer);
+        if (manager == null) viewers.remove(viewer);
+        else manager.getConnection().sendFrame(frame);
+      }
+    }
+  }
+
+  /**
+   * Starts playing an animation for a viewer.
+   *
+   * <p>The viewer is removed from any other animation and immediately
+   * receives the current frame. Must be called from the viewer's
+   * connection executor, like any change to the viewer's header/footer.
+   *
+   * @param name the animation name
+   * @param manager the viewer's manager
+   * @return true if the animation exists
+   */
+  public boolean play(@NotNull String name, @NotNull PlayerTabManagerImpl manager) {
+    HeaderFooterAnimation animation = findAnimation(name);
+    if (animation == null) return false;
+
+    stop(manager);
+    viewersByAnimation.computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet()).add(manager.getPlayerUUID());
+    manager.getConnection().sendFrame(animation.getFrameAt(tick));
+    return true;
+  }
+
+  /**
+   * Stops any animation played for a viewer.
+   *
+   * @param manager the viewer's manager
+   */
+  public void stop(@NotNull PlayerTabManagerImpl manager) {
+    UUID uuid = manager.getPlayerUUID();
+    for (Set<UUID> viewers : viewersByAnimation.values()) {
+      viewers.remove(uuid);
+    }
+  }
+
+  /**
+   * Hands over animations replaced by a configuration reload, to be
+   * released once no tick can be sending their frames anymore.
+   *
+   * @param animations the replaced animations
+   */
+  public void retire(@NotNull Collection<HeaderFooterAnimation> animations) {
+    retired.addAll(animations);
+  }
+
+  /**
+   * Releases the retired animations. Called by each tick, and when the
+   * broadcaster is stopped.
+   */
+  public void releaseRetired() {
+    HeaderFooterAnimation animation;
+    while ((animation = retired.poll()) != null) {
+      animation.release();
+    }
+  }
+
+  /**
+   * Checks if an animation can be played.
+   *
+   * @param name the animation name
+   * @return true if the animation exists
+   */
+  public boolean hasAnimation(@NotNull String name) {
+    return findAnimation(name) != null;
+  }
+
+  /**
+   * Gets the number of viewers of an animation.
+   *
+   * @param name the animation name
+   * @return the number of viewers
+   */
+  public int getViewerCount(@NotNull String name) {
+    Set<UUID> viewers = viewersByAnimation.get(name);
+    return viewers != null ? viewers.size() : 0;
+  }
+
+  @Nullable
+  private HeaderFooterAnimation findAnimation(@NotNull String name) {
+    return animations.apply(name);
+  }
+
+  @Nullable
+  private static HeaderFooterAnimation findConfiguredAnimation(@NotNull String name) {
+    if (DreaminTabList.getCodex() == null) return null;
+    return DreaminTabList.getCodex().getAnimation(name);
+  }
+}
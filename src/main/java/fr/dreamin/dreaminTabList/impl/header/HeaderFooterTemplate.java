@@ -0,0 +1,154 @@
+package fr.dreamin.dreaminTabList.impl.header;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A header or footer template compiled into a render plan.
+ *
+ * <p>Templates are compiled once from their source lines into an ordered
+ * list of segments. Each segment is either literal text or a placeholder
+ * reference (written as {@code %key%}). Rendering a template for a viewer
+ * only walks the segments and appends text, so no parsing happens on the
+ * refresh path.
+ *
+ * <p>A template without any placeholder is considered static: its output
+ * is the same for every viewer and never needs to be refreshed.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class HeaderFooterTemplate {
+
+  private final String source;
+  private final List<Segment> segments;
+  private final boolean staticTemplate;
+
+  private HeaderFooterTemplate(@NotNull String source, @NotNull List<Segment> segments) {
+    this.source = source;
+    this.segments = Collections.unmodifiableList(segments);
+    this.staticTemplate = segments.stream().noneMatch(segment -> segment.placeholder);
+  }
+
+  /**
+   * Compiles a multi-line template.
+   *
+   * <p>Lines are joined with a newline before compiling, matching the way
+   * the configuration header and footer lists are displayed.
+   *
+   * @param lines the template lines, must not be null
+   * @return the compiled template, never null
+   */
+  @NotNull
+  public static HeaderFooterTemplate compile(@NotNull List<String> lines) {
+    if (lines == null) throw new IllegalArgumentException("Lines cannot be null");
+
+    return compile(String.join("\n", lines));
+  }
+
+  /**
+   * Compiles a template string.
+   *
+   * <p>Placeholders are written as {@code %key%} where the key only contains
+   * letters, digits and underscores. Any other use of {@code %} is kept as
+   * literal text.
+   *
+   * @param source the template source, must not be null
+   * @return the compiled template, never null
+   */
+  @NotNull
+  public static HeaderFooterTemplate compile(@NotNull String source) {
+    if (source == null) throw new IllegalArgumentException("Source cannot be null");
+
+    List<Segment> segments = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+
+    int index = 0;
+    while (index < source.length()) {
+      char c = source.charAt(index);
+      int end = c == '%' ? source.indexOf('%', index + 1) : -1;
+
+      if (end > index + 1 && isPlaceholderKey(source, index + 1, end)) {
+        if (literal.length() > 0) {
+          segments.add(new Segment(literal.toString(), false));
+          literal.setLength(0);
+        }
+        segments.add(new Segment(source.substring(index + 1, end), true));
+        index = end + 1;
+        continue;
+      }
+
+      literal.append(c);
+      index++;
+    }
+
+    if (literal.length() > 0) segments.add(new Segment(literal.toString(), false));
+
+    return new HeaderFooterTemplate(source, segments);
+  }
+
+  /**
+   * Renders this template for a viewer.
+   *
+   * <p>Unknown placeholders are rendered as their original {@code %key%} text.
+   *
+   * @param viewer the viewer to resolve placeholders for, may be null
+   * @param placeholders the placeholder registry
+   * @return the rendered text, never null
+   */
+  @NotNull
+  public String render(@Nullable Player viewer, @NotNull PlaceholderRegistry placeholders) {
+    if (staticTemplate) return source;
+
+    StringBuilder builder = new StringBuilder(source.length() + 16);
+    for (Segment segment : segments) {
+      if (!segment.placeholder) {
+        builder.append(segment.value);
+        continue;
+      }
+
+      String value = placeholders.resolve(segment.value, viewer);
+      if (value != null) builder.append(value);
+      else builder.append('%').append(segment.value).append('%');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Checks if this template contains no placeholder.
+   *
+   * @return true if the rendered output never changes
+   */
+  public boolean isStatic() {
+    return staticTemplate;
+  }
+
+  /**
+   * Gets the original template source.
+   *
+   * @return the template source
+   */
+  @NotNull
+  public String getSource() {
+    return source;
+  }
+
+  private static boolean isPlaceholderKey(String source, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = source.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_') return false;
+    }
+    return true;
+  }
+
+  /**
+   * A single piece of a compiled template.
+   */
+  private record Segment(String value, boolean placeholder) {}
+}
@@ -0,0 +1,96 @@
+package fr.dreamin.dreaminTabList.impl.header;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Registry of placeholders available to header and footer templates.
+ *
+ * <p>Each placeholder is resolved per viewer. Keys are case-insensitive.
+ * The following placeholders are registered by default:
+ * <ul>
+ *   <li>{@code %player%} - the viewer's name</li>
+ *   <li>{@code %ping%} - the viewer's latency in milliseconds</li>
+ *   <li>{@code %world%} - the name of the viewer's world</li>
+ *   <li>{@code %online%} - the number of online players</li>
+ *   <li>{@code %max_players%} - the server's player limit</li>
+ * </ul>
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public class PlaceholderRegistry {
+
+  private final Logger logger;
+  private final Map<String, Function<Player, String>> resolvers = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new registry with the default placeholders.
+   *
+   * @param logger the logger used to report failing resolvers
+   */
+  public PlaceholderRegistry(@NotNull Logger logger) {
+    this.logger = logger;
+
+    register("player", Player::getName);
+    register("ping", player -> String.valueOf(player.getPing()));
+    register("world", player -> player.getWorld().getName());
+    register("online", player -> String.valueOf(Bukkit.getOnlinePlayers().size()));
+    register("max_players", player -> String.valueOf(Bukkit.getMaxPlayers()));
+  }
+
+  /**
+   * Registers or replaces a placeholder.
+   *
+   * @param key the placeholder key, without the surrounding {@code %}
+   * @param resolver the function resolving the value for a viewer
+   */
+  public void register(@NotNull String key, @NotNull Function<Player, String> resolver) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    if (resolver == null) throw new IllegalArgumentException("Resolver cannot be null");
+
+    resolvers.put(key.toLowerCase(Locale.ROOT), resolver);
+  }
+
+  /**
+   * Removes a placeholder.
+   *
+   * @param key the placeholder key
+   * @return true if a placeholder was removed
+   */
+  public boolean unregister(@NotNull String key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+    return resolvers.remove(key.toLowerCase(Locale.ROOT)) != null;
+  }
+
+  /**
+   * Resolves a placeholder for a viewer.
+   *
+   * @param key the placeholder key
+   * @param viewer the viewer, may be null for viewer-independent rendering
+   * @return the resolved value, or null if the placeholder is unknown or
+   *         cannot be resolved without a viewer
+   */
+  @Nullable
+  public String resolve(@NotNull String key, @Nullable Player viewer) {
+    Function<Player, String> resolver = resolvers.get(key.toLowerCase(Locale.ROOT));
+    if (resolver == null || viewer == null) return null;
+
+    try {
+      return resolver.apply(viewer);
+    } catch (Exception e) {
+      logger.fine("Placeholder %" + key + "% failed for " + viewer.getName() + ": " + e.getMessage());
+      return null;
+    }
+  }
+}
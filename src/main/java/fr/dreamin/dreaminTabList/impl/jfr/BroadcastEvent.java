@@ -0,0 +1,35 @@
+package fr.dreamin.dreaminTabList.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering a global profile broadcast to every viewer.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@Name("fr.dreamin.dreaminTabList.Broadcast")
+@Label("Tab Broadcast")
+@Category({"DreaminTabList", "Packets"})
+@Description("Broadcast of a global profile change to every viewer")
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+  @Label("Operation")
+  @Description("add, update or remove")
+  public String operation;
+
+  @Label("Entries")
+  @Description("Number of tab entries in the broadcast")
+  public int entries;
+
+  @Label("Fan-out")
+  @Description("Number of viewers the broadcast was sent to")
+  public int fanout;
+}
@@ -0,0 +1,36 @@
+package fr.dreamin.dreaminTabList.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the rendering of a player's header/footer templates.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@Name("fr.dreamin.dreaminTabList.HeaderFooterRender")
+@Label("Tab Header/Footer Render")
+@Category({"DreaminTabList", "Header/Footer"})
+@Description("Rendering of the header and footer templates of a player")
+@StackTrace(false)
+public class HeaderFooterRenderEvent extends Event {
+
+  @Label("Viewer")
+  public String viewer;
+
+  @Label("Rendered Size")
+  @Description("Size of the rendered header and footer text")
+  @DataAmount
+  public int bytes;
+
+  @Label("Changed")
+  @Description("Whether the output changed and a packet was sent")
+  public boolean changed;
+}
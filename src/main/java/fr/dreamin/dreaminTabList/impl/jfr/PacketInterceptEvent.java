@@ -0,0 +1,40 @@
+package fr.dreamin.dreaminTabList.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the interception of an outgoing PlayerInfoUpdate packet.
+ *
+ * <p>The duration includes decoding the packet and firing the
+ * PacketPlayerUpdateEvent to Bukkit listeners.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@Name("fr.dreamin.dreaminTabList.PacketIntercept")
+@Label("Tab Packet Interception")
+@Category({"DreaminTabList", "Packets"})
+@Description("Interception of an outgoing PlayerInfoUpdate packet")
+@StackTrace(false)
+public class PacketInterceptEvent extends Event {
+
+  @Label("Viewer")
+  public String viewer;
+
+  @Label("Entries")
+  public int entries;
+
+  @Label("Packet Size")
+  @DataAmount
+  public int bytes;
+
+  @Label("Cancelled")
+  public boolean cancelled;
+}
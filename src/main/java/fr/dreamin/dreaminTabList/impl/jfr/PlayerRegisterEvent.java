@@ -0,0 +1,38 @@
+package fr.dreamin.dreaminTabList.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the registration of a joining player.
+ *
+ * <p>The event duration includes the creation of the player's manager, the
+ * creation of their profile (including a synchronous skin fetch) and its
+ * broadcast to every viewer.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@Name("fr.dreamin.dreaminTabList.PlayerRegister")
+@Label("Tab Player Registration")
+@Category({"DreaminTabList", "Players"})
+@Description("Registration of a joining player in the tab list")
+@StackTrace(false)
+public class PlayerRegisterEvent extends Event {
+
+  @Label("Player")
+  public String player;
+
+  @Label("Managed Players")
+  @Description("Number of players managed once this player is registered")
+  public int managedPlayers;
+
+  @Label("Cancelled")
+  @Description("Whether the registration was cancelled by a PlayerTabJoinEvent listener")
+  public boolean cancelled;
+}
@@ -0,0 +1,49 @@
+package fr.dreamin.dreaminTabList.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering a skin fetch from the Mojang API.
+ *
+ * <p>The stack trace is recorded, as it shows which thread (often the main
+ * thread) waited for the request.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@Name("fr.dreamin.dreaminTabList.SkinFetch")
+@Label("Tab Skin Fetch")
+@Category({"DreaminTabList", "Network"})
+@Description("Fetch of a player skin from the Mojang API")
+public class SkinFetchEvent extends Event {
+
+  @Label("Player Name")
+  public String playerName;
+
+  @Label("Success")
+  public boolean success;
+
+  @Label("Texture Size")
+  @Description("Size of the fetched texture value, in bytes")
+  @DataAmount
+  public int textureBytes;
+
+  /**
+   * Ends and commits this event if it is recorded.
+   *
+   * @param playerName the name the skin was fetched for
+   */
+  public void finish(String playerName) {
+    end();
+    if (!shouldCommit()) return;
+
+    this.playerName = playerName;
+    commit();
+  }
+}
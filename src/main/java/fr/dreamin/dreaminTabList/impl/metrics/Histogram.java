@@ -0,0 +1,102 @@
+package fr.dreamin.dreaminTabList.impl.metrics;
+
+import fr.dreamin.dreaminTabList.api.metrics.HistogramSnapshot;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram with power-of-two buckets.
+ *
+ * <p>Every field is a striped adder or accumulator, so concurrent
+ * recording threads never contend on a single memory location.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class Histogram {
+
+  private static final int BUCKETS = 64;
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+  private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  Histogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a value.
+   *
+   * @param value the value to record
+   */
+  public void record(long value) {
+    count.increment();
+    sum.add(value);
+    min.accumulate(value);
+    max.accumulate(value);
+    buckets[bucketOf(value)].increment();
+  }
+
+  /**
+   * Records the time elapsed since a start time, converted to a unit.
+   *
+   * @param startNanos the start time, from {@link System#nanoTime()}
+   * @param nanosPerUnit the number of nanoseconds per recorded unit
+   */
+  public void recordSince(long startNanos, long nanosPerUnit) {
+    record((System.nanoTime() - startNanos) / nanosPerUnit);
+  }
+
+  /**
+   * Gets the number of recorded values.
+   *
+   * @return the value count
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Takes a snapshot of this histogram.
+   *
+   * <p>The snapshot is not atomic: values recorded concurrently may be
+   * partially included.
+   *
+   * @return the snapshot
+   */
+  @NotNull
+  public HistogramSnapshot snapshot() {
+    long[] values = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      values[i] = buckets[i].sum();
+    }
+
+    return new HistogramSnapshot(count.sum(), sum.sum(), min.get(), max.get(), values);
+  }
+
+  /**
+   * Resets this histogram.
+   */
+  void reset() {
+    count.reset();
+    sum.reset();
+    min.reset();
+    max.reset();
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+  }
+
+  private static int bucketOf(long value) {
+    if (value <= 0) return 0;
+    return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(value));
+  }
+}
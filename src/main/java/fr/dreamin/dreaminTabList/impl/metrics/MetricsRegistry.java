@@ -0,0 +1,151 @@
+package fr.dreamin.dreaminTabList.impl.metrics;
+
+import fr.dreamin.dreaminTabList.api.metrics.HistogramSnapshot;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free registry of the plugin metrics.
+ *
+ * <p>Counters are {@link LongAdder}s and histograms are {@link Histogram}s,
+ * created on first use. Hot paths should resolve their counter or
+ * histogram once and keep the reference, as {@link #reset()} clears values
+ * in place and never replaces them.
+ *
+ * <p>A single registry is shared by the whole plugin, so code without
+ * access to the API instance (packet listeners, profile builders) can
+ * record metrics too.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class MetricsRegistry implements TabListMetrics {
+
+  /**
+   * Nanoseconds per microsecond, for {@link Histogram#recordSince(long, long)}.
+   */
+  public static final long MICROS = TimeUnit.MICROSECONDS.toNanos(1);
+
+  /**
+   * Nanoseconds per millisecond, for {@link Histogram#recordSince(long, long)}.
+   */
+  public static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+  private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the registry shared by the plugin.
+   *
+   * @return the global registry
+   */
+  @NotNull
+  public static MetricsRegistry global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Gets or creates a counter.
+   *
+   * @param name the counter name
+   * @return the counter
+   */
+  @NotNull
+  public LongAdder counter(@NotNull String name) {
+    LongAdder counter = counters.get(name);
+    return counter != null ? counter : counters.computeIfAbsent(name, key -> new LongAdder());
+  }
+
+  /**
+   * Gets or creates a histogram.
+   *
+   * @param name the histogram name
+   * @return the histogram
+   */
+  @NotNull
+  public Histogram histogram(@NotNull String name) {
+    Histogram histogram = histograms.get(name);
+    return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new Histogram());
+  }
+
+  /**
+   * Increments a counter by one.
+   *
+   * @param name the counter name
+   */
+  public void increment(@NotNull String name) {
+    counter(name).increment();
+  }
+
+  /**
+   * Adds a value to a counter.
+   *
+   * @param name the counter name
+   * @param value the value to add
+   */
+  public void add(@NotNull String name, long value) {
+    counter(name).add(value);
+  }
+
+  /**
+   * Records a value in a histogram.
+   *
+   * @param name the histogram name
+   * @param value the value to record
+   */
+  public void record(@NotNull String name, long value) {
+    histogram(name).record(value);
+  }
+
+  @Override
+  public long getCounter(@NotNull String name) {
+    if (name == null) throw new IllegalArgumentException("Name cannot be null");
+
+    LongAdder counter = counters.get(name);
+    return counter != null ? counter.sum() : 0L;
+  }
+
+  @Override
+  @NotNull
+  public Map<String, Long> getCounters() {
+    Map<String, Long> snapshot = new TreeMap<>();
+    counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  @Override
+  @Nullable
+  public HistogramSnapshot getHistogram(@NotNull String name) {
+    if (name == null) throw new IllegalArgumentException("Name cannot be null");
+
+    Histogram histogram = histograms.get(name);
+    return histogram != null && histogram.getCount() > 0 ? histogram.snapshot() : null;
+  }
+
+  @Override
+  @NotNull
+  public Map<String, HistogramSnapshot> getHistograms() {
+    Map<String, HistogramSnapshot> snapshot = new TreeMap<>();
+    histograms.forEach((name, histogram) -> {
+      if (histogram.getCount() > 0) snapshot.put(name, histogram.snapshot());
+    });
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  @Override
+  public void reset() {
+    counters.values().forEach(LongAdder::reset);
+    histograms.values().forEach(Histogram::reset);
+  }
+}
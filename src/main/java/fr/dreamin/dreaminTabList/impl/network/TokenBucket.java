@@ -0,0 +1,99 @@
+package fr.dreamin.dreaminTabList.impl.network;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket limiting how many updates are released over time.
+ *
+ * <p>The bucket refills continuously at a fixed rate up to its capacity
+ * (the burst). Each released update consumes one token. This class is not
+ * thread-safe; each viewer owns its own bucket.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class TokenBucket {
+
+  private static final double NANOS_PER_SECOND = 1_000_000_000D;
+
+  private final LongSupplier clock;
+  private final double tokensPerNano;
+  private final double capacity;
+  private double tokens;
+  private long lastRefill;
+
+  /**
+   * Creates a full bucket using the system nano clock.
+   *
+   * @param perSecond the number of tokens added per second, must be positive
+   * @param burst the maximum number of tokens, must be at least 1
+   */
+  public TokenBucket(double perSecond, int burst) {
+    this(perSecond, burst, System::nanoTime);
+  }
+
+  /**
+   * Creates a full bucket using a custom nano clock.
+   *
+   * @param perSecond the number of tokens added per second, must be positive
+   * @param burst the maximum number of tokens, must be at least 1
+   * @param clock the clock returning the current time in nanoseconds
+   */
+  public TokenBucket(double perSecond, int burst, @NotNull LongSupplier clock) {
+    if (perSecond <= 0) throw new IllegalArgumentException("Rate must be positive: " + perSecond);
+    if (burst < 1) throw new IllegalArgumentException("Burst must be at least 1: " + burst);
+
+    this.clock = clock;
+    this.tokensPerNano = perSecond / NANOS_PER_SECOND;
+    this.capacity = burst;
+    this.tokens = burst;
+    this.lastRefill = clock.getAsLong();
+  }
+
+  /**
+   * Consumes a single token if available.
+   *
+   * @return true if a token was consumed
+   */
+  public boolean tryConsume() {
+    return consumeUpTo(1) == 1;
+  }
+
+  /**
+   * Consumes as many tokens as available, up to a maximum.
+   *
+   * @param max the maximum number of tokens to consume
+   * @return the number of tokens consumed
+   */
+  public int consumeUpTo(int max) {
+    refill();
+
+    int consumed = (int) Math.min(max, Math.floor(tokens));
+    if (consumed <= 0) return 0;
+
+    tokens -= consumed;
+    return consumed;
+  }
+
+  /**
+   * Gets the number of whole tokens currently available.
+   *
+   * @return the available tokens
+   */
+  public int available() {
+    refill();
+    return (int) Math.floor(tokens);
+  }
+
+  private void refill() {
+    long now = clock.getAsLong();
+    long elapsed = now - lastRefill;
+    if (elapsed <= 0) return;
+
+    tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+    lastRefill = now;
+  }
+}
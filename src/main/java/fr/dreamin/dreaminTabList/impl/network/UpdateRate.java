@@ -0,0 +1,41 @@
+package fr.dreamin.dreaminTabList.impl.network;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Release rate of cosmetic tab updates for a viewer.
+ *
+ * @param perSecond the number of cosmetic updates released per second,
+ *                  0 or less to disable limiting
+ * @param burst the number of updates that can be released at once
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public record UpdateRate(double perSecond, int burst) {
+
+  /**
+   * A rate that never holds back updates.
+   */
+  public static final UpdateRate UNLIMITED = new UpdateRate(0, 0);
+
+  /**
+   * Checks if this rate limits updates.
+   *
+   * @return true if updates are limited
+   */
+  public boolean isLimited() {
+    return perSecond > 0;
+  }
+
+  /**
+   * Creates a token bucket for this rate.
+   *
+   * @return a new full bucket, or null if this rate is unlimited
+   */
+  @Nullable
+  public TokenBucket newBucket() {
+    return isLimited() ? new TokenBucket(perSecond, Math.max(1, burst)) : null;
+  }
+}
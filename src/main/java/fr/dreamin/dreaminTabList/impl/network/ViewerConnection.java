@@ -0,0 +1,615 @@
+package fr.dreamin.dreaminTabList.impl.network;
+
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerListHeaderAndFooter;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.impl.concurrent.SerialExecutor;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import fr.dreamin.dreaminTabList.impl.packet.EncodedPacket;
+import fr.dreamin.dreaminTabList.impl.packet.TabPackets;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Outgoing tab packet lanes of a single viewer.
+ *
+ * <p>Packets are split into two lanes:
+ * <ul>
+ *   <li><strong>Structural:</strong> additions, removals, full replacements
+ *   and listed changes. They are sent immediately and in order, as the
+ *   client state depends on them.</li>
+ *   <li><strong>Cosmetic:</strong> display name, latency, game mode, hat
+ *   and list order updates. They are coalesced per profile, only the latest
+ *   value being kept, and released through a token bucket.</li>
+ * </ul>
+ *
+ * <p>A structural packet for a profile drops the pending cosmetic update of
+ * that profile, as the structural packet already carries the latest state
+ * (or removes the entry). Pending cosmetic updates are released by
+ * {@link #flush()}, called every tick, batched in a single packet.
+ *
+ * <p>The viewer's Netty channel is watched for backpressure. While the
+ * channel is not writable, cosmetic updates are held (still coalesced) and
+ * released once it drained. If the bytes waiting in the channel exceed the
+ * configured cap, the connection overflows: every tab packet is dropped
+ * until the channel is writable again, then the tab list is resynchronized
+ * in full instead of replaying the dropped packets. Animation frames are
+ * held the same way, only the latest one being sent once the channel
+ * drained.
+ *
+ * <p>Every method may be called from any thread. Changes are run by the
+ * viewer's {@link SerialExecutor} without locking, one at a time and in
+ * call order; getters return the state after the last completed change.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public class ViewerConnection {
+
+  private static final LongAdder COALESCED = MetricsRegistry.global().counter(TabListMetrics.UPDATES_COALESCED);
+  private static final LongAdder DEFERRED = MetricsRegistry.global().counter(TabListMetrics.UPDATES_DEFERRED);
+  private static final LongAdder OVERFLOWS = MetricsRegistry.global().counter(TabListMetrics.CONNECTION_OVERFLOWS);
+  private static final LongAdder DROPPED = MetricsRegistry.global().counter(TabListMetrics.PACKETS_DROPPED);
+
+  private final User user;
+  private final Channel channel;
+  private final SerialExecutor executor;
+
+  // Owned by the executor
+  private final Map<UUID, TabProfileImpl> pendingCosmetic = new LinkedHashMap<>();
+  private final Set<UUID> droppedRemovals = new HashSet<>();
+  private final Map<UUID, TabProfileImpl> droppedUnlistings = new LinkedHashMap<>();
+  private EncodedPacket pendingFrame;
+  private TokenBucket bucket;
+  private long maxBufferedBytes;
+  private Runnable resyncAction;
+
+  // Written by the executor only, readable from any thread
+  private volatile UpdateRate rate;
+  private volatile int pendingCount = 0;
+  private volatile boolean overflowed = false;
+  private volatile long overflowCount = 0L;
+  private volatile long droppedPackets = 0L;
+
+  /**
+   * Creates the lanes of a viewer.
+   *
+   * @param user the PacketEvents user of the viewer
+   * @param rate the initial cosmetic update rate
+   * @param maxBufferedBytes the maximum number of bytes waiting in the
+   *                         channel before the connection overflows, 0 or less for no cap
+   */
+  public ViewerConnection(@NotNull User user, @NotNull UpdateRate rate, long maxBufferedBytes) {
+    this(user, rate, maxBufferedBytes,
+      error -> Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), error));
+  }
+
+  /**
+   * Creates the lanes of a viewer.
+   *
+   * @param user the PacketEvents user of the viewer
+   * @param rate the initial cosmetic update rate
+   * @param maxBufferedBytes the maximum number of bytes waiting in the
+   *                         channel before the connection overflows, 0 or less for no cap
+   * @param errorHandler receives the exceptions thrown by tasks of this viewer
+   */
+  public ViewerConnection(@NotNull User user, @NotNull UpdateRate rate, long maxBufferedBytes,
+                          @NotNull Consumer<Throwable> errorHandler) {
+    if (user == null) throw new IllegalArgumentException("User cannot be null");
+    if (rate == null) throw new IllegalArgumentException("Rate cannot be null");
+
+    this.user = user;
+    this.executor = new SerialExecutor(errorHandler);
+    this.channel = user.getChannel() instanceof Channel nettyChannel ? nettyChannel : null;
+    this.rate = rate;
+    this.bucket = rate.newBucket();
+    this.maxBufferedBytes = maxBufferedBytes;
+  }
+
+  /**
+   * Runs a task on this viewer's executor.
+   *
+   * <p>Tasks of a viewer never run concurrently and run in submission
+   * order, interleaved with the packets sent through this connection.
+   * State of the viewer must only be changed from such tasks.
+   *
+   * @param task the task to run
+   */
+  public void execute(@NotNull Runnable task) {
+    executor.execute(task);
+  }
+
+  /**
+   * Sends a structural packet immediately.
+   *
+   * @param packet the packet to send
+   */
+  public void send(@NotNull PacketWrapper<?> packet) {
+    mutate(() -> {
+      if (acceptStructural()) write(packet, Kind.RAW, 1);
+    });
+  }
+
+  /**
+   * Adds a profile to the viewer's tab list.
+   *
+   * @param profile the profile to add
+   */
+  public void sendAdd(@NotNull TabProfileImpl profile) {
+    mutate(() -> {
+      pendingCosmetic.remove(profile.getUniqueId());
+      if (!acceptStructural()) return;
+
+      write(TabPackets.add(Collections.singletonList(profile)), Kind.ADD, 1);
+    });
+  }
+
+  /**
+   * Adds several profiles to the viewer's tab list in a single packet.
+   *
+   * @param profiles the profiles to add
+   */
+  public void sendAdd(@NotNull Collection<TabProfileImpl> profiles) {
+    mutate(() -> {
+      if (profiles.isEmpty()) return;
+      if (!pendingCosmetic.isEmpty()) profiles.forEach(profile -> pendingCosmetic.remove(profile.getUniqueId()));
+      if (!acceptStructural()) return;
+
+      write(TabPackets.add(profiles), Kind.ADD, profiles.size());
+    });
+  }
+
+  /**
+   * Updates a profile already shown to the viewer.
+   *
+   * <p>The changes are cosmetic and may be delayed and coalesced. A profile
+   * whose name or skin changed must be {@linkplain #sendReplace(TabProfileImpl)
+   * replaced} instead, see {@link TabProfileImpl#needsReplacement}.
+   *
+   * @param profile the profile to update
+   */
+  public void sendUpdate(@NotNull TabProfileImpl profile) {
+    mutate(() -> {
+      // The resynchronization will carry the latest state
+      if (overflowed) {
+        droppedPackets++;
+        DROPPED.increment();
+        return;
+      }
+
+      // Send right away when nothing is queued, the channel accepts it and the budget allows it
+      boolean canSend = pendingCosmetic.isEmpty() && isWritable();
+      if (canSend && (bucket == null || bucket.tryConsume())) {
+        write(TabPackets.update(Collections.singletonList(profile)), Kind.UPDATE, 1);
+        return;
+      }
+
+      // Keep only the latest value, at its original position in the queue
+      if (pendingCosmetic.put(profile.getUniqueId(), profile) != null) COALESCED.increment();
+      else DEFERRED.increment();
+    });
+  }
+
+  /**
+   * Updates several profiles already shown to the viewer in a single
+   * packet, sent right away through the structural lane.
+   *
+   * <p>Used to bring a viewer up to date at once, pending cosmetic updates
+   * of the same profiles are dropped. Profiles whose name or skin changed
+   * must be added again instead.
+   *
+   * @param profiles the profiles to update
+   */
+  public void sendUpdate(@NotNull Collection<TabProfileImpl> profiles) {
+    mutate(() -> {
+      if (profiles.isEmpty()) return;
+      if (!pendingCosmetic.isEmpty()) profiles.forEach(profile -> pendingCosmetic.remove(profile.getUniqueId()));
+      if (!acceptStructural()) return;
+
+      write(TabPackets.update(profiles), Kind.UPDATE, profiles.size());
+    });
+  }
+
+  /**
+   * Replaces a profile shown to the viewer, removing it before adding it
+   * again so the client picks up its new name or skin.
+   *
+   * @param profile the new profile
+   */
+  public void sendReplace(@NotNull TabProfileImpl profile) {
+    mutate(() -> {
+      pendingCosmetic.remove(profile.getUniqueId());
+      if (!acceptStructural()) {
+        // Removed before the resynchronization adds it again
+        droppedRemovals.add(profile.getUniqueId());
+        return;
+      }
+
+      // Each half of the pair is counted, the addition as a replacement
+      write(TabPackets.remove(Collections.singletonList(profile.getUniqueId())), Kind.REMOVE, 1);
+      write(TabPackets.add(Collections.singletonList(profile)), Kind.REPLACE, 1);
+    });
+  }
+
+  /**
+   * Removes profiles from the viewer's tab list.
+   *
+   * <p>The packet is built by the task, as PacketEvents encodes into the
+   * wrapper it sends: wrappers are never shared between viewers, whose
+   * executors may run at the same time.
+   *
+   * @param profileIds the UUIDs of the profiles to remove, may be shared between viewers
+   */
+  public void sendRemove(@NotNull Collection<UUID> profileIds) {
+    mutate(() -> {
+      if (profileIds.isEmpty()) return;
+      if (!pendingCosmetic.isEmpty()) pendingCosmetic.keySet().removeAll(profileIds);
+
+      if (acceptStructural()) write(TabPackets.remove(profileIds), Kind.REMOVE, profileIds.size());
+      else droppedRemovals.addAll(profileIds);
+    });
+  }
+
+  /**
+   * Changes the list order of profiles shown to the viewer.
+   *
+   * <p>Sent right away as a single packet. Pending cosmetic updates of the
+   * same profiles are kept but carry the new order, so releasing them later
+   * does not restore the previous one.
+   *
+   * @param profiles the profiles to reorder, carrying their new order
+   */
+  public void sendListOrder(@NotNull Collection<TabProfileImpl> profiles) {
+    mutate(() -> {
+      if (profiles.isEmpty()) return;
+      if (!pendingCosmetic.isEmpty()) profiles.forEach(profile -> pendingCosmetic.replace(profile.getUniqueId(), profile));
+      if (!acceptStructural()) return;
+
+      write(TabPackets.listOrder(profiles), Kind.ORDER, profiles.size());
+    });
+  }
+
+  /**
+   * Changes the listed flag of profiles shown to the viewer.
+   *
+   * <p>Pending cosmetic updates of hidden profiles are dropped, as they
+   * would list them again.
+   *
+   * @param profiles the profiles to change
+   * @param listed true to show the profiles, false to hide them
+   */
+  public void sendListed(@NotNull Collection<TabProfileImpl> profiles, boolean listed) {
+    mutate(() -> {
+      if (profiles.isEmpty()) return;
+      if (!listed && !pendingCosmetic.isEmpty()) profiles.forEach(profile -> pendingCosmetic.remove(profile.getUniqueId()));
+      if (acceptStructural()) write(TabPackets.listed(profiles, listed), Kind.LISTED, profiles.size());
+      else if (!listed) profiles.forEach(profile -> droppedUnlistings.put(profile.getUniqueId(), profile));
+    });
+  }
+
+  /**
+   * Sends the header and footer displayed above and below the tab list.
+   *
+   * @param header the header
+   * @param footer the footer
+   */
+  public void sendHeaderAndFooter(@NotNull Component header, @NotNull Component footer) {
+    mutate(() -> {
+      pendingFrame = null;
+      if (acceptStructural()) write(new WrapperPlayServerPlayerListHeaderAndFooter(header, footer), Kind.HEADER_FOOTER, 0);
+    });
+  }
+
+  /**
+   * Sends a pre-encoded header/footer animation frame.
+   *
+   * <p>A frame is superseded by the next one, so frames are not buffered
+   * in a channel that is not writable: the latest one is held and sent by
+   * {@link #flush()} once the channel drained.
+   *
+   * @param frame the encoded frame
+   */
+  public void sendFrame(@NotNull EncodedPacket frame) {
+    mutate(() -> {
+      if (overflowed || !isWritable()) {
+        pendingFrame = frame;
+        return;
+      }
+
+      pendingFrame = null;
+      writeFrame(frame);
+    });
+  }
+
+  /**
+   * Releases as many pending cosmetic updates as the budget allows.
+   *
+   * <p>Released updates are sent in a single packet, oldest first.
+   * Nothing is released while the channel is not writable. An overflowed
+   * connection is resynchronized once its channel is writable again.
+   */
+  public void flush() {
+    mutate(() -> {
+      if (overflowed) {
+        if (isWritable()) resync();
+        return;
+      }
+
+      if (pendingFrame != null && isWritable()) {
+        writeFrame(pendingFrame);
+        pendingFrame = null;
+      }
+
+      if (pendingCosmetic.isEmpty() || !isWritable()) return;
+
+      int count = bucket != null ? bucket.consumeUpTo(pendingCosmetic.size()) : pendingCosmetic.size();
+      if (count == 0) return;
+
+      List<TabProfileImpl> released = new ArrayList<>(count);
+      Iterator<TabProfileImpl> iterator = pendingCosmetic.values().iterator();
+      while (iterator.hasNext() && released.size() < count) {
+        released.add(iterator.next());
+        iterator.remove();
+      }
+
+      write(TabPackets.update(released), Kind.UPDATE, released.size());
+    });
+  }
+
+  /**
+   * Drops every pending cosmetic update.
+   *
+   * <p>Used when the viewer's tab list is about to be rebuilt anyway.
+   */
+  public void clearPending() {
+    mutate(() -> {
+      pendingCosmetic.clear();
+    });
+  }
+
+  /**
+   * Sets the action resending the whole tab list of this viewer.
+   *
+   * <p>It is run after an overflow, once the channel drained.
+   *
+   * @param resyncAction the resynchronization action
+   */
+  public void setResyncAction(@Nullable Runnable resyncAction) {
+    mutate(() -> {
+      this.resyncAction = resyncAction;
+    });
+  }
+
+  /**
+   * Sets the maximum number of bytes waiting in the channel before the
+   * connection overflows.
+   *
+   * @param maxBufferedBytes the byte cap, 0 or less for no cap
+   */
+  public void setMaxBufferedBytes(long maxBufferedBytes) {
+    mutate(() -> {
+      this.maxBufferedBytes = maxBufferedBytes;
+    });
+  }
+
+  /**
+   * Checks if the viewer's channel currently accepts writes without
+   * buffering beyond its high water mark.
+   *
+   * @return true if the channel is writable
+   */
+  public boolean isWritable() {
+    return channel == null || channel.isWritable();
+  }
+
+  /**
+   * Gets the number of bytes waiting to be written to the viewer's channel.
+   *
+   * @return the buffered bytes
+   */
+  public long getBufferedBytes() {
+    if (channel == null) return 0L;
+
+    ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+    return buffer != null ? buffer.totalPendingWriteBytes() : 0L;
+  }
+
+  /**
+   * Gets the number of times this connection overflowed its byte cap.
+   *
+   * @return the overflow count
+   */
+  public long getOverflowCount() {
+    return overflowCount;
+  }
+
+  /**
+   * Gets the number of tab packets dropped because of overflows.
+   *
+   * @return the dropped packet count
+   */
+  public long getDroppedPackets() {
+    return droppedPackets;
+  }
+
+  /**
+   * Checks if this connection is waiting for its channel to drain before
+   * being resynchronized.
+   *
+   * @return true if the connection overflowed
+   */
+  public boolean isOverflowed() {
+    return overflowed;
+  }
+
+  /**
+   * Changes the cosmetic update rate of this viewer.
+   *
+   * <p>Switching to an unlimited rate releases pending updates at once.
+   *
+   * @param rate the new rate
+   */
+  public void setRate(@NotNull UpdateRate rate) {
+    if (rate == null) throw new IllegalArgumentException("Rate cannot be null");
+
+    mutate(() -> {
+      this.rate = rate;
+      this.bucket = rate.newBucket();
+      if (bucket == null) flush();
+    });
+  }
+
+  /**
+   * Gets the cosmetic update rate of this viewer.
+   *
+   * @return the current rate
+   */
+  @NotNull
+  public UpdateRate getRate() {
+    return rate;
+  }
+
+  /**
+   * Gets the number of cosmetic updates waiting for budget.
+   *
+   * @return the number of pending updates
+   */
+  public int getPendingCount() {
+    return pendingCount;
+  }
+
+  /**
+   * Runs a task changing the lanes on the executor, then publishes the
+   * number of pending updates to other threads.
+   *
+   * @param task the task to run
+   */
+  private void mutate(Runnable task) {
+    executor.execute(() -> {
+      task.run();
+      pendingCount = pendingCosmetic.size();
+    });
+  }
+
+  /**
+   * Checks if a structural packet may be written.
+   *
+   * <p>Switches the connection to the overflowed state when the channel
+   * buffers more bytes than allowed.
+   *
+   * @return true if the packet should be sent, false if it is dropped
+   */
+  private boolean acceptStructural() {
+    if (!overflowed && maxBufferedBytes > 0 && !isWritable() && getBufferedBytes() > maxBufferedBytes) {
+      overflowed = true;
+      overflowCount++;
+      OVERFLOWS.increment();
+      pendingCosmetic.clear();
+    }
+
+    if (overflowed) {
+      droppedPackets++;
+      DROPPED.increment();
+    }
+    return !overflowed;
+  }
+
+  /**
+   * Writes a packet to the viewer and counts it.
+   *
+   * @param packet the packet to write
+   * @param kind the kind of packet
+   * @param entries the number of tab entries in the packet
+   */
+  private void write(PacketWrapper<?> packet, Kind kind, int entries) {
+    user.sendPacket(packet);
+    kind.packets.increment();
+    kind.entries.add(entries);
+  }
+
+  /**
+   * Writes an animation frame to the viewer and counts it, unless its
+   * animation was released in the meantime.
+   *
+   * @param frame the encoded frame
+   */
+  private void writeFrame(EncodedPacket frame) {
+    if (frame.sendTo(user)) Kind.FRAME.packets.increment();
+  }
+
+  /**
+   * Resynchronizes the viewer after an overflow.
+   *
+   * <p>Removals and unlistings dropped during the overflow are sent first,
+   * then the resynchronization action resends every visible profile,
+   * which lists again the ones visible since.
+   */
+  private void resync() {
+    overflowed = false;
+
+    if (!droppedRemovals.isEmpty()) {
+      droppedUnlistings.keySet().removeAll(droppedRemovals);
+      write(TabPackets.remove(droppedRemovals), Kind.REMOVE, droppedRemovals.size());
+      droppedRemovals.clear();
+    }
+
+    if (!droppedUnlistings.isEmpty()) {
+      write(TabPackets.listed(droppedUnlistings.values(), false), Kind.LISTED, droppedUnlistings.size());
+      droppedUnlistings.clear();
+    }
+
+    if (resyncAction != null) resyncAction.run();
+  }
+
+  /**
+   * Gets the PacketEvents user of the viewer.
+   *
+   * @return the packet user
+   */
+  @NotNull
+  public User getUser() {
+    return user;
+  }
+
+  /**
+   * Kinds of packets written, each with its sent packet and entry counters.
+   */
+  private enum Kind {
+    ADD("add"),
+    UPDATE("update"),
+    REMOVE("remove"),
+    LISTED("listed"),
+    ORDER("order"),
+    REPLACE("replace"),
+    HEADER_FOOTER("header_footer"),
+    FRAME("frame"),
+    RAW("raw");
+
+    private final LongAdder packets;
+    private final LongAdder entries;
+
+    Kind(String name) {
+      this.packets = MetricsRegistry.global().counter(TabListMetrics.PACKETS_SENT + name);
+      this.entries = MetricsRegistry.global().counter(TabListMetrics.ENTRIES_SENT + name);
+    }
+  }
+}
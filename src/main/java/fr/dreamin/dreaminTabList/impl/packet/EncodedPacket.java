@@ -0,0 +1,117 @@
+package fr.dreamin.dreaminTabList.impl.packet;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import io.netty.util.IllegalReferenceCountException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A packet serialized once and sent many times.
+ *
+ * <p>The packet wrapper is written to an unpooled buffer at creation time.
+ * Sending the packet only writes a retained duplicate of that buffer to
+ * the viewer's channel, so the same bytes can be broadcast to any number
+ * of players without serializing components again.
+ *
+ * <p>Encoded packets hold a buffer reference and must be {@link #release() released}
+ * once they are no longer used. A packet may be released while it is being
+ * sent from another thread: each send takes its own reference on the
+ * buffer, and a send losing the race with the release sends nothing.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class EncodedPacket {
+
+  private final Object buffer;
+  private final int size;
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  private EncodedPacket(@NotNull Object buffer) {
+    this.buffer = buffer;
+    this.size = ByteBufHelper.readableBytes(buffer);
+  }
+
+  /**
+   * Serializes a packet wrapper.
+   *
+   * <p>The packet is encoded for the server protocol version, exactly like
+   * packets sent through {@link User#sendPacket(PacketWrapper)}.
+   *
+   * @param wrapper the packet to encode, must not be null
+   * @return the encoded packet, never null
+   */
+  @NotNull
+  public static EncodedPacket encode(@NotNull PacketWrapper<?> wrapper) {
+    if (wrapper == null) throw new IllegalArgumentException("Wrapper cannot be null");
+
+    Object buffer = UnpooledByteBufAllocationHelper.buffer();
+    wrapper.setBuffer(buffer);
+    wrapper.writeVarInt(wrapper.getPacketTypeData().getNativePacketId());
+    wrapper.write();
+
+    MetricsRegistry.global().add(TabListMetrics.BYTES_ENCODED, ByteBufHelper.readableBytes(buffer));
+    return new EncodedPacket(buffer);
+  }
+
+  /**
+   * Sends the encoded bytes to a user.
+   *
+   * <p>This performs a single write of a retained duplicate of the buffer
+   * and never serializes the packet again.
+   *
+   * @param user the user to send the packet to
+   * @return true if the packet was sent, false if it was released
+   */
+  public boolean sendTo(@NotNull User user) {
+    Object duplicate = retain();
+    if (duplicate == null) return false;
+
+    user.sendPacket(duplicate);
+    return true;
+  }
+
+  /**
+   * Takes a reference on the encoded bytes.
+   *
+   * <p>The reference is taken atomically, so the buffer cannot be freed
+   * between the check and the retain by a concurrent {@link #release()}.
+   *
+   * @return a retained duplicate of the buffer, to be written or released
+   *         by the caller, or null if the packet was released
+   */
+  private Object retain() {
+    if (released.get()) return null;
+
+    try {
+      return ByteBufHelper.retainedDuplicate(buffer);
+    } catch (IllegalReferenceCountException e) {
+      return null; // Released in the meantime
+    }
+  }
+
+  /**
+   * Gets the size of the encoded packet in bytes.
+   *
+   * @return the encoded size, including the packet id
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Releases the underlying buffer.
+   *
+   * <p>Calling this method more than once has no effect.
+   */
+  public void release() {
+    if (released.compareAndSet(false, true)) ByteBufHelper.release(buffer);
+  }
+}
@@ -0,0 +1,149 @@
+package fr.dreamin.dreaminTabList.impl.packet;
+
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoRemove;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Factory for the tab list packets sent by the API.
+ *
+ * <p>All PlayerInfoUpdate and PlayerInfoRemove packets are built here so
+ * that every send path uses the same action sets. Methods accepting
+ * several profiles build a single packet with one entry per profile.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class TabPackets {
+
+  private static final EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> ADD_ACTIONS = EnumSet.of(
+    WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_DISPLAY_NAME,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_HAT,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LIST_ORDER
+  );
+
+  private static final EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> UPDATE_ACTIONS = EnumSet.of(
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_DISPLAY_NAME,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_HAT,
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LIST_ORDER
+  );
+
+  private static final EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> LIST_ORDER_ACTIONS = EnumSet.of(
+    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LIST_ORDER
+  );
+
+  private TabPackets() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+  }
+
+  /**
+   * Builds the packet entry describing a profile.
+   *
+   * @param profile the profile
+   * @param listed the listed flag to send
+   * @return the packet entry
+   */
+  @NotNull
+  public static WrapperPlayServerPlayerInfoUpdate.PlayerInfo info(@NotNull TabProfileImpl profile, boolean listed) {
+    return new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
+      profile.buildUserProfile(),
+      listed,
+      profile.getLatency(),
+      profile.getGameMode(),
+      profile.getDisplayName(),
+      null,
+      profile.getSortOrder(),
+      profile.isShowHat()
+    );
+  }
+
+  /**
+   * Builds a packet adding profiles with all their properties.
+   *
+   * @param profiles the profiles to add
+   * @return the packet
+   */
+  @NotNull
+  public static WrapperPlayServerPlayerInfoUpdate add(@NotNull Collection<TabProfileImpl> profiles) {
+    return withActions(ADD_ACTIONS, profiles);
+  }
+
+  /**
+   * Builds a packet updating every mutable property of profiles already
+   * known by the client.
+   *
+   * @param profiles the profiles to update
+   * @return the packet
+   */
+  @NotNull
+  public static WrapperPlayServerPlayerInfoUpdate update(@NotNull Collection<TabProfileImpl> profiles) {
+    return withActions(UPDATE_ACTIONS, profiles);
+  }
+
+  /**
+   * Builds a packet only changing the listed flag of profiles.
+   *
+   * @param profiles the profiles to change
+   * @param listed true to show the profiles, false to hide them
+   * @return the packet
+   */
+  @NotNull
+  public static WrapperPlayServerPlayerInfoUpdate listed(@NotNull Collection<TabProfileImpl> profiles, boolean listed) {
+    List<WrapperPlayServerPlayerInfoUpdate.PlayerInfo> infos = new ArrayList<>(profiles.size());
+    for (TabProfileImpl profile : profiles) {
+      infos.add(info(profile, listed));
+    }
+
+    return new WrapperPlayServerPlayerInfoUpdate(EnumSet.of(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED), infos);
+  }
+
+  /**
+   * Builds a packet only changing the list order of profiles.
+   *
+   * @param profiles the profiles to reorder
+   * @return the packet
+   */
+  @NotNull
+  public static WrapperPlayServerPlayerInfoUpdate listOrder(@NotNull Collection<TabProfileImpl> profiles) {
+    return withActions(LIST_ORDER_ACTIONS, profiles);
+  }
+
+  /**
+   * Builds a packet removing profiles from the client.
+   *
+   * @param profileIds the UUIDs of the profiles to remove
+   * @return the packet
+   */
+  @NotNull
+  public static WrapperPlayServerPlayerInfoRemove remove(@NotNull Collection<UUID> profileIds) {
+    return new WrapperPlayServerPlayerInfoRemove(new ArrayList<>(profileIds));
+  }
+
+  private static WrapperPlayServerPlayerInfoUpdate withActions(
+    EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> actions,
+    Collection<TabProfileImpl> profiles
+  ) {
+    List<WrapperPlayServerPlayerInfoUpdate.PlayerInfo> infos = new ArrayList<>(profiles.size());
+    for (TabProfileImpl profile : profiles) {
+      infos.add(info(profile, profile.isListed()));
+    }
+
+    // Each packet gets its own action set, as listeners may modify it
+    return new WrapperPlayServerPlayerInfoUpdate(EnumSet.copyOf(actions), infos);
+  }
+}
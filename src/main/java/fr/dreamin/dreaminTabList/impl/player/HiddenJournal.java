@@ -0,0 +1,237 @@
+package fr.dreamin.dreaminTabList.impl.player;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Records the changes a viewer missed while their tab list was hidden.
+ *
+ * <p>Nothing is sent to a hidden tab list: the entries it showed are
+ * unlisted, and the changes made since are recorded here instead. Changes
+ * are collapsed per profile, so a profile added then removed while hidden
+ * leaves no trace, and a profile updated many times is updated once.
+ *
+ * <p>When the tab list is shown again, the journal is {@linkplain
+ * #replay(Collection, ViewerConnection) replayed} as at most one packet
+ * of each kind: the removals, the additions, the updates, and the listing
+ * of the entries left untouched, instead of resending every profile.
+ *
+ * <p>This class is not thread-safe, it is owned by the executor of the
+ * viewer's connection.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class HiddenJournal {
+
+  private final Map<UUID, Entry> entries = new HashMap<>();
+
+  /**
+   * Records profiles added to the tab list.
+   *
+   * @param profiles the added profiles
+   */
+  public void added(@NotNull Collection<? extends TabProfile> profiles) {
+    for (TabProfile profile : profiles) record(profile.getUniqueId(), Change.ADDED);
+  }
+
+  /**
+   * Records a profile added to the tab list.
+   *
+   * @param profile the added profile
+   */
+  public void added(@NotNull TabProfile profile) {
+    record(profile.getUniqueId(), Change.ADDED);
+  }
+
+  /**
+   * Records a profile whose properties changed.
+   *
+   * @param profile the updated profile
+   */
+  public void updated(@NotNull TabProfile profile) {
+    record(profile.getUniqueId(), Change.UPDATED);
+  }
+
+  /**
+   * Records profiles whose list order changed.
+   *
+   * @param profiles the reordered profiles
+   */
+  public void updated(@NotNull Collection<? extends TabProfile> profiles) {
+    for (TabProfile profile : profiles) record(profile.getUniqueId(), Change.UPDATED);
+  }
+
+  /**
+   * Records a profile that must be removed and added again, such as after
+   * a name or skin change.
+   *
+   * @param profile the replaced profile
+   */
+  public void replaced(@NotNull TabProfile profile) {
+    record(profile.getUniqueId(), Change.REPLACED);
+  }
+
+  /**
+   * Records profiles the viewer no longer sees, but that stay known by the
+   * client.
+   *
+   * @param profiles the unlisted profiles
+   */
+  public void unlisted(@NotNull Collection<? extends TabProfile> profiles) {
+    for (TabProfile profile : profiles) record(profile.getUniqueId(), Change.UNLISTED);
+  }
+
+  /**
+   * Records profiles removed from the tab list.
+   *
+   * @param profileIds the UUIDs of the removed profiles
+   */
+  public void removed(@NotNull Collection<UUID> profileIds) {
+    for (UUID uuid : profileIds) record(uuid, Change.REMOVED);
+  }
+
+  /**
+   * Gets the number of profiles with a recorded change.
+   *
+   * @return the number of profiles
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Forgets the recorded changes, once the client got the full state.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Sends the removal of the entries the client holds but must drop: the
+   * ones removed or replaced while hidden.
+   *
+   * <p>Used before the hidden tab list is resynchronized, as adding every
+   * visible profile again neither removes the others nor renames existing
+   * entries. The changes stay recorded.
+   *
+   * @param connection the connection of the viewer
+   */
+  public void sendRemovals(@NotNull ViewerConnection connection) {
+    List<UUID> removals = new ArrayList<>();
+    entries.forEach((uuid, entry) -> {
+      if (entry.known && (entry.change == Change.REMOVED || entry.change == Change.REPLACED)) removals.add(uuid);
+    });
+    connection.sendRemove(removals);
+  }
+
+  /**
+   * Sends the recorded changes to the viewer showing their tab list again,
+   * and forgets them.
+   *
+   * <p>Profiles added or replaced while hidden are added, the ones updated
+   * are updated, and the ones removed are removed. The visible profiles
+   * without a change are only listed again.
+   *
+   * @param visible the profiles the viewer currently sees
+   * @param connection the connection of the viewer
+   * @return the number of profiles whose state was resent
+   */
+  public int replay(@NotNull Collection<TabProfile> visible, @NotNull ViewerConnection connection) {
+    List<UUID> removals = new ArrayList<>();
+    List<TabProfileImpl> additions = new ArrayList<>();
+    List<TabProfileImpl> updates = new ArrayList<>();
+    List<TabProfileImpl> listings = new ArrayList<>();
+
+    for (TabProfile profile : visible) {
+      if (!(profile instanceof TabProfileImpl impl)) continue;
+
+      Entry entry = entries.remove(impl.getUniqueId());
+      if (entry == null) {
+        listings.add(impl);
+        continue;
+      }
+
+      // Entries the client never had can only be added
+      boolean structural = !entry.known || entry.change == Change.ADDED || entry.change == Change.REPLACED
+        || entry.change == Change.REMOVED;
+      if (!structural) {
+        updates.add(impl);
+        continue;
+      }
+
+      // Removed first, so the client picks up a new skin
+      if (entry.known) removals.add(impl.getUniqueId());
+      additions.add(impl);
+    }
+
+    // The other profiles are no longer visible, the client only keeps the ones it was not told to remove
+    entries.forEach((uuid, entry) -> {
+      if (entry.known && entry.change == Change.REMOVED) removals.add(uuid);
+    });
+    entries.clear();
+
+    connection.sendRemove(removals);
+    connection.sendAdd(additions);
+    connection.sendUpdate(updates);
+    connection.sendListed(listings, true);
+    return removals.size() + additions.size() + updates.size();
+  }
+
+  private void record(UUID uuid, Change change) {
+    Entry entry = entries.get(uuid);
+    if (entry == null) entries.put(uuid, new Entry(change));
+    else entry.change = entry.change.then(change);
+  }
+
+  /**
+   * A kind of change, collapsed with the changes that follow it.
+   */
+  private enum Change {
+    ADDED,
+    UPDATED,
+    REPLACED,
+    UNLISTED,
+    REMOVED;
+
+    /**
+     * Collapses this change with a later one.
+     *
+     * @param next the later change
+     * @return the change covering both
+     */
+    private Change then(Change next) {
+      return switch (next) {
+        // An addition carries every property, updates and replacements add nothing to it
+        case UPDATED -> this == ADDED || this == REPLACED || this == REMOVED ? this : UPDATED;
+        case REPLACED -> this == ADDED ? ADDED : REPLACED;
+        case ADDED, UNLISTED, REMOVED -> next;
+      };
+    }
+  }
+
+  /**
+   * The collapsed change of a profile.
+   */
+  private static final class Entry {
+
+    // Whether the client had the entry when the tab list was hidden
+    private final boolean known;
+    private Change change;
+
+    private Entry(Change change) {
+      this.known = change != Change.ADDED;
+      this.change = change;
+    }
+  }
+}
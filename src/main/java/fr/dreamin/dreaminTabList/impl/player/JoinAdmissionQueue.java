@@ -0,0 +1,224 @@
+package fr.dreamin.dreaminTabList.impl.player;
+
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.metrics.Histogram;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import fr.dreamin.dreaminTabList.impl.visibility.VisibilityManagerImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Admits joining players into the tab list over several ticks.
+ *
+ * <p>Registering a player only creates its manager and stores its profile;
+ * nothing is sent. Each tick, waiting players are admitted in join order
+ * within a packet and a time budget. Every newcomer receives the current
+ * tab list in one packet, and the profiles of all newcomers admitted in the
+ * same tick reach the players already online in one merged packet per
+ * viewer. A join wave after a proxy restart is thus spread over several
+ * ticks instead of spiking one.
+ *
+ * <p>Until admitted, a player neither receives profile broadcasts nor
+ * appears in them: its initial tab list carries the latest state anyway.
+ * Profiles hidden by visibility rules are left out of every packet.
+ * At least one player is admitted per tick, whatever the budget.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class JoinAdmissionQueue implements Runnable {
+
+  /**
+   * Default number of tab packets sent per tick to admit joining players.
+   */
+  public static final int DEFAULT_MAX_PACKETS_PER_TICK = 2000;
+
+  /**
+   * Default time spent per tick admitting joining players.
+   */
+  public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(2);
+
+  private static final Histogram WAIT = MetricsRegistry.global().histogram(TabListMetrics.ADMISSION_WAIT);
+  private static final Histogram BATCH = MetricsRegistry.global().histogram(TabListMetrics.ADMISSION_BATCH);
+
+  private final TabListAPIImpl api;
+  private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+  private final Set<UUID> pendingIds = ConcurrentHashMap.newKeySet();
+  private volatile int maxPacketsPerTick = DEFAULT_MAX_PACKETS_PER_TICK;
+  private volatile long timeBudgetNanos = DEFAULT_TIME_BUDGET.toNanos();
+
+  /**
+   * Creates an admission queue.
+   *
+   * @param api the API owning the admitted players
+   */
+  public JoinAdmissionQueue(@NotNull TabListAPIImpl api) {
+    this.api = Objects.requireNonNull(api, "API cannot be null");
+  }
+
+  /**
+   * Sets the budget of a tick.
+   *
+   * @param maxPacketsPerTick the tab packets sent per tick to admit players, 0 for no limit
+   * @param timeBudget the time spent per tick admitting players, zero for no limit
+   */
+  public void setBudget(int maxPacketsPerTick, @NotNull Duration timeBudget) {
+    if (maxPacketsPerTick < 0) throw new IllegalArgumentException("Max packets per tick cannot be negative");
+    if (timeBudget == null) throw new IllegalArgumentException("Time budget cannot be null");
+    if (timeBudget.isNegative()) throw new IllegalArgumentException("Time budget cannot be negative");
+
+    this.maxPacketsPerTick = maxPacketsPerTick;
+    this.timeBudgetNanos = timeBudget.toNanos();
+  }
+
+  /**
+   * Queues a registered player for admission.
+   *
+   * @param manager the manager of the player
+   */
+  public void enqueue(@NotNull PlayerTabManagerImpl manager) {
+    if (manager == null) throw new IllegalArgumentException("Manager cannot be null");
+
+    pendingIds.add(manager.getPlayerUUID());
+    queue.add(new Pending(manager, System.nanoTime()));
+  }
+
+  /**
+   * Checks if a player waits for admission.
+   *
+   * @param uuid the player UUID
+   * @return true if the player is registered but not admitted yet
+   */
+  public boolean isPending(@NotNull UUID uuid) {
+    return pendingIds.contains(uuid);
+  }
+
+  /**
+   * Withdraws a player from the queue, when it leaves before being admitted.
+   *
+   * @param uuid the player UUID
+   */
+  public void remove(@NotNull UUID uuid) {
+    // The queued entry is skipped when reached
+    pendingIds.remove(uuid);
+  }
+
+  /**
+   * Gets the number of players waiting for admission.
+   *
+   * @return the pending player count
+   */
+  public int getPendingCount() {
+    return pendingIds.size();
+  }
+
+  /**
+   * Forgets every waiting player.
+   */
+  public void clear() {
+    queue.clear();
+    pendingIds.clear();
+  }
+
+  /**
+   * Admits waiting players within the budget of the tick.
+   */
+  @Override
+  public void run() {
+    if (queue.isEmpty()) return;
+
+    long start = System.nanoTime();
+    int maxPackets = this.maxPacketsPerTick;
+    long budget = this.timeBudgetNanos;
+    VisibilityManagerImpl visibility = api.getVisibilityManager();
+
+    // Players online before this tick, reached by one merged packet each
+    List<PlayerTabManagerImpl> viewers = new ArrayList<>();
+    for (PlayerTabManagerImpl manager : api.getPlayerManagers()) {
+      if (!pendingIds.contains(manager.getPlayerUUID())) viewers.add(manager);
+    }
+
+    List<PlayerTabManagerImpl> admitted = new ArrayList<>();
+    List<Integer> seen = new ArrayList<>();
+    List<TabProfileImpl> profiles = new ArrayList<>();
+
+    Pending next;
+    while ((next = queue.peek()) != null) {
+      if (!admitted.isEmpty()) {
+        // Each newcomer costs its tab list, plus the newcomers admitted after it
+        if (maxPackets > 0 && viewers.size() + 2 * admitted.size() + 1 > maxPackets) break;
+        if (budget > 0 && System.nanoTime() - start >= budget) break;
+      }
+      queue.poll();
+
+      // Skip players who left, or joined again with a newer manager, before being admitted
+      PlayerTabManagerImpl manager = next.manager();
+      UUID uuid = manager.getPlayerUUID();
+      if (api.findPlayerManager(uuid) != manager || !pendingIds.remove(uuid)) continue;
+
+      if (api.getProfileManager().findProfile(uuid) instanceof TabProfileImpl profile) profiles.add(profile);
+      sendTabList(manager);
+      admitted.add(manager);
+      seen.add(profiles.size());
+      WAIT.recordSince(next.enqueuedAt(), MetricsRegistry.MILLIS);
+    }
+
+    if (admitted.isEmpty()) return;
+    BATCH.record(admitted.size());
+    if (profiles.isEmpty()) return;
+
+    List<TabProfileImpl> newcomers = List.copyOf(profiles);
+    for (PlayerTabManagerImpl viewer : viewers) {
+      sendProfiles(viewer, visibility.visibleTo(viewer.getPlayerUUID(), newcomers));
+    }
+
+    // Newcomers admitted earlier in the tick did not get the later ones in their tab list
+    for (int i = 0; i < admitted.size(); i++) {
+      int from = seen.get(i);
+      if (from >= newcomers.size()) continue;
+
+      PlayerTabManagerImpl newcomer = admitted.get(i);
+      sendProfiles(newcomer, visibility.visibleTo(newcomer.getPlayerUUID(), newcomers.subList(from, newcomers.size())));
+    }
+  }
+
+  /**
+   * Sends the current tab list to a newcomer, without the players still waiting.
+   */
+  private void sendTabList(PlayerTabManagerImpl manager) {
+    List<TabProfileImpl> visible = new ArrayList<>();
+    for (TabProfile profile : manager.getVisibleProfiles()) {
+      if (profile instanceof TabProfileImpl impl && !pendingIds.contains(impl.getUniqueId())) visible.add(impl);
+    }
+    sendProfiles(manager, visible);
+  }
+
+  private void sendProfiles(PlayerTabManagerImpl manager, List<TabProfileImpl> profiles) {
+    if (profiles.isEmpty()) return;
+
+    // Recorded instead by the viewer's executor while hidden, in order with hide/show calls
+    ViewerConnection connection = manager.getConnection();
+    connection.execute(() -> {
+      HiddenJournal journal = manager.getHiddenJournal();
+      if (journal != null) journal.added(profiles);
+      else connection.sendAdd(profiles);
+    });
+  }
+
+  private record Pending(PlayerTabManagerImpl manager, long enqueuedAt) {
+  }
+}
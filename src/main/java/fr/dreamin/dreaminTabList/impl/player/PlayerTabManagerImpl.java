@@ -2,21 +2,28 @@ package fr.dreamin.dreaminTabList.impl.player;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.protocol.player.User;
-import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoRemove;
-import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
 import fr.dreamin.dreaminTabList.api.player.PlayerTabManager;
 import fr.dreamin.dreaminTabList.api.profile.TabProfile;
 import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.header.HeaderFooterTemplate;
+import fr.dreamin.dreaminTabList.impl.jfr.HeaderFooterRenderEvent;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import fr.dreamin.dreaminTabList.impl.network.UpdateRate;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
 import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
 import lombok.Getter;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
@@ -30,12 +37,23 @@ import java.util.stream.Collectors;
  * <p>Each player has their own instance of this manager, allowing for
  * complete customization of what each player sees in their tab list.
  *
+ * <p>Methods may be called from any thread. Changes are run in call order
+ * by the {@link ViewerConnection} executor of the player, interleaved with
+ * the packets sent to them, so no lock is held and no hop to the main
+ * thread is needed.
+ *
+ * <p>While the tab is hidden, changes are recorded in a {@link HiddenJournal}
+ * instead of being sent, and showing the tab only sends what changed.
+ *
  * @author Dreamin
  * @version 0.0.3
  * @since 0.0.1
  */
 public class PlayerTabManagerImpl implements PlayerTabManager {
 
+  private static final LongAdder RENDER_HITS = MetricsRegistry.global().counter(TabListMetrics.CACHE_HIT + "headerfooter");
+  private static final LongAdder RENDER_MISSES = MetricsRegistry.global().counter(TabListMetrics.CACHE_MISS + "headerfooter");
+
   private final TabListAPIImpl api;
   private final Player player;
   private final UUID playerUuid;
@@ -47,12 +65,33 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
    */
   @Getter
   private final User packetUser;
+  /**
+   * -- GETTER --
+   *  Gets the outgoing packet lanes of this player.
+   *
+   * @return the viewer connection
+   */
+  @Getter
+  private final ViewerConnection connection;
+  private volatile boolean customUpdateRate = false;
 
-  // Player-specific state
+  // Player-specific state, changed by tasks of the connection and readable from any thread
   private final Map<UUID, TabProfile> playerSpecificProfiles = new ConcurrentHashMap<>();
-  private boolean tabHidden = false;
-  private Component header;
-  private Component footer;
+  private volatile boolean tabHidden = false;
+  private volatile Component header;
+  private volatile Component footer;
+  private volatile HeaderFooterTemplate headerTemplate;
+  private volatile HeaderFooterTemplate footerTemplate;
+  private volatile String animation;
+
+  // Change suppression, owned by the connection's executor
+  private String renderedHeader; // Text the header component was built from, null when stale
+  private String renderedFooter;
+  private Component sentHeader; // Last header/footer sent, null when the client may show something else
+  private Component sentFooter;
+
+  // Changes missed while the tab is hidden, owned by the connection's executor
+  private final HiddenJournal hiddenJournal = new HiddenJournal();
 
   /**
    * Creates a new PlayerTabManager implementation.
@@ -65,15 +104,24 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
     this.player = Objects.requireNonNull(player, "Player cannot be null");
     this.playerUuid = player.getUniqueId();
     this.packetUser = PacketEvents.getAPI().getPlayerManager().getUser(player);
+    this.connection = new ViewerConnection(packetUser, api.getDefaultUpdateRate(), api.getMaxBufferedBytes(),
+      error -> api.getLogger().log(Level.SEVERE, "Tab update failed for player " + player.getName(), error));
+    this.connection.setResyncAction(this::resync);
 
     // Initialize with global settings
     this.tabHidden = api.isTabHiddenGlobally();
 
     // Apply initial header/footer if configured
-    if (api.hasGlobalHeaderFooter()) {
+    if (api.getGlobalAnimation() != null && playAnimation(api.getGlobalAnimation())) {
+      // The animation owns the header/footer
+      this.headerTemplate = api.getGlobalHeaderTemplate();
+      this.footerTemplate = api.getGlobalFooterTemplate();
+    } else if (api.hasGlobalHeaderFooterTemplate()) {
+      setHeaderAndFooterTemplates(api.getGlobalHeaderTemplate(), api.getGlobalFooterTemplate());
+    } else if (api.hasGlobalHeaderFooter()) {
       this.header = api.getGlobalHeader();
       this.footer = api.getGlobalFooter();
-      sendHeaderAndFooter();
+      sendHeaderAndFooter(false);
     }
   }
 
@@ -93,26 +141,32 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
   public void addProfile(@NotNull TabProfile profile) {
     if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
 
-    UUID uuid = profile.getUniqueId();
-    playerSpecificProfiles.put(uuid, profile);
+    connection.execute(() -> {
+      UUID uuid = profile.getUniqueId();
+      playerSpecificProfiles.put(uuid, profile);
 
-    // Send to player if tab is visible
-    if (!tabHidden) sendAddProfile(profile);
+      // Send to player if tab is visible
+      if (!tabHidden) sendAddProfile(profile);
+      else hiddenJournal.added(profile);
 
-    api.getLogger().fine("Added player-specific profile for " + player.getName() + ": " + profile.getName());
+      api.getLogger().fine("Added player-specific profile for " + player.getName() + ": " + profile.getName());
+    });
   }
 
   @Override
   public void removeProfile(@NotNull UUID profileId) {
     if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
 
-    TabProfile removed = playerSpecificProfiles.remove(profileId);
-    if (removed != null) {
-      // Remove from player's view
-      sendRemoveProfile(profileId);
+    connection.execute(() -> {
+      TabProfile removed = playerSpecificProfiles.remove(profileId);
+      if (removed != null) {
+        // Remove from player's view
+        if (!tabHidden) sendRemoveProfile(profileId);
+        else hiddenJournal.unlisted(Collections.singletonList(removed));
 
-      api.getLogger().fine("Removed player-specific profile for " + player.getName() + ": " + removed.getName());
-    }
+        api.getLogger().fine("Removed player-specific profile for " + player.getName() + ": " + removed.getName());
+      }
+    });
   }
 
   @Override
@@ -126,21 +180,37 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
   public void updateProfile(@NotNull TabProfile profile) {
     if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
 
-    UUID uuid = profile.getUniqueId();
-    playerSpecificProfiles.put(uuid, profile);
+    connection.execute(() -> {
+      UUID uuid = profile.getUniqueId();
+      TabProfile previous = playerSpecificProfiles.put(uuid, profile);
+      if (previous == null) previous = api.getProfileManager().findProfile(uuid);
+
+      // The client only reads the name and skin of an entry when it is added
+      boolean replaced = TabProfileImpl.needsReplacement(previous, profile);
 
-    // Update for player if tab is visible
-    if (!tabHidden) sendUpdateProfile(profile);
+      // Update for player if tab is visible
+      if (tabHidden) {
+        if (replaced) hiddenJournal.replaced(profile);
+        else hiddenJournal.updated(profile);
+      } else if (replaced) sendReplaceProfile(profile);
+      else sendUpdateProfile(profile);
 
-    api.getLogger().fine("Updated player-specific profile for " + player.getName() + ": " + profile.getName());
+      api.getLogger().fine("Updated player-specific profile for " + player.getName() + ": " + profile.getName());
+    });
   }
 
   @Override @NotNull
   public Collection<TabProfile> getVisibleProfiles() {
     Collection<TabProfile> visible = new ArrayList<>();
 
-    // Add global profiles
-    visible.addAll(api.getProfileManager().getGlobalProfiles());
+    // Add global profiles, unless hidden by visibility rules
+    Collection<TabProfile> globals = api.getProfileManager().getGlobalProfiles();
+    if (api.getVisibilityManager().seesEverything(playerUuid)) visible.addAll(globals);
+    else {
+      for (TabProfile profile : globals) {
+        if (api.getVisibilityManager().canSee(playerUuid, profile)) visible.add(profile);
+      }
+    }
 
     // Add player-specific profiles
     visible.addAll(playerSpecificProfiles.values());
@@ -155,6 +225,7 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
 
   @Override
   public int getVisibleProfileCount() {
+    if (!api.getVisibilityManager().seesEverything(playerUuid)) return getVisibleProfiles().size();
     return api.getProfileManager().getGlobalProfileCount() + playerSpecificProfiles.size();
   }
 
@@ -194,36 +265,36 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
 
   @Override
   public void hideTab() {
-    if (tabHidden) return; // Already hidden
+    connection.execute(() -> {
+      if (tabHidden) return; // Already hidden
 
-    tabHidden = true;
+      tabHidden = true;
+      hiddenJournal.clear();
 
-    // Set listed to false for all visible profiles
-    Collection<TabProfile> visible = getVisibleProfiles();
-    List<UUID> uuidsToHide = visible.stream()
-      .map(TabProfile::getUniqueId)
-      .collect(Collectors.toList());
+      // Set listed to false for all visible profiles
+      Collection<TabProfile> visible = getVisibleProfiles();
+      List<UUID> uuidsToHide = visible.stream()
+        .map(TabProfile::getUniqueId)
+        .collect(Collectors.toList());
 
-    sendHideProfiles(uuidsToHide);
+      sendHideProfiles(uuidsToHide);
 
-    api.getLogger().fine("Hidden tab for player: " + player.getName());
+      api.getLogger().fine("Hidden tab for player: " + player.getName());
+    });
   }
 
   @Override
   public void showTab() {
-    if (!tabHidden) return; // Already shown
-
-    tabHidden = false;
+    connection.execute(() -> {
+      if (!tabHidden) return; // Already shown
 
-    // Set listed to true for all visible profiles
-    Collection<TabProfile> visible = getVisibleProfiles();
-    List<UUID> uuidsToShow = visible.stream()
-      .map(TabProfile::getUniqueId)
-      .collect(Collectors.toList());
+      tabHidden = false;
 
-    sendShowProfiles(uuidsToShow);
+      // List the untouched profiles again, and send only what changed while hidden
+      int resent = hiddenJournal.replay(getVisibleProfiles(), connection);
 
-    api.getLogger().fine("Shown tab for player: " + player.getName());
+      api.getLogger().fine("Shown tab for player: " + player.getName() + " (" + resent + " profiles resent)");
+    });
   }
 
   @Override
@@ -233,28 +304,104 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
 
   @Override
   public void setHeaderAndFooter(@Nullable Component header, @Nullable Component footer) {
-    this.header = header;
-    this.footer = footer;
-    sendHeaderAndFooter();
+    connection.execute(() -> {
+      detachAnimation();
+      clearTemplates();
+      this.header = header;
+      this.footer = footer;
+      sendHeaderAndFooter(false);
+    });
   }
 
   @Override
   public void setHeader(@Nullable Component header) {
-    this.header = header;
-    sendHeaderAndFooter();
+    connection.execute(() -> {
+      detachAnimation();
+      clearTemplates();
+      this.header = header;
+      sendHeaderAndFooter(false);
+    });
   }
 
   @Override
   public void setFooter(@Nullable Component footer) {
-    this.footer = footer;
-    sendHeaderAndFooter();
+    connection.execute(() -> {
+      detachAnimation();
+      clearTemplates();
+      this.footer = footer;
+      sendHeaderAndFooter(false);
+    });
   }
 
   @Override
   public void removeHeaderAndFooter() {
-    this.header = null;
-    this.footer = null;
-    sendHeaderAndFooter();
+    connection.execute(() -> {
+      detachAnimation();
+      clearTemplates();
+      this.header = null;
+      this.footer = null;
+      sendHeaderAndFooter(false);
+    });
+  }
+
+  @Override
+  public void setHeaderAndFooterTemplate(@Nullable String header, @Nullable String footer) {
+    setHeaderAndFooterTemplates(
+      header != null ? HeaderFooterTemplate.compile(header) : null,
+      footer != null ? HeaderFooterTemplate.compile(footer) : null
+    );
+  }
+
+  @Override
+  public boolean playAnimation(@NotNull String name) {
+    if (name == null) throw new IllegalArgumentException("Animation name cannot be null");
+
+    if (!api.getAnimationBroadcaster().hasAnimation(name)) return false;
+
+    connection.execute(() -> {
+      // Removed by a reload in the meantime
+      if (!api.getAnimationBroadcaster().play(name, this)) return;
+
+      this.animation = name;
+
+      // The client no longer shows the last static header/footer
+      forgetSentHeaderAndFooter();
+    });
+    return true;
+  }
+
+  @Override
+  public void stopAnimation() {
+    connection.execute(() -> {
+      if (animation == null) return;
+
+      detachAnimation();
+      resendHeaderAndFooter();
+    });
+  }
+
+  @Override
+  @Nullable
+  public String getAnimation() {
+    return animation;
+  }
+
+  @Override
+  public void setUpdateRate(double updatesPerSecond, int burst) {
+    if (updatesPerSecond > 0 && burst < 1) throw new IllegalArgumentException("Burst must be at least 1");
+
+    connection.execute(() -> {
+      this.customUpdateRate = true;
+      connection.setRate(new UpdateRate(updatesPerSecond, burst));
+    });
+  }
+
+  @Override
+  public void resetUpdateRate() {
+    connection.execute(() -> {
+      this.customUpdateRate = false;
+      connection.setRate(api.getDefaultUpdateRate());
+    });
   }
 
   @Override
@@ -271,50 +418,58 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
 
   @Override
   public void resetToVanilla() {
-    // Clear player-specific profiles
-    clearPlayerSpecificProfiles();
+    connection.execute(() -> {
+      // Clear player-specific profiles
+      clearPlayerSpecificProfiles();
 
-    // Remove custom header/footer
-    removeHeaderAndFooter();
+      // Remove custom header/footer
+      removeHeaderAndFooter();
 
-    // Show tab if hidden
-    if (tabHidden) tabHidden = false;
+      // Show tab if hidden
+      if (tabHidden) tabHidden = false;
+      hiddenJournal.clear();
 
-    // Reset to vanilla tab list
-    api.resetPlayerToVanilla(player);
+      // Reset to vanilla tab list
+      api.resetPlayerToVanilla(player);
 
-    api.getLogger().fine("Reset player to vanilla tab: " + player.getName());
+      api.getLogger().fine("Reset player to vanilla tab: " + player.getName());
+    });
   }
 
   @Override
   public void refresh() {
-    if (tabHidden) return; // No need to refresh if hidden
+    connection.execute(() -> {
+      if (tabHidden) return; // No need to refresh if hidden
 
-    // Resend all visible profiles
-    Collection<TabProfile> visible = getVisibleProfiles();
-    for (TabProfile profile : visible) {
-      sendAddProfile(profile);
-    }
+      // Resend all visible profiles
+      Collection<TabProfile> visible = getVisibleProfiles();
+      for (TabProfile profile : visible) {
+        sendAddProfile(profile);
+      }
 
-    // Resend header/footer
-    sendHeaderAndFooter();
+      // Resend header/footer
+      if (animation != null) api.getAnimationBroadcaster().play(animation, this);
+      else resendHeaderAndFooter();
 
-    api.getLogger().fine("Refreshed tab for player: " + player.getName());
+      api.getLogger().fine("Refreshed tab for player: " + player.getName());
+    });
   }
 
   @Override
   public void clearPlayerSpecificProfiles() {
-    if (playerSpecificProfiles.isEmpty()) return;
+    connection.execute(() -> {
+      if (playerSpecificProfiles.isEmpty()) return;
 
-    // Set listed to false for all player-specific profiles
-    List<UUID> uuidsToHide = new ArrayList<>(playerSpecificProfiles.keySet());
-    playerSpecificProfiles.clear(); // Clear the map after getting UUIDs
+      // Set listed to false for all player-specific profiles
+      List<UUID> uuidsToHide = new ArrayList<>(playerSpecificProfiles.keySet());
+      List<TabProfile> cleared = new ArrayList<>(playerSpecificProfiles.values());
+      playerSpecificProfiles.clear(); // Clear the map after getting UUIDs
 
-    if (!tabHidden && !uuidsToHide.isEmpty()) {
-      sendHideProfiles(uuidsToHide);
-    }
+      if (!tabHidden) sendHideProfiles(uuidsToHide);
+      else hiddenJournal.unlisted(cleared);
 
-    api.getLogger().fine("Cleared player-specific profiles for: " + player.getName());
+      api.getLogger().fine("Cleared player-specific profiles for: " + player.getName());
+    });
   }
 
   @Override
@@ -322,16 +477,83 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
     return player.isOnline() && packetUser != null;
   }
 
+  /**
+   * Gets the journal of the changes missed while the tab of this player
+   * is hidden.
+   *
+   * <p>Must be called by a task of the {@linkplain #getConnection()
+   * connection}, in order with hide/show calls. Changes recorded in the
+   * journal are sent once the tab is shown again, instead of right away.
+   *
+   * @return the journal, or null if the tab is shown and changes must be sent
+   */
+  @Nullable
+  public HiddenJournal getHiddenJournal() {
+    return tabHidden ? hiddenJournal : null;
+  }
+
+  /**
+   * Applies the players who entered or left the range of this player.
+   *
+   * <p>Players who left are only unlisted, as they may still be tracked
+   * in the world. Entries the client already holds are listed again, the
+   * others are added.
+   *
+   * @param added the profiles entering the range, unknown by the client
+   * @param relisted the profiles entering the range, held unlisted by the client
+   * @param replaced the profiles entering the range, held unlisted with another name or skin
+   * @param unlisted the profiles of the players who left the range
+   */
+  public void applyRangeChanges(@NotNull List<TabProfileImpl> added, @NotNull List<TabProfileImpl> relisted,
+                                @NotNull List<TabProfileImpl> replaced, @NotNull List<TabProfileImpl> unlisted) {
+    if (added.isEmpty() && relisted.isEmpty() && replaced.isEmpty() && unlisted.isEmpty()) return;
+
+    connection.execute(() -> {
+      if (tabHidden) {
+        hiddenJournal.unlisted(unlisted);
+        hiddenJournal.added(added);
+        hiddenJournal.updated(relisted);
+        replaced.forEach(hiddenJournal::replaced);
+        return;
+      }
+
+      connection.sendListed(unlisted, false);
+      replaced.forEach(connection::sendReplace);
+      connection.sendAdd(added);
+      connection.sendUpdate(relisted);
+    });
+  }
+
+  /**
+   * Resends every visible profile after the connection dropped packets.
+   *
+   * <p>Called by the connection once its channel drained after an overflow.
+   */
+  private void resync() {
+    // Only the journal knows the entries removed or replaced while hidden, the client still holds them
+    if (tabHidden) hiddenJournal.sendRemovals(connection);
+
+    List<UUID> visible = new ArrayList<>();
+    for (TabProfile profile : getVisibleProfiles()) {
+      sendAddProfile(profile);
+      visible.add(profile.getUniqueId());
+    }
+
+    if (tabHidden) sendHideProfiles(visible);
+
+    // Every visible profile was resent
+    hiddenJournal.clear();
+
+    api.getLogger().fine("Resynchronized tab for player after overflow: " + player.getName());
+  }
+
   /**
    * Sends a profile addition packet to the player.
    *
    * @param profile the profile to add
    */
   private void sendAddProfile(@NotNull TabProfile profile) {
-    if (profile instanceof TabProfileImpl) {
-      TabProfileImpl impl = (TabProfileImpl) profile;
-      api.sendAddProfilePacket(packetUser, impl);
-    }
+    if (profile instanceof TabProfileImpl impl) connection.sendAdd(impl);
   }
 
   /**
@@ -340,10 +562,17 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
    * @param profile the profile to update
    */
   private void sendUpdateProfile(@NotNull TabProfile profile) {
-    if (profile instanceof TabProfileImpl) {
-      TabProfileImpl impl = (TabProfileImpl) profile;
-      api.sendUpdateProfilePacket(packetUser, impl);
-    }
+    if (profile instanceof TabProfileImpl impl) connection.sendUpdate(impl);
+  }
+
+  /**
+   * Sends a profile replacement to the player, removing it before adding
+   * it again.
+   *
+   * @param profile the new profile
+   */
+  private void sendReplaceProfile(@NotNull TabProfile profile) {
+    if (profile instanceof TabProfileImpl impl) connection.sendReplace(impl);
   }
 
   /**
@@ -370,97 +599,230 @@ public class PlayerTabManagerImpl implements PlayerTabManager {
    * @param profileIds the UUIDs of the profiles to hide
    */
   private void sendHideProfiles(@NotNull List<UUID> profileIds) {
-    if (profileIds.isEmpty()) return;
-
-    List<WrapperPlayServerPlayerInfoUpdate.PlayerInfo> playerInfos = new ArrayList<>();
+    connection.sendListed(resolveProfiles(profileIds), false);
+  }
 
+  /**
+   * Resolves the profiles known by this manager.
+   *
+   * @param profileIds the UUIDs of the profiles
+   * @return the profiles found, in the same order
+   */
+  private List<TabProfileImpl> resolveProfiles(@NotNull List<UUID> profileIds) {
+    List<TabProfileImpl> profiles = new ArrayList<>(profileIds.size());
     for (UUID uuid : profileIds) {
-      TabProfile profile = findProfile(uuid);
-      if (profile != null) {
-        WrapperPlayServerPlayerInfoUpdate.PlayerInfo info = new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
-          ((TabProfileImpl) profile).buildUserProfile(),
-          false,  // listed = false to hide
-          profile.getLatency(),
-          profile.getGameMode(),
-          profile.getDisplayName(),
-          null,
-          profile.getSortOrder(),
-          profile.isShowHat()
-        );
-        playerInfos.add(info);
-      }
+      if (findProfile(uuid) instanceof TabProfileImpl impl) profiles.add(impl);
     }
+    return profiles;
+  }
+
+  /**
+   * Sets already compiled header and footer templates and renders them.
+   *
+   * <p>This method is used internally to share templates compiled once
+   * (for example from the configuration) between all players.
+   *
+   * @param header the compiled header template, may be null
+   * @param footer the compiled footer template, may be null
+   */
+  public void setHeaderAndFooterTemplates(@Nullable HeaderFooterTemplate header, @Nullable HeaderFooterTemplate footer) {
+    connection.execute(() -> {
+      detachAnimation();
+      this.headerTemplate = header;
+      this.footerTemplate = footer;
+      this.renderedHeader = null;
+      this.renderedFooter = null;
+
+      if (header == null && footer == null) {
+        this.header = null;
+        this.footer = null;
+        sendHeaderAndFooter(false);
+        return;
+      }
+
+      renderTemplates(false);
+    });
+  }
+
+  /**
+   * Renders the header and footer templates for this player.
+   *
+   * <p>Placeholders read the state of the player, so templates with
+   * placeholders are rendered on the thread owning the player, and only
+   * the rendered text is handed back to the connection's executor.
+   *
+   * <p>The rendered text is compared with the previous render, so
+   * components are only rebuilt when it changed, and a packet is only sent
+   * when the components differ from the ones last sent to this player.
+   *
+   * @param force true to send the packet even if the output did not change
+   */
+  public void renderTemplates(boolean force) {
+    connection.execute(() -> {
+      if (!hasTemplates() || animation != null) return;
+
+      HeaderFooterTemplate header = headerTemplate;
+      HeaderFooterTemplate footer = footerTemplate;
+      Runnable render = () -> {
+        HeaderFooterRenderEvent renderEvent = new HeaderFooterRenderEvent();
+        renderEvent.begin();
 
-    if (playerInfos.isEmpty()) {
-      return;
+        String renderedHeader = header != null ? header.render(player, api.getPlaceholders()) : "";
+        String renderedFooter = footer != null ? footer.render(player, api.getPlaceholders()) : "";
+        connection.execute(() -> applyRender(header, footer, renderedHeader, renderedFooter, force, renderEvent));
+      };
+
+      // Static templates read nothing from the player
+      if ((header == null || header.isStatic()) && (footer == null || footer.isStatic())) render.run();
+      else api.getScheduler().runForPlayer(player, render);
+    });
+  }
+
+  /**
+   * Applies rendered templates, on the connection's executor.
+   *
+   * @param header the header template rendered
+   * @param footer the footer template rendered
+   * @param renderedHeader the rendered header text
+   * @param renderedFooter the rendered footer text
+   * @param force true to send the packet even if the output did not change
+   * @param renderEvent the event started at the beginning of the render
+   */
+  private void applyRender(@Nullable HeaderFooterTemplate header, @Nullable HeaderFooterTemplate footer,
+                           @NotNull String renderedHeader, @NotNull String renderedFooter, boolean force,
+                           @NotNull HeaderFooterRenderEvent renderEvent) {
+    // Superseded by other templates or an animation while rendering
+    if (header != headerTemplate || footer != footerTemplate || animation != null) return;
+
+    if (!renderedHeader.equals(this.renderedHeader) || !renderedFooter.equals(this.renderedFooter)) {
+      this.renderedHeader = renderedHeader;
+      this.renderedFooter = renderedFooter;
+      this.header = header != null ? LegacyComponentSerializer.legacySection().deserialize(renderedHeader) : null;
+      this.footer = footer != null ? LegacyComponentSerializer.legacySection().deserialize(renderedFooter) : null;
     }
 
-    WrapperPlayServerPlayerInfoUpdate packet = new WrapperPlayServerPlayerInfoUpdate(
-      EnumSet.of(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED),
-      playerInfos
-    );
+    boolean sent = sendHeaderAndFooter(force);
+    if (sent) RENDER_MISSES.increment();
+    else RENDER_HITS.increment();
+    commitRenderEvent(renderEvent, renderedHeader, renderedFooter, sent);
+  }
 
-    packetUser.sendPacket(packet);
+  /**
+   * Commits a header/footer render JFR event if it is recorded.
+   *
+   * @param event the event started at the beginning of the render
+   * @param renderedHeader the rendered header text
+   * @param renderedFooter the rendered footer text
+   * @param changed whether the output changed
+   */
+  private void commitRenderEvent(@NotNull HeaderFooterRenderEvent event, @NotNull String renderedHeader,
+                                 @NotNull String renderedFooter, boolean changed) {
+    event.end();
+    if (!event.shouldCommit()) return;
+
+    event.viewer = player.getName();
+    event.bytes = renderedHeader.length() + renderedFooter.length();
+    event.changed = changed;
+    event.commit();
   }
 
   /**
-   * Shows multiple profiles using UPDATE_LISTED with true.
+   * Checks if the templates of this player need periodic refreshing.
+   *
+   * <p>Static templates are rendered once and never need a refresh.
    *
-   * @param profileIds the UUIDs of the profiles to show
+   * @return true if at least one template contains placeholders
    */
-  private void sendShowProfiles(@NotNull List<UUID> profileIds) {
-    if (profileIds.isEmpty()) return;
+  public boolean hasDynamicTemplates() {
+    return (headerTemplate != null && !headerTemplate.isStatic())
+      || (footerTemplate != null && !footerTemplate.isStatic());
+  }
 
-    List<WrapperPlayServerPlayerInfoUpdate.PlayerInfo> playerInfos = new ArrayList<>();
+  /**
+   * Stops the animation without restoring the static header/footer.
+   *
+   * <p>Used when the static header/footer is about to be replaced anyway.
+   */
+  private void detachAnimation() {
+    if (animation == null) return;
 
-    for (UUID uuid : profileIds) {
-      TabProfile profile = findProfile(uuid);
-      if (profile != null) {
-        WrapperPlayServerPlayerInfoUpdate.PlayerInfo info = new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
-          ((TabProfileImpl) profile).buildUserProfile(),
-          true,  // listed = true to show
-          profile.getLatency(),
-          profile.getGameMode(),
-          profile.getDisplayName(),
-          null,
-          profile.getSortOrder(),
-          profile.isShowHat()
-        );
-        playerInfos.add(info);
-      }
-    }
+    api.getAnimationBroadcaster().stop(this);
+    this.animation = null;
+  }
 
-    if (playerInfos.isEmpty()) {
-      return;
-    }
+  /**
+   * Checks if header or footer templates are set for this player.
+   *
+   * @return true if a header or footer template is set
+   */
+  private boolean hasTemplates() {
+    return headerTemplate != null || footerTemplate != null;
+  }
 
-    WrapperPlayServerPlayerInfoUpdate packet = new WrapperPlayServerPlayerInfoUpdate(
-      EnumSet.of(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED),
-      playerInfos
-    );
+  /**
+   * Drops the current templates so explicit components take over.
+   */
+  private void clearTemplates() {
+    this.headerTemplate = null;
+    this.footerTemplate = null;
+    this.renderedHeader = null;
+    this.renderedFooter = null;
+  }
 
-    packetUser.sendPacket(packet);
+  /**
+   * Forgets the header and footer last sent, so the next ones are sent
+   * even if they did not change.
+   */
+  private void forgetSentHeaderAndFooter() {
+    this.sentHeader = null;
+    this.sentFooter = null;
   }
 
   /**
    * Sends header and footer to the player.
+   *
+   * <p>The packet is skipped when the header and footer are identical to
+   * the ones last sent to this player.
+   *
+   * @param force true to send the packet even if nothing changed
+   * @return true if the packet was sent
    */
-  private void sendHeaderAndFooter() {
+  private boolean sendHeaderAndFooter(boolean force) {
+    if (animation != null) return false; // The animation owns the header/footer
+
     Component headerToSend = header != null ? header : Component.empty();
     Component footerToSend = footer != null ? footer : Component.empty();
+    if (!force && headerToSend.equals(sentHeader) && footerToSend.equals(sentFooter)) return false;
 
-    player.sendPlayerListHeaderAndFooter(headerToSend, footerToSend);
+    this.sentHeader = headerToSend;
+    this.sentFooter = footerToSend;
+    connection.sendHeaderAndFooter(headerToSend, footerToSend);
+    return true;
   }
 
   /**
-   * Sets the tab hidden state without sending packets.
+   * Resends the current header and footer, rendering templates if set.
    *
-   * <p>This method is used internally for synchronization with global settings.
+   * <p>This method is used internally when another component may have
+   * overwritten the header and footer on the client.
+   */
+  public void resendHeaderAndFooter() {
+    connection.execute(() -> {
+      if (hasTemplates()) renderTemplates(true);
+      else sendHeaderAndFooter(true);
+    });
+  }
+
+  /**
+   * Applies the default cosmetic update rate, unless this player has a
+   * rate of their own.
    *
-   * @param hidden the new hidden state
+   * @param rate the default rate
    */
-  public void setTabHiddenInternal(boolean hidden) {
-    this.tabHidden = hidden;
+  public void applyDefaultUpdateRate(@NotNull UpdateRate rate) {
+    connection.execute(() -> {
+      if (!customUpdateRate) connection.setRate(rate);
+    });
   }
 }
 
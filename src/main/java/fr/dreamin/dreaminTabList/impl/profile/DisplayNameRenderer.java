@@ -0,0 +1,275 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the display names of global profiles from their templates.
+ *
+ * <p>A template is bound to a profile explicitly, or to every online
+ * player through the default template. Every interval, the tick resolves
+ * the placeholders of each bound profile and compares the values with the
+ * previous ones: names whose inputs did not change are left alone, and the
+ * component of a new tuple of values comes from the template cache when it
+ * was rendered before. The profile is only updated, and its display name
+ * only sent, when the rendered name differs from the one it carries.
+ *
+ * <p>The placeholders {@code %name%} and {@code %group%} are read from the
+ * profile, and only resolved again when the profile was replaced, as is
+ * {@code %ping%} for fake profiles. Other placeholders, and the live
+ * {@code %ping%} of players, are resolved for the player the profile
+ * belongs to through the {@linkplain TabListAPIImpl#getPlaceholders()
+ * placeholder registry}, and are left as {@code %key%} for fake profiles.
+ * As they may read the player, they are resolved on the thread owning the
+ * player, and the values handed to the tick that renders the name.
+ *
+ * <p>Templates may be bound from any thread, they are rendered by the tick.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class DisplayNameRenderer {
+
+  /**
+   * Default number of ticks between two renders of the display names.
+   */
+  public static final int DEFAULT_INTERVAL = 20;
+
+  private final TabListAPIImpl api;
+  private final Map<String, DisplayNameTemplate> compiled = new ConcurrentHashMap<>();
+  private final Map<UUID, Binding> bindings = new ConcurrentHashMap<>();
+  private volatile DisplayNameTemplate defaultTemplate;
+  private volatile int interval = DEFAULT_INTERVAL;
+  private int elapsed;
+
+  /**
+   * Creates a renderer.
+   *
+   * @param api the API owning the global profiles
+   */
+  public DisplayNameRenderer(@NotNull TabListAPIImpl api) {
+    if (api == null) throw new IllegalArgumentException("API cannot be null");
+
+    this.api = api;
+  }
+
+  /**
+   * Binds a template to a profile, replacing the default template if the
+   * profile belongs to a player. Its name is rendered on the next tick.
+   *
+   * @param profileId the UUID of the profile
+   * @param template the template source, or null to unbind it and keep the last rendered name
+   */
+  public void setTemplate(@NotNull UUID profileId, @Nullable String template) {
+    if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
+
+    if (template == null) bindings.remove(profileId);
+    else bindings.put(profileId, new Binding(compile(template), true));
+  }
+
+  /**
+   * Gets the template bound to a profile.
+   *
+   * @param profileId the UUID of the profile
+   * @return the template source, or null if none is bound explicitly
+   */
+  @Nullable
+  public String getTemplate(@NotNull UUID profileId) {
+    if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
+
+    Binding binding = bindings.get(profileId);
+    return binding != null && binding.explicit ? binding.template.getSource() : null;
+  }
+
+  /**
+   * Sets the template rendering the display name of every online player
+   * without a template of their own.
+   *
+   * @param template the template source, or null to keep the last rendered names
+   */
+  public void setDefaultTemplate(@Nullable String template) {
+    DisplayNameTemplate next = template != null ? compile(template) : null;
+    if (Objects.equals(next, defaultTemplate)) return;
+
+    this.defaultTemplate = next;
+    bindings.values().removeIf(binding -> !binding.explicit);
+  }
+
+  /**
+   * Sets the number of ticks between two renders.
+   *
+   * @param interval the interval in ticks, at least 1
+   */
+  public void setInterval(int interval) {
+    this.interval = Math.max(1, interval);
+  }
+
+  /**
+   * Forgets the template of a removed profile.
+   *
+   * @param profileId the UUID of the removed profile
+   */
+  public void remove(@NotNull UUID profileId) {
+    bindings.remove(profileId);
+  }
+
+  /**
+   * Renders the display names due this tick. Names bound since the last
+   * render are rendered right away, the others every interval.
+   */
+  public void tick() {
+    boolean due = ++elapsed >= interval;
+    if (due) {
+      elapsed = 0;
+      bindDefaultTemplate();
+    }
+
+    for (Map.Entry<UUID, Binding> entry : bindings.entrySet()) {
+      Binding binding = entry.getValue();
+      if (due || (binding.values == null && !binding.requested)) request(entry.getKey(), binding);
+
+      // Values resolved for the player since the last tick
+      if (binding.ready) {
+        binding.ready = false;
+        render(entry.getKey(), binding, binding.resolved, true);
+      }
+    }
+  }
+
+  /**
+   * Renders a name, after resolving its registry placeholders on the
+   * thread owning the player when there are any. Names of fake profiles
+   * and names without such placeholders are rendered right away.
+   */
+  private void request(UUID profileId, Binding binding) {
+    PlayerTabManagerImpl owner = api.findPlayerManager(profileId);
+    List<String> keys = binding.template.getKeys();
+    if (owner == null || keys.stream().allMatch(key -> isProfileKey(key, true))) {
+      render(profileId, binding, null, owner != null);
+      return;
+    }
+
+    Player player = owner.getPlayer();
+    binding.requested = true;
+    api.getScheduler().runForPlayer(player, () -> {
+      String[] resolved = new String[keys.size()];
+      for (int i = 0; i < resolved.length; i++) {
+        if (!isProfileKey(keys.get(i), true)) resolved[i] = api.getPlaceholders().resolve(keys.get(i), player);
+      }
+
+      binding.resolved = resolved;
+      binding.requested = false;
+      binding.ready = true;
+    });
+  }
+
+  /**
+   * Binds the default template to the online players without a template,
+   * and unbinds it from the players who left.
+   */
+  private void bindDefaultTemplate() {
+    DisplayNameTemplate template = this.defaultTemplate;
+
+    for (Iterator<Map.Entry<UUID, Binding>> it = bindings.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<UUID, Binding> entry = it.next();
+      if (!entry.getValue().explicit && api.findPlayerManager(entry.getKey()) == null) it.remove();
+    }
+
+    if (template == null) return;
+    for (PlayerTabManagerImpl manager : api.getPlayerManagers()) {
+      bindings.putIfAbsent(manager.getPlayer().getUniqueId(), new Binding(template, false));
+    }
+  }
+
+  private void render(UUID profileId, Binding binding, @Nullable String[] resolved, boolean player) {
+    TabProfileManagerImpl profiles = (TabProfileManagerImpl) api.getProfileManager();
+    TabProfile profile = profiles.findProfile(profileId);
+    if (profile == null) return;
+
+    DisplayNameTemplate template = binding.template;
+    List<String> keys = template.getKeys();
+    String[] values = binding.values != null ? binding.values.clone() : new String[keys.size()];
+    boolean replaced = profile != binding.profile;
+
+    for (int i = 0; i < values.length; i++) {
+      String key = keys.get(i);
+      String value = fromProfile(key, profile, player);
+      if (value != null) {
+        // Profile fields only change when the profile is replaced
+        if (replaced || values[i] == null) values[i] = value;
+        continue;
+      }
+
+      value = resolved != null ? resolved[i] : null;
+      values[i] = value != null ? value : "%" + key + "%";
+    }
+
+    // The name of a replaced profile is checked again, it may have been overwritten
+    binding.profile = profile;
+    if (!replaced && Arrays.equals(values, binding.values)) return;
+    binding.values = values;
+
+    Component name = template.render(values);
+    if (name.equals(profile.getDisplayName())) return;
+
+    TabProfile renamed = profile.toBuilder().displayName(name).build();
+    binding.profile = renamed;
+    profiles.updateGlobalProfile(renamed);
+  }
+
+  private DisplayNameTemplate compile(String template) {
+    return compiled.computeIfAbsent(template, DisplayNameTemplate::compile);
+  }
+
+  /**
+   * Whether a placeholder is read from the profile. The latency of a
+   * player's profile is the one at join, so their ping is read live.
+   */
+  private static boolean isProfileKey(String key, boolean player) {
+    return key.equals("name") || key.equals("group") || (!player && key.equals("ping"));
+  }
+
+  @Nullable
+  private static String fromProfile(String key, TabProfile profile, boolean player) {
+    return switch (key) {
+      case "name" -> profile.getName();
+      case "ping" -> player ? null : String.valueOf(profile.getLatency());
+      case "group" -> profile.getGroup() != null ? profile.getGroup() : "";
+      default -> null;
+    };
+  }
+
+  /**
+   * A template bound to a profile, with the last values it was rendered with.
+   */
+  private static final class Binding {
+
+    private final DisplayNameTemplate template;
+    private final boolean explicit;
+    private TabProfile profile;
+    private String[] values;
+    // Written on the player's thread, read by the tick
+    private volatile String[] resolved;
+    private volatile boolean requested;
+    private volatile boolean ready;
+
+    private Binding(DisplayNameTemplate template, boolean explicit) {
+      this.template = template;
+      this.explicit = explicit;
+    }
+  }
+}
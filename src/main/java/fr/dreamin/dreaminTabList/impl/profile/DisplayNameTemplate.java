@@ -0,0 +1,206 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A display name template compiled into a render plan.
+ *
+ * <p>Templates are written in MiniMessage, or with legacy color codes when
+ * they contain a {@code §}, and reference placeholders as {@code %key%}.
+ * They are compiled once: the placeholder keys are collected and each
+ * reference is turned into a MiniMessage tag, so rendering only resolves
+ * the placeholder values. The component rendered for a tuple of values is
+ * cached, and a tuple already seen is never parsed again.
+ *
+ * <p>Placeholder values are inserted as text, any legacy color code they
+ * carry is kept, but MiniMessage tags in a value are not interpreted.
+ *
+ * <p>This class is not thread-safe, templates are rendered by the tick.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class DisplayNameTemplate {
+
+  /**
+   * Maximum number of rendered components kept per template.
+   */
+  static final int CACHE_SIZE = 256;
+
+  private static final String TAG_PREFIX = "dtl_";
+
+  private final String source;
+  private final String plan;
+  private final String[] keys;
+  private final boolean legacy;
+  private final Map<List<String>, Component> rendered = new LinkedHashMap<>(16, 0.75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<String>, Component> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  private DisplayNameTemplate(String source, String plan, List<String> keys, boolean legacy) {
+    this.source = source;
+    this.plan = plan;
+    this.keys = keys.toArray(String[]::new);
+    this.legacy = legacy;
+  }
+
+  /**
+   * Compiles a template.
+   *
+   * <p>Placeholders are written as {@code %key%} where the key only contains
+   * letters, digits and underscores, and are case-insensitive. Any other
+   * use of {@code %} is kept as literal text.
+   *
+   * @param source the template source, must not be null
+   * @return the compiled template, never null
+   */
+  @NotNull
+  public static DisplayNameTemplate compile(@NotNull String source) {
+    if (source == null) throw new IllegalArgumentException("Source cannot be null");
+
+    boolean legacy = source.indexOf(LegacyComponentSerializer.SECTION_CHAR) >= 0;
+    List<String> keys = new ArrayList<>();
+    StringBuilder plan = new StringBuilder(source.length());
+
+    int index = 0;
+    while (index < source.length()) {
+      char c = source.charAt(index);
+      int end = c == '%' ? source.indexOf('%', index + 1) : -1;
+
+      if (end > index + 1 && isPlaceholderKey(source, index + 1, end)) {
+        // A key referenced twice is resolved once
+        String key = source.substring(index + 1, end).toLowerCase(Locale.ROOT);
+        int argument = keys.indexOf(key);
+        if (argument < 0) {
+          argument = keys.size();
+          keys.add(key);
+        }
+
+        // Legacy templates are rendered by substitution, MiniMessage ones through tags
+        plan.append(legacy ? "%" + argument + "%" : "<" + TAG_PREFIX + argument + ">");
+        index = end + 1;
+        continue;
+      }
+
+      // Substitution markers must not be read from literal text
+      if (legacy && c == '%') plan.append("%%");
+      else plan.append(c);
+      index++;
+    }
+
+    return new DisplayNameTemplate(source, plan.toString(), keys, legacy);
+  }
+
+  /**
+   * Renders this template with the resolved placeholder values.
+   *
+   * @param values the value of each {@linkplain #getKeys() key}, in order
+   * @return the rendered display name, never null
+   */
+  @NotNull
+  public Component render(@NotNull String... values) {
+    if (values == null || values.length != keys.length) throw new IllegalArgumentException("Expected " + keys.length + " placeholder values");
+
+    List<String> tuple = List.of(values);
+    Component component = rendered.get(tuple);
+    if (component == null) {
+      component = legacy ? renderLegacy(values) : renderMiniMessage(values);
+      rendered.put(tuple, component);
+    }
+    return component;
+  }
+
+  /**
+   * Gets the placeholder keys referenced by this template.
+   *
+   * @return the lower-case keys, in order of first reference
+   */
+  @NotNull
+  public List<String> getKeys() {
+    return List.of(keys);
+  }
+
+  /**
+   * Checks if this template contains no placeholder.
+   *
+   * @return true if the rendered output never changes
+   */
+  public boolean isStatic() {
+    return keys.length == 0;
+  }
+
+  /**
+   * Gets the original template source.
+   *
+   * @return the template source
+   */
+  @NotNull
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * Gets the number of rendered components kept.
+   *
+   * @return the size of the render cache
+   */
+  int getCachedCount() {
+    return rendered.size();
+  }
+
+  private Component renderMiniMessage(String[] values) {
+    TagResolver[] resolvers = new TagResolver[values.length];
+    for (int i = 0; i < values.length; i++) {
+      resolvers[i] = Placeholder.component(TAG_PREFIX + i, LegacyComponentSerializer.legacySection().deserialize(values[i]));
+    }
+    return MiniMessage.miniMessage().deserialize(plan, resolvers);
+  }
+
+  private Component renderLegacy(String[] values) {
+    StringBuilder builder = new StringBuilder(plan.length() + 16);
+    int index = 0;
+    while (index < plan.length()) {
+      char c = plan.charAt(index);
+      if (c != '%') {
+        builder.append(c);
+        index++;
+        continue;
+      }
+
+      int end = plan.indexOf('%', index + 1);
+      if (end == index + 1) builder.append('%');
+      else builder.append(values[Integer.parseInt(plan, index + 1, end, 10)]);
+      index = end + 1;
+    }
+    return LegacyComponentSerializer.legacySection().deserialize(builder.toString());
+  }
+
+  private static boolean isPlaceholderKey(String source, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = source.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_') return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "DisplayNameTemplate{" + source + ", keys=" + Arrays.toString(keys) + "}";
+  }
+}
@@ -0,0 +1,235 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set giving the rank of its elements, backed by a treap.
+ *
+ * <p>Each node keeps the size of its subtree, so inserting, removing and
+ * finding the rank of an element, or the element at a rank, take
+ * O(log n) expected time. Elements comparing equal are considered the
+ * same element.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @param <E> the element type
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+final class OrderStatisticTree<E> {
+
+  private final Comparator<? super E> comparator;
+  private final SplittableRandom random = new SplittableRandom(0x5EED);
+  private Node<E> root;
+
+  /**
+   * Creates an empty tree.
+   *
+   * @param comparator the order of the elements
+   */
+  OrderStatisticTree(@NotNull Comparator<? super E> comparator) {
+    this.comparator = Objects.requireNonNull(comparator, "Comparator cannot be null");
+  }
+
+  /**
+   * Gets the number of elements.
+   *
+   * @return the element count
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Inserts an element.
+   *
+   * @param element the element, not already present
+   * @return the rank of the inserted element
+   */
+  int insert(@NotNull E element) {
+    Node<E>[] parts = split(root, element);
+    if (parts[1] != null && comparator.compare(min(parts[1]).element, element) == 0) {
+      root = merge(parts[0], parts[1]);
+      throw new IllegalArgumentException("Element already present: " + element);
+    }
+
+    int rank = size(parts[0]);
+    root = merge(merge(parts[0], new Node<>(element, random.nextInt())), parts[1]);
+    return rank;
+  }
+
+  /**
+   * Removes an element.
+   *
+   * @param element the element
+   * @return the rank the element had, or -1 if it was not present
+   */
+  int remove(@NotNull E element) {
+    int rank = rankOf(element);
+    if (rank < 0) return -1;
+
+    root = remove(root, element);
+    return rank;
+  }
+
+  /**
+   * Gets the rank of an element, its index in sorted order.
+   *
+   * @param element the element
+   * @return the rank, or -1 if the element is not present
+   */
+  int rankOf(@NotNull E element) {
+    int rank = 0;
+    Node<E> node = root;
+    while (node != null) {
+      int compare = comparator.compare(element, node.element);
+      if (compare == 0) return rank + size(node.left);
+
+      if (compare < 0) node = node.left;
+      else {
+        rank += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the element at a rank.
+   *
+   * @param rank the rank, from 0 to {@link #size()} excluded
+   * @return the element
+   */
+  @NotNull
+  E get(int rank) {
+    if (rank < 0 || rank >= size()) throw new IndexOutOfBoundsException("Rank " + rank + " out of " + size());
+
+    Node<E> node = root;
+    while (true) {
+      int left = size(node.left);
+      if (rank == left) return node.element;
+
+      if (rank < left) node = node.left;
+      else {
+        rank -= left + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Gets the elements between two ranks, in order.
+   *
+   * @param from the first rank, inclusive
+   * @param to the last rank, exclusive
+   * @return the elements
+   */
+  @NotNull
+  List<E> range(int from, int to) {
+    if (from < 0 || to > size() || from > to) throw new IndexOutOfBoundsException("Range " + from + ".." + to + " out of " + size());
+
+    List<E> elements = new ArrayList<>(to - from);
+    collect(root, from, to, 0, elements);
+    return elements;
+  }
+
+  /**
+   * Removes every element.
+   */
+  void clear() {
+    root = null;
+  }
+
+  private void collect(Node<E> node, int from, int to, int offset, List<E> out) {
+    if (node == null || offset >= to || offset + node.size <= from) return;
+
+    int rank = offset + size(node.left);
+    collect(node.left, from, to, offset, out);
+    if (rank >= from && rank < to) out.add(node.element);
+    collect(node.right, from, to, rank + 1, out);
+  }
+
+  private Node<E> remove(Node<E> node, E element) {
+    int compare = comparator.compare(element, node.element);
+    if (compare == 0) return merge(node.left, node.right);
+
+    if (compare < 0) node.left = remove(node.left, element);
+    else node.right = remove(node.right, element);
+    node.update();
+    return node;
+  }
+
+  /**
+   * Splits a subtree into the elements lower than a key and the others.
+   */
+  @SuppressWarnings("unchecked")
+  private Node<E>[] split(Node<E> node, E key) {
+    if (node == null) return new Node[]{null, null};
+
+    if (comparator.compare(node.element, key) < 0) {
+      Node<E>[] parts = split(node.right, key);
+      node.right = parts[0];
+      node.update();
+      parts[0] = node;
+      return parts;
+    }
+
+    Node<E>[] parts = split(node.left, key);
+    node.left = parts[1];
+    node.update();
+    parts[1] = node;
+    return parts;
+  }
+
+  /**
+   * Merges two subtrees, every element of the first being lower.
+   */
+  private Node<E> merge(Node<E> low, Node<E> high) {
+    if (low == null) return high;
+    if (high == null) return low;
+
+    if (low.priority > high.priority) {
+      low.right = merge(low.right, high);
+      low.update();
+      return low;
+    }
+
+    high.left = merge(low, high.left);
+    high.update();
+    return high;
+  }
+
+  private static <E> Node<E> min(Node<E> node) {
+    while (node.left != null) node = node.left;
+    return node;
+  }
+
+  private static int size(Node<?> node) {
+    return node != null ? node.size : 0;
+  }
+
+  private static final class Node<E> {
+
+    private final E element;
+    private final int priority;
+    private Node<E> left;
+    private Node<E> right;
+    private int size = 1;
+
+    private Node(E element, int priority) {
+      this.element = element;
+      this.priority = priority;
+    }
+
+    private void update() {
+      size = 1 + size(left) + size(right);
+    }
+  }
+}
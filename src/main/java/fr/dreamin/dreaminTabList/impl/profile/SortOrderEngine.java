@@ -0,0 +1,304 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Derives the sort order of global profiles from their rank.
+ *
+ * <p>Profiles are ranked by the weight of their group, then their score,
+ * both in descending order, then their name. Ranks are kept in an
+ * {@link OrderStatisticTree}, so a score or group change takes O(log n).
+ *
+ * <p>List orders are sparse: a profile moving to a new rank gets an order
+ * between the orders of its new neighbours, and the other profiles keep
+ * theirs. Only when two neighbours have no free order left between them
+ * are the orders around them spread again, which the wide gaps make rare.
+ *
+ * <p>Every change returns the profiles whose order may have changed; the
+ * caller compares their derived order with the one they carry to only
+ * send the orders that actually changed.
+ *
+ * <p>This class is not thread-safe, callers synchronize on the instance.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+final class SortOrderEngine {
+
+  private static final Comparator<Key> ORDER = Comparator.comparingInt(Key::weight).reversed()
+    .thenComparing(Comparator.comparingInt(Key::score).reversed())
+    .thenComparing(Key::name, String.CASE_INSENSITIVE_ORDER)
+    .thenComparing(Key::name)
+    .thenComparing(Key::uuid);
+
+  // Distance between the orders of profiles appended after the first or last one
+  private static final int GAP = 1 << 16;
+
+  private final OrderStatisticTree<Key> tree = new OrderStatisticTree<>(ORDER);
+  private final Map<UUID, Key> keys = new HashMap<>();
+  private final Map<UUID, Integer> orders = new HashMap<>();
+  private final Map<String, Integer> groupWeights = new HashMap<>();
+  private final Map<UUID, Integer> scores = new HashMap<>();
+
+  /**
+   * Gets the list order of a tracked profile.
+   *
+   * <p>Clients show higher list orders first, so the orders decrease with
+   * the rank.
+   *
+   * @param uuid the profile UUID
+   * @return the list order
+   */
+  int listOrderOf(@NotNull UUID uuid) {
+    Integer order = orders.get(uuid);
+    if (order == null) throw new IllegalArgumentException("Profile is not ranked: " + uuid);
+
+    return order;
+  }
+
+  /**
+   * Ranks a profile, or ranks it again after its name or group changed.
+   *
+   * @param uuid the profile UUID
+   * @param name the profile name
+   * @param group the profile group, may be null
+   * @return the profiles whose rank may have changed, the given one included
+   */
+  @NotNull
+  List<UUID> put(@NotNull UUID uuid, @NotNull String name, @Nullable String group) {
+    Key key = new Key(uuid, name, group, weightOf(group), scores.getOrDefault(uuid, 0));
+    return move(keys.get(uuid), key);
+  }
+
+  /**
+   * Ranks many profiles at once, such as when they are loaded.
+   *
+   * <p>The profiles are inserted first, then every ranked profile gets an
+   * evenly spread order in a single pass, instead of placing them one at a
+   * time.
+   *
+   * @param profiles the profiles to rank
+   */
+  void putAll(@NotNull Collection<? extends TabProfile> profiles) {
+    for (TabProfile profile : profiles) {
+      UUID uuid = profile.getUniqueId();
+      Key previous = keys.get(uuid);
+      if (previous != null) tree.remove(previous);
+
+      String group = profile.getGroup();
+      Key key = new Key(uuid, profile.getName(), group, weightOf(group), scores.getOrDefault(uuid, 0));
+      tree.insert(key);
+      keys.put(uuid, key);
+    }
+    spread();
+  }
+
+  /**
+   * Stops ranking a profile and forgets its score.
+   *
+   * <p>The other profiles keep their order.
+   *
+   * @param uuid the profile UUID
+   */
+  void remove(@NotNull UUID uuid) {
+    scores.remove(uuid);
+    orders.remove(uuid);
+    Key key = keys.remove(uuid);
+    if (key != null) tree.remove(key);
+  }
+
+  /**
+   * Changes the score of a profile. The score is kept for a profile ranked later.
+   *
+   * @param uuid the profile UUID
+   * @param score the new score
+   * @return the profiles whose rank may have changed
+   */
+  @NotNull
+  List<UUID> setScore(@NotNull UUID uuid, int score) {
+    scores.put(uuid, score);
+
+    Key key = keys.get(uuid);
+    if (key == null || key.score() == score) return List.of();
+    return move(key, new Key(uuid, key.name(), key.group(), key.weight(), score));
+  }
+
+  /**
+   * Gets the score of a profile.
+   *
+   * @param uuid the profile UUID
+   * @return the score, 0 if never set
+   */
+  int getScore(@NotNull UUID uuid) {
+    return scores.getOrDefault(uuid, 0);
+  }
+
+  /**
+   * Changes the weight of a group, ranking its profiles again.
+   *
+   * @param group the group
+   * @param weight the new weight
+   * @return the profiles whose rank may have changed
+   */
+  @NotNull
+  List<UUID> setGroupWeight(@NotNull String group, int weight) {
+    if (weightOf(group) == weight) return List.of();
+    groupWeights.put(group, weight);
+
+    List<Key> members = new ArrayList<>();
+    for (Key key : keys.values()) {
+      if (group.equals(key.group())) members.add(key);
+    }
+
+    Set<UUID> moved = new LinkedHashSet<>();
+    for (Key key : members) {
+      moved.addAll(move(key, new Key(key.uuid(), key.name(), group, weight, key.score())));
+    }
+    return new ArrayList<>(moved);
+  }
+
+  /**
+   * Gets the weight of a group.
+   *
+   * @param group the group, may be null
+   * @return the weight, 0 if never set
+   */
+  int weightOf(@Nullable String group) {
+    return group != null ? groupWeights.getOrDefault(group, 0) : 0;
+  }
+
+  /**
+   * Gets the number of ranked profiles.
+   *
+   * @return the profile count
+   */
+  int size() {
+    return tree.size();
+  }
+
+  /**
+   * Stops ranking every profile and forgets their scores. Group weights are kept.
+   */
+  void clear() {
+    unrankAll();
+    scores.clear();
+  }
+
+  /**
+   * Stops ranking every profile. Scores and group weights are kept.
+   */
+  void unrankAll() {
+    tree.clear();
+    keys.clear();
+    orders.clear();
+  }
+
+  /**
+   * Replaces the key of a profile, returning the profiles whose order
+   * changed: the profile alone, or every profile when the orders had to be
+   * spread again.
+   */
+  private List<UUID> move(@Nullable Key from, Key to) {
+    if (from != null && ORDER.compare(from, to) == 0) {
+      // Same rank, the tree may keep the previous key
+      keys.put(to.uuid(), to);
+      return List.of();
+    }
+
+    if (from != null) tree.remove(from);
+    int rank = tree.insert(to);
+    keys.put(to.uuid(), to);
+
+    // Orders between the neighbours, the bounds standing for the missing ones
+    long above = rank > 0 ? orders.get(tree.get(rank - 1).uuid()) : Integer.MAX_VALUE + 1L;
+    long below = rank < tree.size() - 1 ? orders.get(tree.get(rank + 1).uuid()) : Integer.MIN_VALUE - 1L;
+
+    // Still between its neighbours, nothing to send
+    Integer current = orders.get(to.uuid());
+    if (current != null && below < current && current < above) return List.of();
+
+    if (above - below < 2) return respace(rank);
+
+    long order;
+    if (rank == 0 && rank == tree.size() - 1) order = 0L;
+    else if (rank == 0) order = Math.min(below + GAP, below + (above - below) / 2);
+    else if (rank == tree.size() - 1) order = Math.max(above - GAP, above - (above - below) / 2);
+    else order = below + (above - below) / 2;
+
+    orders.put(to.uuid(), (int) order);
+    return List.of(to.uuid());
+  }
+
+  /**
+   * Spreads the orders around a rank left without a free order.
+   *
+   * <p>The range of ranks around it doubles until its orders are sparse
+   * enough to leave each profile a gap at least as wide as the range, then
+   * only the orders of that range are spread again. Crowded insertions
+   * thus change a few neighbouring orders, and rarely all of them.
+   *
+   * @param rank the rank of the profile without an order
+   * @return the profiles whose order changed
+   */
+  private List<UUID> respace(int rank) {
+    int size = tree.size();
+    for (int radius = 1; ; radius *= 2) {
+      int from = Math.max(0, rank - radius);
+      int to = Math.min(size, rank + radius + 1);
+      long above = from > 0 ? orders.get(tree.get(from - 1).uuid()) : Integer.MAX_VALUE + 1L;
+      long below = to < size ? orders.get(tree.get(to).uuid()) : Integer.MIN_VALUE - 1L;
+
+      if ((above - below) / (to - from + 1) >= to - from || (from == 0 && to == size)) {
+        return spread(from, to, above, below);
+      }
+    }
+  }
+
+  /**
+   * Spreads the orders of every ranked profile evenly over the int range.
+   *
+   * @return the profiles whose order changed
+   */
+  private List<UUID> spread() {
+    return spread(0, tree.size(), Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L);
+  }
+
+  /**
+   * Spreads the orders of a range of ranks evenly between two bounds.
+   *
+   * @param from the first rank, inclusive
+   * @param to the last rank, exclusive
+   * @param above the order above the range, excluded
+   * @param below the order below the range, excluded
+   * @return the profiles whose order changed
+   */
+  private List<UUID> spread(int from, int to, long above, long below) {
+    long step = (above - below) / (to - from + 1);
+
+    List<UUID> changed = new ArrayList<>();
+    List<Key> ranked = tree.range(from, to);
+    for (int i = 0; i < ranked.size(); i++) {
+      UUID uuid = ranked.get(i).uuid();
+      int order = (int) (above - (i + 1) * step);
+      Integer previous = orders.put(uuid, order);
+      if (previous == null || previous != order) changed.add(uuid);
+    }
+    return changed;
+  }
+
+  private record Key(UUID uuid, String name, String group, int weight, int score) {
+  }
+}
@@ -5,8 +5,13 @@ import com.github.retrooper.packetevents.protocol.player.TextureProperty;
 import fr.dreamin.api.minecraft.MojangAPI;
 import fr.dreamin.api.minecraft.SkinProperty;
 import fr.dreamin.dreaminTabList.api.exceptions.InvalidProfileException;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
 import fr.dreamin.dreaminTabList.api.profile.TabProfile;
 import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
+import fr.dreamin.dreaminTabList.impl.concurrent.LookupExecutor;
+import fr.dreamin.dreaminTabList.impl.jfr.SkinFetchEvent;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import fr.dreamin.dreaminTabList.impl.skin.SkinBatchResolver;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.entity.Player;
@@ -16,6 +21,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 /**
@@ -183,18 +189,68 @@ public class TabProfileBuilderImpl implements TabProfileBuilder {
   @Override
   @NotNull
   public TabProfileBuilder skinFromPlayer(@NotNull String playerName) {
+    validateSkinSource(playerName);
+
+    setSkin(fetchSkin(playerName));
+    return this;
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<TabProfileBuilder> skinFromPlayerAsync(@NotNull Player player) {
+    if (player == null) throw new IllegalArgumentException("Player cannot be null");
+
+    if (!player.isOnline()) throw new IllegalArgumentException("Player must be online to copy skin");
+
+    String playerName = player.getName();
+    validateSkinSource(playerName);
+
+    return LookupExecutor.global().bind(skinFromPlayerAsync(playerName), player.getUniqueId());
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<TabProfileBuilder> skinFromPlayerAsync(@NotNull String playerName) {
+    validateSkinSource(playerName);
+
+    // Names requested by concurrent builders are resolved together
+    return SkinBatchResolver.global().resolve(playerName).thenApply(this::setSkin);
+  }
+
+  private void validateSkinSource(String playerName) {
     if (playerName == null) throw new IllegalArgumentException("Player name cannot be null");
 
     if (!USERNAME_PATTERN.matcher(playerName).matches()) throw new IllegalArgumentException("Invalid player name: " + playerName);
+  }
 
+  /**
+   * Fetches a skin from the Mojang API, blocking the calling thread.
+   *
+   * @param playerName the player name to get skin from
+   * @return the skin texture property
+   * @throws InvalidProfileException if the skin cannot be fetched
+   */
+  private static TextureProperty fetchSkin(String playerName) {
+    SkinFetchEvent fetchEvent = new SkinFetchEvent();
+    fetchEvent.begin();
+    long start = System.nanoTime();
     try {
       SkinProperty skin = MojangAPI.getSkinPropertyByName(playerName);
-      this.skinProperties.clear();
-      this.skinProperties.add(new TextureProperty(skin.getName(), skin.getValue(), skin.getSignature()));
+      fetchEvent.success = true;
+      fetchEvent.textureBytes = skin.getValue() != null ? skin.getValue().length() : 0;
+      return new TextureProperty(skin.getName(), skin.getValue(), skin.getSignature());
     } catch (Exception e) {
+      MetricsRegistry.global().increment(TabListMetrics.SKIN_RESOLVE_FAILURES);
       throw new InvalidProfileException("Failed to fetch skin for player '" + playerName + "'", e);
+    } finally {
+      MetricsRegistry.global().histogram(TabListMetrics.SKIN_RESOLVE_TIME).recordSince(start, MetricsRegistry.MILLIS);
+      fetchEvent.finish(playerName);
     }
+  }
 
+  private TabProfileBuilder setSkin(TextureProperty skin) {
+    this.skinProperties.clear();
+    this.skinProperties.add(skin);
     return this;
   }
 
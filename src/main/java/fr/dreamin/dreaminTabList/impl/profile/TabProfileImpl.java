@@ -3,10 +3,9 @@ package fr.dreamin.dreaminTabList.impl.profile;
 import com.github.retrooper.packetevents.protocol.player.GameMode;
 import com.github.retrooper.packetevents.protocol.player.TextureProperty;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
-import fr.dreamin.api.minecraft.MojangAPI;
-import fr.dreamin.api.minecraft.SkinProperty;
 import fr.dreamin.dreaminTabList.api.profile.TabProfile;
 import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
+import fr.dreamin.dreaminTabList.impl.skin.SkinPrefetchCache;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -48,10 +47,6 @@ public class TabProfileImpl implements TabProfile {
   private final boolean vanillaSynced;
   private final List<TextureProperty> skinProperties;
 
-  // Internal fields for change tracking
-  private String lastName;
-  private List<TextureProperty> lastSkin;
-
   /**
    * Creates a new TabProfile implementation.
    *
@@ -73,15 +68,14 @@ public class TabProfileImpl implements TabProfile {
     this.realPlayer = builder.isRealPlayer();
     this.vanillaSynced = builder.isVanillaSynced();
     this.skinProperties = new ArrayList<>(builder.getSkinProperties());
-
-    // Initialize change tracking
-    this.lastName = this.name;
-    this.lastSkin = new ArrayList<>(this.skinProperties);
   }
 
   /**
    * Creates a TabProfile from a real player.
    *
+   * <p>The skin is the one the player authenticated with, read without any
+   * lookup. Skins resolved during login are applied on registration.
+   *
    * @param player the player to create the profile from
    * @param group the group to assign to the profile, may be null
    */
@@ -99,12 +93,9 @@ public class TabProfileImpl implements TabProfile {
     this.vanillaSynced = true;
     this.skinProperties = new ArrayList<>();
 
-    // Load skin data
-    loadSkinFromPlayer(player.getName());
-
-    // Initialize change tracking
-    this.lastName = this.name;
-    this.lastSkin = new ArrayList<>(this.skinProperties);
+    // Textures received when the player authenticated, no lookup needed
+    TextureProperty textures = SkinPrefetchCache.texturesOf(player.getPlayerProfile());
+    if (textures != null) this.skinProperties.add(textures);
   }
 
   /**
@@ -211,39 +202,20 @@ public class TabProfileImpl implements TabProfile {
   }
 
   /**
-   * Checks if the name has changed since the last snapshot.
+   * Checks if a profile must be removed and added again to replace
+   * another one on clients.
    *
-   * @return true if the name has changed, false otherwise
-   */
-  public boolean hasNameChanged() {
-    return lastName == null || !lastName.equals(this.name);
-  }
-
-  /**
-   * Checks if the skin has changed since the last snapshot.
+   * <p>Clients only read the name and skin of an entry when it is added,
+   * the other properties are updated in place.
    *
-   * @return true if the skin has changed, false otherwise
+   * @param previous the profile clients currently show, may be null
+   * @param next the profile replacing it
+   * @return true if the name or the skin differ
    */
-  public boolean hasSkinChanged() {
-    if (lastSkin == null || lastSkin.size() != this.skinProperties.size()) return true;
-
-    for (int i = 0; i < lastSkin.size(); i++) {
-      TextureProperty a = lastSkin.get(i);
-      TextureProperty b = this.skinProperties.get(i);
-      if (!Objects.equals(a.getValue(), b.getValue()) || !Objects.equals(a.getSignature(), b.getSignature())) return true;
-    }
-    return false;
-  }
-
-  /**
-   * Takes a snapshot of the current state for change tracking.
-   *
-   * <p>This method should be called after the profile has been
-   * successfully sent to players to update the change tracking state.
-   */
-  public void snapshotState() {
-    this.lastName = this.name;
-    this.lastSkin = new ArrayList<>(this.skinProperties);
+  public static boolean needsReplacement(@Nullable TabProfile previous, @NotNull TabProfile next) {
+    return previous != null && (!previous.getName().equals(next.getName())
+      || !Objects.equals(previous.getSkinTexture(), next.getSkinTexture())
+      || !Objects.equals(previous.getSkinSignature(), next.getSkinSignature()));
   }
 
   /**
@@ -255,21 +227,6 @@ public class TabProfileImpl implements TabProfile {
     return new ArrayList<>(skinProperties);
   }
 
-  /**
-   * Loads skin data from a player name using the Mojang API.
-   *
-   * @param playerName the player name to load skin from
-   */
-  private void loadSkinFromPlayer(String playerName) {
-    try {
-      SkinProperty skin = MojangAPI.getSkinPropertyByName(playerName);
-      this.skinProperties.add(new TextureProperty(skin.getName(), skin.getValue(), skin.getSignature()));
-    } catch (Exception e) {
-      // Log the error but don't throw - use default skin instead
-      System.err.println("Failed to load skin for player " + playerName + ": " + e.getMessage());
-    }
-  }
-
   @Override
   public boolean equals(Object obj) {
     if (this == obj) return true;
@@ -4,12 +4,14 @@ import fr.dreamin.dreaminTabList.api.profile.TabProfile;
 import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
 import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
 import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.audit.AuditType;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -24,6 +26,11 @@ import java.util.stream.Collectors;
  * online players when profiles are modified. It also provides change
  * tracking to optimize packet sending.
  *
+ * <p>Changes may be made from any thread. Each change is applied and
+ * handed to the viewers' executors under a single lock, which never
+ * blocks on the network, so every viewer receives the changes of a
+ * profile in the order they were made.
+ *
  * @author Dreamin
  * @version 0.0.3
  * @since 0.0.1
@@ -33,6 +40,11 @@ public class TabProfileManagerImpl implements TabProfileManager {
   private final TabListAPIImpl api;
   private final Map<UUID, TabProfile> globalProfiles = new ConcurrentHashMap<>();
   private final Map<String, UUID> nameToUuidMap = new ConcurrentHashMap<>();
+  private Function<Player, TabProfile> playerProfileFactory = TabProfileImpl::new;
+
+  // Guards the profile maps and the ranking, and orders the broadcasts of their changes
+  private final SortOrderEngine sortOrderEngine = new SortOrderEngine();
+  private volatile boolean autoSortEnabled = false;
 
   /**
    * Creates a new TabProfileManager implementation.
@@ -54,45 +66,60 @@ public class TabProfileManagerImpl implements TabProfileManager {
   public TabProfile createProfileFromPlayer(@NotNull Player player) {
     if (player == null) throw new IllegalArgumentException("Player cannot be null");
 
-    return new TabProfileImpl(player);
+    return playerProfileFactory.apply(player);
   }
 
   @Override
   public void addGlobalProfile(@NotNull TabProfile profile) {
     if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
 
+    long start = System.nanoTime();
     UUID uuid = profile.getUniqueId();
     String name = profile.getName();
+    List<TabProfileImpl> reordered = new ArrayList<>();
+    int viewers;
+
+    synchronized (sortOrderEngine) {
+      // Remove old name mapping if profile already exists
+      TabProfile existing = globalProfiles.get(uuid);
+      if (existing != null) nameToUuidMap.remove(existing.getName());
+
+      // Add new profile
+      profile = rank(profile, reordered);
+      globalProfiles.put(uuid, profile);
+      nameToUuidMap.put(name, uuid);
+
+      // Send to all players
+      viewers = api.sendProfileToAllPlayers(profile);
+      api.sendListOrderToAllPlayers(reordered);
+    }
+    changed(uuid);
 
-    // Remove old name mapping if profile already exists
-    TabProfile existing = globalProfiles.get(uuid);
-    if (existing != null) nameToUuidMap.remove(existing.getName());
-
-    // Add new profile
-    globalProfiles.put(uuid, profile);
-    nameToUuidMap.put(name, uuid);
-
-    // Send to all players
-    api.sendProfileToAllPlayers(profile);
-
-    // Log the addition
-    api.getLogger().info("Added global profile: " + name + " (" + uuid + ")");
+    api.getAuditLog().record(AuditType.PROFILE_ADD, uuid, name, viewers, start);
   }
 
   @Override
   public void removeGlobalProfile(@NotNull UUID profileId) {
     if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
 
-    TabProfile profile = globalProfiles.remove(profileId);
-    if (profile != null) {
+    long start = System.nanoTime();
+    TabProfile profile;
+    int viewers;
+    synchronized (sortOrderEngine) {
+      profile = globalProfiles.remove(profileId);
+      if (profile == null) return;
+
+      sortOrderEngine.remove(profileId);
       nameToUuidMap.remove(profile.getName());
 
       // Remove from all players
-      api.removeProfileFromAllPlayers(profileId);
-
-      // Log the removal
-      api.getLogger().info("Removed global profile: " + profile.getName() + " (" + profileId + ")");
+      viewers = api.removeProfileFromAllPlayers(profileId);
     }
+
+    api.getDisplayNames().remove(profileId);
+    changed(profileId);
+
+    api.getAuditLog().record(AuditType.PROFILE_REMOVE, profileId, profile.getName(), viewers, start);
   }
 
   @Override
@@ -106,27 +133,60 @@ public class TabProfileManagerImpl implements TabProfileManager {
   public void updateGlobalProfile(@NotNull TabProfile profile) {
     if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
 
+    long start = System.nanoTime();
     UUID uuid = profile.getUniqueId();
-    TabProfile existing = globalProfiles.get(uuid);
+    List<TabProfileImpl> reordered = new ArrayList<>();
+    TabProfile existing;
+    int viewers;
+
+    synchronized (sortOrderEngine) {
+      existing = globalProfiles.get(uuid);
+
+      if (existing != null) {
+        // Update name mapping if name changed
+        if (!existing.getName().equals(profile.getName())) {
+          nameToUuidMap.remove(existing.getName());
+          nameToUuidMap.put(profile.getName(), uuid);
+        }
 
-    if (existing != null) {
-      // Update name mapping if name changed
-      if (!existing.getName().equals(profile.getName())) {
-        nameToUuidMap.remove(existing.getName());
-        nameToUuidMap.put(profile.getName(), uuid);
       }
+      // New profile
+      else nameToUuidMap.put(profile.getName(), uuid);
+
+      profile = rank(profile, reordered);
+      globalProfiles.put(uuid, profile);
 
+      // Update for all players
+      viewers = api.updateProfileForAllPlayers(existing, profile);
+      api.sendListOrderToAllPlayers(reordered);
     }
-    // New profile
-    else nameToUuidMap.put(profile.getName(), uuid);
+    changed(uuid);
 
-    globalProfiles.put(uuid, profile);
+    api.getAuditLog().record(AuditType.PROFILE_UPDATE, uuid, profile.getName(), viewers, start);
+  }
 
-    // Update for all players
-    api.updateProfileForAllPlayers(profile);
+  /**
+   * Replaces a global profile whose skin changed, if it was not modified in
+   * the meantime. Clients only read skins when an entry is added, so the
+   * entry is removed and added again for all players.
+   *
+   * @param expected the profile currently registered
+   * @param replacement the profile to register instead, with the same UUID and name
+   * @return true if the profile was replaced
+   */
+  public boolean replaceGlobalProfile(@NotNull TabProfile expected, @NotNull TabProfile replacement) {
+    if (expected == null) throw new IllegalArgumentException("Expected profile cannot be null");
+    if (replacement == null) throw new IllegalArgumentException("Replacement profile cannot be null");
+    if (!expected.getUniqueId().equals(replacement.getUniqueId())) throw new IllegalArgumentException("Profiles must share the same UUID");
+
+    synchronized (sortOrderEngine) {
+      if (autoSortEnabled) replacement = withSortOrder(replacement, expected.getSortOrder());
+      if (!globalProfiles.replace(replacement.getUniqueId(), expected, replacement)) return false;
 
-    // Log the update
-    api.getLogger().info("Updated global profile: " + profile.getName() + " (" + uuid + ")");
+      api.replaceProfileForAllPlayers(replacement);
+    }
+    changed(replacement.getUniqueId());
+    return true;
   }
 
   @Override
@@ -190,15 +250,25 @@ public class TabProfileManagerImpl implements TabProfileManager {
 
   @Override
   public void clearGlobalProfiles() {
-    // Get all UUIDs before clearing
-    Set<UUID> uuids = new HashSet<>(globalProfiles.keySet());
+    long start = System.nanoTime();
+    Set<UUID> uuids;
+    int viewers;
 
-    // Clear internal storage
-    globalProfiles.clear();
-    nameToUuidMap.clear();
+    synchronized (sortOrderEngine) {
+      // Get all UUIDs before clearing
+      uuids = new HashSet<>(globalProfiles.keySet());
 
-    // Remove from all players
-    api.removeProfilesFromAllPlayers(uuids);
+      // Clear internal storage
+      globalProfiles.clear();
+      sortOrderEngine.clear();
+      nameToUuidMap.clear();
+
+      // Remove from all players
+      viewers = api.removeProfilesFromAllPlayers(uuids);
+    }
+    uuids.forEach(api.getDisplayNames()::remove);
+    uuids.forEach(this::changed);
+    api.getAuditLog().record(AuditType.PROFILE_CLEAR, null, null, viewers, start);
 
     // Log the operation
     api.getLogger().info("Cleared all global profiles (" + uuids.size() + " profiles)");
@@ -208,31 +278,180 @@ public class TabProfileManagerImpl implements TabProfileManager {
   public void clearProfilesByGroup(@NotNull String group) {
     if (group == null) throw new IllegalArgumentException("Group cannot be null");
 
-    // Find profiles in the group
-    List<TabProfile> profilesToRemove = globalProfiles.values().stream()
-      .filter(profile -> Objects.equals(profile.getGroup(), group))
-      .collect(Collectors.toList());
+    long start = System.nanoTime();
+    List<UUID> removed = new ArrayList<>();
+    int viewers;
+
+    synchronized (sortOrderEngine) {
+      // Remove each profile of the group, the others keep their order
+      for (TabProfile profile : globalProfiles.values()) {
+        if (Objects.equals(profile.getGroup(), group)) removed.add(profile.getUniqueId());
+      }
+      for (UUID uuid : removed) {
+        TabProfile profile = globalProfiles.remove(uuid);
+        nameToUuidMap.remove(profile.getName());
+        sortOrderEngine.remove(uuid);
+      }
 
-    // Remove each profile
-    for (TabProfile profile : profilesToRemove) {
-      removeGlobalProfile(profile.getUniqueId());
+      viewers = api.removeProfilesFromAllPlayers(removed);
     }
+    removed.forEach(api.getDisplayNames()::remove);
+    removed.forEach(this::changed);
+    api.getAuditLog().record(AuditType.PROFILE_CLEAR, null, group, viewers, start);
 
     // Log the operation
-    api.getLogger().info("Cleared " + profilesToRemove.size() + " profiles from group: " + group);
+    api.getLogger().info("Cleared " + removed.size() + " profiles from group: " + group);
   }
 
   @Override
   public void refreshGlobalProfiles() {
     // Resend all global profiles to all players
-    for (TabProfile profile : globalProfiles.values()) {
-      api.sendProfileToAllPlayers(profile);
+    synchronized (sortOrderEngine) {
+      for (TabProfile profile : globalProfiles.values()) {
+        api.sendProfileToAllPlayers(profile);
+      }
     }
 
     // Log the operation
     api.getLogger().info("Refreshed " + globalProfiles.size() + " global profiles");
   }
 
+  @Override
+  public void setAutoSortEnabled(boolean enabled) {
+    List<TabProfileImpl> reordered = new ArrayList<>();
+
+    synchronized (sortOrderEngine) {
+      if (this.autoSortEnabled == enabled) return;
+      this.autoSortEnabled = enabled;
+
+      // Orders derived so far are kept when disabling
+      if (!enabled) {
+        sortOrderEngine.unrankAll();
+        return;
+      }
+
+      sortOrderEngine.putAll(globalProfiles.values());
+      reorder(globalProfiles.keySet(), reordered);
+      api.sendListOrderToAllPlayers(reordered);
+    }
+  }
+
+  @Override
+  public boolean isAutoSortEnabled() {
+    return autoSortEnabled;
+  }
+
+  @Override
+  public void setGroupWeight(@NotNull String group, int weight) {
+    if (group == null) throw new IllegalArgumentException("Group cannot be null");
+
+    List<TabProfileImpl> reordered = new ArrayList<>();
+    synchronized (sortOrderEngine) {
+      reorder(sortOrderEngine.setGroupWeight(group, weight), reordered);
+      api.sendListOrderToAllPlayers(reordered);
+    }
+  }
+
+  @Override
+  public int getGroupWeight(@NotNull String group) {
+    if (group == null) throw new IllegalArgumentException("Group cannot be null");
+
+    synchronized (sortOrderEngine) {
+      return sortOrderEngine.weightOf(group);
+    }
+  }
+
+  @Override
+  public void setScore(@NotNull UUID profileId, int score) {
+    if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
+
+    List<TabProfileImpl> reordered = new ArrayList<>();
+    synchronized (sortOrderEngine) {
+      reorder(sortOrderEngine.setScore(profileId, score), reordered);
+      api.sendListOrderToAllPlayers(reordered);
+    }
+  }
+
+  @Override
+  public int getScore(@NotNull UUID profileId) {
+    if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
+
+    synchronized (sortOrderEngine) {
+      return sortOrderEngine.getScore(profileId);
+    }
+  }
+
+  @Override
+  public void setDisplayNameTemplate(@NotNull UUID profileId, @Nullable String template) {
+    if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
+
+    api.getDisplayNames().setTemplate(profileId, template);
+  }
+
+  @Override
+  @Nullable
+  public String getDisplayNameTemplate(@NotNull UUID profileId) {
+    if (profileId == null) throw new IllegalArgumentException("Profile ID cannot be null");
+
+    return api.getDisplayNames().getTemplate(profileId);
+  }
+
+  /**
+   * Ranks a profile when automatic sorting is enabled, collecting the
+   * other profiles whose order changed. Must hold the engine lock.
+   *
+   * @param profile the profile to rank
+   * @param reordered receives the other profiles, carrying their new order
+   * @return the profile carrying its derived order
+   */
+  private TabProfile rank(TabProfile profile, List<TabProfileImpl> reordered) {
+    if (!autoSortEnabled) return profile;
+
+    UUID uuid = profile.getUniqueId();
+    List<UUID> moved = new ArrayList<>(sortOrderEngine.put(uuid, profile.getName(), profile.getGroup()));
+    moved.remove(uuid);
+    reorder(moved, reordered);
+    return withSortOrder(profile, sortOrderEngine.listOrderOf(uuid));
+  }
+
+  /**
+   * Stores the derived order of ranked profiles, collecting the ones whose
+   * order actually changed. Must hold the engine lock.
+   *
+   * @param moved the profiles whose order may have changed
+   * @param reordered receives the profiles whose order changed
+   */
+  private void reorder(Collection<UUID> moved, List<TabProfileImpl> reordered) {
+    if (!autoSortEnabled) return;
+
+    for (UUID uuid : moved) {
+      TabProfile profile = globalProfiles.get(uuid);
+      if (profile == null) continue;
+
+      TabProfile ordered = withSortOrder(profile, sortOrderEngine.listOrderOf(uuid));
+      if (ordered == profile) continue;
+
+      globalProfiles.put(uuid, ordered);
+      if (ordered instanceof TabProfileImpl impl) reordered.add(impl);
+    }
+  }
+
+  /**
+   * Marks a global profile changed, to be published to the network and
+   * written to the store.
+   *
+   * @param uuid the UUID of the changed profile
+   */
+  private void changed(UUID uuid) {
+    api.getReplicator().markDirty(uuid);
+    api.getProfileStore().markDirty(uuid);
+  }
+
+  private static TabProfile withSortOrder(TabProfile profile, int sortOrder) {
+    if (profile.getSortOrder() == sortOrder) return profile;
+    return profile.toBuilder().sortOrder(sortOrder).build();
+  }
+
   /**
    * Gets all global profiles as a map for internal use.
    *
@@ -242,6 +461,21 @@ public class TabProfileManagerImpl implements TabProfileManager {
     return Collections.unmodifiableMap(globalProfiles);
   }
 
+  /**
+   * Replaces the factory creating profiles of real players.
+   *
+   * <p>The default factory uses the skin the player authenticated with. This method is used
+   * internally by tools running without a server, such as the load
+   * simulator, to build profiles from fixed data instead.
+   *
+   * @param playerProfileFactory the new factory
+   */
+  public void setPlayerProfileFactory(@NotNull Function<Player, TabProfile> playerProfileFactory) {
+    if (playerProfileFactory == null) throw new IllegalArgumentException("Factory cannot be null");
+
+    this.playerProfileFactory = playerProfileFactory;
+  }
+
   /**
    * Initializes the manager with existing profiles.
    *
@@ -253,12 +487,21 @@ public class TabProfileManagerImpl implements TabProfileManager {
   public void initializeProfiles(@NotNull Collection<TabProfile> profiles) {
     if (profiles == null) throw new IllegalArgumentException("Profiles cannot be null");
 
-    globalProfiles.clear();
-    nameToUuidMap.clear();
+    synchronized (sortOrderEngine) {
+      globalProfiles.clear();
+      nameToUuidMap.clear();
+      sortOrderEngine.clear();
 
-    for (TabProfile profile : profiles) {
-      globalProfiles.put(profile.getUniqueId(), profile);
-      nameToUuidMap.put(profile.getName(), profile.getUniqueId());
+      for (TabProfile profile : profiles) {
+        globalProfiles.put(profile.getUniqueId(), profile);
+        nameToUuidMap.put(profile.getName(), profile.getUniqueId());
+      }
+
+      // Ranked at once, nobody sees the profiles yet
+      if (autoSortEnabled) {
+        sortOrderEngine.putAll(globalProfiles.values());
+        globalProfiles.replaceAll((uuid, profile) -> withSortOrder(profile, sortOrderEngine.listOrderOf(uuid)));
+      }
     }
 
     api.getLogger().info("Initialized profile manager with " + profiles.size() + " profiles");
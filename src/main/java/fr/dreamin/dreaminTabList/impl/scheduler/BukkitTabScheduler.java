@@ -0,0 +1,58 @@
+package fr.dreamin.dreaminTabList.impl.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scheduler for classic servers, where the main thread owns every player.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class BukkitTabScheduler implements TabScheduler {
+
+  private final Plugin plugin;
+
+  /**
+   * Creates a scheduler running tasks on the main thread.
+   *
+   * @param plugin the plugin owning the tasks
+   */
+  public BukkitTabScheduler(@NotNull Plugin plugin) {
+    if (plugin == null) throw new IllegalArgumentException("Plugin cannot be null");
+
+    this.plugin = plugin;
+  }
+
+  @Override
+  @NotNull
+  public TabTask runGlobalTimer(@NotNull Runnable task, long delayTicks, long periodTicks) {
+    BukkitTask scheduled = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+    return scheduled::cancel;
+  }
+
+  @Override
+  public void runForPlayer(@NotNull Player player, @NotNull Runnable task) {
+    if (Bukkit.isPrimaryThread()) {
+      if (player.isOnline()) task.run();
+      return;
+    }
+
+    Bukkit.getScheduler().runTask(plugin, () -> {
+      if (player.isOnline()) task.run();
+    });
+  }
+
+  @Override
+  @NotNull
+  public TabTask runForPlayerLater(@NotNull Player player, @NotNull Runnable task, long delayTicks) {
+    BukkitTask scheduled = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+      if (player.isOnline()) task.run();
+    }, delayTicks);
+    return scheduled::cancel;
+  }
+}
@@ -0,0 +1,80 @@
+package fr.dreamin.dreaminTabList.impl.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scheduler for region-threaded (Folia) servers.
+ *
+ * <p>Global tasks run on the global region thread, and player tasks on the
+ * entity scheduler of the player, which follows the player across regions
+ * and drops its tasks once the player leaves.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class RegionTabScheduler implements TabScheduler {
+
+  private static final boolean SUPPORTED = detect();
+
+  private final Plugin plugin;
+
+  /**
+   * Creates a scheduler dispatching tasks to region threads.
+   *
+   * @param plugin the plugin owning the tasks
+   */
+  public RegionTabScheduler(@NotNull Plugin plugin) {
+    if (plugin == null) throw new IllegalArgumentException("Plugin cannot be null");
+
+    this.plugin = plugin;
+  }
+
+  /**
+   * Checks if the server is region-threaded.
+   *
+   * @return true on Folia and its forks
+   */
+  public static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  @Override
+  @NotNull
+  public TabTask runGlobalTimer(@NotNull Runnable task, long delayTicks, long periodTicks) {
+    ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler()
+      .runAtFixedRate(plugin, ignored -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+    return scheduled::cancel;
+  }
+
+  @Override
+  public void runForPlayer(@NotNull Player player, @NotNull Runnable task) {
+    if (Bukkit.isOwnedByCurrentRegion(player)) {
+      task.run();
+      return;
+    }
+
+    player.getScheduler().run(plugin, ignored -> task.run(), null);
+  }
+
+  @Override
+  @NotNull
+  public TabTask runForPlayerLater(@NotNull Player player, @NotNull Runnable task, long delayTicks) {
+    ScheduledTask scheduled = player.getScheduler().runDelayed(plugin, ignored -> task.run(), null, Math.max(1L, delayTicks));
+    // The player already left: nothing to cancel
+    return scheduled != null ? scheduled::cancel : () -> {};
+  }
+
+  private static boolean detect() {
+    try {
+      Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package fr.dreamin.dreaminTabList.impl.scheduler;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Schedules the plugin's tab work on the thread owning it.
+ *
+ * <p>Work that concerns every viewer, such as driving animations or
+ * flushing connections, runs on the global scheduler. Work reading the
+ * state of one player, such as rendering placeholders, runs on the thread
+ * owning that player. On a classic server both are the main thread; on a
+ * region-threaded (Folia) server the global region and the player's region
+ * respectively, so per-player work is spread across region threads.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public interface TabScheduler {
+
+  /**
+   * Runs a task repeatedly on the global scheduler.
+   *
+   * @param task the task to run
+   * @param delayTicks the ticks before the first run, at least 1
+   * @param periodTicks the ticks between two runs, at least 1
+   * @return the scheduled task
+   */
+  @NotNull
+  TabTask runGlobalTimer(@NotNull Runnable task, long delayTicks, long periodTicks);
+
+  /**
+   * Runs a task on the thread owning a player, as soon as possible.
+   *
+   * <p>The task runs immediately when called from that thread, and is
+   * silently dropped if the player leaves before it can run.
+   *
+   * @param player the player the task reads or modifies
+   * @param task the task to run
+   */
+  void runForPlayer(@NotNull Player player, @NotNull Runnable task);
+
+  /**
+   * Runs a task on the thread owning a player, after a delay.
+   *
+   * <p>The task is silently dropped if the player leaves before it can run.
+   *
+   * @param player the player the task reads or modifies
+   * @param task the task to run
+   * @param delayTicks the ticks before the run, at least 1
+   * @return the scheduled task
+   */
+  @NotNull
+  TabTask runForPlayerLater(@NotNull Player player, @NotNull Runnable task, long delayTicks);
+
+  /**
+   * Creates the scheduler matching the running server.
+   *
+   * @param plugin the plugin owning the tasks
+   * @return a region scheduler on Folia, the Bukkit scheduler otherwise
+   */
+  @NotNull
+  static TabScheduler create(@NotNull Plugin plugin) {
+    if (plugin == null) throw new IllegalArgumentException("Plugin cannot be null");
+    return RegionTabScheduler.isSupported() ? new RegionTabScheduler(plugin) : new BukkitTabScheduler(plugin);
+  }
+}
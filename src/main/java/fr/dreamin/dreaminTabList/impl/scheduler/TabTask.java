@@ -0,0 +1,17 @@
+package fr.dreamin.dreaminTabList.impl.scheduler;
+
+/**
+ * A task scheduled with a {@link TabScheduler}.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@FunctionalInterface
+public interface TabTask {
+
+  /**
+   * Cancels the task. Does nothing if it already ran or was cancelled.
+   */
+  void cancel();
+}
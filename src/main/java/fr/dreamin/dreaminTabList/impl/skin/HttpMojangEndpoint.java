@@ -0,0 +1,119 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resolves names and skins through Mojang's public web services.
+ *
+ * <p>Names are resolved with the bulk profile lookup, 10 names per request.
+ * Textures have no bulk endpoint and are fetched from the session server,
+ * one request per player.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class HttpMojangEndpoint implements MojangEndpoint {
+
+  private static final URI BULK_LOOKUP = URI.create("https://api.minecraftservices.com/minecraft/profile/lookup/bulk/byname");
+  private static final String SESSION_PROFILE = "https://sessionserver.mojang.com/session/minecraft/profile/";
+  private static final int MAX_BULK_SIZE = 10;
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+  private final HttpClient client = HttpClient.newBuilder()
+    .connectTimeout(REQUEST_TIMEOUT)
+    .build();
+
+  @Override
+  public int getMaxBulkSize() {
+    return MAX_BULK_SIZE;
+  }
+
+  @Override
+  @NotNull
+  public Map<String, UUID> lookupUniqueIds(@NotNull Collection<String> names) throws IOException {
+    if (names.size() > MAX_BULK_SIZE) throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " names per lookup");
+
+    JsonArray body = new JsonArray();
+    names.forEach(body::add);
+
+    HttpRequest request = HttpRequest.newBuilder(BULK_LOOKUP)
+      .timeout(REQUEST_TIMEOUT)
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+      .build();
+
+    Map<String, UUID> uuids = new HashMap<>();
+    String response = send(request, "bulk");
+    if (response.isEmpty()) return uuids;
+
+    for (JsonElement element : JsonParser.parseString(response).getAsJsonArray()) {
+      JsonObject profile = element.getAsJsonObject();
+      uuids.put(profile.get("name").getAsString(), parseUndashed(profile.get("id").getAsString()));
+    }
+    return uuids;
+  }
+
+  @Override
+  @Nullable
+  public TextureProperty fetchTextures(@NotNull UUID uuid) throws IOException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(SESSION_PROFILE + uuid.toString().replace("-", "") + "?unsigned=false"))
+      .timeout(REQUEST_TIMEOUT)
+      .GET()
+      .build();
+
+    String response = send(request, "textures");
+    if (response.isEmpty()) return null;
+
+    for (JsonElement element : JsonParser.parseString(response).getAsJsonObject().getAsJsonArray("properties")) {
+      JsonObject property = element.getAsJsonObject();
+      if (!property.get("name").getAsString().equals("textures")) continue;
+
+      JsonElement signature = property.get("signature");
+      return new TextureProperty("textures", property.get("value").getAsString(), signature != null ? signature.getAsString() : null);
+    }
+    return null;
+  }
+
+  /**
+   * Sends a request and returns its body, empty when there is no content.
+   */
+  private String send(HttpRequest request, String kind) throws IOException {
+    MetricsRegistry.global().increment(TabListMetrics.LOOKUP_REQUESTS + kind);
+
+    HttpResponse<String> response;
+    try {
+      response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while calling " + request.uri(), e);
+    }
+
+    if (response.statusCode() == 204 || response.statusCode() == 404) return "";
+    if (response.statusCode() != 200) throw new IOException("HTTP " + response.statusCode() + " from " + request.uri());
+    return response.body();
+  }
+
+  private static UUID parseUndashed(String id) {
+    return new UUID(Long.parseUnsignedLong(id.substring(0, 16), 16), Long.parseUnsignedLong(id.substring(16, 32), 16));
+  }
+}
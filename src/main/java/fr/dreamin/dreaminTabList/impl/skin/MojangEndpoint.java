@@ -0,0 +1,52 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The remote service resolving player names and skins.
+ *
+ * <p>Calls are blocking and are only made from lookup threads. The
+ * default implementation talks to Mojang's servers; tests use a local
+ * stub instead.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public interface MojangEndpoint {
+
+  /**
+   * Gets the maximum number of names resolved by one bulk lookup.
+   *
+   * @return the bulk lookup size limit
+   */
+  int getMaxBulkSize();
+
+  /**
+   * Resolves the unique ids of several player names in a single request.
+   *
+   * @param names the names to resolve, at most {@link #getMaxBulkSize()}
+   * @return the unique ids by name, in any case, without the names
+   *         matching no player
+   * @throws IOException if the request fails
+   */
+  @NotNull
+  Map<String, UUID> lookupUniqueIds(@NotNull Collection<String> names) throws IOException;
+
+  /**
+   * Fetches the signed skin textures of a player.
+   *
+   * @param uuid the player unique id
+   * @return the textures property, or null if the player has none
+   * @throws IOException if the request fails
+   */
+  @Nullable
+  TextureProperty fetchTextures(@NotNull UUID uuid) throws IOException;
+}
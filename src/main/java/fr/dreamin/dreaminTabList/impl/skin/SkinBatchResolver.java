@@ -0,0 +1,223 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import fr.dreamin.dreaminTabList.api.exceptions.InvalidProfileException;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.impl.concurrent.LookupExecutor;
+import fr.dreamin.dreaminTabList.impl.jfr.SkinFetchEvent;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Resolves skins by player name, batching the name lookups.
+ *
+ * <p>Names requested within a short window are collected and resolved
+ * together through bulk lookups, in chunks of the endpoint's bulk size;
+ * a full chunk is sent without waiting for the window to end. Textures are
+ * then fetched concurrently on the {@link LookupExecutor}. Building a
+ * roster of 100 profiles thus takes 10 bulk lookups instead of 100
+ * sequential name lookups.
+ *
+ * <p>Concurrent requests for the same name, in any case, share one lookup.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class SkinBatchResolver {
+
+  /**
+   * Default time names are collected before being looked up.
+   */
+  public static final Duration DEFAULT_WINDOW = Duration.ofMillis(50);
+
+  private static volatile SkinBatchResolver global;
+
+  private final MojangEndpoint endpoint;
+  private final Duration window;
+  private final Supplier<LookupExecutor> executor;
+  private final Map<String, CompletableFuture<TextureProperty>> inFlight = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+  private List<String> pending = new ArrayList<>();
+  private boolean flushScheduled = false;
+
+  /**
+   * Creates a resolver.
+   *
+   * @param endpoint the service resolving names and skins
+   * @param window the time names are collected before being looked up
+   * @param executor supplies the executor running the lookups
+   */
+  public SkinBatchResolver(@NotNull MojangEndpoint endpoint, @NotNull Duration window, @NotNull Supplier<LookupExecutor> executor) {
+    if (endpoint == null) throw new IllegalArgumentException("Endpoint cannot be null");
+    if (window == null) throw new IllegalArgumentException("Window cannot be null");
+    if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+
+    this.endpoint = endpoint;
+    this.window = window;
+    this.executor = executor;
+  }
+
+  /**
+   * Gets the resolver shared by the plugin, creating one backed by
+   * Mojang's servers if none was installed.
+   *
+   * @return the global resolver
+   */
+  @NotNull
+  public static SkinBatchResolver global() {
+    SkinBatchResolver resolver = global;
+    if (resolver != null) return resolver;
+
+    synchronized (SkinBatchResolver.class) {
+      if (global == null) global = new SkinBatchResolver(new HttpMojangEndpoint(), DEFAULT_WINDOW, LookupExecutor::global);
+      return global;
+    }
+  }
+
+  /**
+   * Replaces the shared resolver.
+   *
+   * @param resolver the new global resolver
+   */
+  public static synchronized void install(@NotNull SkinBatchResolver resolver) {
+    if (resolver == null) throw new IllegalArgumentException("Resolver cannot be null");
+
+    global = resolver;
+  }
+
+  /**
+   * Drops the shared resolver. The next call to {@link #global()} creates
+   * one backed by Mojang's servers.
+   */
+  public static synchronized void reset() {
+    global = null;
+  }
+
+  /**
+   * Resolves the skin of a player name.
+   *
+   * @param name the player name
+   * @return a future completed with the textures property, or exceptionally
+   *         with an {@link InvalidProfileException} if the player or its skin
+   *         cannot be found, or a {@link TimeoutException} if a lookup missed
+   *         its deadline
+   */
+  @NotNull
+  public CompletableFuture<TextureProperty> resolve(@NotNull String name) {
+    if (name == null) throw new IllegalArgumentException("Name cannot be null");
+
+    String key = name.toLowerCase(Locale.ROOT);
+    List<String> fullChunk = null;
+    CompletableFuture<TextureProperty> future;
+
+    synchronized (lock) {
+      future = inFlight.get(key);
+      if (future != null) return future;
+
+      future = track(name);
+      inFlight.put(key, future);
+      pending.add(name);
+
+      if (pending.size() >= endpoint.getMaxBulkSize()) {
+        fullChunk = pending;
+        pending = new ArrayList<>();
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS).execute(this::flush);
+      }
+    }
+
+    if (fullChunk != null) lookup(fullChunk);
+    return future;
+  }
+
+  /**
+   * Looks up the names collected during the window.
+   */
+  private void flush() {
+    List<String> chunk;
+    synchronized (lock) {
+      flushScheduled = false;
+      chunk = pending;
+      pending = new ArrayList<>();
+    }
+
+    if (!chunk.isEmpty()) lookup(chunk);
+  }
+
+  /**
+   * Resolves a chunk of names with one bulk lookup, then fetches their textures.
+   */
+  private void lookup(List<String> chunk) {
+    LookupExecutor lookups = executor.get();
+    lookups.submit(() -> endpoint.lookupUniqueIds(chunk), null).whenComplete((found, error) -> {
+      if (error != null) {
+        chunk.forEach(name -> fail(name, error));
+        return;
+      }
+
+      Map<String, UUID> byKey = new HashMap<>();
+      found.forEach((name, uuid) -> byKey.put(name.toLowerCase(Locale.ROOT), uuid));
+
+      for (String name : chunk) {
+        UUID uuid = byKey.get(name.toLowerCase(Locale.ROOT));
+        if (uuid == null) {
+          fail(name, new InvalidProfileException("No player named '" + name + "'"));
+          continue;
+        }
+
+        lookups.submit(() -> endpoint.fetchTextures(uuid), null).whenComplete((textures, fetchError) -> {
+          if (fetchError != null) fail(name, fetchError);
+          else if (textures == null) fail(name, new InvalidProfileException("Player '" + name + "' has no skin"));
+          else complete(name, textures);
+        });
+      }
+    });
+  }
+
+  private CompletableFuture<TextureProperty> track(String name) {
+    SkinFetchEvent fetchEvent = new SkinFetchEvent();
+    fetchEvent.begin();
+    long start = System.nanoTime();
+
+    CompletableFuture<TextureProperty> future = new CompletableFuture<>();
+    future.whenComplete((textures, error) -> {
+      if (error != null) MetricsRegistry.global().increment(TabListMetrics.SKIN_RESOLVE_FAILURES);
+      MetricsRegistry.global().histogram(TabListMetrics.SKIN_RESOLVE_TIME).recordSince(start, MetricsRegistry.MILLIS);
+
+      fetchEvent.success = error == null;
+      fetchEvent.textureBytes = textures != null && textures.getValue() != null ? textures.getValue().length() : 0;
+      fetchEvent.finish(name);
+    });
+    return future;
+  }
+
+  private void complete(String name, TextureProperty textures) {
+    CompletableFuture<TextureProperty> future = inFlight.remove(name.toLowerCase(Locale.ROOT));
+    if (future != null) future.complete(textures);
+  }
+
+  private void fail(String name, Throwable error) {
+    CompletableFuture<TextureProperty> future = inFlight.remove(name.toLowerCase(Locale.ROOT));
+    if (future == null) return;
+
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause instanceof InvalidProfileException || cause instanceof TimeoutException) future.completeExceptionally(cause);
+    else future.completeExceptionally(new InvalidProfileException("Failed to fetch skin for player '" + name + "'", cause));
+  }
+}
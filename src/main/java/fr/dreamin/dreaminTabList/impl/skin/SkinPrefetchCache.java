@@ -0,0 +1,242 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import fr.dreamin.dreaminTabList.api.metrics.TabListMetrics;
+import fr.dreamin.dreaminTabList.impl.metrics.MetricsRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of skins resolved while players are logging in.
+ *
+ * <p>Skin resolution starts on the asynchronous pre-login thread, and its
+ * pending or completed result is parked here until the player joins. The
+ * join then only takes the entry, without waiting nor calling any remote
+ * service. Entries not taken within the time to live are dropped, for
+ * example when the login is denied by another plugin.
+ *
+ * <p>A single cache is shared by the plugin, like the {@link SkinBatchResolver},
+ * so the login listener, the API and the legacy tab lists see the same entries.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class SkinPrefetchCache {
+
+  /**
+   * Default time a prefetched skin is kept waiting for its player to join.
+   */
+  public static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+
+  private static final String CACHE_NAME = "skinprefetch";
+  private static final String TEXTURES = "textures";
+
+  private static volatile SkinPrefetchCache global;
+
+  private final Function<String, CompletableFuture<TextureProperty>> resolver;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+  private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a cache resolving missing skins through the shared {@link SkinBatchResolver}.
+   */
+  public SkinPrefetchCache() {
+    this(name -> SkinBatchResolver.global().resolve(name), DEFAULT_TTL, System::nanoTime);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param resolver resolves the skin of a player name, without blocking
+   * @param ttl the time an entry is kept waiting for its player
+   * @param clock the clock returning the current time in nanoseconds
+   */
+  public SkinPrefetchCache(@NotNull Function<String, CompletableFuture<TextureProperty>> resolver, @NotNull Duration ttl,
+                           @NotNull LongSupplier clock) {
+    if (resolver == null) throw new IllegalArgumentException("Resolver cannot be null");
+    if (ttl == null) throw new IllegalArgumentException("TTL cannot be null");
+    if (clock == null) throw new IllegalArgumentException("Clock cannot be null");
+
+    this.resolver = resolver;
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+  }
+
+  /**
+   * Gets the cache shared by the plugin, creating one with the default
+   * settings if none was installed.
+   *
+   * @return the global cache
+   */
+  @NotNull
+  public static SkinPrefetchCache global() {
+    SkinPrefetchCache cache = global;
+    if (cache != null) return cache;
+
+    synchronized (SkinPrefetchCache.class) {
+      if (global == null) global = new SkinPrefetchCache();
+      return global;
+    }
+  }
+
+  /**
+   * Replaces the shared cache.
+   *
+   * @param cache the new global cache
+   */
+  public static synchronized void install(@NotNull SkinPrefetchCache cache) {
+    if (cache == null) throw new IllegalArgumentException("Cache cannot be null");
+
+    global = cache;
+  }
+
+  /**
+   * Drops the shared cache and its entries. The next call to
+   * {@link #global()} creates an empty one.
+   */
+  public static synchronized void reset() {
+    global = null;
+  }
+
+  /**
+   * Starts resolving the skin of a logging-in player.
+   *
+   * <p>Textures already known, such as the ones sent by the session server
+   * when the player authenticated, are parked as they are. Otherwise the
+   * skin is resolved by name in the background.
+   *
+   * @param uuid the player unique id
+   * @param name the player name
+   * @param known the signed textures of the player, or null if unknown
+   */
+  public void prefetch(@NotNull UUID uuid, @NotNull String name, @Nullable TextureProperty known) {
+    if (uuid == null) throw new IllegalArgumentException("UUID cannot be null");
+    if (name == null) throw new IllegalArgumentException("Name cannot be null");
+
+    prefetch(uuid, known != null ? CompletableFuture.completedFuture(known) : resolver.apply(name));
+  }
+
+  /**
+   * Parks a skin resolution until its player joins.
+   *
+   * @param uuid the player unique id
+   * @param skin the pending or completed resolution
+   */
+  public void prefetch(@NotNull UUID uuid, @NotNull CompletableFuture<TextureProperty> skin) {
+    if (uuid == null) throw new IllegalArgumentException("UUID cannot be null");
+    if (skin == null) throw new IllegalArgumentException("Skin cannot be null");
+
+    long now = clock.getAsLong();
+    entries.values().removeIf(entry -> entry.isExpired(now));
+    entries.put(uuid, new Entry(skin, now + ttlNanos));
+  }
+
+  /**
+   * Takes the skin resolution parked for a player, without waiting for it.
+   *
+   * @param uuid the player unique id
+   * @return the pending or completed resolution, or null if none was parked
+   *         or it expired
+   */
+  @Nullable
+  public CompletableFuture<TextureProperty> take(@NotNull UUID uuid) {
+    if (uuid == null) throw new IllegalArgumentException("UUID cannot be null");
+
+    Entry entry = entries.remove(uuid);
+    if (entry == null || entry.isExpired(clock.getAsLong())) {
+      MetricsRegistry.global().increment(TabListMetrics.CACHE_MISS + CACHE_NAME);
+      return null;
+    }
+
+    MetricsRegistry.global().increment(TabListMetrics.CACHE_HIT + CACHE_NAME);
+    return entry.skin();
+  }
+
+  /**
+   * Gets the textures parked for a player if already resolved, leaving the
+   * entry in place.
+   *
+   * @param uuid the player unique id
+   * @return the resolved textures, or null if none are ready
+   */
+  @Nullable
+  public TextureProperty peek(@NotNull UUID uuid) {
+    if (uuid == null) throw new IllegalArgumentException("UUID cannot be null");
+
+    Entry entry = entries.get(uuid);
+    if (entry == null || entry.isExpired(clock.getAsLong())) return null;
+    return completedTextures(entry.skin());
+  }
+
+  /**
+   * Drops the entry of a player.
+   *
+   * @param uuid the player unique id
+   */
+  public void invalidate(@NotNull UUID uuid) {
+    if (uuid == null) throw new IllegalArgumentException("UUID cannot be null");
+
+    entries.remove(uuid);
+  }
+
+  /**
+   * Gets the number of entries waiting for their player, expired ones included.
+   *
+   * @return the entry count
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the textures of a resolution if it completed successfully.
+   *
+   * @param skin the resolution
+   * @return the textures, or null if pending, failed or without signature
+   */
+  @Nullable
+  public static TextureProperty completedTextures(@Nullable CompletableFuture<TextureProperty> skin) {
+    if (skin == null || !skin.isDone() || skin.isCompletedExceptionally()) return null;
+
+    TextureProperty textures = skin.join();
+    return textures != null && textures.getSignature() != null ? textures : null;
+  }
+
+  /**
+   * Gets the signed textures carried by a player profile. The server fills
+   * them in when the player authenticates, so reading them needs no lookup.
+   *
+   * @param profile the player profile, may be null
+   * @return the textures, or null if the profile carries no signed textures
+   */
+  @Nullable
+  public static TextureProperty texturesOf(@Nullable PlayerProfile profile) {
+    if (profile == null) return null;
+
+    for (ProfileProperty property : profile.getProperties()) {
+      if (TEXTURES.equals(property.getName()) && property.isSigned()) {
+        return new TextureProperty(property.getName(), property.getValue(), property.getSignature());
+      }
+    }
+    return null;
+  }
+
+  private record Entry(CompletableFuture<TextureProperty> skin, long expiresAt) {
+
+    private boolean isExpired(long now) {
+      return now - expiresAt > 0;
+    }
+  }
+}
@@ -0,0 +1,548 @@
+package fr.dreamin.dreaminTabList.impl.store;
+
+import com.github.retrooper.packetevents.protocol.player.GameMode;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileManagerImpl;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Persists the global profiles added at runtime, so they come back after a
+ * restart without being rebuilt nor their skins fetched again.
+ *
+ * <p>The profiles are stored in a binary snapshot, and their later changes
+ * appended to a change log. Each skin is stored once in the snapshot and
+ * shared by the profiles wearing it. At startup the snapshot is read in
+ * one go, the log replayed over it, and the profiles bulk-loaded into
+ * the profile manager.
+ *
+ * <p>Changes are collected every interval on the tick thread, and written
+ * by a background thread. Once the log holds more records than there are
+ * profiles, it is compacted into a new snapshot, on the same thread.
+ *
+ * <p>Only the profiles of this server are stored: profiles of real players
+ * and profiles received from other servers are not.
+ *
+ * <p>Snapshot layout (big-endian):
+ * <pre>
+ * header:  int magic, int format version, long save time (epoch ms), int skin count, int profile count
+ * skin:    string texture, string signature
+ * profile: long UUID msb, long UUID lsb, fields, int skin index (-1 without skin)
+ * </pre>
+ * Log layout:
+ * <pre>
+ * header: int magic, int format version
+ * record: int body length, byte operation, long UUID msb, long UUID lsb,
+ *         then for an upsert: fields, string texture, string signature
+ * </pre>
+ * Fields are the name, the display name as JSON, the game mode, the latency,
+ * a byte of flags (listed, show hat), the sort order and the group. Strings
+ * are an int length, -1 for null, followed by their UTF-8 bytes. A record
+ * torn by a crash ends the log and is discarded.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ProfileStore {
+
+  /**
+   * Magic number at the start of a snapshot ("DTLP").
+   */
+  public static final int SNAPSHOT_MAGIC = 0x44544C50;
+
+  /**
+   * Magic number at the start of a change log ("DTLJ").
+   */
+  public static final int LOG_MAGIC = 0x44544C4A;
+
+  /**
+   * Version of the file layouts.
+   */
+  public static final int FORMAT_VERSION = 1;
+
+  /**
+   * Default number of ticks between two writes of the pending changes.
+   */
+  public static final int DEFAULT_INTERVAL = 20;
+
+  /**
+   * Name of the snapshot file in the store directory.
+   */
+  public static final String SNAPSHOT_FILE = "profiles.dat";
+
+  /**
+   * Name of the change log file in the store directory.
+   */
+  public static final String LOG_FILE = "profiles.log";
+
+  private static final int LOG_HEADER_SIZE = 8;
+  private static final int MIN_COMPACTION_RECORDS = 256;
+  private static final byte UPSERT = 0;
+  private static final byte REMOVE = 1;
+  private static final GameMode[] GAME_MODES = GameMode.values();
+
+  private final TabListAPIImpl api;
+  private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+  private volatile int interval = DEFAULT_INTERVAL;
+  private volatile Path directory;
+  private int ticks; // Only counted by the tick thread
+
+  // Stored state, as last handed to the writer
+  private final Map<UUID, TabProfile> stored = new HashMap<>();
+  private int logRecords;
+  private ExecutorService writer;
+
+  // Only touched by the writer thread
+  private FileChannel log;
+
+  /**
+   * Creates a store, closed until {@link #open(Path)} is called.
+   *
+   * @param api the API whose global profiles are stored
+   */
+  public ProfileStore(@NotNull TabListAPIImpl api) {
+    if (api == null) throw new IllegalArgumentException("API cannot be null");
+
+    this.api = api;
+  }
+
+  /**
+   * Sets the number of ticks between two writes of the pending changes.
+   *
+   * @param interval the interval in ticks, at least 1
+   */
+  public void setInterval(int interval) {
+    if (interval < 1) throw new IllegalArgumentException("Interval must be at least 1");
+
+    this.interval = interval;
+  }
+
+  /**
+   * Checks if the store is open.
+   *
+   * @return true if changes are being persisted
+   */
+  public boolean isOpen() {
+    return directory != null;
+  }
+
+  /**
+   * Loads the stored profiles into the profile manager, then starts
+   * persisting the changes of the global profiles. Profiles already
+   * registered win over the stored ones.
+   *
+   * @param directory the directory holding the store files
+   * @return the number of profiles loaded
+   * @throws IOException if the files cannot be read or are corrupted, the store stays closed
+   */
+  public synchronized int open(@NotNull Path directory) throws IOException {
+    if (directory == null) throw new IllegalArgumentException("Directory cannot be null");
+    if (this.directory != null) throw new IllegalStateException("Store already open");
+
+    long start = System.nanoTime();
+    Files.createDirectories(directory);
+    Map<String, String> strings = new HashMap<>();
+    Map<UUID, TabProfile> profiles = new LinkedHashMap<>();
+    readSnapshot(directory.resolve(SNAPSHOT_FILE), profiles, strings);
+    int records = readLog(directory.resolve(LOG_FILE), profiles, strings);
+
+    TabProfileManagerImpl manager = (TabProfileManagerImpl) api.getProfileManager();
+    Map<UUID, TabProfile> merged = new LinkedHashMap<>(profiles);
+    for (TabProfile profile : manager.getGlobalProfiles()) merged.put(profile.getUniqueId(), profile);
+    manager.initializeProfiles(merged.values());
+
+    this.stored.clear();
+    this.stored.putAll(profiles);
+    this.logRecords = records;
+    this.dirty.clear();
+    this.dirty.addAll(merged.keySet());
+    this.writer = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("DreaminTabList-store").daemon().factory());
+    this.directory = directory;
+
+    api.getLogger().info("Loaded " + profiles.size() + " stored profiles in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+    return profiles.size();
+  }
+
+  /**
+   * Marks a global profile changed, to be written on the next interval.
+   *
+   * @param uuid the UUID of the profile
+   */
+  public void markDirty(@NotNull UUID uuid) {
+    if (directory != null) dirty.add(uuid);
+  }
+
+  /**
+   * Counts a tick, writing the pending changes every interval.
+   */
+  public void tick() {
+    if (directory == null || ++ticks < interval) return;
+
+    ticks = 0;
+    flush();
+  }
+
+  /**
+   * Hands the pending changes to the writer now, compacting the log if it
+   * grew too large.
+   */
+  public synchronized void flush() {
+    if (directory == null || dirty.isEmpty()) return;
+
+    List<Change> changes = new ArrayList<>();
+    for (Iterator<UUID> it = dirty.iterator(); it.hasNext(); ) {
+      UUID uuid = it.next();
+      it.remove();
+
+      TabProfile profile = api.getProfileManager().findProfile(uuid);
+      if (profile != null && !isStorable(profile)) profile = null;
+
+      TabProfile previous = profile != null ? stored.put(uuid, profile) : stored.remove(uuid);
+      if (profile == previous) continue;
+      changes.add(new Change(uuid, profile));
+    }
+    if (changes.isEmpty()) return;
+
+    logRecords += changes.size();
+    Path logPath = directory.resolve(LOG_FILE);
+    writer.execute(() -> append(logPath, changes));
+
+    if (logRecords > Math.max(MIN_COMPACTION_RECORDS, stored.size())) compact();
+  }
+
+  /**
+   * Writes the stored profiles to a new snapshot and empties the log, on
+   * the writer thread.
+   */
+  public synchronized void compact() {
+    if (directory == null) return;
+
+    List<TabProfile> profiles = new ArrayList<>(stored.values());
+    logRecords = 0;
+    Path snapshotPath = directory.resolve(SNAPSHOT_FILE);
+    Path logPath = directory.resolve(LOG_FILE);
+    writer.execute(() -> writeSnapshot(snapshotPath, logPath, profiles));
+  }
+
+  /**
+   * Writes the pending changes, compacts the log and waits for the writer
+   * to finish. Changes are no longer persisted afterwards.
+   */
+  public synchronized void close() {
+    if (directory == null) return;
+
+    flush();
+    compact();
+    writer.execute(this::closeLog);
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(10L, TimeUnit.SECONDS)) api.getLogger().warning("Timed out writing the stored profiles");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    writer = null;
+    directory = null;
+    stored.clear();
+    dirty.clear();
+  }
+
+  /**
+   * Waits for the writer to finish the changes handed to it so far.
+   *
+   * @throws Exception if the writer was interrupted or is shut down
+   */
+  void awaitWrites() throws Exception {
+    writer.submit(() -> {
+    }).get();
+  }
+
+  private boolean isStorable(TabProfile profile) {
+    return !profile.isRealPlayer() && !api.getReplicator().isRemote(profile.getUniqueId());
+  }
+
+  private void append(Path path, List<Change> changes) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(changes.size() * 128);
+      DataOutputStream out = new DataOutputStream(bytes);
+      ByteArrayOutputStream record = new ByteArrayOutputStream(128);
+      DataOutputStream body = new DataOutputStream(record);
+      for (Change change : changes) {
+        record.reset();
+        body.writeByte(change.profile() != null ? UPSERT : REMOVE);
+        body.writeLong(change.uuid().getMostSignificantBits());
+        body.writeLong(change.uuid().getLeastSignificantBits());
+        if (change.profile() != null) {
+          writeFields(body, change.profile());
+          writeString(body, change.profile().getSkinTexture());
+          writeString(body, change.profile().getSkinSignature());
+        }
+        out.writeInt(record.size());
+        record.writeTo(out);
+      }
+
+      FileChannel channel = openLog(path);
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      while (buffer.hasRemaining()) channel.write(buffer);
+    } catch (IOException e) {
+      api.getLogger().log(Level.WARNING, "Failed to write " + changes.size() + " profile changes", e);
+    }
+  }
+
+  private void writeSnapshot(Path path, Path logPath, List<TabProfile> profiles) {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      // Each skin is written once, profiles refer to it by index
+      Map<String, Integer> skinIndexes = new HashMap<>();
+      List<String[]> skins = new ArrayList<>();
+      int[] profileSkins = new int[profiles.size()];
+      for (int i = 0; i < profiles.size(); i++) {
+        TabProfile profile = profiles.get(i);
+        String texture = profile.getSkinTexture();
+        String signature = profile.getSkinSignature();
+        if (texture == null || signature == null) {
+          profileSkins[i] = -1;
+          continue;
+        }
+        profileSkins[i] = skinIndexes.computeIfAbsent(texture + '\n' + signature, key -> {
+          skins.add(new String[] { texture, signature });
+          return skins.size() - 1;
+        });
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + profiles.size() * 96);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(System.currentTimeMillis());
+      out.writeInt(skins.size());
+      out.writeInt(profiles.size());
+      for (String[] skin : skins) {
+        writeString(out, skin[0]);
+        writeString(out, skin[1]);
+      }
+      for (int i = 0; i < profiles.size(); i++) {
+        TabProfile profile = profiles.get(i);
+        out.writeLong(profile.getUniqueId().getMostSignificantBits());
+        out.writeLong(profile.getUniqueId().getLeastSignificantBits());
+        writeFields(out, profile);
+        out.writeInt(profileSkins[i]);
+      }
+
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) channel.write(buffer);
+        channel.force(true);
+      }
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      // Records replayed over the new snapshot would change nothing, a
+      // crash before the log is emptied is harmless
+      openLog(logPath).truncate(LOG_HEADER_SIZE);
+    } catch (IOException e) {
+      api.getLogger().log(Level.WARNING, "Failed to compact the stored profiles", e);
+    }
+  }
+
+  private FileChannel openLog(Path path) throws IOException {
+    if (log != null) return log;
+
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if (channel.size() < LOG_HEADER_SIZE) {
+      channel.truncate(0L);
+      channel.write(ByteBuffer.allocate(LOG_HEADER_SIZE).putInt(LOG_MAGIC).putInt(FORMAT_VERSION).flip());
+    }
+    return log = channel;
+  }
+
+  private void closeLog() {
+    if (log == null) return;
+
+    try {
+      log.force(true);
+      log.close();
+    } catch (IOException e) {
+      api.getLogger().log(Level.WARNING, "Failed to close the profile change log", e);
+    }
+    log = null;
+  }
+
+  private static void readSnapshot(Path path, Map<UUID, TabProfile> profiles, Map<String, String> strings) throws IOException {
+    if (!Files.exists(path)) return;
+
+    ByteBuffer buffer = read(path);
+    if (buffer.limit() < 24 || buffer.getInt(0) != SNAPSHOT_MAGIC) throw new IOException("Not a profile snapshot: " + path);
+    if (buffer.getInt(4) != FORMAT_VERSION) throw new IOException("Unsupported snapshot format " + buffer.getInt(4) + ": " + path);
+
+    try {
+      buffer.position(16);
+      int skinCount = buffer.getInt();
+      int profileCount = buffer.getInt();
+      String[][] skins = new String[skinCount][];
+      for (int i = 0; i < skinCount; i++) {
+        skins[i] = new String[] { intern(readString(buffer), strings), intern(readString(buffer), strings) };
+      }
+
+      for (int i = 0; i < profileCount; i++) {
+        UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+        TabProfileBuilder builder = readFields(buffer, uuid);
+        int skin = buffer.getInt();
+        if (skin >= skinCount) throw new IOException("Unknown skin " + skin + " in " + path);
+        if (skin >= 0) builder.customSkin(skins[skin][0], skins[skin][1]);
+        profiles.put(uuid, builder.build());
+      }
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("Corrupted profile snapshot: " + path, e);
+    }
+  }
+
+  /**
+   * Replays the change log over the loaded profiles, and cuts a record torn
+   * by a crash off the end of the file.
+   *
+   * @return the number of records replayed
+   */
+  private static int readLog(Path path, Map<UUID, TabProfile> profiles, Map<String, String> strings) throws IOException {
+    if (!Files.exists(path)) return 0;
+
+    ByteBuffer buffer = read(path);
+    if (buffer.limit() < LOG_HEADER_SIZE) return 0;
+    if (buffer.getInt(0) != LOG_MAGIC) throw new IOException("Not a profile change log: " + path);
+    if (buffer.getInt(4) != FORMAT_VERSION) throw new IOException("Unsupported change log format " + buffer.getInt(4) + ": " + path);
+
+    int records = 0;
+    int position = LOG_HEADER_SIZE;
+    while (position <= buffer.limit() - 4) {
+      int length = buffer.getInt(position);
+      int end = position + 4 + length;
+      if (length <= 0 || end > buffer.limit()) break;
+
+      ByteBuffer record = buffer.slice(position + 4, length);
+      try {
+        byte operation = record.get();
+        UUID uuid = new UUID(record.getLong(), record.getLong());
+        if (operation == REMOVE) profiles.remove(uuid);
+        else {
+          TabProfileBuilder builder = readFields(record, uuid);
+          String texture = intern(readString(record), strings);
+          String signature = intern(readString(record), strings);
+          if (texture != null && signature != null) builder.customSkin(texture, signature);
+          profiles.put(uuid, builder.build());
+        }
+      } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | IllegalStateException e) {
+        throw new IOException("Corrupted profile change log: " + path, e);
+      }
+      records++;
+      position = end;
+    }
+
+    if (position < buffer.limit()) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        channel.truncate(position);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Reads a whole file into a heap buffer.
+   *
+   * <p>Files are not mapped: a mapping is only released by the garbage
+   * collector, and Windows refuses to truncate or replace a mapped file,
+   * which compaction and the cut of a torn record both do.
+   *
+   * @return the content of the file
+   */
+  private static ByteBuffer read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new IOException("File too large: " + path);
+
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) break;
+      }
+      return buffer.flip();
+    }
+  }
+
+  private static void writeFields(DataOutputStream out, TabProfile profile) throws IOException {
+    writeString(out, profile.getName());
+    writeString(out, GsonComponentSerializer.gson().serialize(profile.getDisplayName()));
+    out.writeByte(profile.getGameMode().ordinal());
+    out.writeInt(profile.getLatency());
+    out.writeByte((profile.isListed() ? 1 : 0) | (profile.isShowHat() ? 2 : 0));
+    out.writeInt(profile.getSortOrder());
+    writeString(out, profile.getGroup());
+  }
+
+  private static TabProfileBuilder readFields(ByteBuffer in, UUID uuid) throws IOException {
+    TabProfileBuilder builder = new TabProfileBuilderImpl().uuid(uuid).name(readString(in));
+    builder.displayName(GsonComponentSerializer.gson().deserialize(readString(in)));
+    int gameMode = in.get() & 0xFF;
+    if (gameMode >= GAME_MODES.length) throw new IOException("Unknown game mode: " + gameMode);
+    builder.gameMode(GAME_MODES[gameMode]);
+    builder.latency(in.getInt());
+    int flags = in.get();
+    builder.listed((flags & 1) != 0);
+    builder.showHat((flags & 2) != 0);
+    builder.sortOrder(in.getInt());
+    builder.group(readString(in));
+    return builder;
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Nullable
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) return null;
+
+    String value = StandardCharsets.UTF_8.decode(in.slice(in.position(), length)).toString();
+    in.position(in.position() + length);
+    return value;
+  }
+
+  /**
+   * Shares the strings read several times, so profiles wearing the same
+   * skin hold a single copy of it.
+   */
+  @Nullable
+  private static String intern(@Nullable String value, Map<String, String> strings) {
+    return value != null ? strings.computeIfAbsent(value, key -> key) : null;
+  }
+
+  private record Change(UUID uuid, @Nullable TabProfile profile) {
+  }
+}
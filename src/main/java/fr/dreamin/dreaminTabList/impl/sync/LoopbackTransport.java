@@ -0,0 +1,120 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import fr.dreamin.dreaminTabList.api.sync.SyncTransport;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A transport delivering messages in memory, to the other transports of
+ * the same {@link Hub}.
+ *
+ * <p>Messages are delivered synchronously, on the publishing thread, which
+ * lets tests run several servers side by side. The servers of a hub must
+ * thus publish from the same thread. Delivery can be paused to simulate
+ * lost messages.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class LoopbackTransport implements SyncTransport {
+
+  private final Hub hub;
+  private final int maxMessageSize;
+  private volatile Consumer<byte[]> receiver;
+
+  private LoopbackTransport(Hub hub, int maxMessageSize) {
+    this.hub = hub;
+    this.maxMessageSize = maxMessageSize;
+  }
+
+  @Override
+  public void publish(@NotNull byte[] message) {
+    if (message == null) throw new IllegalArgumentException("Message cannot be null");
+
+    hub.deliver(this, message);
+  }
+
+  @Override
+  public void subscribe(@NotNull Consumer<byte[]> receiver) {
+    if (receiver == null) throw new IllegalArgumentException("Receiver cannot be null");
+
+    this.receiver = receiver;
+    hub.transports.addIfAbsent(this);
+  }
+
+  @Override
+  public int getMaxMessageSize() {
+    return maxMessageSize;
+  }
+
+  @Override
+  public void close() {
+    hub.transports.remove(this);
+  }
+
+  /**
+   * A set of transports exchanging messages.
+   */
+  public static final class Hub {
+
+    private final List<LoopbackTransport> transports = new CopyOnWriteArrayList<>();
+    private volatile boolean paused = false;
+    private final AtomicLong delivered = new AtomicLong();
+
+    /**
+     * Creates a transport connected to this hub, without size limit.
+     *
+     * @return the transport
+     */
+    @NotNull
+    public LoopbackTransport connect() {
+      return connect(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a transport connected to this hub.
+     *
+     * @param maxMessageSize the largest message the transport carries
+     * @return the transport
+     */
+    @NotNull
+    public LoopbackTransport connect(int maxMessageSize) {
+      if (maxMessageSize < 1) throw new IllegalArgumentException("Max message size must be positive");
+
+      return new LoopbackTransport(this, maxMessageSize);
+    }
+
+    /**
+     * Drops or delivers the messages published from now on.
+     *
+     * @param paused true to drop messages
+     */
+    public void setPaused(boolean paused) {
+      this.paused = paused;
+    }
+
+    /**
+     * Gets the number of messages published and delivered.
+     *
+     * @return the number of delivered messages
+     */
+    public long getDelivered() {
+      return delivered.get();
+    }
+
+    private void deliver(LoopbackTransport sender, byte[] message) {
+      if (paused) return;
+
+      delivered.incrementAndGet();
+      for (LoopbackTransport transport : transports) {
+        Consumer<byte[]> receiver = transport.receiver;
+        if (transport != sender && receiver != null) receiver.accept(message);
+      }
+    }
+  }
+}
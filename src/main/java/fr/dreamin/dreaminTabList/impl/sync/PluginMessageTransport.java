@@ -0,0 +1,104 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import fr.dreamin.dreaminTabList.api.sync.SyncTransport;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A transport forwarding messages to the other servers through the proxy,
+ * with the BungeeCord plugin messaging channel.
+ *
+ * <p>Messages are forwarded to every server by the proxy, on a
+ * subchannel of their own. Plugin messages travel through the connection
+ * of a player, so messages published while no player is online are
+ * dropped; receivers notice it and ask for a snapshot later. Velocity
+ * proxies support this channel when BungeeCord plugin messaging is
+ * enabled.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class PluginMessageTransport implements SyncTransport, PluginMessageListener {
+
+  /**
+   * The BungeeCord plugin messaging channel.
+   */
+  public static final String CHANNEL = "BungeeCord";
+
+  // Plugin messages are limited to 32 KiB, the forward header included
+  private static final int MAX_MESSAGE_SIZE = 32000;
+
+  private final Plugin plugin;
+  private final String subchannel;
+  private volatile Consumer<byte[]> receiver;
+
+  /**
+   * Creates a transport forwarding messages on a subchannel.
+   *
+   * @param plugin the plugin owning the channel
+   * @param subchannel the subchannel shared by the servers of the network
+   */
+  public PluginMessageTransport(@NotNull Plugin plugin, @NotNull String subchannel) {
+    this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+    if (subchannel == null || subchannel.isEmpty()) throw new IllegalArgumentException("Subchannel cannot be empty");
+
+    this.subchannel = subchannel;
+  }
+
+  @Override
+  public void publish(@NotNull byte[] message) {
+    Player carrier = Iterables.getFirst(plugin.getServer().getOnlinePlayers(), null);
+    if (carrier == null) return;
+
+    ByteArrayDataOutput out = ByteStreams.newDataOutput();
+    out.writeUTF("Forward");
+    out.writeUTF("ALL");
+    out.writeUTF(subchannel);
+    out.writeShort(message.length);
+    out.write(message);
+    carrier.sendPluginMessage(plugin, CHANNEL, out.toByteArray());
+  }
+
+  @Override
+  public void subscribe(@NotNull Consumer<byte[]> receiver) {
+    this.receiver = Objects.requireNonNull(receiver, "Receiver cannot be null");
+
+    plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+    plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+  }
+
+  @Override
+  public int getMaxMessageSize() {
+    return MAX_MESSAGE_SIZE;
+  }
+
+  @Override
+  public void close() {
+    plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL, this);
+    plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+    this.receiver = null;
+  }
+
+  @Override
+  public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, @NotNull byte[] message) {
+    Consumer<byte[]> receiver = this.receiver;
+    if (receiver == null || !CHANNEL.equals(channel)) return;
+
+    ByteArrayDataInput in = ByteStreams.newDataInput(message);
+    if (!subchannel.equals(in.readUTF())) return;
+
+    byte[] payload = new byte[in.readUnsignedShort()];
+    in.readFully(payload);
+    receiver.accept(payload);
+  }
+}
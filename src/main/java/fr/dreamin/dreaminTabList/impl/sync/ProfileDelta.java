@@ -0,0 +1,287 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import com.github.retrooper.packetevents.protocol.player.GameMode;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import lombok.Getter;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A change of one global profile, replicated to the other servers.
+ *
+ * <p>An upsert only carries the fields that changed since the version the
+ * receivers are expected to hold, its base version. A delta with a base
+ * version of 0 carries every field and can be applied by anyone. A removal
+ * carries no field.
+ *
+ * <p>Fields are written as a bit mask followed by the values of the bits
+ * set, integers as variable-length numbers, so a latency change takes a
+ * few bytes on top of the profile UUID.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ProfileDelta {
+
+  static final int NAME = 1;
+  static final int DISPLAY_NAME = 1 << 1;
+  static final int GAME_MODE = 1 << 2;
+  static final int LATENCY = 1 << 3;
+  static final int LISTED = 1 << 4;
+  static final int SORT_ORDER = 1 << 5;
+  static final int SHOW_HAT = 1 << 6;
+  static final int GROUP = 1 << 7;
+  static final int SKIN = 1 << 8;
+  static final int REAL_PLAYER = 1 << 9;
+  static final int ALL = (1 << 10) - 1;
+
+  private static final byte UPSERT = 0;
+  private static final byte REMOVE = 1;
+  private static final GameMode[] GAME_MODES = GameMode.values();
+
+  /**
+   * -- GETTER --
+   *  Gets the UUID of the profile.
+   *
+   * @return the profile UUID
+   */
+  @Getter
+  private final UUID uuid;
+  /**
+   * -- GETTER --
+   *  Gets the version of the profile after this change.
+   *
+   * @return the version, counted by the origin server
+   */
+  @Getter
+  private final long version;
+  /**
+   * -- GETTER --
+   *  Gets the version the changed fields apply to.
+   *
+   * @return the base version, or 0 if every field is carried
+   */
+  @Getter
+  private final long baseVersion;
+  /**
+   * -- GETTER --
+   *  Gets the profile after this change.
+   *
+   * @return the profile, or null for a removal
+   */
+  @Getter @Nullable
+  private final TabProfile profile;
+  private final int fields;
+
+  private ProfileDelta(UUID uuid, long version, long baseVersion, @Nullable TabProfile profile, int fields) {
+    this.uuid = uuid;
+    this.version = version;
+    this.baseVersion = baseVersion;
+    this.profile = profile;
+    this.fields = fields;
+  }
+
+  /**
+   * Creates the upsert of a profile, carrying the fields that differ from
+   * its previous version.
+   *
+   * @param profile the profile after the change
+   * @param version the version of the profile after the change
+   * @param previous the profile at the base version, or null to carry every field
+   * @param baseVersion the version of the previous profile, ignored if it is null
+   * @return the delta
+   */
+  @NotNull
+  public static ProfileDelta upsert(@NotNull TabProfile profile, long version, @Nullable TabProfile previous, long baseVersion) {
+    if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
+
+    if (previous == null) return new ProfileDelta(profile.getUniqueId(), version, 0L, profile, ALL);
+    return new ProfileDelta(profile.getUniqueId(), version, baseVersion, profile, changedFields(previous, profile));
+  }
+
+  /**
+   * Creates the removal of a profile.
+   *
+   * @param uuid the UUID of the profile
+   * @param version the version of the profile after the removal
+   * @return the delta
+   */
+  @NotNull
+  public static ProfileDelta remove(@NotNull UUID uuid, long version) {
+    if (uuid == null) throw new IllegalArgumentException("UUID cannot be null");
+
+    return new ProfileDelta(uuid, version, 0L, null, 0);
+  }
+
+  /**
+   * Checks if this delta removes the profile.
+   *
+   * @return true for a removal
+   */
+  public boolean isRemoval() {
+    return profile == null;
+  }
+
+  /**
+   * Checks if this delta carries every field of the profile.
+   *
+   * @return true if the delta can be applied without the base version
+   */
+  public boolean isComplete() {
+    return fields == ALL;
+  }
+
+  /**
+   * Checks if this upsert carries no change.
+   *
+   * @return true if the profile did not change since the base version
+   */
+  public boolean isUnchanged() {
+    return profile != null && fields == 0;
+  }
+
+  /**
+   * Applies the fields carried by this upsert to a profile.
+   *
+   * @param base the profile at the base version, or null if the delta is complete
+   * @return the profile after the change
+   * @throws IllegalStateException if the delta is a removal, or is partial and no base is given
+   */
+  @NotNull
+  public TabProfile applyTo(@Nullable TabProfile base) {
+    if (profile == null) throw new IllegalStateException("A removal has no profile");
+    if (isComplete()) return profile;
+    if (base == null) throw new IllegalStateException("A partial delta needs its base profile");
+
+    TabProfileBuilder builder = base.toBuilder();
+    if ((fields & NAME) != 0) builder.name(profile.getName());
+    if ((fields & DISPLAY_NAME) != 0) builder.displayName(profile.getDisplayName());
+    if ((fields & GAME_MODE) != 0) builder.gameMode(profile.getGameMode());
+    if ((fields & LATENCY) != 0) builder.latency(profile.getLatency());
+    if ((fields & LISTED) != 0) builder.listed(profile.isListed());
+    if ((fields & SORT_ORDER) != 0) builder.sortOrder(profile.getSortOrder());
+    if ((fields & SHOW_HAT) != 0) builder.showHat(profile.isShowHat());
+    if ((fields & GROUP) != 0) builder.group(profile.getGroup());
+    if ((fields & SKIN) != 0) skin(builder, profile.getSkinTexture(), profile.getSkinSignature());
+    if ((fields & REAL_PLAYER) != 0) builder.realPlayer(profile.isRealPlayer());
+    return builder.build();
+  }
+
+  /**
+   * Writes this delta.
+   *
+   * @param out the output
+   * @throws IOException if the output fails
+   */
+  public void write(@NotNull DataOutput out) throws IOException {
+    out.writeByte(profile == null ? REMOVE : UPSERT);
+    out.writeLong(uuid.getMostSignificantBits());
+    out.writeLong(uuid.getLeastSignificantBits());
+    Varints.writeLong(out, version);
+    if (profile == null) return;
+
+    Varints.writeLong(out, baseVersion);
+    Varints.writeInt(out, fields);
+    if ((fields & NAME) != 0) out.writeUTF(profile.getName());
+    if ((fields & DISPLAY_NAME) != 0) out.writeUTF(GsonComponentSerializer.gson().serialize(profile.getDisplayName()));
+    if ((fields & GAME_MODE) != 0) out.writeByte(profile.getGameMode().ordinal());
+    if ((fields & LATENCY) != 0) Varints.writeInt(out, profile.getLatency());
+    if ((fields & LISTED) != 0) out.writeBoolean(profile.isListed());
+    if ((fields & SORT_ORDER) != 0) Varints.writeSignedInt(out, profile.getSortOrder());
+    if ((fields & SHOW_HAT) != 0) out.writeBoolean(profile.isShowHat());
+    if ((fields & GROUP) != 0) writeNullable(out, profile.getGroup());
+    if ((fields & SKIN) != 0) {
+      writeNullable(out, profile.getSkinTexture());
+      writeNullable(out, profile.getSkinSignature());
+    }
+    if ((fields & REAL_PLAYER) != 0) out.writeBoolean(profile.isRealPlayer());
+  }
+
+  /**
+   * Reads a delta written by {@link #write(DataOutput)}.
+   *
+   * <p>The fields missing from a partial delta are read as their defaults,
+   * they are taken from the base profile when the delta is applied.
+   *
+   * @param in the input
+   * @return the delta
+   * @throws IOException if the input fails or is malformed
+   */
+  @NotNull
+  public static ProfileDelta read(@NotNull DataInput in) throws IOException {
+    byte type = in.readByte();
+    UUID uuid = new UUID(in.readLong(), in.readLong());
+    long version = Varints.readLong(in);
+    if (type == REMOVE) return new ProfileDelta(uuid, version, 0L, null, 0);
+    if (type != UPSERT) throw new IOException("Unknown delta type: " + type);
+
+    long baseVersion = Varints.readLong(in);
+    int fields = Varints.readInt(in);
+    if ((fields & ~ALL) != 0) throw new IOException("Unknown delta fields: " + fields);
+
+    // Partial deltas are built on a placeholder name, replaced by the base one
+    TabProfileBuilder builder = new TabProfileBuilderImpl().uuid(uuid);
+    builder.name((fields & NAME) != 0 ? in.readUTF() : "___");
+    if ((fields & DISPLAY_NAME) != 0) builder.displayName(GsonComponentSerializer.gson().deserialize(in.readUTF()));
+    if ((fields & GAME_MODE) != 0) builder.gameMode(gameMode(in.readUnsignedByte()));
+    if ((fields & LATENCY) != 0) builder.latency(Varints.readInt(in));
+    if ((fields & LISTED) != 0) builder.listed(in.readBoolean());
+    if ((fields & SORT_ORDER) != 0) builder.sortOrder(Varints.readSignedInt(in));
+    if ((fields & SHOW_HAT) != 0) builder.showHat(in.readBoolean());
+    if ((fields & GROUP) != 0) builder.group(readNullable(in));
+    if ((fields & SKIN) != 0) skin(builder, readNullable(in), readNullable(in));
+    if ((fields & REAL_PLAYER) != 0) builder.realPlayer(in.readBoolean());
+
+    try {
+      return new ProfileDelta(uuid, version, baseVersion, builder.build(), fields);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("Invalid profile in delta: " + e.getMessage(), e);
+    }
+  }
+
+  private static int changedFields(TabProfile previous, TabProfile profile) {
+    int fields = 0;
+    if (!previous.getName().equals(profile.getName())) fields |= NAME;
+    if (!Objects.equals(previous.getDisplayName(), profile.getDisplayName())) fields |= DISPLAY_NAME;
+    if (previous.getGameMode() != profile.getGameMode()) fields |= GAME_MODE;
+    if (previous.getLatency() != profile.getLatency()) fields |= LATENCY;
+    if (previous.isListed() != profile.isListed()) fields |= LISTED;
+    if (previous.getSortOrder() != profile.getSortOrder()) fields |= SORT_ORDER;
+    if (previous.isShowHat() != profile.isShowHat()) fields |= SHOW_HAT;
+    if (!Objects.equals(previous.getGroup(), profile.getGroup())) fields |= GROUP;
+    if (!Objects.equals(previous.getSkinTexture(), profile.getSkinTexture())
+      || !Objects.equals(previous.getSkinSignature(), profile.getSkinSignature())) fields |= SKIN;
+    if (previous.isRealPlayer() != profile.isRealPlayer()) fields |= REAL_PLAYER;
+    return fields;
+  }
+
+  private static void skin(TabProfileBuilder builder, @Nullable String texture, @Nullable String signature) {
+    if (texture != null && signature != null && !texture.isBlank() && !signature.isBlank()) builder.customSkin(texture, signature);
+    else builder.defaultSkin();
+  }
+
+  private static GameMode gameMode(int ordinal) throws IOException {
+    if (ordinal >= GAME_MODES.length) throw new IOException("Unknown game mode: " + ordinal);
+    return GAME_MODES[ordinal];
+  }
+
+  private static void writeNullable(DataOutput out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) out.writeUTF(value);
+  }
+
+  @Nullable
+  private static String readNullable(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
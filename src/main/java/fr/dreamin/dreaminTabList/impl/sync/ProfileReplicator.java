@@ -0,0 +1,459 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.api.sync.SyncTransport;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Replicates the global profiles of this server to the other servers of
+ * the network, and applies theirs as global profiles.
+ *
+ * <p>Local changes only mark their profile dirty. Every interval, the
+ * current state of the dirty profiles is published in one message, so a
+ * profile changed many times is sent once, with the fields that changed
+ * since it was last published. Versions come from a clock of the server,
+ * increasing with every delta, and every message has a sequence number.
+ *
+ * <p>Remote profiles are owned by their origin server and are not
+ * published again; a profile of this server, such as a player who just
+ * joined, wins over the remote one. A receiver missing messages, or the
+ * base version of a delta, requests a snapshot of the origin, which
+ * resends its profiles in full and lets the receiver drop the ones gone.
+ *
+ * <p>Changes are serialized on this instance.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ProfileReplicator {
+
+  /**
+   * Default number of ticks between two published messages.
+   */
+  public static final int DEFAULT_INTERVAL = 10;
+
+  private final TabListAPIImpl api;
+  private final String serverId;
+  private final long epoch = System.currentTimeMillis();
+  private volatile SyncTransport transport;
+  private volatile int interval = DEFAULT_INTERVAL;
+  private int ticks; // Only counted by the tick thread
+
+  // Local profiles, by UUID
+  private final Set<UUID> dirty = new LinkedHashSet<>();
+  private final Map<UUID, Published> published = new HashMap<>();
+  private long clock;
+  private long sequence;
+  private boolean snapshotRequested;
+
+  // Remote profiles, by UUID, and the state of their origins
+  private final Map<UUID, String> owners = new HashMap<>();
+  private final Map<String, Origin> origins = new HashMap<>();
+  private final Set<String> resyncTargets = new LinkedHashSet<>();
+
+  /**
+   * Creates the replicator of an API.
+   *
+   * @param api the API owning the profiles
+   * @param serverId the id of this server in the network, unique among the servers
+   */
+  public ProfileReplicator(@NotNull TabListAPIImpl api, @NotNull String serverId) {
+    this.api = Objects.requireNonNull(api, "API cannot be null");
+    if (serverId == null || serverId.isEmpty()) throw new IllegalArgumentException("Server ID cannot be empty");
+
+    this.serverId = serverId;
+  }
+
+  /**
+   * Gets the id of this server in the network.
+   *
+   * @return the server id
+   */
+  @NotNull
+  public String getServerId() {
+    return serverId;
+  }
+
+  /**
+   * Gets the transport in use.
+   *
+   * @return the transport, or null if synchronization is disabled
+   */
+  @Nullable
+  public SyncTransport getTransport() {
+    return transport;
+  }
+
+  /**
+   * Sets the number of ticks between two published messages.
+   *
+   * @param interval the interval, in ticks
+   */
+  public void setInterval(int interval) {
+    if (interval < 1) throw new IllegalArgumentException("Interval must be at least 1");
+
+    this.interval = interval;
+  }
+
+  /**
+   * Installs a transport, replacing and closing the previous one.
+   *
+   * <p>The other servers are asked for their snapshot, and the profiles of
+   * this server are published in full on the next interval.
+   *
+   * @param transport the transport, or null to stop synchronizing
+   */
+  public synchronized void setTransport(@Nullable SyncTransport transport) {
+    if (this.transport == transport) return;
+
+    if (this.transport != null) {
+      publish(SyncMessage.goodbye(serverId, epoch, ++sequence));
+      closeQuietly(this.transport);
+    }
+
+    this.transport = transport;
+    this.dirty.clear();
+    this.published.clear();
+    this.resyncTargets.clear();
+    dropRemoteProfiles(null);
+    if (transport == null) return;
+
+    transport.subscribe(this::receive);
+    publish(SyncMessage.resync(serverId, epoch, ++sequence, null));
+    this.snapshotRequested = true;
+  }
+
+  /**
+   * Marks a global profile changed, to be published on the next interval.
+   * Changes of remote profiles are not published.
+   *
+   * @param uuid the UUID of the profile
+   */
+  public void markDirty(@NotNull UUID uuid) {
+    if (transport == null) return;
+
+    synchronized (this) {
+      if (transport != null && !owners.containsKey(uuid)) dirty.add(uuid);
+    }
+  }
+
+  /**
+   * Takes over a profile owned by another server, such as the one of a
+   * player who joined this server.
+   *
+   * @param uuid the UUID of the profile
+   */
+  public synchronized void claim(@NotNull UUID uuid) {
+    String owner = owners.remove(uuid);
+    if (owner == null) return;
+
+    Origin origin = origins.get(owner);
+    if (origin != null) origin.versions.remove(uuid);
+  }
+
+  /**
+   * Checks if a global profile is owned by another server.
+   *
+   * @param uuid the UUID of the profile
+   * @return true if the profile was received from another server
+   */
+  public synchronized boolean isRemote(@NotNull UUID uuid) {
+    return owners.containsKey(uuid);
+  }
+
+  /**
+   * Counts a tick, publishing the pending changes every interval.
+   */
+  public void tick() {
+    if (transport == null || ++ticks < interval) return;
+
+    ticks = 0;
+    flush();
+  }
+
+  /**
+   * Publishes the pending changes and snapshot requests now.
+   */
+  public synchronized void flush() {
+    if (transport == null) return;
+
+    for (String target : resyncTargets) {
+      publish(SyncMessage.resync(serverId, epoch, ++sequence, target));
+    }
+    resyncTargets.clear();
+
+    if (snapshotRequested) publishSnapshot();
+    else publishDeltas();
+  }
+
+  /**
+   * Says goodbye to the other servers and closes the transport.
+   */
+  public synchronized void shutdown() {
+    setTransport(null);
+  }
+
+  /**
+   * Applies a message received from another server. Malformed messages
+   * and messages sent by this server are ignored.
+   *
+   * @param bytes the encoded message
+   */
+  public synchronized void receive(@NotNull byte[] bytes) {
+    SyncMessage message;
+    try {
+      message = SyncMessage.decode(bytes);
+    } catch (IOException e) {
+      api.getLogger().warning("Ignored a malformed tab synchronization message: " + e.getMessage());
+      return;
+    }
+    if (message.getOrigin().equals(serverId)) return;
+
+    Origin origin = origins.get(message.getOrigin());
+    if (origin == null || origin.epoch != message.getEpoch()) {
+      // New server, or restarted: its snapshot replaces what was known
+      origin = new Origin(message.getOrigin(), message.getEpoch(), message.getSequence() - 1);
+      origins.put(origin.name, origin);
+
+      // A server announcing itself publishes its snapshot anyway
+      if (message.getType() == SyncMessage.Type.DELTAS) requestSnapshot(origin);
+    }
+    if (message.getSequence() <= origin.sequence) return;
+    if (message.getSequence() > origin.sequence + 1) {
+      api.getLogger().fine("Lost " + (message.getSequence() - origin.sequence - 1) + " tab synchronization messages from " + origin.name);
+      origin.snapshot = null;
+      requestSnapshot(origin);
+    }
+    origin.sequence = message.getSequence();
+
+    try {
+      switch (message.getType()) {
+        case DELTAS -> {
+          for (ProfileDelta delta : message.getDeltas()) apply(origin, delta);
+        }
+        case SNAPSHOT -> applySnapshot(origin, message);
+        case RESYNC -> {
+          if (message.getTarget() == null || message.getTarget().equals(serverId)) snapshotRequested = true;
+        }
+        case GOODBYE -> {
+          dropRemoteProfiles(origin.name);
+          origins.remove(origin.name);
+        }
+      }
+    } catch (RuntimeException e) {
+      api.getLogger().log(Level.WARNING, "Failed to apply tab synchronization message from " + origin.name, e);
+    }
+  }
+
+  private void apply(Origin origin, ProfileDelta delta) {
+    UUID uuid = delta.getUuid();
+    String owner = owners.get(uuid);
+    TabProfileManager manager = api.getProfileManager();
+
+    if (delta.isRemoval()) {
+      if (!origin.name.equals(owner)) return;
+
+      owners.remove(uuid);
+      origin.versions.remove(uuid);
+      manager.removeGlobalProfile(uuid);
+      return;
+    }
+
+    // Profiles of this server win over the remote ones
+    TabProfile current = manager.findProfile(uuid);
+    if (current != null && owner == null) return;
+
+    Long known = origin.name.equals(owner) ? origin.versions.get(uuid) : null;
+    if (known != null && delta.getVersion() <= known) return;
+    if (!delta.isComplete() && (current == null || known == null || known != delta.getBaseVersion())) {
+      requestSnapshot(origin);
+      return;
+    }
+
+    if (owner != null && !owner.equals(origin.name)) claimFrom(owner, uuid);
+    owners.put(uuid, origin.name);
+    origin.versions.put(uuid, delta.getVersion());
+    manager.updateGlobalProfile(delta.applyTo(current));
+  }
+
+  private void applySnapshot(Origin origin, SyncMessage message) {
+    if (message.isFirst()) origin.snapshot = new HashSet<>();
+    for (ProfileDelta delta : message.getDeltas()) {
+      if (origin.snapshot != null) origin.snapshot.add(delta.getUuid());
+      apply(origin, delta);
+    }
+    if (!message.isLast()) return;
+
+    // A snapshot missing its first parts cannot tell which profiles are gone
+    Set<UUID> alive = origin.snapshot;
+    origin.snapshot = null;
+    if (alive == null) return;
+    origin.awaitingSnapshot = false;
+
+    // The profiles missing from the snapshot were removed meanwhile
+
+    List<UUID> gone = new ArrayList<>();
+    owners.forEach((uuid, owner) -> {
+      if (owner.equals(origin.name) && !alive.contains(uuid)) gone.add(uuid);
+    });
+    for (UUID uuid : gone) apply(origin, ProfileDelta.remove(uuid, Long.MAX_VALUE));
+  }
+
+  private void publishDeltas() {
+    if (dirty.isEmpty()) return;
+
+    TabProfileManager manager = api.getProfileManager();
+    List<ProfileDelta> deltas = new ArrayList<>(dirty.size());
+    for (UUID uuid : dirty) {
+      TabProfile profile = owners.containsKey(uuid) ? null : manager.findProfile(uuid);
+      Published previous = published.get(uuid);
+
+      if (profile == null) {
+        if (previous == null) continue;
+
+        published.remove(uuid);
+        deltas.add(ProfileDelta.remove(uuid, ++clock));
+        continue;
+      }
+
+      ProfileDelta delta = previous != null
+        ? ProfileDelta.upsert(profile, clock + 1, previous.profile(), previous.version())
+        : ProfileDelta.upsert(profile, clock + 1, null, 0L);
+      if (delta.isUnchanged()) continue;
+
+      clock++;
+      published.put(uuid, new Published(delta.getVersion(), profile));
+      deltas.add(delta);
+    }
+    dirty.clear();
+
+    publishSplit(deltas, false);
+  }
+
+  private void publishSnapshot() {
+    snapshotRequested = false;
+    dirty.clear();
+    published.clear();
+
+    List<ProfileDelta> deltas = new ArrayList<>();
+    for (TabProfile profile : api.getProfileManager().getGlobalProfiles()) {
+      if (owners.containsKey(profile.getUniqueId())) continue;
+
+      ProfileDelta delta = ProfileDelta.upsert(profile, ++clock, null, 0L);
+      published.put(profile.getUniqueId(), new Published(delta.getVersion(), profile));
+      deltas.add(delta);
+    }
+
+    publishSplit(deltas, true);
+  }
+
+  /**
+   * Publishes deltas, in as many messages as the transport needs. The last
+   * part of a snapshot is always published, even empty, to close it.
+   */
+  private void publishSplit(List<ProfileDelta> deltas, boolean snapshot) {
+    if (deltas.isEmpty() && !snapshot) return;
+
+    int maxSize = transport.getMaxMessageSize();
+    Deque<List<ProfileDelta>> parts = new ArrayDeque<>();
+    parts.push(deltas);
+    boolean first = true;
+    while (!parts.isEmpty()) {
+      List<ProfileDelta> part = parts.pop();
+      long next = sequence + 1;
+      SyncMessage message = snapshot
+        ? SyncMessage.snapshot(serverId, epoch, next, part, first, parts.isEmpty())
+        : SyncMessage.deltas(serverId, epoch, next, part);
+      byte[] bytes = message.encode();
+
+      // Halve the parts too large for the transport
+      if (bytes.length > maxSize && part.size() > 1) {
+        int half = part.size() / 2;
+        parts.push(part.subList(half, part.size()));
+        parts.push(part.subList(0, half));
+        continue;
+      }
+
+      sequence = next;
+      first = false;
+      send(bytes);
+    }
+  }
+
+  private void publish(SyncMessage message) {
+    send(message.encode());
+  }
+
+  private void send(byte[] bytes) {
+    try {
+      transport.publish(bytes);
+    } catch (RuntimeException e) {
+      // Receivers notice the gap in the sequence and ask for a snapshot
+      api.getLogger().log(Level.WARNING, "Failed to publish a tab synchronization message", e);
+    }
+  }
+
+  private void requestSnapshot(Origin origin) {
+    if (origin.awaitingSnapshot) return;
+
+    origin.awaitingSnapshot = true;
+    resyncTargets.add(origin.name);
+  }
+
+  private void claimFrom(String owner, UUID uuid) {
+    Origin previous = origins.get(owner);
+    if (previous != null) previous.versions.remove(uuid);
+  }
+
+  /**
+   * Removes the remote profiles of a server, or of every server.
+   */
+  private void dropRemoteProfiles(@Nullable String origin) {
+    List<UUID> dropped = new ArrayList<>();
+    owners.entrySet().removeIf(entry -> {
+      if (origin != null && !entry.getValue().equals(origin)) return false;
+
+      dropped.add(entry.getKey());
+      return true;
+    });
+    if (origin == null) origins.clear();
+
+    for (UUID uuid : dropped) api.getProfileManager().removeGlobalProfile(uuid);
+  }
+
+  private static void closeQuietly(SyncTransport transport) {
+    try {
+      transport.close();
+    } catch (RuntimeException ignored) {
+      // The transport is discarded anyway
+    }
+  }
+
+  private record Published(long version, TabProfile profile) {
+  }
+
+  private static final class Origin {
+
+    private final String name;
+    private final long epoch;
+    private final Map<UUID, Long> versions = new HashMap<>();
+    private long sequence;
+    private boolean awaitingSnapshot;
+    @Nullable
+    private Set<UUID> snapshot;
+
+    private Origin(String name, long epoch, long sequence) {
+      this.name = name;
+      this.epoch = epoch;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,245 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A message exchanged by the servers of a network to synchronize the tab.
+ *
+ * <p>Every message starts with the identity of its origin server: its id,
+ * the epoch it started at, and a sequence number increasing by one per
+ * message. Receivers drop the messages already seen and detect the lost
+ * ones from a gap in the sequence.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+@Getter
+public final class SyncMessage {
+
+  private static final byte FORMAT = 1;
+
+  /**
+   * The kinds of message.
+   */
+  public enum Type {
+    /**
+     * Profile changes since the previous message.
+     */
+    DELTAS,
+    /**
+     * Part of the complete profiles of the origin, sent to the servers
+     * that lost track of them.
+     */
+    SNAPSHOT,
+    /**
+     * A request for the snapshot of a server, or of every server.
+     */
+    RESYNC,
+    /**
+     * The origin is shutting down, its profiles are removed.
+     */
+    GOODBYE
+  }
+
+  /**
+   * -- GETTER --
+   *  Gets the kind of this message.
+   *
+   * @return the message type
+   */
+  private final Type type;
+  /**
+   * -- GETTER --
+   *  Gets the id of the server sending this message.
+   *
+   * @return the origin server id
+   */
+  private final String origin;
+  /**
+   * -- GETTER --
+   *  Gets the time the origin server started its synchronization.
+   *
+   * @return the origin epoch
+   */
+  private final long epoch;
+  /**
+   * -- GETTER --
+   *  Gets the number of this message among the ones of its origin.
+   *
+   * @return the sequence number
+   */
+  private final long sequence;
+  /**
+   * -- GETTER --
+   *  Gets the profile changes carried by this message.
+   *
+   * @return an unmodifiable list of deltas, empty unless the type carries deltas
+   */
+  private final List<ProfileDelta> deltas;
+  /**
+   * -- GETTER --
+   *  Checks if this message is the first part of a snapshot.
+   *
+   * @return true for the first part of a snapshot
+   */
+  private final boolean first;
+  /**
+   * -- GETTER --
+   *  Checks if this message is the last part of a snapshot.
+   *
+   * @return true for the last part of a snapshot
+   */
+  private final boolean last;
+  /**
+   * -- GETTER --
+   *  Gets the server whose snapshot is requested.
+   *
+   * @return the target server id, or null for every server
+   */
+  @Nullable
+  private final String target;
+
+  private SyncMessage(Type type, String origin, long epoch, long sequence, List<ProfileDelta> deltas, boolean first, boolean last, @Nullable String target) {
+    this.type = type;
+    this.origin = origin;
+    this.epoch = epoch;
+    this.sequence = sequence;
+    this.deltas = Collections.unmodifiableList(deltas);
+    this.first = first;
+    this.last = last;
+    this.target = target;
+  }
+
+  /**
+   * Creates a message carrying profile changes.
+   *
+   * @param origin the origin server id
+   * @param epoch the origin epoch
+   * @param sequence the sequence number
+   * @param deltas the profile changes
+   * @return the message
+   */
+  @NotNull
+  public static SyncMessage deltas(@NotNull String origin, long epoch, long sequence, @NotNull List<ProfileDelta> deltas) {
+    return new SyncMessage(Type.DELTAS, origin, epoch, sequence, deltas, false, false, null);
+  }
+
+  /**
+   * Creates a part of a snapshot.
+   *
+   * @param origin the origin server id
+   * @param epoch the origin epoch
+   * @param sequence the sequence number
+   * @param deltas the complete profiles of this part
+   * @param first true for the first part
+   * @param last true for the last part
+   * @return the message
+   */
+  @NotNull
+  public static SyncMessage snapshot(@NotNull String origin, long epoch, long sequence, @NotNull List<ProfileDelta> deltas, boolean first, boolean last) {
+    return new SyncMessage(Type.SNAPSHOT, origin, epoch, sequence, deltas, first, last, null);
+  }
+
+  /**
+   * Creates a snapshot request.
+   *
+   * @param origin the origin server id
+   * @param epoch the origin epoch
+   * @param sequence the sequence number
+   * @param target the server whose snapshot is requested, or null for every server
+   * @return the message
+   */
+  @NotNull
+  public static SyncMessage resync(@NotNull String origin, long epoch, long sequence, @Nullable String target) {
+    return new SyncMessage(Type.RESYNC, origin, epoch, sequence, List.of(), false, false, target);
+  }
+
+  /**
+   * Creates the farewell of a server shutting down.
+   *
+   * @param origin the origin server id
+   * @param epoch the origin epoch
+   * @param sequence the sequence number
+   * @return the message
+   */
+  @NotNull
+  public static SyncMessage goodbye(@NotNull String origin, long epoch, long sequence) {
+    return new SyncMessage(Type.GOODBYE, origin, epoch, sequence, List.of(), false, false, null);
+  }
+
+  /**
+   * Encodes this message.
+   *
+   * @return the encoded bytes
+   */
+  @NotNull
+  public byte[] encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + deltas.size() * 32);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT);
+      out.writeByte(type.ordinal());
+      out.writeUTF(origin);
+      out.writeLong(epoch);
+      Varints.writeLong(out, sequence);
+
+      switch (type) {
+        case DELTAS, SNAPSHOT -> {
+          if (type == Type.SNAPSHOT) out.writeByte((first ? 1 : 0) | (last ? 2 : 0));
+          Varints.writeInt(out, deltas.size());
+          for (ProfileDelta delta : deltas) delta.write(out);
+        }
+        case RESYNC -> out.writeUTF(target != null ? target : "");
+        case GOODBYE -> {
+        }
+      }
+    } catch (IOException e) {
+      // Writing to memory does not fail
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a message encoded by {@link #encode()}.
+   *
+   * @param message the encoded bytes
+   * @return the message
+   * @throws IOException if the message is malformed or of an unknown format
+   */
+  @NotNull
+  public static SyncMessage decode(@NotNull byte[] message) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+    byte format = in.readByte();
+    if (format != FORMAT) throw new IOException("Unknown message format: " + format);
+
+    int ordinal = in.readUnsignedByte();
+    if (ordinal >= Type.values().length) throw new IOException("Unknown message type: " + ordinal);
+    Type type = Type.values()[ordinal];
+    String origin = in.readUTF();
+    long epoch = in.readLong();
+    long sequence = Varints.readLong(in);
+
+    return switch (type) {
+      case DELTAS, SNAPSHOT -> {
+        int parts = type == Type.SNAPSHOT ? in.readUnsignedByte() : 0;
+        int count = Varints.readInt(in);
+        List<ProfileDelta> deltas = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) deltas.add(ProfileDelta.read(in));
+        yield new SyncMessage(type, origin, epoch, sequence, deltas, (parts & 1) != 0, (parts & 2) != 0, null);
+      }
+      case RESYNC -> {
+        String target = in.readUTF();
+        yield resync(origin, epoch, sequence, target.isEmpty() ? null : target);
+      }
+      case GOODBYE -> goodbye(origin, epoch, sequence);
+    };
+  }
+}
@@ -0,0 +1,58 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable-length integers, taking one byte per 7 bits of value.
+ *
+ * <p>Signed values are zigzag encoded, so small negative numbers stay
+ * short as well.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+final class Varints {
+
+  private Varints() {
+  }
+
+  static void writeInt(DataOutput out, int value) throws IOException {
+    writeLong(out, value & 0xFFFFFFFFL);
+  }
+
+  static int readInt(DataInput in) throws IOException {
+    long value = readLong(in);
+    if (value >>> 32 != 0) throw new IOException("Variable-length int too large");
+    return (int) value;
+  }
+
+  static void writeSignedInt(DataOutput out, int value) throws IOException {
+    writeInt(out, (value << 1) ^ (value >> 31));
+  }
+
+  static int readSignedInt(DataInput in) throws IOException {
+    int value = readInt(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static void writeLong(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static long readLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw new IOException("Variable-length long too long");
+  }
+}
@@ -0,0 +1,103 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns small integer ids to the groups named by visibility rules.
+ *
+ * <p>Ids are dense, so they index the bits of the visibility masks. Only
+ * the groups named by a rule can be hidden, so only they get an id, and
+ * profiles look theirs up. Each rule naming a group holds its id, which
+ * is released with the last one and reused by the next group: the table
+ * is bounded by the groups the rules name at once.
+ *
+ * <p>Ids are acquired and released under the lock of the visibility
+ * manager. As a released id may be reused by another group, readers
+ * check the {@linkplain #generation() generation} around their lookup.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class GroupIds {
+
+  /**
+   * Id of profiles without group, or whose group no rule names.
+   */
+  public static final int NONE = -1;
+
+  private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+  // Guarded by the class
+  private static final Map<String, Integer> HOLDERS = new HashMap<>();
+  private static final BitSet USED = new BitSet();
+  private static volatile int generation;
+
+  private GroupIds() {
+  }
+
+  /**
+   * Gets the id of a group.
+   *
+   * @param group the group name, may be null
+   * @return the group id, or {@link #NONE} if no rule names the group
+   */
+  public static int find(@Nullable String group) {
+    if (group == null) return NONE;
+
+    Integer id = IDS.get(group);
+    return id != null ? id : NONE;
+  }
+
+  /**
+   * Holds the id of a group for a rule, assigning one on first use.
+   *
+   * @param group the group name
+   * @return the group id
+   */
+  public static synchronized int acquire(@NotNull String group) {
+    HOLDERS.merge(group, 1, Integer::sum);
+
+    Integer id = IDS.get(group);
+    if (id != null) return id;
+
+    int next = USED.nextClearBit(0);
+    USED.set(next);
+    IDS.put(group, next);
+    return next;
+  }
+
+  /**
+   * Releases the id of a group held by a rule. The id is reclaimed when no
+   * rule holds it anymore.
+   *
+   * @param group the group name
+   */
+  public static synchronized void release(@NotNull String group) {
+    Integer holders = HOLDERS.computeIfPresent(group, (key, count) -> count > 1 ? count - 1 : null);
+    if (holders != null) return;
+
+    Integer id = IDS.remove(group);
+    if (id == null) return;
+
+    // Published before the id can be reused
+    generation++;
+    USED.clear(id);
+  }
+
+  /**
+   * Gets the number of ids released so far. A lookup is only consistent
+   * with the masks it tests if the generation did not change meanwhile.
+   *
+   * @return the generation
+   */
+  public static int generation() {
+    return generation;
+  }
+}
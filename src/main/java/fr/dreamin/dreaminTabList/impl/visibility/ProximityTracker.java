@@ -0,0 +1,360 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shows each player only the players within a radius of them.
+ *
+ * <p>Positions are recorded from movement, only when a player changes
+ * block, and ranges are recomputed every few ticks. Players are hashed
+ * into square cells as wide as the leave radius, so each player is only
+ * compared with the players of the 3x3 cells around them instead of
+ * every other player.
+ *
+ * <p>A player enters the range of a viewer within the radius, and only
+ * leaves it past the radius plus a hysteresis margin, so players moving
+ * along the edge do not flicker. Each viewer receives the players who
+ * entered in one packet and the ones who left in another.
+ *
+ * <p>Players leaving the range are unlisted rather than removed: they may
+ * still be tracked in the world, and clients drop the skin of a tracked
+ * player whose entry is removed. Entries a client still holds are listed
+ * again when their player comes back, or replaced if their name or skin
+ * changed in the meantime.
+ *
+ * <p>Profiles of offline or fake players are not affected. Changes are
+ * serialized on this instance, lookups need no lock.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class ProximityTracker {
+
+  /**
+   * Default radius, in blocks.
+   */
+  public static final double DEFAULT_RADIUS = 64D;
+
+  /**
+   * Default margin past the radius before a player leaves the range, in blocks.
+   */
+  public static final double DEFAULT_HYSTERESIS = 8D;
+
+  /**
+   * Default number of ticks between two range updates.
+   */
+  public static final int DEFAULT_INTERVAL = 10;
+
+  private final TabListAPIImpl api;
+  private final Map<UUID, Position> positions = new ConcurrentHashMap<>();
+  private final Map<UUID, Set<UUID>> ranges = new ConcurrentHashMap<>();
+  // Profiles each viewer's client holds unlisted, as they were when they left its range
+  private final Map<UUID, Map<UUID, TabProfileImpl>> unlisted = new HashMap<>();
+  private volatile boolean enabled = false;
+  private volatile boolean moved = false;
+  private volatile double radius = DEFAULT_RADIUS;
+  private volatile double hysteresis = DEFAULT_HYSTERESIS;
+  private volatile int interval = DEFAULT_INTERVAL;
+  private int ticks;
+
+  /**
+   * Creates the proximity tracker of an API.
+   *
+   * @param api the API owning the players
+   */
+  public ProximityTracker(@NotNull TabListAPIImpl api) {
+    this.api = Objects.requireNonNull(api, "API cannot be null");
+  }
+
+  /**
+   * Checks if players only see the players around them.
+   *
+   * @return true if the tab list is limited by distance
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Gets the radius players are seen within.
+   *
+   * @return the radius, in blocks
+   */
+  public double getRadius() {
+    return radius;
+  }
+
+  /**
+   * Gets the margin past the radius before a player leaves the range.
+   *
+   * @return the hysteresis, in blocks
+   */
+  public double getHysteresis() {
+    return hysteresis;
+  }
+
+  /**
+   * Gets the number of ticks between two range updates.
+   *
+   * @return the interval, in ticks
+   */
+  public int getInterval() {
+    return interval;
+  }
+
+  /**
+   * Sets the range settings. Ranges are updated on the next interval.
+   *
+   * @param radius the radius players are seen within, in blocks
+   * @param hysteresis the margin past the radius before a player leaves the range, in blocks
+   * @param interval the ticks between two range updates
+   */
+  public void setRange(double radius, double hysteresis, int interval) {
+    if (radius <= 0) throw new IllegalArgumentException("Radius must be positive");
+    if (hysteresis < 0) throw new IllegalArgumentException("Hysteresis cannot be negative");
+    if (interval < 1) throw new IllegalArgumentException("Interval must be at least 1");
+
+    this.radius = radius;
+    this.hysteresis = hysteresis;
+    this.interval = interval;
+    this.moved = true;
+  }
+
+  /**
+   * Enables or disables the proximity mode.
+   *
+   * <p>When enabled, every player is considered in range until the next
+   * update, which unlists the players too far. When disabled, the players
+   * out of range are listed or added back.
+   *
+   * @param enabled true to limit the tab list by distance
+   */
+  public synchronized void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) return;
+
+    if (enabled) {
+      // Clients show everyone for now, the next update unlists the players too far
+      Set<UUID> everyone = Set.copyOf(positions.keySet());
+      for (PlayerTabManagerImpl manager : api.getPlayerManagers()) {
+        ranges.put(manager.getPlayerUUID(), everyone);
+      }
+      this.moved = true;
+      this.enabled = true;
+      return;
+    }
+
+    Map<UUID, Set<UUID>> previous = new HashMap<>(ranges);
+    this.enabled = false;
+    ranges.clear();
+
+    for (PlayerTabManagerImpl manager : api.getPlayerManagers()) {
+      UUID viewer = manager.getPlayerUUID();
+      if (!isAdmitted(manager)) continue;
+
+      Set<UUID> inRange = previous.getOrDefault(viewer, Set.of());
+      List<TabProfileImpl> outOfRange = new ArrayList<>();
+      for (UUID uuid : positions.keySet()) {
+        if (!uuid.equals(viewer) && !inRange.contains(uuid)) addProfile(uuid, outOfRange);
+      }
+      apply(manager, api.getVisibilityManager().visibleTo(viewer, outOfRange), List.of());
+    }
+    unlisted.clear();
+  }
+
+  /**
+   * Records the position of a player.
+   *
+   * @param player the player UUID
+   * @param world the world name
+   * @param x the X coordinate
+   * @param z the Z coordinate
+   */
+  public void update(@NotNull UUID player, @NotNull String world, double x, double z) {
+    positions.put(player, new Position(world, x, z));
+    this.moved = true;
+  }
+
+  /**
+   * Forgets a player who left.
+   *
+   * @param player the player UUID
+   */
+  public void forget(@NotNull UUID player) {
+    positions.remove(player);
+    ranges.remove(player);
+    forgetEntries(Collections.singletonList(player));
+  }
+
+  /**
+   * Forgets the unlisted entries of players removed from every client,
+   * and the ones their own clients hold. They are added instead of being
+   * listed again when they enter a range.
+   *
+   * @param players the UUIDs of the players
+   */
+  public synchronized void forgetEntries(@NotNull Collection<UUID> players) {
+    if (unlisted.isEmpty()) return;
+
+    for (UUID player : players) unlisted.remove(player);
+    unlisted.values().removeIf(held -> {
+      held.keySet().removeAll(players);
+      return held.isEmpty();
+    });
+  }
+
+  /**
+   * Forgets every unlisted entry, when clients may no longer hold them.
+   */
+  public synchronized void forgetEntries() {
+    unlisted.clear();
+  }
+
+  /**
+   * Checks if a viewer is in range of a profile.
+   *
+   * @param viewer the UUID of the viewer
+   * @param profileId the UUID of the profile
+   * @return true if the mode is disabled, the profile is not a tracked player, or it is in range
+   */
+  public boolean canSee(@NotNull UUID viewer, @NotNull UUID profileId) {
+    if (!enabled || viewer.equals(profileId) || !positions.containsKey(profileId)) return true;
+
+    Set<UUID> inRange = ranges.get(viewer);
+    return inRange != null && inRange.contains(profileId);
+  }
+
+  /**
+   * Counts a tick, updating the ranges every interval if someone moved.
+   */
+  public void tick() {
+    if (!enabled || ++ticks < interval) return;
+
+    ticks = 0;
+    if (moved) update();
+  }
+
+  /**
+   * Updates the range of every viewer and sends the players who entered
+   * or left it.
+   */
+  public synchronized void update() {
+    if (!enabled) return;
+    this.moved = false;
+
+    double enter = radius;
+    double leave = radius + hysteresis;
+    double enterSquared = enter * enter;
+    double leaveSquared = leave * leave;
+
+    // Cells as wide as the leave radius, so the 3x3 cells around a player cover its range
+    Map<UUID, Position> snapshot = new HashMap<>(positions);
+    Map<String, Map<Long, List<UUID>>> grid = new HashMap<>();
+    snapshot.forEach((uuid, position) -> grid
+      .computeIfAbsent(position.world(), key -> new HashMap<>())
+      .computeIfAbsent(cellOf(position.x(), position.z(), leave), key -> new ArrayList<>())
+      .add(uuid));
+
+    for (PlayerTabManagerImpl manager : api.getPlayerManagers()) {
+      UUID viewer = manager.getPlayerUUID();
+      if (api.getAdmissionQueue().isPending(viewer)) continue;
+
+      // Viewers without a known position keep their range
+      Position position = snapshot.get(viewer);
+      if (position == null) continue;
+
+      Set<UUID> before = ranges.getOrDefault(viewer, Set.of());
+      Set<UUID> after = new HashSet<>();
+      Map<Long, List<UUID>> cells = grid.get(position.world());
+      long cellX = (long) Math.floor(position.x() / leave);
+      long cellZ = (long) Math.floor(position.z() / leave);
+
+      for (long dx = -1; dx <= 1; dx++) {
+        for (long dz = -1; dz <= 1; dz++) {
+          List<UUID> players = cells.get(key(cellX + dx, cellZ + dz));
+          if (players == null) continue;
+
+          for (UUID uuid : players) {
+            if (uuid.equals(viewer) || api.getAdmissionQueue().isPending(uuid)) continue;
+
+            Position other = snapshot.get(uuid);
+            double distanceX = other.x() - position.x();
+            double distanceZ = other.z() - position.z();
+            double distanceSquared = distanceX * distanceX + distanceZ * distanceZ;
+            if (distanceSquared <= enterSquared || (distanceSquared <= leaveSquared && before.contains(uuid))) after.add(uuid);
+          }
+        }
+      }
+
+      if (after.equals(before)) continue;
+
+      // Only the players the viewer could see are on its tab list, checked before the range changes
+      List<TabProfileImpl> left = new ArrayList<>();
+      for (UUID uuid : before) {
+        if (!after.contains(uuid)) addProfile(uuid, left);
+      }
+      left = api.getVisibilityManager().visibleTo(viewer, left);
+      ranges.put(viewer, Set.copyOf(after));
+
+      List<TabProfileImpl> entered = new ArrayList<>();
+      for (UUID uuid : after) {
+        if (!before.contains(uuid)) addProfile(uuid, entered);
+      }
+      apply(manager, api.getVisibilityManager().visibleTo(viewer, entered), left);
+    }
+  }
+
+  /**
+   * Sends the players who entered or left the range of a viewer, listing
+   * again the entries its client holds and adding the others.
+   *
+   * @param manager the manager of the viewer
+   * @param entered the visible profiles of the players who entered the range
+   * @param left the visible profiles of the players who left the range
+   */
+  private void apply(PlayerTabManagerImpl manager, List<TabProfileImpl> entered, List<TabProfileImpl> left) {
+    Map<UUID, TabProfileImpl> held = unlisted.getOrDefault(manager.getPlayerUUID(), Map.of());
+    List<TabProfileImpl> added = new ArrayList<>();
+    List<TabProfileImpl> relisted = new ArrayList<>();
+    List<TabProfileImpl> replaced = new ArrayList<>();
+    for (TabProfileImpl profile : entered) {
+      TabProfileImpl previous = held.isEmpty() ? null : held.remove(profile.getUniqueId());
+      if (previous == null) added.add(profile);
+      else if (TabProfileImpl.needsReplacement(previous, profile)) replaced.add(profile);
+      else relisted.add(profile);
+    }
+
+    if (!left.isEmpty()) {
+      Map<UUID, TabProfileImpl> unlisting = unlisted.computeIfAbsent(manager.getPlayerUUID(), key -> new HashMap<>());
+      left.forEach(profile -> unlisting.put(profile.getUniqueId(), profile));
+    } else if (held.isEmpty()) unlisted.remove(manager.getPlayerUUID());
+
+    manager.applyRangeChanges(added, relisted, replaced, left);
+  }
+
+  private boolean isAdmitted(PlayerTabManagerImpl manager) {
+    return !api.getAdmissionQueue().isPending(manager.getPlayerUUID());
+  }
+
+  private void addProfile(UUID uuid, List<TabProfileImpl> out) {
+    if (api.getAdmissionQueue().isPending(uuid)) return;
+    if (api.getProfileManager().findProfile(uuid) instanceof TabProfileImpl profile) out.add(profile);
+  }
+
+  private static long cellOf(double x, double z, double size) {
+    return key((long) Math.floor(x / size), (long) Math.floor(z / size));
+  }
+
+  private static long key(long cellX, long cellZ) {
+    return (cellX << 32) ^ (cellZ & 0xFFFFFFFFL);
+  }
+
+  private record Position(String world, double x, double z) {
+  }
+}
@@ -0,0 +1,363 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.visibility.VisibilityManager;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
+import fr.dreamin.dreaminTabList.impl.player.HiddenJournal;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the VisibilityManager interface.
+ *
+ * <p>Rules are compiled into bitsets over the {@link GroupIds} of the
+ * groups they name: the restricted groups, and for each viewer holding
+ * attributes the groups hidden from them. Viewers without attributes share
+ * the restricted set. Checking if a viewer sees a profile is thus two map
+ * lookups and one bit test, cheap enough for every broadcast. Players
+ * always see their own profile. When the tab list is scoped per world or
+ * by distance, the {@link WorldScopes} and the {@link ProximityTracker}
+ * are checked as well.
+ *
+ * <p>Rule and attribute changes are serialized on this instance. Each one
+ * compiles the masks of the affected viewers only, then compares them with
+ * the previous ones: the profiles of revealed groups are added, the ones
+ * of concealed groups unlisted. Published masks are never modified, so
+ * readers need no lock.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public class VisibilityManagerImpl implements VisibilityManager {
+
+  private static final BitSet EMPTY = new BitSet();
+
+  private final TabListAPIImpl api;
+  private final WorldScopes worldScopes;
+  private final ProximityTracker proximityTracker;
+
+  // Declared state, guarded by this instance
+  private final Map<String, Rule> rules = new HashMap<>();
+  private final Map<UUID, Set<String>> viewerAttributes = new HashMap<>();
+  private final Map<String, Set<UUID>> attributeViewers = new HashMap<>();
+
+  // Compiled state, readable from any thread
+  private volatile BitSet restricted = EMPTY;
+  private final Map<UUID, BitSet> hiddenMasks = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new VisibilityManager implementation.
+   *
+   * @param api the main API instance
+   */
+  public VisibilityManagerImpl(@NotNull TabListAPIImpl api) {
+    this.api = Objects.requireNonNull(api, "API cannot be null");
+    this.worldScopes = api.getWorldScopes();
+    this.proximityTracker = api.getProximityTracker();
+  }
+
+  @Override
+  public synchronized void setRule(@NotNull String attribute, @NotNull Collection<String> groups) {
+    if (attribute == null) throw new IllegalArgumentException("Attribute cannot be null");
+    if (groups == null) throw new IllegalArgumentException("Groups cannot be null");
+
+    Set<String> names = new LinkedHashSet<>(groups);
+    if (names.contains(null)) throw new IllegalArgumentException("Group cannot be null");
+
+    BitSet mask = new BitSet();
+    names.forEach(group -> mask.set(GroupIds.acquire(group)));
+
+    Rule previous = names.isEmpty() ? rules.remove(attribute) : rules.put(attribute, new Rule(Collections.unmodifiableSet(names), mask));
+    recompile(attributeViewers.getOrDefault(attribute, Set.of()));
+
+    // Released once no mask uses them, so that they are not reused meanwhile
+    if (previous != null) previous.groups().forEach(GroupIds::release);
+  }
+
+  @Override
+  public void removeRule(@NotNull String attribute) {
+    setRule(attribute, Set.of());
+  }
+
+  @Override
+  @NotNull
+  public synchronized Set<String> getRule(@NotNull String attribute) {
+    if (attribute == null) throw new IllegalArgumentException("Attribute cannot be null");
+
+    Rule rule = rules.get(attribute);
+    return rule != null ? rule.groups() : Set.of();
+  }
+
+  @Override
+  public synchronized void clearRules() {
+    if (rules.isEmpty()) return;
+
+    List<Rule> previous = new ArrayList<>(rules.values());
+    rules.clear();
+    recompile(Set.of());
+
+    previous.forEach(rule -> rule.groups().forEach(GroupIds::release));
+  }
+
+  @Override
+  public synchronized void setViewerAttributes(@NotNull UUID viewer, @NotNull Collection<String> attributes) {
+    if (viewer == null) throw new IllegalArgumentException("Viewer cannot be null");
+    if (attributes == null) throw new IllegalArgumentException("Attributes cannot be null");
+
+    Set<String> previous = viewerAttributes.remove(viewer);
+    if (previous != null) previous.forEach(attribute -> unindex(attribute, viewer));
+
+    if (!attributes.isEmpty()) {
+      Set<String> copy = new HashSet<>(attributes);
+      viewerAttributes.put(viewer, copy);
+      copy.forEach(attribute -> attributeViewers.computeIfAbsent(attribute, key -> new HashSet<>()).add(viewer));
+    }
+
+    recompile(Set.of(viewer));
+  }
+
+  @Override
+  public synchronized void addViewerAttribute(@NotNull UUID viewer, @NotNull String attribute) {
+    if (viewer == null) throw new IllegalArgumentException("Viewer cannot be null");
+    if (attribute == null) throw new IllegalArgumentException("Attribute cannot be null");
+
+    if (!viewerAttributes.computeIfAbsent(viewer, key -> new HashSet<>()).add(attribute)) return;
+    attributeViewers.computeIfAbsent(attribute, key -> new HashSet<>()).add(viewer);
+
+    recompile(Set.of(viewer));
+  }
+
+  @Override
+  public synchronized void removeViewerAttribute(@NotNull UUID viewer, @NotNull String attribute) {
+    if (viewer == null) throw new IllegalArgumentException("Viewer cannot be null");
+    if (attribute == null) throw new IllegalArgumentException("Attribute cannot be null");
+
+    Set<String> attributes = viewerAttributes.get(viewer);
+    if (attributes == null || !attributes.remove(attribute)) return;
+    if (attributes.isEmpty()) viewerAttributes.remove(viewer);
+    unindex(attribute, viewer);
+
+    recompile(Set.of(viewer));
+  }
+
+  @Override
+  @NotNull
+  public synchronized Set<String> getViewerAttributes(@NotNull UUID viewer) {
+    if (viewer == null) throw new IllegalArgumentException("Viewer cannot be null");
+
+    Set<String> attributes = viewerAttributes.get(viewer);
+    return attributes != null ? Set.copyOf(attributes) : Set.of();
+  }
+
+  @Override
+  public boolean canSee(@NotNull UUID viewer, @NotNull TabProfile profile) {
+    if (viewer == null) throw new IllegalArgumentException("Viewer cannot be null");
+    if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
+
+    return isVisible(viewer, profile.getGroup(), profile.getUniqueId());
+  }
+
+  /**
+   * Checks if a viewer sees a global profile, on the broadcast path.
+   *
+   * @param viewer the UUID of the viewer
+   * @param profile the profile
+   * @return true if the profile is visible to the viewer
+   */
+  public boolean canSee(@NotNull UUID viewer, @NotNull TabProfileImpl profile) {
+    return isVisible(viewer, profile.getGroup(), profile.getUniqueId());
+  }
+
+  /**
+   * Checks if every profile is visible to a viewer.
+   *
+   * @param viewer the UUID of the viewer
+   * @return true if no group is hidden from the viewer and the tab list is not scoped per world
+   */
+  public boolean seesEverything(@NotNull UUID viewer) {
+    return hiddenOf(viewer).isEmpty() && !worldScopes.isEnabled() && !proximityTracker.isEnabled();
+  }
+
+  /**
+   * Keeps the profiles visible to a viewer.
+   *
+   * @param viewer the UUID of the viewer
+   * @param profiles the profiles
+   * @return the visible profiles, the given list itself if all are
+   */
+  @NotNull
+  public List<TabProfileImpl> visibleTo(@NotNull UUID viewer, @NotNull List<TabProfileImpl> profiles) {
+    if (seesEverything(viewer)) return profiles;
+
+    List<TabProfileImpl> visible = new ArrayList<>(profiles.size());
+    for (TabProfileImpl profile : profiles) {
+      if (isVisible(viewer, profile.getGroup(), profile.getUniqueId())) visible.add(profile);
+    }
+    return visible;
+  }
+
+  /**
+   * Forgets the attributes of a viewer who left.
+   *
+   * @param viewer the UUID of the viewer
+   */
+  public synchronized void forgetViewer(@NotNull UUID viewer) {
+    Set<String> attributes = viewerAttributes.remove(viewer);
+    if (attributes != null) attributes.forEach(attribute -> unindex(attribute, viewer));
+    hiddenMasks.remove(viewer);
+  }
+
+  private boolean isVisible(UUID viewer, String group, UUID profileId) {
+    if (viewer.equals(profileId)) return true;
+    return !isHidden(viewer, group) && worldScopes.canSee(viewer, profileId) && proximityTracker.canSee(viewer, profileId);
+  }
+
+  private boolean isHidden(UUID viewer, String group) {
+    if (group == null) return false;
+
+    // Looked up again if the id was released and possibly reused meanwhile
+    while (true) {
+      int generation = GroupIds.generation();
+      int groupId = GroupIds.find(group);
+      boolean hidden = groupId != GroupIds.NONE && hiddenOf(viewer).get(groupId);
+      if (generation == GroupIds.generation()) return hidden;
+    }
+  }
+
+  private BitSet hiddenOf(UUID viewer) {
+    BitSet hidden = hiddenMasks.get(viewer);
+    return hidden != null ? hidden : restricted;
+  }
+
+  private void unindex(String attribute, UUID viewer) {
+    Set<UUID> viewers = attributeViewers.get(attribute);
+    if (viewers != null && viewers.remove(viewer) && viewers.isEmpty()) attributeViewers.remove(attribute);
+  }
+
+  /**
+   * Compiles the masks again and sends the resulting changes.
+   *
+   * <p>Only the given viewers are compiled again, unless the restricted
+   * groups changed, which affects every viewer.
+   *
+   * @param candidates the viewers whose attributes or rules changed
+   */
+  private void recompile(Collection<UUID> candidates) {
+    BitSet newRestricted = new BitSet();
+    rules.values().forEach(rule -> newRestricted.or(rule.mask()));
+
+    Set<UUID> affected = new HashSet<>(candidates);
+    if (!newRestricted.equals(restricted)) {
+      affected.addAll(viewerAttributes.keySet());
+      api.getPlayerManagers().forEach(manager -> affected.add(manager.getPlayerUUID()));
+    }
+
+    // Compile every mask before publishing, then compare with the previous ones
+    Map<UUID, BitSet> previous = new HashMap<>();
+    Map<UUID, BitSet> compiled = new HashMap<>();
+    for (UUID viewer : affected) {
+      previous.put(viewer, hiddenOf(viewer));
+      compiled.put(viewer, compile(viewer, newRestricted));
+    }
+
+    this.restricted = newRestricted;
+    compiled.forEach((viewer, hidden) -> {
+      if (hidden == newRestricted) hiddenMasks.remove(viewer);
+      else hiddenMasks.put(viewer, hidden);
+    });
+
+    sendChanges(previous, compiled);
+  }
+
+  private BitSet compile(UUID viewer, BitSet restricted) {
+    Set<String> attributes = viewerAttributes.get(viewer);
+    if (attributes == null || attributes.isEmpty()) return restricted;
+
+    BitSet hidden = (BitSet) restricted.clone();
+    for (String attribute : attributes) {
+      Rule rule = rules.get(attribute);
+      if (rule != null) hidden.andNot(rule.mask());
+    }
+    return hidden;
+  }
+
+  /**
+   * Adds the profiles of revealed groups and unlists the ones of concealed
+   * groups, for each admitted viewer whose mask changed.
+   */
+  private void sendChanges(Map<UUID, BitSet> previous, Map<UUID, BitSet> compiled) {
+    Map<PlayerTabManagerImpl, BitSet> changed = new HashMap<>();
+    BitSet groups = new BitSet();
+    previous.forEach((viewer, before) -> {
+      BitSet diff = (BitSet) before.clone();
+      diff.xor(compiled.get(viewer));
+      if (diff.isEmpty()) return;
+
+      PlayerTabManagerImpl manager = api.findPlayerManager(viewer);
+      if (manager == null || api.getAdmissionQueue().isPending(viewer)) return;
+
+      changed.put(manager, diff);
+      groups.or(diff);
+    });
+    if (changed.isEmpty()) return;
+
+    // One scan of the global profiles for every viewer, players waiting for admission are sent on admission.
+    // The groups of the previous masks are only released after this, their ids are still theirs
+    List<TabProfileImpl> candidates = new ArrayList<>();
+    for (TabProfile profile : api.getProfileManager().getGlobalProfiles()) {
+      int groupId = GroupIds.find(profile.getGroup());
+      if (!(profile instanceof TabProfileImpl impl) || groupId == GroupIds.NONE) continue;
+      if (groups.get(groupId) && !api.getAdmissionQueue().isPending(impl.getUniqueId())) candidates.add(impl);
+    }
+    if (candidates.isEmpty()) return;
+
+    changed.forEach((manager, diff) -> {
+      UUID viewer = manager.getPlayerUUID();
+      List<TabProfileImpl> concealed = new ArrayList<>();
+      List<UUID> revealed = new ArrayList<>();
+      for (TabProfileImpl profile : candidates) {
+        if (!diff.get(GroupIds.find(profile.getGroup())) || viewer.equals(profile.getUniqueId())) continue;
+
+        // Profiles of other worlds are not on the client, the ones out of range are listed when they enter it
+        if (!worldScopes.canSee(viewer, profile.getUniqueId()) || !proximityTracker.canSee(viewer, profile.getUniqueId())) continue;
+
+        if (canSee(viewer, profile)) revealed.add(profile.getUniqueId());
+        else concealed.add(profile);
+      }
+      if (concealed.isEmpty() && revealed.isEmpty()) return;
+
+      ViewerConnection connection = manager.getConnection();
+      connection.execute(() -> {
+        HiddenJournal journal = manager.getHiddenJournal();
+        if (journal != null) {
+          journal.unlisted(concealed);
+          journal.added(current(viewer, revealed));
+          return;
+        }
+
+        connection.sendListed(concealed, false);
+        connection.sendAdd(current(viewer, revealed));
+      });
+    });
+  }
+
+  /**
+   * Resolves the current instances of revealed profiles, still visible.
+   */
+  private List<TabProfileImpl> current(UUID viewer, List<UUID> profileIds) {
+    List<TabProfileImpl> profiles = new ArrayList<>(profileIds.size());
+    for (UUID uuid : profileIds) {
+      if (api.getProfileManager().findProfile(uuid) instanceof TabProfileImpl impl && canSee(viewer, impl)) profiles.add(impl);
+    }
+    return profiles;
+  }
+
+  private record Rule(Set<String> groups, BitSet mask) {
+  }
+}
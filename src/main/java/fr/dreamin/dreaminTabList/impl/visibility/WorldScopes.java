@@ -0,0 +1,243 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.network.ViewerConnection;
+import fr.dreamin.dreaminTabList.impl.player.HiddenJournal;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the players of each world, to scope the tab list per world.
+ *
+ * <p>When scoping is enabled, the profile of a player is only shown to
+ * the players of the same world. Profiles of offline or fake players are
+ * not scoped and stay visible everywhere. Broadcasts of a scoped profile
+ * only reach the viewers of its world.
+ *
+ * <p>The worlds of players are tracked even while scoping is disabled, so
+ * enabling it takes effect at once. A player changing world only receives
+ * the removal of the players left behind and the addition of the ones
+ * found, while each side only learns about the moving player.
+ *
+ * <p>Changes are serialized on this instance, lookups need no lock.
+ *
+ * @author Dreamin
+ * @version 0.0.4
+ * @since 0.0.4
+ */
+public final class WorldScopes {
+
+  private final TabListAPIImpl api;
+  private final Map<UUID, String> worlds = new ConcurrentHashMap<>();
+  private final Map<String, Set<UUID>> members = new ConcurrentHashMap<>();
+  private volatile boolean enabled = false;
+
+  /**
+   * Creates the world scopes of an API.
+   *
+   * @param api the API owning the players
+   */
+  public WorldScopes(@NotNull TabListAPIImpl api) {
+    this.api = Objects.requireNonNull(api, "API cannot be null");
+  }
+
+  /**
+   * Checks if the tab list is scoped per world.
+   *
+   * @return true if players only see the players of their world
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables world scoping, removing or adding the profiles of
+   * other worlds for every player.
+   *
+   * @param enabled true to scope the tab list per world
+   */
+  public synchronized void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) return;
+    this.enabled = enabled;
+
+    // Entries unlisted out of range may be removed below
+    if (enabled) api.getProximityTracker().forgetEntries();
+
+    for (PlayerTabManagerImpl manager : api.getPlayerManagers()) {
+      UUID viewer = manager.getPlayerUUID();
+      if (!isAdmitted(manager)) continue;
+
+      // Profiles of the players in other worlds, visible once scoping is disabled
+      List<TabProfileImpl> others = new ArrayList<>();
+      String world = worlds.get(viewer);
+      members.forEach((name, uuids) -> {
+        if (!name.equals(world)) collectProfiles(uuids, null, others);
+      });
+      if (others.isEmpty()) continue;
+
+      if (enabled) send(manager, removal(others), List.of());
+      else send(manager, List.of(), api.getVisibilityManager().visibleTo(viewer, others));
+    }
+  }
+
+  /**
+   * Records the world of a joining player. Nothing is sent, the player is
+   * admitted later.
+   *
+   * @param player the player UUID
+   * @param world the world name, may be null if unknown
+   */
+  public synchronized void join(@NotNull UUID player, @Nullable String world) {
+    leave(player);
+    if (world == null) return;
+
+    worlds.put(player, world);
+    members.computeIfAbsent(world, key -> ConcurrentHashMap.newKeySet()).add(player);
+  }
+
+  /**
+   * Forgets a player who left.
+   *
+   * @param player the player UUID
+   */
+  public synchronized void leave(@NotNull UUID player) {
+    String world = worlds.remove(player);
+    if (world == null) return;
+
+    Set<UUID> uuids = members.get(world);
+    if (uuids != null && uuids.remove(player) && uuids.isEmpty()) members.remove(world);
+  }
+
+  /**
+   * Moves a player to another world, sending the minimal changes when
+   * scoping is enabled.
+   *
+   * <p>The moving player loses the profiles of the world left and gets the
+   * ones of the world joined. The players of the world left lose its
+   * profile, the ones of the world joined get it.
+   *
+   * @param player the player UUID
+   * @param world the world joined
+   */
+  public synchronized void move(@NotNull UUID player, @NotNull String world) {
+    String previous = worlds.get(player);
+    if (world.equals(previous)) return;
+
+    Set<UUID> left = previous != null ? members.getOrDefault(previous, Set.of()) : Set.of();
+    List<UUID> leftBehind = new ArrayList<>(left);
+    leftBehind.remove(player);
+    join(player, world);
+
+    PlayerTabManagerImpl mover = api.findPlayerManager(player);
+    if (!enabled || mover == null || !isAdmitted(mover)) return;
+
+    // Both sides remove the entries they held unlisted out of range
+    api.getProximityTracker().forgetEntries(Collections.singletonList(player));
+
+    List<TabProfileImpl> found = new ArrayList<>();
+    collectProfiles(members.get(world), player, found);
+    List<TabProfileImpl> lost = new ArrayList<>();
+    collectProfiles(leftBehind, null, lost);
+
+    send(mover, removal(lost), api.getVisibilityManager().visibleTo(player, found));
+
+    // Each side only learns about the moving player
+    if (!(api.getProfileManager().findProfile(player) instanceof TabProfileImpl profile)) return;
+
+    List<UUID> removal = Collections.singletonList(player);
+    for (UUID uuid : leftBehind) {
+      PlayerTabManagerImpl viewer = api.findPlayerManager(uuid);
+      if (viewer != null && isAdmitted(viewer)) send(viewer, removal, List.of());
+    }
+    for (UUID uuid : members.get(world)) {
+      PlayerTabManagerImpl viewer = api.findPlayerManager(uuid);
+      if (uuid.equals(player) || viewer == null || !isAdmitted(viewer)) continue;
+      if (api.getVisibilityManager().canSee(uuid, profile)) send(viewer, List.of(), List.of(profile));
+    }
+  }
+
+  /**
+   * Checks if a viewer is in the scope of a profile.
+   *
+   * @param viewer the UUID of the viewer
+   * @param profileId the UUID of the profile
+   * @return true if scoping is disabled, the profile is not scoped, or both are in the same world
+   */
+  public boolean canSee(@NotNull UUID viewer, @NotNull UUID profileId) {
+    if (!enabled || viewer.equals(profileId)) return true;
+
+    String world = worlds.get(profileId);
+    return world == null || world.equals(worlds.get(viewer));
+  }
+
+  /**
+   * Gets the world a profile is scoped to.
+   *
+   * @param profileId the UUID of the profile
+   * @return the world name, or null if scoping is disabled or the profile is not scoped
+   */
+  @Nullable
+  public String scopeOf(@NotNull UUID profileId) {
+    return enabled ? worlds.get(profileId) : null;
+  }
+
+  /**
+   * Gets the players of a world.
+   *
+   * @param world the world name
+   * @return an unmodifiable view of the player UUIDs
+   */
+  @NotNull
+  public Set<UUID> membersOf(@NotNull String world) {
+    Set<UUID> uuids = members.get(world);
+    return uuids != null ? Collections.unmodifiableSet(uuids) : Set.of();
+  }
+
+  private boolean isAdmitted(PlayerTabManagerImpl manager) {
+    return !api.getAdmissionQueue().isPending(manager.getPlayerUUID());
+  }
+
+  /**
+   * Collects the current profiles of players, skipping the ones waiting
+   * for admission, which are sent on admission.
+   */
+  private void collectProfiles(@Nullable Collection<UUID> players, @Nullable UUID except, List<TabProfileImpl> out) {
+    if (players == null) return;
+
+    for (UUID uuid : players) {
+      if (uuid.equals(except) || api.getAdmissionQueue().isPending(uuid)) continue;
+      TabProfile profile = api.getProfileManager().findProfile(uuid);
+      if (profile instanceof TabProfileImpl impl) out.add(impl);
+    }
+  }
+
+  private static List<UUID> removal(List<TabProfileImpl> profiles) {
+    List<UUID> uuids = new ArrayList<>(profiles.size());
+    profiles.forEach(profile -> uuids.add(profile.getUniqueId()));
+    return uuids;
+  }
+
+  private static void send(PlayerTabManagerImpl manager, List<UUID> removal, List<TabProfileImpl> additions) {
+    if (removal.isEmpty() && additions.isEmpty()) return;
+
+    // Recorded instead by the viewer's executor while hidden, in order with hide/show calls
+    ViewerConnection connection = manager.getConnection();
+    connection.execute(() -> {
+      HiddenJournal journal = manager.getHiddenJournal();
+      if (journal != null) {
+        journal.removed(removal);
+        journal.added(additions);
+        return;
+      }
+
+      connection.sendRemove(removal);
+      connection.sendAdd(additions);
+    });
+  }
+}
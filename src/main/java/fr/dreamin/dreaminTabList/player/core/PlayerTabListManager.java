@@ -9,13 +9,13 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 public class PlayerTabListManager {
 
-  private final Set<PlayerTabList> playerTabListSet = new HashSet<>();
+  private final Set<PlayerTabList> playerTabListSet = ConcurrentHashMap.newKeySet();
   private final TabListCache globalCache = new TabListCache();
 
   /**
@@ -6,6 +6,8 @@ import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
 import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
 import fr.dreamin.dreaminTabList.player.core.PlayerTabList;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,6 +17,7 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the tab list for a specific player, handling custom profiles, visibility, and header/footer.
@@ -39,12 +42,12 @@ public class TabList {
   /**
    * A map storing player-specific TabList profiles, overriding global profiles if present.
    */
-  private Map<UUID, TabListProfile> localEntries = new HashMap<>();
+  private Map<UUID, TabListProfile> localEntries = new ConcurrentHashMap<>();
 
   /**
    * Indicates whether the tab list is currently hidden for this player.
    */
-  private boolean hideTab = DreaminTabList.getCodex().isHideTab();
+  private volatile boolean hideTab = DreaminTabList.getCodex().isHideTab();
 
   /**
    * Constructs a new TabList manager for a given player.
@@ -57,7 +60,9 @@ public class TabList {
     this.globalCache = DreaminTabList.getPlayerTabListManager().getGlobalCache();
 
     if (this.hideTab) hideTab();
-    if (DreaminTabList.getCodex().isHeaderFooterEnabled()) Bukkit.getScheduler().runTaskLater(DreaminTabList.getInstance(), this::setHeaderAndFooter, 20L);
+    if (DreaminTabList.getCodex().isHeaderFooterEnabled()) {
+      DreaminTabList.getInstance().getTabScheduler().runForPlayerLater(playerTabList.getPlayer(), this::setHeaderAndFooter, 20L);
+    }
   }
 
   /**
@@ -75,6 +80,16 @@ public class TabList {
    * Sets the header and footer for the player's tab list.
    */
   public void setHeaderAndFooter() {
+    // The API renders the configured header/footer per player when available
+    if (DreaminTabList.getInstance().isAPIAvailable()) {
+      TabListAPIImpl apiImpl = (TabListAPIImpl) DreaminTabList.getInstance().getAPI();
+      PlayerTabManagerImpl manager = apiImpl.findPlayerManager(this.playerTabList.getPlayer().getUniqueId());
+      if (manager != null) {
+        manager.resendHeaderAndFooter();
+        return;
+      }
+    }
+
     this.playerTabList.getPlayer().sendPlayerListHeaderAndFooter(DreaminTabList.getCodex().getHeaders(), DreaminTabList.getCodex().getFooters());
   }
 
@@ -5,10 +5,11 @@ import org.jetbrains.annotations.Nullable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TabListCache {
 
-  private final Map<UUID, TabListProfile> globalEntries = new HashMap<>();
+  private final Map<UUID, TabListProfile> globalEntries = new ConcurrentHashMap<>();
 
   public void add(TabListProfile profile) {
     this.globalEntries.put(profile.getUuid(), profile);
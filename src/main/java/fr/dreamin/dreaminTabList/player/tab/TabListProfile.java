@@ -5,6 +5,7 @@ import com.github.retrooper.packetevents.protocol.player.TextureProperty;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import fr.dreamin.api.minecraft.MojangAPI;
 import fr.dreamin.api.minecraft.SkinProperty;
+import fr.dreamin.dreaminTabList.impl.skin.SkinPrefetchCache;
 import lombok.Getter;
 import lombok.Setter;
 import net.kyori.adventure.text.Component;
@@ -52,7 +53,7 @@ public class TabListProfile {
     this.group = group;
     this.vanillaSynced = true;
 
-    addSkin(player.getName());
+    addSkin(player);
   }
 
   public TabListProfile(Player player) {
@@ -61,7 +62,7 @@ public class TabListProfile {
     this.uuid = player.getUniqueId();
     this.vanillaSynced = true;
 
-    addSkin(player.getName());
+    addSkin(player);
   }
 
   public UserProfile buildUserProfile() {
@@ -70,6 +71,13 @@ public class TabListProfile {
     return profile;
   }
 
+  private void addSkin(Player player) {
+    // Skin the player authenticated with, or resolved during login, never fetched on join
+    TextureProperty skin = SkinPrefetchCache.texturesOf(player.getPlayerProfile());
+    if (skin == null) skin = SkinPrefetchCache.global().peek(player.getUniqueId());
+    if (skin != null) this.skinProperties.add(skin);
+  }
+
   public void addSkin(String name) {
     try {
       SkinProperty skin = MojangAPI.getSkinPropertyByName(name);
@@ -0,0 +1,75 @@
+package fr.dreamin.dreaminTabList.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the comparison of two versions of the configuration.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ConfigDiffTest {
+
+  private static final String BASE = """
+    hide-tab: false
+    header-footer:
+      enabled: true
+      update-interval: 20
+      header:
+        - "Welcome"
+    rate-limit:
+      updates-per-second: 20.0
+    """;
+
+  @Test
+  public void testSameSettingsAreEmpty() throws InvalidConfigurationException {
+    ConfigDiff diff = ConfigDiff.between(yaml(BASE), yaml(BASE));
+
+    assertTrue(diff.isEmpty());
+    assertSame(ConfigDiff.EMPTY, diff);
+    assertFalse(diff.changed("header-footer"));
+  }
+
+  @Test
+  public void testEditedSettingMarksItsSections() throws InvalidConfigurationException {
+    ConfigDiff diff = ConfigDiff.between(yaml(BASE), yaml(BASE.replace("\"Welcome\"", "\"Welcome back\"")));
+
+    assertEquals(List.of("header-footer.header"), List.copyOf(diff.getChangedPaths()));
+    assertTrue(diff.changed("header-footer"));
+    assertTrue(diff.changed("header-footer.header"));
+    assertFalse(diff.changed("header-footer.enabled"));
+    assertFalse(diff.changed("hide-tab"));
+    assertTrue(diff.changedAny("hide-tab", "header-footer"));
+  }
+
+  @Test
+  public void testPrefixIsNotASection() throws InvalidConfigurationException {
+    ConfigDiff diff = ConfigDiff.between(yaml(BASE), yaml(BASE.replace("update-interval: 20", "update-interval: 40")));
+
+    assertTrue(diff.changed("header-footer.update-interval"));
+    assertFalse(diff.changed("header-footer.update"));
+    assertFalse(diff.changed("header"));
+  }
+
+  @Test
+  public void testAddedAndRemovedSettingsAreChanged() throws InvalidConfigurationException {
+    ConfigDiff diff = ConfigDiff.between(
+      yaml(BASE),
+      yaml(BASE.replace("hide-tab: false\n", "") + "auto-reload: true\n")
+    );
+
+    assertEquals(List.of("auto-reload", "hide-tab"), List.copyOf(diff.getChangedPaths()));
+  }
+
+  private static YamlConfiguration yaml(String content) throws InvalidConfigurationException {
+    YamlConfiguration config = new YamlConfiguration();
+    config.loadFromString(content);
+    return config;
+  }
+}
@@ -0,0 +1,152 @@
+package fr.dreamin.dreaminTabList.config;
+
+import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the reload of the configuration file.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ConfigReloaderTest {
+
+  private static final int PLAYERS = 20;
+  private static final String CONFIG = """
+    hide-tab: false
+    header-footer:
+      enabled: true
+      update-interval: 20
+      header:
+        - "Welcome"
+      footer:
+        - "play.dreamin.fr"
+    """;
+
+  @TempDir
+  Path directory;
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final PacketCapture capture = simulator.getCapture();
+  private Path file;
+  private Codex codex;
+  private ConfigReloader reloader;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    Logger logger = Logger.getLogger("DreaminTabList-Config");
+    logger.setLevel(Level.OFF);
+    DreaminTabList plugin = Mockito.mock(DreaminTabList.class);
+    Mockito.when(plugin.getLogger()).thenReturn(logger);
+
+    this.file = directory.resolve("config.yml");
+    Files.writeString(file, CONFIG);
+    this.codex = new Codex(plugin, YamlConfiguration.loadConfiguration(file.toFile()));
+    this.reloader = new ConfigReloader(simulator.getApi(), codex, file);
+
+    simulator.join(PLAYERS);
+    simulator.tick();
+    capture.reset();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    reloader.shutdown();
+  }
+
+  @Test
+  public void testUntouchedFileSendsNothing() {
+    ConfigDiff diff = reloader.apply(reloader.reload().join());
+    simulator.tick();
+
+    assertTrue(diff.isEmpty());
+    assertEquals(0, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testHeaderEditOnlySendsTheHeader() throws IOException {
+    write(CONFIG.replace("\"Welcome\"", "\"Welcome back\""));
+    reloader.reload().join();
+    reloader.applyPending();
+    simulator.tick();
+
+    assertEquals(List.of("Welcome back"), codex.getConfig().getStringList("header-footer.header"));
+    assertEquals(PLAYERS, capture.getPackets("header_footer"));
+    assertEquals(PLAYERS, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testHideTabHidesTheEntries() throws IOException {
+    write(CONFIG.replace("hide-tab: false", "hide-tab: true"));
+    reloader.reload().join();
+    reloader.applyPending();
+    simulator.tick();
+
+    assertTrue(codex.isHideTab());
+    assertTrue(simulator.getApi().isTabHiddenForAll());
+    assertTrue(capture.getPackets("info_update.listed") > 0);
+    assertEquals(0, capture.getPackets("header_footer"));
+  }
+
+  @Test
+  public void testInvalidFileKeepsTheSettings() throws IOException {
+    write("hide-tab: true\nheader-footer: [\n");
+
+    assertThrows(CompletionException.class, () -> reloader.reload().join());
+    reloader.applyPending();
+    simulator.tick();
+
+    assertFalse(codex.isHideTab());
+    assertFalse(simulator.getApi().isTabHiddenForAll());
+    assertEquals(0, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testLatestParseWins() throws IOException {
+    write(CONFIG.replace("update-interval: 20", "update-interval: 40"));
+    reloader.reload().join();
+    write(CONFIG.replace("update-interval: 20", "update-interval: 60"));
+    reloader.reload().join();
+    reloader.applyPending();
+
+    assertEquals(60L, codex.getHeaderFooterUpdateInterval());
+  }
+
+  @Test
+  public void testEditedFileIsReloadedWhenWatched() throws Exception {
+    reloader.setWatching(true);
+    assertTrue(reloader.isWatching());
+
+    write(CONFIG.replace("hide-tab: false", "hide-tab: true"));
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    while (!codex.isHideTab() && System.nanoTime() < deadline) {
+      Thread.sleep(50L);
+      reloader.applyPending();
+    }
+
+    assertTrue(codex.isHideTab());
+    reloader.setWatching(false);
+    assertFalse(reloader.isWatching());
+  }
+
+  private void write(String content) throws IOException {
+    Files.writeString(file, content);
+  }
+}
@@ -0,0 +1,119 @@
+package fr.dreamin.dreaminTabList.config.animation;
+
+import com.github.retrooper.packetevents.protocol.player.User;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the frame scheduling of header/footer animations.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class HeaderFooterAnimationTest {
+
+  private static final String CONFIG = """
+    animations:
+      blink:
+        interval: 5
+        frames:
+          - header: "§6DREAMIN"
+            footer: "§eplay.dreamin.fr"
+          - header: "§eDREAMIN"
+            footer: "§6play.dreamin.fr"
+          - header:
+              - "§fDREAMIN"
+              - "§7Line two"
+      still:
+        frames:
+          - header: "§6DREAMIN"
+      fast:
+        interval: 0
+        frames:
+          - header: "A"
+          - header: "B"
+      empty:
+        interval: 5
+    """;
+
+  // Installs the PacketEvents stub the frames are encoded with
+  private final LoadSimulator simulator = new LoadSimulator(1);
+
+  @Test
+  public void testFramesAdvanceEveryInterval() throws Exception {
+    HeaderFooterAnimation animation = load("blink");
+
+    assertEquals(5, animation.getInterval());
+    assertEquals(3, animation.getFrameCount());
+    for (int tick = 1; tick < 5; tick++) assertSame(animation.getFrameAt(0), animation.getFrameAt(tick));
+    assertNotSame(animation.getFrameAt(0), animation.getFrameAt(5));
+    assertNotSame(animation.getFrameAt(5), animation.getFrameAt(10));
+
+    // The sequence loops once every frame was shown
+    assertSame(animation.getFrameAt(0), animation.getFrameAt(15));
+    assertSame(animation.getFrameAt(7), animation.getFrameAt(22));
+    animation.release();
+  }
+
+  @Test
+  public void testFramesStartOnTheInterval() throws Exception {
+    HeaderFooterAnimation animation = load("blink");
+
+    assertTrue(animation.isFrameStart(0));
+    assertTrue(animation.isFrameStart(5));
+    assertTrue(animation.isFrameStart(15));
+    assertFalse(animation.isFrameStart(4));
+    assertFalse(animation.isFrameStart(6));
+    animation.release();
+  }
+
+  @Test
+  public void testSingleFrameNeverRestarts() throws Exception {
+    HeaderFooterAnimation animation = load("still");
+
+    // The interval defaults to one second
+    assertEquals(20, animation.getInterval());
+    assertFalse(animation.isFrameStart(0));
+    assertFalse(animation.isFrameStart(20));
+    animation.release();
+  }
+
+  @Test
+  public void testIntervalIsAtLeastOneTick() throws Exception {
+    HeaderFooterAnimation animation = load("fast");
+
+    assertEquals(1, animation.getInterval());
+    assertTrue(animation.isFrameStart(1));
+    assertNotSame(animation.getFrameAt(0), animation.getFrameAt(1));
+    animation.release();
+  }
+
+  @Test
+  public void testAnimationWithoutFramesIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> load("empty"));
+  }
+
+  @Test
+  public void testReleasedFramesAreNotSent() throws Exception {
+    HeaderFooterAnimation animation = load("blink");
+    User user = Mockito.mock(User.class);
+
+    animation.release();
+    animation.release();
+
+    assertFalse(animation.getFrameAt(0).sendTo(user));
+    Mockito.verify(user, Mockito.never()).sendPacket(Mockito.any(Object.class));
+  }
+
+  private static HeaderFooterAnimation load(String name) throws Exception {
+    YamlConfiguration config = new YamlConfiguration();
+    config.loadFromString(CONFIG);
+    ConfigurationSection section = config.getConfigurationSection("animations." + name);
+    return HeaderFooterAnimation.load(name, section);
+  }
+}
@@ -0,0 +1,99 @@
+package fr.dreamin.dreaminTabList.event.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the packet recorder and recording reader.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class PacketRecorderTest {
+
+  private static final UUID VIEWER = new UUID(1L, 2L);
+
+  @TempDir
+  Path directory;
+
+  @AfterEach
+  public void stopRecording() throws IOException {
+    PacketRecorder.stop();
+  }
+
+  @Test
+  public void testRecordsAreReadBack() throws IOException {
+    Path file = directory.resolve("capture.dtlr");
+    PacketRecorder recorder = PacketRecorder.start(file, 4096, 769);
+
+    recorder.record(PacketRecorder.Kind.PLAYER_INFO_UPDATE, VIEWER, Unpooled.wrappedBuffer(new byte[]{1, 2, 3}));
+    recorder.record(PacketRecorder.Kind.HEADER_FOOTER, VIEWER, Unpooled.wrappedBuffer(new byte[]{4, 5}));
+    assertSame(recorder, PacketRecorder.stop());
+    assertNull(PacketRecorder.current());
+
+    // The file is truncated to its content
+    assertEquals(PacketRecorder.HEADER_SIZE + 2 * PacketRecorder.RECORD_HEADER_SIZE + 5, Files.size(file));
+
+    PacketRecording recording = PacketRecording.read(file);
+    assertEquals(769, recording.getProtocolVersion());
+
+    List<PacketRecording.Record> records = recording.getRecords();
+    assertEquals(2, records.size());
+    assertEquals(PacketRecorder.Kind.PLAYER_INFO_UPDATE, records.get(0).kind());
+    assertEquals(VIEWER, records.get(0).viewer());
+    assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), records.get(0).body());
+    assertEquals(PacketRecorder.Kind.HEADER_FOOTER, records.get(1).kind());
+    assertTrue(records.get(1).offsetNanos() >= records.get(0).offsetNanos());
+  }
+
+  @Test
+  public void testRecordingKeepsReaderIndex() throws IOException {
+    PacketRecorder recorder = PacketRecorder.start(directory.resolve("index.dtlr"), 4096, 769);
+
+    ByteBuf body = Unpooled.wrappedBuffer(new byte[]{9, 8, 7, 6});
+    body.readByte();
+    recorder.record(PacketRecorder.Kind.PLAYER_INFO_REMOVE, VIEWER, body);
+
+    assertEquals(1, body.readerIndex());
+    assertEquals(PacketRecorder.HEADER_SIZE + PacketRecorder.RECORD_HEADER_SIZE + 3, recorder.getSize());
+  }
+
+  @Test
+  public void testDropsPacketsWhenFull() throws IOException {
+    int capacity = PacketRecorder.HEADER_SIZE + PacketRecorder.RECORD_HEADER_SIZE + 10;
+    PacketRecorder recorder = PacketRecorder.start(directory.resolve("full.dtlr"), capacity, 769);
+
+    recorder.record(PacketRecorder.Kind.PLAYER_INFO_UPDATE, VIEWER, Unpooled.wrappedBuffer(new byte[10]));
+    recorder.record(PacketRecorder.Kind.PLAYER_INFO_UPDATE, VIEWER, Unpooled.wrappedBuffer(new byte[1]));
+
+    assertEquals(1, recorder.getRecordedCount());
+    assertEquals(1, recorder.getDroppedCount());
+  }
+
+  @Test
+  public void testOnlyOneRecordingAtATime() throws IOException {
+    PacketRecorder.start(directory.resolve("first.dtlr"), 4096, 769);
+
+    assertThrows(IllegalStateException.class, () -> PacketRecorder.start(directory.resolve("second.dtlr"), 4096, 769));
+  }
+
+  @Test
+  public void testRejectsOtherFiles() throws IOException {
+    Path file = directory.resolve("other.bin");
+    Files.write(file, new byte[64]);
+
+    assertThrows(IOException.class, () -> PacketRecording.read(file));
+  }
+}
@@ -0,0 +1,145 @@
+package fr.dreamin.dreaminTabList.impl.audit;
+
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the audit log of tab operations.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class AuditLogTest {
+
+  @TempDir
+  Path directory;
+
+  private final AuditLog auditLog = new AuditLog(silentLogger());
+
+  @AfterEach
+  public void tearDown() {
+    auditLog.close();
+  }
+
+  @Test
+  public void testRingKeepsTheLatestRecords() {
+    auditLog.setCapacity(4);
+    for (int i = 0; i < 10; i++) record(AuditType.PROFILE_UPDATE, "Bot_" + i);
+
+    List<AuditRecord> records = auditLog.snapshot();
+    assertEquals(List.of("Bot_6", "Bot_7", "Bot_8", "Bot_9"), records.stream().map(AuditRecord::name).toList());
+    assertEquals(10L, auditLog.getCount(AuditType.PROFILE_UPDATE));
+  }
+
+  @Test
+  public void testShrinkingKeepsTheLatestRecords() {
+    for (int i = 0; i < 5; i++) record(AuditType.PROFILE_ADD, "Bot_" + i);
+    auditLog.setCapacity(2);
+    record(AuditType.PROFILE_ADD, "Bot_5");
+
+    assertEquals(List.of("Bot_4", "Bot_5"), auditLog.snapshot().stream().map(AuditRecord::name).toList());
+  }
+
+  @Test
+  public void testSamplingStillCountsEveryOperation() {
+    auditLog.setSampleEvery(10);
+    for (int i = 0; i < 95; i++) record(AuditType.PROFILE_UPDATE, "Bot_" + i);
+    record(AuditType.PROFILE_ADD, "Bot");
+
+    // The first operation of each type, then one out of ten
+    assertEquals(11, auditLog.snapshot().size());
+    assertEquals(95L, auditLog.getCount(AuditType.PROFILE_UPDATE));
+    assertEquals("1 profile additions, 95 profile updates", auditLog.summarize());
+  }
+
+  @Test
+  public void testSummaryOnlyCountsTheLastInterval() {
+    record(AuditType.PLAYER_REGISTER, "Steve");
+    record(AuditType.PLAYER_REGISTER, "Alex");
+    assertEquals("2 player registrations", auditLog.summarize());
+
+    assertNull(auditLog.summarize());
+    record(AuditType.PLAYER_UNREGISTER, "Steve");
+    assertEquals("1 player unregistrations", auditLog.summarize());
+  }
+
+  @Test
+  public void testDumpWritesJsonLines() throws IOException {
+    auditLog.record(AuditType.PROFILE_ADD, UUID.randomUUID(), "Bot \"1\"", 12, System.nanoTime());
+    auditLog.record(AuditType.PROFILE_CLEAR, null, null, 3, System.nanoTime());
+
+    Path dump = directory.resolve("dumps").resolve("dump.log");
+    assertEquals(2, auditLog.dump(dump));
+
+    List<String> lines = Files.readAllLines(dump);
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(0).contains("\"type\":\"profile.add\""));
+    assertTrue(lines.get(0).contains("\"name\":\"Bot \\\"1\\\"\""));
+    assertTrue(lines.get(0).contains("\"viewers\":12"));
+    assertFalse(lines.get(1).contains("\"target\""));
+  }
+
+  @Test
+  public void testFileIsStreamedAndRotated() throws Exception {
+    auditLog.setFile(directory, 1024L, 2);
+
+    for (int i = 0; i < 40; i++) {
+      record(AuditType.PROFILE_UPDATE, "Bot_" + i);
+      auditLog.tick();
+    }
+    auditLog.awaitWrites();
+
+    Path file = directory.resolve(AuditLog.FILE_NAME);
+    assertTrue(Files.size(file) <= 1024L);
+    assertTrue(Files.exists(AuditLog.rotatedFile(file, 1)));
+    assertTrue(Files.exists(AuditLog.rotatedFile(file, 2)));
+    assertFalse(Files.exists(AuditLog.rotatedFile(file, 3)));
+
+    // The current file holds the latest records
+    List<String> lines = Files.readAllLines(file);
+    assertTrue(lines.getLast().contains("\"name\":\"Bot_39\""));
+  }
+
+  @Test
+  public void testOperationsAreRecordedWithTheirViewers() {
+    LoadSimulator simulator = new LoadSimulator(1);
+    simulator.join(5);
+    AuditLog log = simulator.getApi().getAuditLog();
+
+    UUID uuid = UUID.randomUUID();
+    simulator.getApi().getProfileManager().addGlobalProfile(new TabProfileBuilderImpl().uuid(uuid).name("Bot").build());
+    simulator.getApi().getProfileManager().removeGlobalProfile(uuid);
+
+    List<AuditRecord> records = log.snapshot();
+    AuditRecord removal = records.getLast();
+    AuditRecord addition = records.get(records.size() - 2);
+    assertEquals(AuditType.PROFILE_ADD, addition.type());
+    assertEquals(uuid, addition.target());
+    assertEquals(5, addition.viewers());
+    assertEquals(AuditType.PROFILE_REMOVE, removal.type());
+    assertEquals(5L, log.getCount(AuditType.PLAYER_REGISTER));
+  }
+
+  private void record(AuditType type, String name) {
+    auditLog.record(type, null, name, 1, System.nanoTime());
+  }
+
+  private static Logger silentLogger() {
+    Logger logger = Logger.getLogger("DreaminTabList-Audit");
+    logger.setLevel(Level.OFF);
+    return logger;
+  }
+}
@@ -0,0 +1,124 @@
+package fr.dreamin.dreaminTabList.impl.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LookupExecutor running external lookups on virtual threads.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class LookupExecutorTest {
+
+  private final LookupExecutor executor = new LookupExecutor(2, Duration.ofSeconds(5));
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testRunsOnVirtualThreads() throws Exception {
+    CompletableFuture<Boolean> virtual = executor.submit(() -> Thread.currentThread().isVirtual(), null);
+
+    assertTrue(virtual.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCapsConcurrentLookups() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(executor.submit(() -> {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+        release.await();
+        running.decrementAndGet();
+        return 1;
+      }, null));
+    }
+
+    // Let the first lookups take their permits
+    Thread.sleep(200);
+    assertEquals(2, executor.getRunningCount());
+
+    release.countDown();
+    for (CompletableFuture<Integer> future : futures) {
+      assertEquals(1, future.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(2, peak.get());
+  }
+
+  @Test
+  public void testTimesOutPastTheDeadline() {
+    CompletableFuture<String> slow = executor.submit(() -> {
+      Thread.sleep(10_000);
+      return "late";
+    }, null, Duration.ofMillis(100));
+
+    ExecutionException error = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TimeoutException.class, error.getCause());
+  }
+
+  @Test
+  public void testCancelsLookupsOfAPlayer() throws Exception {
+    UUID quitting = new UUID(0L, 1L);
+    UUID staying = new UUID(0L, 2L);
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    CompletableFuture<String> cancelled = executor.submit(() -> {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+      return "never";
+    }, quitting);
+    CompletableFuture<String> kept = executor.submit(() -> "kept", staying);
+
+    // Let the lookup start before cancelling it
+    Thread.sleep(100);
+    assertEquals(1, executor.cancel(quitting));
+
+    assertThrows(CancellationException.class, () -> cancelled.get(5, TimeUnit.SECONDS));
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertEquals("kept", kept.get(5, TimeUnit.SECONDS));
+    assertEquals(0, executor.cancel(quitting));
+  }
+
+  @Test
+  public void testPropagatesLookupErrors() {
+    CompletableFuture<String> failing = executor.submit(() -> {
+      throw new IllegalStateException("unreachable");
+    }, null);
+
+    ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, error.getCause());
+  }
+
+  @Test
+  public void testRejectsLookupsAfterShutdown() {
+    executor.shutdown();
+
+    CompletableFuture<String> rejected = executor.submit(() -> "late", null);
+    assertThrows(CancellationException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+  }
+}
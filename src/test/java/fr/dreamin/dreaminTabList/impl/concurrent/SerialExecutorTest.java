@@ -0,0 +1,106 @@
+package fr.dreamin.dreaminTabList.impl.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SerialExecutor used as per-viewer mailbox.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class SerialExecutorTest {
+
+  @Test
+  public void testRunsOnCallerWithoutContention() {
+    SerialExecutor executor = new SerialExecutor(error -> fail(error));
+    List<Thread> threads = new ArrayList<>();
+
+    executor.execute(() -> threads.add(Thread.currentThread()));
+
+    assertEquals(List.of(Thread.currentThread()), threads);
+    assertFalse(executor.isOwnedByCurrentThread());
+  }
+
+  @Test
+  public void testNestedTasksRunInline() {
+    SerialExecutor executor = new SerialExecutor(error -> fail(error));
+    List<String> order = new ArrayList<>();
+
+    executor.execute(() -> {
+      order.add("outer-start");
+      assertTrue(executor.isOwnedByCurrentThread());
+      executor.execute(() -> order.add("inner"));
+      order.add("outer-end");
+    });
+
+    assertEquals(List.of("outer-start", "inner", "outer-end"), order);
+  }
+
+  @Test
+  public void testErrorsDoNotStopLaterTasks() {
+    List<Throwable> errors = new ArrayList<>();
+    SerialExecutor executor = new SerialExecutor(errors::add);
+    AtomicInteger runs = new AtomicInteger();
+
+    executor.execute(() -> {
+      throw new IllegalStateException("boom");
+    });
+    executor.execute(runs::incrementAndGet);
+
+    assertEquals(1, errors.size());
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  public void testTasksNeverRunConcurrently() throws InterruptedException {
+    SerialExecutor executor = new SerialExecutor(error -> fail(error));
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger overlaps = new AtomicInteger();
+    int[] counter = new int[1];
+
+    int threads = 8;
+    int tasks = 10_000;
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+              if (running.incrementAndGet() != 1) overlaps.incrementAndGet();
+              // Not atomic on purpose: only safe if tasks are serialized
+              counter[0]++;
+              running.decrementAndGet();
+            });
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+
+    start.countDown();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+
+    // Every task is drained before the last submitter returns
+    executor.execute(() -> assertEquals(threads * tasks, counter[0]));
+    assertEquals(0, overlaps.get());
+  }
+
+  @Test
+  public void testRejectsNullArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new SerialExecutor(null));
+    assertThrows(IllegalArgumentException.class, () -> new SerialExecutor(error -> {}).execute(null));
+  }
+}
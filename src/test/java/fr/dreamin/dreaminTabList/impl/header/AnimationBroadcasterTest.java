@@ -0,0 +1,123 @@
+package fr.dreamin.dreaminTabList.impl.header;
+
+import fr.dreamin.dreaminTabList.config.animation.HeaderFooterAnimation;
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the broadcast of animated header/footer frames.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class AnimationBroadcasterTest {
+
+  private static final int VIEWERS = 10;
+  private static final String CONFIG = """
+    interval: 5
+    frames:
+      - header: "§6DREAMIN"
+      - header: "§eDREAMIN"
+    """;
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final PacketCapture capture = simulator.getCapture();
+  private final Map<String, HeaderFooterAnimation> animations = new HashMap<>();
+  private final AnimationBroadcaster broadcaster = new AnimationBroadcaster(simulator.getApi(), animations::get);
+  private final List<PlayerTabManagerImpl> managers = new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    YamlConfiguration config = new YamlConfiguration();
+    config.loadFromString(CONFIG);
+    animations.put("blink", HeaderFooterAnimation.load("blink", config));
+
+    for (Player player : simulator.join(VIEWERS)) {
+      managers.add(simulator.getApi().findPlayerManager(player.getUniqueId()));
+    }
+    capture.reset();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    animations.values().forEach(HeaderFooterAnimation::release);
+  }
+
+  @Test
+  public void testPlaySendsTheCurrentFrame() {
+    managers.forEach(manager -> assertTrue(broadcaster.play("blink", manager)));
+
+    assertEquals(VIEWERS, capture.getPackets("encoded"));
+    assertEquals(VIEWERS, broadcaster.getViewerCount("blink"));
+  }
+
+  @Test
+  public void testUnknownAnimationIsNotPlayed() {
+    assertFalse(broadcaster.play("missing", managers.getFirst()));
+
+    assertEquals(0, capture.getTotal().getPackets());
+    assertEquals(0, broadcaster.getViewerCount("missing"));
+  }
+
+  @Test
+  public void testEachFrameIsWrittenOncePerViewer() {
+    managers.forEach(manager -> broadcaster.play("blink", manager));
+    capture.reset();
+
+    // Frames start at ticks 5, 10, 15 and 20, nothing is written in between
+    for (int tick = 1; tick <= 20; tick++) broadcaster.run();
+
+    assertEquals(4L * VIEWERS, capture.getPackets("encoded"));
+    assertEquals(4L * VIEWERS, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testStoppedViewersReceiveNothing() {
+    managers.forEach(manager -> broadcaster.play("blink", manager));
+    managers.subList(0, VIEWERS / 2).forEach(broadcaster::stop);
+    capture.reset();
+
+    for (int tick = 1; tick <= 5; tick++) broadcaster.run();
+
+    assertEquals(VIEWERS / 2, capture.getPackets("encoded"));
+    assertEquals(VIEWERS / 2, broadcaster.getViewerCount("blink"));
+  }
+
+  @Test
+  public void testReleasedFramesAreSkipped() {
+    managers.forEach(manager -> broadcaster.play("blink", manager));
+    animations.get("blink").release();
+    capture.reset();
+
+    for (int tick = 1; tick <= 5; tick++) broadcaster.run();
+
+    assertEquals(0, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testRetiredAnimationsAreReleasedByTheNextTick() {
+    HeaderFooterAnimation blink = animations.get("blink");
+    broadcaster.retire(List.of(blink));
+
+    // A tick may still be sending its frames
+    managers.forEach(manager -> broadcaster.play("blink", manager));
+    assertEquals(VIEWERS, capture.getPackets("encoded"));
+
+    broadcaster.run();
+
+    assertFalse(blink.getFrameAt(0L).sendTo(managers.getFirst().getConnection().getUser()));
+  }
+}
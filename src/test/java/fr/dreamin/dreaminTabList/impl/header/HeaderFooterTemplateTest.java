@@ -0,0 +1,114 @@
+package fr.dreamin.dreaminTabList.impl.header;
+
+import fr.dreamin.dreaminTabList.impl.player.PlayerTabManagerImpl;
+import fr.dreamin.dreaminTabList.impl.scheduler.FakeTabScheduler;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compilation and rendering of header/footer templates.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class HeaderFooterTemplateTest {
+
+  private final PlaceholderRegistry placeholders = new PlaceholderRegistry(silentLogger());
+  private final Player viewer = Mockito.mock(Player.class);
+
+  @Test
+  public void testStaticSourceIsReturnedAsIs() {
+    String source = "§6Welcome\n§7play.dreamin.fr";
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile(source);
+
+    assertTrue(template.isStatic());
+    assertSame(source, template.render(viewer, placeholders));
+    assertEquals(source, template.getSource());
+  }
+
+  @Test
+  public void testLinesAreJoined() {
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile(List.of("first", "second"));
+
+    assertEquals("first\nsecond", template.render(viewer, placeholders));
+  }
+
+  @Test
+  public void testPlaceholdersAreResolved() {
+    placeholders.register("kills", player -> "12");
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile("Kills: %kills% !");
+
+    assertFalse(template.isStatic());
+    assertEquals("Kills: 12 !", template.render(viewer, placeholders));
+  }
+
+  @Test
+  public void testUnknownKeysAreKeptLiterally() {
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile("%unknown% and %kills%");
+
+    assertEquals("%unknown% and %kills%", template.render(viewer, placeholders));
+
+    // Nothing can be resolved without a viewer
+    placeholders.register("kills", player -> "12");
+    assertEquals("%unknown% and %kills%", template.render(null, placeholders));
+  }
+
+  @Test
+  public void testRepeatedKeysAreEachResolved() {
+    AtomicInteger calls = new AtomicInteger();
+    placeholders.register("count", player -> String.valueOf(calls.incrementAndGet()));
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile("%count%-%COUNT%-%count%");
+
+    assertEquals("1-2-3", template.render(viewer, placeholders));
+  }
+
+  @Test
+  public void testStrayPercentSignsAreLiteral() {
+    placeholders.register("ping", player -> "42");
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile("100% %not a key% %% %ping%%");
+
+    assertEquals("100% %not a key% %% 42%", template.render(viewer, placeholders));
+  }
+
+  @Test
+  public void testCollidingRendersAreBothSent() {
+    FakeTabScheduler scheduler = new FakeTabScheduler();
+    LoadSimulator simulator = new LoadSimulator(1, scheduler);
+    PlayerTabManagerImpl manager = simulator.getApi().findPlayerManager(simulator.join(1).getFirst().getUniqueId());
+    PacketCapture capture = simulator.getCapture();
+
+    // "Aa" and "BB" share their hash code
+    AtomicReference<String> value = new AtomicReference<>("Aa");
+    simulator.getApi().getPlaceholders().register("probe", player -> value.get());
+    manager.setHeaderAndFooterTemplates(HeaderFooterTemplate.compile("%probe%"), null);
+    scheduler.tick();
+    capture.reset();
+
+    value.set("BB");
+    manager.renderTemplates(false);
+    scheduler.tick();
+    assertEquals(1, capture.getPackets("header_footer"));
+
+    // An unchanged render is not sent again
+    manager.renderTemplates(false);
+    scheduler.tick();
+    assertEquals(1, capture.getPackets("header_footer"));
+  }
+
+  private static Logger silentLogger() {
+    Logger logger = Logger.getLogger("DreaminTabList-Placeholders");
+    logger.setLevel(Level.OFF);
+    return logger;
+  }
+}
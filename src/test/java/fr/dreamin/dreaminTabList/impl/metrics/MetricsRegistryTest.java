@@ -0,0 +1,59 @@
+package fr.dreamin.dreaminTabList.impl.metrics;
+
+import fr.dreamin.dreaminTabList.api.metrics.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MetricsRegistry counters and histograms.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class MetricsRegistryTest {
+
+  @Test
+  public void testCounters() {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    registry.increment("packets.sent.add");
+    registry.add("packets.sent.add", 4);
+
+    assertEquals(5, registry.getCounter("packets.sent.add"));
+    assertEquals(0, registry.getCounter("unknown"));
+    assertEquals(5L, registry.getCounters().get("packets.sent.add"));
+  }
+
+  @Test
+  public void testHistogramSnapshot() {
+    MetricsRegistry registry = new MetricsRegistry();
+    for (int i = 1; i <= 100; i++) {
+      registry.record("join.time.us", i);
+    }
+
+    HistogramSnapshot snapshot = registry.getHistogram("join.time.us");
+    assertNotNull(snapshot);
+    assertEquals(100, snapshot.getCount());
+    assertEquals(1, snapshot.getMin());
+    assertEquals(100, snapshot.getMax());
+    assertEquals(50.5, snapshot.getMean(), 0.001);
+
+    // Percentiles are reported as the upper bound of their power-of-two bucket
+    assertEquals(63, snapshot.percentile(0.5));
+    assertEquals(100, snapshot.percentile(1.0));
+  }
+
+  @Test
+  public void testResetKeepsHandles() {
+    MetricsRegistry registry = new MetricsRegistry();
+    Histogram histogram = registry.histogram("fanout");
+    histogram.record(10);
+
+    registry.reset();
+    assertNull(registry.getHistogram("fanout"));
+
+    histogram.record(3);
+    assertEquals(1, registry.getHistogram("fanout").getCount());
+  }
+}
@@ -0,0 +1,68 @@
+package fr.dreamin.dreaminTabList.impl.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TokenBucket used to limit cosmetic updates.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class TokenBucketTest {
+
+  private static final long ONE_SECOND = 1_000_000_000L;
+
+  @Test
+  public void testStartsFull() {
+    AtomicLong clock = new AtomicLong();
+    TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+
+    assertEquals(5, bucket.available());
+    assertEquals(5, bucket.consumeUpTo(100));
+    assertFalse(bucket.tryConsume());
+  }
+
+  @Test
+  public void testRefillsOverTime() {
+    AtomicLong clock = new AtomicLong();
+    TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+    bucket.consumeUpTo(5);
+
+    // 10 tokens per second, so one token every 100 ms
+    clock.addAndGet(ONE_SECOND / 10);
+    assertTrue(bucket.tryConsume());
+    assertFalse(bucket.tryConsume());
+
+    clock.addAndGet(ONE_SECOND / 20);
+    assertFalse(bucket.tryConsume());
+
+    clock.addAndGet(ONE_SECOND / 20);
+    assertTrue(bucket.tryConsume());
+  }
+
+  @Test
+  public void testCapacityIsCapped() {
+    AtomicLong clock = new AtomicLong();
+    TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+
+    clock.addAndGet(ONE_SECOND * 60);
+    assertEquals(5, bucket.consumeUpTo(100));
+  }
+
+  @Test
+  public void testInvalidParameters() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0));
+  }
+
+  @Test
+  public void testUnlimitedRate() {
+    assertFalse(UpdateRate.UNLIMITED.isLimited());
+    assertNull(UpdateRate.UNLIMITED.newBucket());
+    assertNotNull(new UpdateRate(20, 40).newBucket());
+  }
+}
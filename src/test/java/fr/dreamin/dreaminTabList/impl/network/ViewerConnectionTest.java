@@ -0,0 +1,255 @@
+package fr.dreamin.dreaminTabList.impl.network;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoRemove;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerListHeaderAndFooter;
+import fr.dreamin.dreaminTabList.impl.packet.EncodedPacket;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the backpressure handling of a viewer connection, against
+ * an embedded Netty channel.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ViewerConnectionTest {
+
+  private static final int LOW_WATER_MARK = 512;
+  private static final int HIGH_WATER_MARK = 1024;
+  private static final int PACKET_BYTES = 16;
+
+  // Installs the PacketEvents stub the tab packets are built with
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final EmbeddedChannel channel = new EmbeddedChannel();
+  private final List<Object> sent = new ArrayList<>();
+  private final User user = Mockito.mock(User.class, Mockito.withSettings().stubOnly().defaultAnswer(invocation -> {
+    if (!invocation.getMethod().getName().equals("sendPacket")) return Mockito.RETURNS_DEFAULTS.answer(invocation);
+
+    // Every packet takes some room in the channel until it is flushed
+    sent.add(invocation.getArgument(0));
+    channel.write(Unpooled.buffer(PACKET_BYTES).writeZero(PACKET_BYTES));
+    return null;
+  }));
+
+  public ViewerConnectionTest() {
+    channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(LOW_WATER_MARK, HIGH_WATER_MARK));
+    Mockito.when(user.getChannel()).thenReturn(channel);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    sent.forEach(ReferenceCountUtil::release);
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void testWritableChannelSendsRightAway() {
+    ViewerConnection connection = connect(0L);
+
+    connection.sendUpdate(profile("Bot"));
+
+    assertTrue(connection.isWritable());
+    assertEquals(1, sent.size());
+    assertEquals(0, connection.getPendingCount());
+  }
+
+  @Test
+  public void testCosmeticUpdatesAreHeldWhileNotWritable() {
+    ViewerConnection connection = connect(0L);
+    fill(HIGH_WATER_MARK + 1);
+    assertFalse(connection.isWritable());
+
+    TabProfileImpl profile = profile("Bot");
+    connection.sendUpdate(profile);
+    connection.sendUpdate(profile);
+    connection.flush();
+
+    // Held and coalesced until the channel drains
+    assertTrue(sent.isEmpty());
+    assertEquals(1, connection.getPendingCount());
+
+    channel.flushOutbound();
+    assertTrue(connection.isWritable());
+    connection.flush();
+
+    assertEquals(1, sent.size());
+    assertInstanceOf(WrapperPlayServerPlayerInfoUpdate.class, sent.getFirst());
+    assertEquals(0, connection.getPendingCount());
+  }
+
+  @Test
+  public void testStructuralPacketsIgnoreWritabilityBelowTheCap() {
+    ViewerConnection connection = connect(0L);
+    fill(HIGH_WATER_MARK * 4);
+
+    connection.sendAdd(profile("Bot"));
+
+    assertEquals(1, sent.size());
+    assertFalse(connection.isOverflowed());
+  }
+
+  @Test
+  public void testOverflowDropsPacketsThenResyncs() {
+    ViewerConnection connection = connect(HIGH_WATER_MARK * 2L);
+    AtomicInteger resyncs = new AtomicInteger();
+    connection.setResyncAction(resyncs::incrementAndGet);
+    connection.sendUpdate(profile("Pending")); // Sent, the channel is still writable
+    sent.clear();
+
+    fill(HIGH_WATER_MARK * 3);
+    assertTrue(connection.getBufferedBytes() > HIGH_WATER_MARK * 2L);
+
+    UUID removed = UUID.randomUUID();
+    connection.sendAdd(profile("Dropped"));
+    connection.sendRemove(List.of(removed));
+    connection.sendUpdate(profile("Dropped too"));
+
+    assertTrue(connection.isOverflowed());
+    assertEquals(1L, connection.getOverflowCount());
+    assertEquals(3L, connection.getDroppedPackets());
+    assertTrue(sent.isEmpty());
+
+    // Nothing is resent before the channel drained
+    connection.flush();
+    assertEquals(0, resyncs.get());
+
+    channel.flushOutbound();
+    connection.flush();
+
+    // The dropped removals come first, then the whole tab list is resent
+    assertFalse(connection.isOverflowed());
+    assertEquals(1, resyncs.get());
+    assertEquals(1, sent.size());
+    WrapperPlayServerPlayerInfoRemove removal = assertInstanceOf(WrapperPlayServerPlayerInfoRemove.class, sent.getFirst());
+    assertEquals(List.of(removed), removal.getProfileIds());
+  }
+
+  @Test
+  public void testReplacementDroppedOnOverflowIsRemovedOnResync() {
+    ViewerConnection connection = connect(HIGH_WATER_MARK * 2L);
+    fill(HIGH_WATER_MARK * 3);
+
+    TabProfileImpl profile = profile("Renamed");
+    connection.sendReplace(profile);
+    assertTrue(connection.isOverflowed());
+
+    channel.flushOutbound();
+    connection.flush();
+
+    // The resynchronization adds the entry again, the client must drop the old name first
+    assertEquals(1, sent.size());
+    WrapperPlayServerPlayerInfoRemove removal = assertInstanceOf(WrapperPlayServerPlayerInfoRemove.class, sent.getFirst());
+    assertEquals(List.of(profile.getUniqueId()), removal.getProfileIds());
+  }
+
+  @Test
+  public void testUnlistingDroppedOnOverflowIsSentOnResync() {
+    ViewerConnection connection = connect(HIGH_WATER_MARK * 2L);
+    fill(HIGH_WATER_MARK * 3);
+
+    connection.sendListed(List.of(profile("Unlisted")), false);
+    assertTrue(connection.isOverflowed());
+
+    channel.flushOutbound();
+    connection.flush();
+
+    // The resynchronization only resends visible profiles, the client must still unlist this one
+    assertEquals(1, sent.size());
+    WrapperPlayServerPlayerInfoUpdate unlisting = assertInstanceOf(WrapperPlayServerPlayerInfoUpdate.class, sent.getFirst());
+    assertFalse(unlisting.getEntries().getFirst().isListed());
+  }
+
+  @Test
+  public void testOverflowDropsPendingCosmeticUpdates() {
+    ViewerConnection connection = connect(HIGH_WATER_MARK * 2L);
+    fill(HIGH_WATER_MARK + 1);
+    connection.sendUpdate(profile("Held"));
+    assertEquals(1, connection.getPendingCount());
+
+    fill(HIGH_WATER_MARK * 2);
+    connection.sendAdd(profile("Overflow"));
+
+    assertTrue(connection.isOverflowed());
+    assertEquals(0, connection.getPendingCount());
+  }
+
+  @Test
+  public void testFramesAreHeldWhileNotWritable() {
+    ViewerConnection connection = connect(0L);
+    EncodedPacket first = frame("first");
+    EncodedPacket latest = frame("latest");
+    fill(HIGH_WATER_MARK + 1);
+
+    connection.sendFrame(first);
+    connection.sendFrame(latest);
+    assertTrue(sent.isEmpty());
+
+    channel.flushOutbound();
+    connection.flush();
+    connection.flush();
+
+    // Only the latest frame is worth sending once the channel drained
+    assertEquals(1, sent.size());
+    assertEquals(latest.getSize(), ByteBufHelper.readableBytes(sent.getFirst()));
+
+    first.release();
+    latest.release();
+  }
+
+  @Test
+  public void testHeaderReplacesHeldFrame() {
+    ViewerConnection connection = connect(0L);
+    EncodedPacket frame = frame("frame");
+    fill(HIGH_WATER_MARK + 1);
+
+    connection.sendFrame(frame);
+    connection.sendHeaderAndFooter(Component.text("header"), Component.empty());
+    channel.flushOutbound();
+    connection.flush();
+
+    assertEquals(1, sent.size());
+    assertInstanceOf(WrapperPlayServerPlayerListHeaderAndFooter.class, sent.getFirst());
+
+    frame.release();
+  }
+
+  private ViewerConnection connect(long maxBufferedBytes) {
+    return new ViewerConnection(user, UpdateRate.UNLIMITED, maxBufferedBytes, error -> fail(error));
+  }
+
+  private void fill(int bytes) {
+    channel.write(Unpooled.buffer(bytes).writeZero(bytes));
+  }
+
+  private static EncodedPacket frame(String header) {
+    return EncodedPacket.encode(new WrapperPlayServerPlayerListHeaderAndFooter(Component.text(header), Component.empty()));
+  }
+
+  private static TabProfileImpl profile(String name) {
+    return (TabProfileImpl) new TabProfileBuilderImpl()
+      .uuid(UUID.randomUUID())
+      .name(name.replace(' ', '_'))
+      .displayName(Component.text(name))
+      .build();
+  }
+}
@@ -0,0 +1,204 @@
+package fr.dreamin.dreaminTabList.impl.player;
+
+import fr.dreamin.dreaminTabList.api.player.PlayerTabManager;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the changes recorded while a tab list is hidden.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class HiddenJournalTest {
+
+  private static final int FAKES = 10;
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final PacketCapture capture = simulator.getCapture();
+  private final TabProfileManager profiles = simulator.getApi().getProfileManager();
+  private final List<UUID> fakes = new ArrayList<>();
+  private PlayerTabManager manager;
+
+  @BeforeEach
+  public void setUp() {
+    this.manager = simulator.getApi().getPlayerManager(simulator.join(1).getFirst());
+    for (int i = 0; i < FAKES; i++) fakes.add(addFake("Fake_" + i));
+    simulator.tick();
+  }
+
+  @Test
+  public void testNothingChangedOnlyListsTheEntries() {
+    manager.hideTab();
+    capture.reset();
+    manager.showTab();
+
+    assertEquals(1, capture.getTotal().getPackets());
+    assertEquals(1, capture.getPackets("info_update.listed"));
+    assertEquals(manager.getVisibleProfileCount(), capture.getTotal().getEntries());
+  }
+
+  @Test
+  public void testHiddenTabReceivesNothing() {
+    manager.hideTab();
+    capture.reset();
+
+    rename(fakes.get(0), "Renamed");
+    profiles.removeGlobalProfile(fakes.get(1));
+    addFake("Fake_new");
+
+    assertEquals(0, capture.getTotal().getPackets());
+    assertTrue(manager.isTabHidden());
+  }
+
+  @Test
+  public void testShowSendsOnlyTheChanges() {
+    manager.hideTab();
+
+    rename(fakes.get(0), "Renamed");
+    rename(fakes.get(0), "Renamed again");
+    profiles.removeGlobalProfile(fakes.get(1));
+    UUID added = addFake("Fake_new");
+    rename(added, "New");
+    capture.reset();
+
+    manager.showTab();
+
+    assertEquals(1, capture.getPackets("info_remove"));
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(1, capture.getPackets("info_update.update"));
+    assertEquals(1, capture.getPackets("info_update.listed"));
+    assertEquals(4, capture.getTotal().getPackets());
+
+    // Besides the removal, each visible profile is sent once
+    assertEquals(manager.getVisibleProfileCount() + 1, capture.getTotal().getEntries());
+    assertEquals(Component.text("Renamed again"), manager.findProfile(fakes.get(0)).getDisplayName());
+  }
+
+  @Test
+  public void testAddedThenRemovedLeavesNoTrace() {
+    manager.hideTab();
+
+    UUID uuid = addFake("Transient");
+    rename(uuid, "Gone soon");
+    profiles.removeGlobalProfile(uuid);
+    capture.reset();
+
+    manager.showTab();
+
+    assertEquals(0, capture.getPackets("info_remove"));
+    assertEquals(0, capture.getPackets("info_update.add"));
+    assertEquals(1, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testAdditionsAreBatched() {
+    manager.hideTab();
+
+    for (int i = 0; i < FAKES; i++) {
+      UUID uuid = addFake("Batch_" + i);
+      rename(uuid, "Batch " + i);
+    }
+    capture.reset();
+
+    manager.showTab();
+
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(0, capture.getPackets("info_update.update"));
+  }
+
+  @Test
+  public void testPlayerSpecificProfilesAreJournaled() {
+    manager.hideTab();
+
+    TabProfile own = new TabProfileBuilderImpl().uuid(UUID.randomUUID()).name("Own").build();
+    manager.addProfile(own);
+    manager.updateProfile(own.toBuilder().displayName(Component.text("Mine")).build());
+    capture.reset();
+
+    manager.showTab();
+
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(0, capture.getPackets("info_update.update"));
+  }
+
+  @Test
+  public void testRenameIsReplayedAsAReplacement() {
+    PlayerTabManager other = simulator.getApi().getPlayerManager(simulator.join(1).getFirst());
+    manager.hideTab();
+
+    // The visible viewer gets the new name first
+    TabProfile profile = profiles.findProfile(fakes.get(0));
+    profiles.updateGlobalProfile(profile.toBuilder().name("Renamed_0").build());
+    assertEquals("Renamed_0", other.findProfile(fakes.get(0)).getName());
+    capture.reset();
+
+    manager.showTab();
+
+    // An update cannot change the name, the entry is added again
+    assertEquals(1, capture.getPackets("info_remove"));
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(0, capture.getPackets("info_update.update"));
+    assertEquals("Renamed_0", manager.findProfile(fakes.get(0)).getName());
+  }
+
+  @Test
+  public void testPlayerSpecificRenameIsAReplacement() {
+    TabProfile own = new TabProfileBuilderImpl().uuid(UUID.randomUUID()).name("Own").build();
+    manager.addProfile(own);
+    capture.reset();
+
+    // Shown: sent right away
+    manager.updateProfile(own.toBuilder().name("Own_renamed").build());
+    assertEquals(1, capture.getPackets("info_remove"));
+    assertEquals(1, capture.getPackets("info_update.add"));
+
+    // Hidden: replayed on show
+    manager.hideTab();
+    manager.updateProfile(own.toBuilder().name("Own_again").build());
+    capture.reset();
+    manager.showTab();
+
+    assertEquals(1, capture.getPackets("info_remove"));
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(0, capture.getPackets("info_update.update"));
+  }
+
+  @Test
+  public void testHiddenResyncRemovesJournaledEntries() {
+    manager.hideTab();
+    profiles.removeGlobalProfile(fakes.get(0));
+    TabProfile profile = profiles.findProfile(fakes.get(1));
+    profiles.updateGlobalProfile(profile.toBuilder().name("Renamed_1").build());
+    capture.reset();
+
+    // Adding the visible profiles again would leave both on the client as they were
+    manager.getConnection().execute(() -> manager.getHiddenJournal().sendRemovals(manager.getConnection()));
+
+    assertEquals(1, capture.getPackets("info_remove"));
+    assertEquals(2, capture.getTotal().getEntries());
+  }
+
+  private UUID addFake(String name) {
+    UUID uuid = UUID.randomUUID();
+    profiles.addGlobalProfile(new TabProfileBuilderImpl().uuid(uuid).name(name).build());
+    return uuid;
+  }
+
+  private void rename(UUID uuid, String displayName) {
+    TabProfile profile = profiles.findProfile(uuid);
+    profiles.updateGlobalProfile(profile.toBuilder().displayName(Component.text(displayName)).build());
+  }
+}
@@ -0,0 +1,116 @@
+package fr.dreamin.dreaminTabList.impl.player;
+
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the admission of joining players into the tab list.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class JoinAdmissionQueueTest {
+
+  private static final int ONLINE = 10;
+  private static final int WAVE = 50;
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final TabListAPIImpl api = simulator.getApi();
+  private final PacketCapture capture = simulator.getCapture();
+
+  @Test
+  public void testRegistrationSendsNothing() {
+    simulator.join(ONLINE);
+    capture.reset();
+
+    simulator.joinWave(WAVE);
+
+    assertEquals(0, capture.getTotal().getPackets());
+    assertEquals(WAVE, api.getAdmissionQueue().getPendingCount());
+    assertEquals(ONLINE + WAVE, api.getManagedPlayerCount());
+  }
+
+  @Test
+  public void testWaveIsMergedPerViewer() {
+    api.getAdmissionQueue().setBudget(0, Duration.ZERO);
+    simulator.join(ONLINE);
+    simulator.joinWave(WAVE);
+    capture.reset();
+
+    simulator.tick();
+
+    // One merged packet per online player, the tab list of each newcomer, and the later newcomers for all but the last
+    assertEquals(ONLINE + WAVE + (WAVE - 1), capture.getPackets("info_update.add"));
+    assertEquals(0, api.getAdmissionQueue().getPendingCount());
+  }
+
+  @Test
+  public void testEveryoneSeesEveryone() {
+    api.getAdmissionQueue().setBudget(0, Duration.ZERO);
+    simulator.join(ONLINE);
+    simulator.joinWave(WAVE);
+    capture.reset();
+
+    simulator.tick();
+
+    // Each of the players online after the tick must have received every profile once
+    int total = ONLINE + WAVE;
+    long expected = (long) ONLINE * WAVE + (long) WAVE * total;
+    assertEquals(expected, capture.getTotal().getEntries());
+  }
+
+  @Test
+  public void testBudgetSpreadsTheWave() {
+    int maxPackets = 30;
+    api.getAdmissionQueue().setBudget(maxPackets, Duration.ZERO);
+    simulator.join(ONLINE);
+    simulator.joinWave(WAVE);
+    capture.reset();
+
+    simulator.tick();
+
+    assertTrue(capture.getPackets("info_update.add") <= maxPackets);
+    assertEquals(WAVE - 10, api.getAdmissionQueue().getPendingCount());
+
+    // At least one player is admitted per tick, whatever the budget
+    for (int tick = 0; tick < WAVE && api.getAdmissionQueue().getPendingCount() > 0; tick++) {
+      simulator.tick();
+    }
+    assertEquals(0, api.getAdmissionQueue().getPendingCount());
+  }
+
+  @Test
+  public void testPendingPlayersAreNotBroadcast() {
+    simulator.join(ONLINE);
+    simulator.joinWave(1);
+    capture.reset();
+
+    api.getProfileManager().updateGlobalProfile(simulator.profile(ONLINE, 1));
+    assertEquals(0, capture.getTotal().getPackets());
+
+    // Online players updating their profile do not reach the pending player
+    api.getProfileManager().updateGlobalProfile(simulator.profile(0, 1));
+    assertEquals(ONLINE, capture.getPackets("info_update.update"));
+  }
+
+  @Test
+  public void testPlayersLeavingBeforeAdmissionAreSkipped() {
+    List<Player> wave = simulator.joinWave(2);
+    api.unregisterPlayer(wave.get(0));
+    capture.reset();
+
+    simulator.tick();
+
+    // Only the remaining newcomer receives its tab list
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(0, api.getAdmissionQueue().getPendingCount());
+  }
+}
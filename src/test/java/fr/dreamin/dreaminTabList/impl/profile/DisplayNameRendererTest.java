@@ -0,0 +1,179 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.impl.scheduler.FakeTabScheduler;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the rendering of display name templates.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class DisplayNameRendererTest {
+
+  private static final int PLAYERS = 10;
+
+  private final FakeTabScheduler scheduler = new FakeTabScheduler();
+  private final LoadSimulator simulator = new LoadSimulator(2, scheduler);
+  private final PacketCapture capture = simulator.getCapture();
+  private final DisplayNameRenderer renderer = simulator.getApi().getDisplayNames();
+  private final TabProfileManager profiles = simulator.getApi().getProfileManager();
+  private final Map<UUID, Integer> kills = new ConcurrentHashMap<>();
+  private int resolved;
+
+  @BeforeEach
+  public void setUp() {
+    simulator.join(PLAYERS);
+    simulator.getApi().getPlaceholders().register("kills", player -> {
+      resolved++;
+      return String.valueOf(kills.getOrDefault(player.getUniqueId(), 0));
+    });
+    renderer.setInterval(1);
+    renderer.setDefaultTemplate("<red>%kills%</red> %name%");
+    tick();
+    tick();
+  }
+
+  @Test
+  public void testDefaultTemplateRendersEveryPlayer() {
+    for (int i = 0; i < PLAYERS; i++) {
+      assertEquals("0 Player_" + i, nameOf(LoadSimulator.uuidOf(i)));
+    }
+  }
+
+  @Test
+  public void testUnchangedNamesAreNotSent() {
+    capture.reset();
+    resolved = 0;
+    tick();
+    tick();
+
+    assertEquals(0, capture.getTotal().getPackets());
+    assertEquals(PLAYERS * 2, resolved);
+  }
+
+  @Test
+  public void testOnlyTheChangedNameIsSent() {
+    capture.reset();
+    kills.put(LoadSimulator.uuidOf(3), 5);
+    tick();
+
+    assertEquals("5 Player_3", nameOf(LoadSimulator.uuidOf(3)));
+    assertEquals("0 Player_4", nameOf(LoadSimulator.uuidOf(4)));
+    assertEquals(PLAYERS, capture.getTotal().getPackets());
+    assertEquals(PLAYERS, capture.getTotal().getEntries());
+  }
+
+  @Test
+  public void testRenderedNamesAreReused() {
+    TabProfile before = profiles.findProfile(LoadSimulator.uuidOf(3));
+    kills.put(LoadSimulator.uuidOf(3), 5);
+    tick();
+    kills.remove(LoadSimulator.uuidOf(3));
+    tick();
+
+    assertSame(before.getDisplayName(), profiles.findProfile(LoadSimulator.uuidOf(3)).getDisplayName());
+  }
+
+  @Test
+  public void testExplicitTemplateOnAFakeProfile() {
+    UUID uuid = UUID.randomUUID();
+    profiles.setDisplayNameTemplate(uuid, "%group%/%name% %kills% %ping%ms");
+    profiles.addGlobalProfile(new TabProfileBuilderImpl().uuid(uuid).name("Bot").group("bots").latency(42).build());
+
+    // Rendered on the next tick, whatever the interval
+    renderer.setInterval(100);
+    tick();
+    assertEquals("bots/Bot %kills% 42ms", nameOf(uuid));
+
+    profiles.updateGlobalProfile(profiles.findProfile(uuid).toBuilder().latency(7).displayName(Component.text("Overwritten")).build());
+    renderer.setInterval(1);
+    tick();
+    assertEquals("bots/Bot %kills% 7ms", nameOf(uuid));
+  }
+
+  @Test
+  public void testExplicitTemplateReplacesTheDefault() {
+    UUID uuid = LoadSimulator.uuidOf(1);
+    profiles.setDisplayNameTemplate(uuid, "<gold>%name%");
+    tick();
+
+    assertEquals("Player_1", nameOf(uuid));
+    assertEquals("<gold>%name%", profiles.getDisplayNameTemplate(uuid));
+    assertNull(profiles.getDisplayNameTemplate(LoadSimulator.uuidOf(2)));
+  }
+
+  @Test
+  public void testRemovedProfileForgetsItsTemplate() {
+    UUID uuid = UUID.randomUUID();
+    profiles.setDisplayNameTemplate(uuid, "%name%");
+    profiles.addGlobalProfile(new TabProfileBuilderImpl().uuid(uuid).name("Bot").build());
+    profiles.removeGlobalProfile(uuid);
+
+    assertNull(profiles.getDisplayNameTemplate(uuid));
+  }
+
+  @Test
+  public void testPlaceholdersAreResolvedOnTheOwningPlayer() {
+    Player player = simulator.getApi().findPlayerManager(LoadSimulator.uuidOf(2)).getPlayer();
+    List<Player> owners = new ArrayList<>();
+    simulator.getApi().getPlaceholders().register("owner", viewer -> {
+      owners.add(scheduler.getOwner());
+      return viewer.getName();
+    });
+    profiles.setDisplayNameTemplate(player.getUniqueId(), "%owner%!");
+
+    // Requested by the tick, resolved on the player's thread, rendered by the next tick
+    tick();
+    assertEquals("0 Player_2", nameOf(player.getUniqueId()));
+    tick();
+    assertEquals("Player_2!", nameOf(player.getUniqueId()));
+    assertFalse(owners.isEmpty());
+    owners.forEach(owner -> assertSame(player, owner));
+  }
+
+  @Test
+  public void testPlayerPingIsReadLive() {
+    Player player = simulator.getApi().findPlayerManager(LoadSimulator.uuidOf(4)).getPlayer();
+    Mockito.when(player.getPing()).thenReturn(30);
+    profiles.setDisplayNameTemplate(player.getUniqueId(), "%name% %ping%ms");
+    tick();
+    tick();
+    assertEquals("Player_4 30ms", nameOf(player.getUniqueId()));
+
+    // The latency of the profile is the one at join
+    Mockito.when(player.getPing()).thenReturn(80);
+    tick();
+    tick();
+    assertEquals("Player_4 80ms", nameOf(player.getUniqueId()));
+  }
+
+  /**
+   * Runs the player tasks requested by the last tick, then the next tick.
+   */
+  private void tick() {
+    scheduler.tick();
+    simulator.tick();
+  }
+
+  private String nameOf(UUID uuid) {
+    return PlainTextComponentSerializer.plainText().serialize(profiles.findProfile(uuid).getDisplayName());
+  }
+}
@@ -0,0 +1,94 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compilation and rendering of display name templates.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class DisplayNameTemplateTest {
+
+  @Test
+  public void testKeysAreCollectedOnce() {
+    DisplayNameTemplate template = DisplayNameTemplate.compile("%Rank% %name% (%rank%)");
+
+    assertEquals(List.of("rank", "name"), template.getKeys());
+    assertFalse(template.isStatic());
+    assertEquals("[Admin] Steve ([Admin])", plain(template.render("[Admin]", "Steve")));
+  }
+
+  @Test
+  public void testMiniMessageTemplate() {
+    Component name = DisplayNameTemplate.compile("<red>%kills%</red> %name%").render("12", "Steve");
+
+    assertEquals("12 Steve", plain(name));
+    assertEquals(NamedTextColor.RED, colorOf(name, "12", null));
+    assertNull(colorOf(name, "Steve", null));
+  }
+
+  @Test
+  public void testValuesAreNotParsedAsMiniMessage() {
+    DisplayNameTemplate template = DisplayNameTemplate.compile("<gray>%name%");
+
+    assertEquals("<red>Steve</red>", plain(template.render("<red>Steve</red>")));
+    assertEquals("Admin", plain(template.render("§cAdmin")));
+  }
+
+  @Test
+  public void testLegacyTemplate() {
+    DisplayNameTemplate template = DisplayNameTemplate.compile("§a100% %name% %unknown");
+
+    assertEquals(List.of("name"), template.getKeys());
+    assertEquals("100% Steve %unknown", plain(template.render("Steve")));
+    assertEquals(NamedTextColor.GREEN, colorOf(template.render("Steve"), "100% Steve %unknown", null));
+  }
+
+  @Test
+  public void testRenderedTuplesAreCached() {
+    DisplayNameTemplate template = DisplayNameTemplate.compile("%rank% %name%");
+
+    Component first = template.render("[Admin]", "Steve");
+    assertSame(first, template.render("[Admin]", "Steve"));
+    assertNotSame(first, template.render("[Mod]", "Steve"));
+    assertEquals(2, template.getCachedCount());
+
+    for (int i = 0; i < DisplayNameTemplate.CACHE_SIZE * 2; i++) template.render("[Player]", "Player_" + i);
+    assertEquals(DisplayNameTemplate.CACHE_SIZE, template.getCachedCount());
+  }
+
+  @Test
+  public void testValueCountMustMatchTheKeys() {
+    DisplayNameTemplate template = DisplayNameTemplate.compile("%rank% %name%");
+
+    assertThrows(IllegalArgumentException.class, () -> template.render("[Admin]"));
+  }
+
+  /**
+   * Finds the color a text is displayed with, inherited from its parents.
+   */
+  private static TextColor colorOf(Component component, String text, TextColor inherited) {
+    TextColor color = component.color() != null ? component.color() : inherited;
+    if (component instanceof TextComponent textComponent && textComponent.content().equals(text)) return color;
+
+    for (Component child : component.children()) {
+      TextColor found = colorOf(child, text, color);
+      if (found != null) return found;
+    }
+    return null;
+  }
+
+  private static String plain(Component component) {
+    return PlainTextComponentSerializer.plainText().serialize(component);
+  }
+}
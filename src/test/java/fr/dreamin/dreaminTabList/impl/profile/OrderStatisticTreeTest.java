@@ -0,0 +1,67 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the order-statistic tree ranking global profiles.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class OrderStatisticTreeTest {
+
+  private final OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+
+  @Test
+  public void testRanksMatchASortedList() {
+    Random random = new Random(42L);
+    List<Integer> expected = new ArrayList<>();
+
+    for (int i = 0; i < 5000; i++) {
+      int value = random.nextInt(1000);
+      int index = Collections.binarySearch(expected, value);
+
+      if (index >= 0) {
+        assertEquals(index, tree.remove(value));
+        expected.remove(index);
+      } else {
+        assertEquals(-index - 1, tree.insert(value));
+        expected.add(-index - 1, value);
+      }
+    }
+
+    assertEquals(expected.size(), tree.size());
+    assertEquals(expected, tree.range(0, tree.size()));
+    for (int rank = 0; rank < expected.size(); rank++) {
+      assertEquals(expected.get(rank), tree.get(rank));
+      assertEquals(rank, tree.rankOf(expected.get(rank)));
+    }
+  }
+
+  @Test
+  public void testRangeIsInOrder() {
+    for (int value = 0; value < 10; value++) tree.insert(value);
+
+    assertEquals(List.of(3, 4, 5), tree.range(3, 6));
+    assertEquals(List.of(), tree.range(4, 4));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.range(5, 11));
+  }
+
+  @Test
+  public void testMissingElements() {
+    tree.insert(1);
+
+    assertEquals(-1, tree.rankOf(2));
+    assertEquals(-1, tree.remove(2));
+    assertThrows(IllegalArgumentException.class, () -> tree.insert(1));
+    assertEquals(1, tree.size());
+  }
+}
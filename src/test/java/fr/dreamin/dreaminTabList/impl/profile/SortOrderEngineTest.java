@@ -0,0 +1,161 @@
+package fr.dreamin.dreaminTabList.impl.profile;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the sort order derived from the rank of global profiles.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class SortOrderEngineTest {
+
+  private static final UUID ALICE = new UUID(0L, 1L);
+  private static final UUID BOB = new UUID(0L, 2L);
+  private static final UUID CAROL = new UUID(0L, 3L);
+
+  private final SortOrderEngine engine = new SortOrderEngine();
+
+  @Test
+  public void testProfilesAreRankedByWeightScoreAndName() {
+    engine.put(CAROL, "carol", "player");
+    engine.put(BOB, "Bob", "player");
+    engine.put(ALICE, "alice", "player");
+    assertEquals(List.of(ALICE, BOB, CAROL), ranking());
+
+    engine.setScore(CAROL, 5);
+    assertEquals(List.of(CAROL, ALICE, BOB), ranking());
+
+    engine.setGroupWeight("staff", 10);
+    engine.put(BOB, "Bob", "staff");
+    assertEquals(List.of(BOB, CAROL, ALICE), ranking());
+  }
+
+  @Test
+  public void testOnlyTheMovedProfileIsReturned() {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(List.of(new UUID(1L, i)), engine.put(new UUID(1L, i), "Player_" + i, null));
+    }
+
+    // Player_7 climbs from rank 7 to rank 0, the others keep their order
+    int second = engine.listOrderOf(new UUID(1L, 0L));
+    assertEquals(List.of(new UUID(1L, 7L)), engine.setScore(new UUID(1L, 7L), 1));
+    assertTrue(engine.listOrderOf(new UUID(1L, 7L)) > second);
+    assertEquals(second, engine.listOrderOf(new UUID(1L, 0L)));
+
+    assertEquals(List.of(), engine.setScore(new UUID(1L, 7L), 1));
+
+    // Still first, the order it has is kept
+    assertEquals(List.of(), engine.setScore(new UUID(1L, 7L), 2));
+  }
+
+  @Test
+  public void testRemovalKeepsOtherOrders() {
+    engine.put(ALICE, "alice", null);
+    engine.put(BOB, "bob", null);
+    engine.put(CAROL, "carol", null);
+    int carol = engine.listOrderOf(CAROL);
+
+    engine.remove(ALICE);
+
+    assertEquals(carol, engine.listOrderOf(CAROL));
+    assertEquals(2, engine.size());
+  }
+
+  @Test
+  public void testOrdersAreRespacedWhenNoGapIsLeft() {
+    engine.put(ALICE, "a", null);
+    engine.put(BOB, "b", null);
+
+    // Each name sorts right after "a", halving the gap left before the previous one
+    List<UUID> inserted = new ArrayList<>(List.of(ALICE));
+    boolean respaced = false;
+    for (int i = 0; i < 64; i++) {
+      UUID uuid = new UUID(2L, i);
+      List<UUID> moved = engine.put(uuid, "a" + "0".repeat(i) + "1", null);
+      respaced |= moved.size() > 1;
+      inserted.add(1, uuid);
+    }
+    inserted.add(BOB);
+
+    assertTrue(respaced);
+    for (int i = 1; i < inserted.size(); i++) {
+      assertTrue(engine.listOrderOf(inserted.get(i - 1)) > engine.listOrderOf(inserted.get(i)));
+    }
+  }
+
+  @Test
+  public void testBulkRankingSpreadsOrders() {
+    List<TabProfile> profiles = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      profiles.add(new TabProfileBuilderImpl().uuid(new UUID(3L, i)).name(String.format("Player_%04d", i)).build());
+    }
+    engine.setScore(new UUID(3L, 500L), 1);
+
+    engine.putAll(profiles);
+
+    assertEquals(1000, engine.size());
+    assertTrue(engine.listOrderOf(new UUID(3L, 500L)) > engine.listOrderOf(new UUID(3L, 0L)));
+    for (int i = 2; i < 1000; i++) {
+      if (i == 500 || i == 501) continue;
+      assertTrue(engine.listOrderOf(new UUID(3L, i - 1)) > engine.listOrderOf(new UUID(3L, i)));
+    }
+
+    // A newcomer near the top is placed without moving the others
+    assertEquals(List.of(ALICE), engine.put(ALICE, "Player_0000a", null));
+  }
+
+  @Test
+  public void testScoresAreKeptUntilRemoved() {
+    engine.setScore(ALICE, 3);
+    engine.put(ALICE, "alice", null);
+    assertEquals(3, engine.getScore(ALICE));
+
+    engine.unrankAll();
+    assertEquals(3, engine.getScore(ALICE));
+
+    engine.put(ALICE, "alice", null);
+    engine.remove(ALICE);
+    assertEquals(0, engine.getScore(ALICE));
+    assertEquals(0, engine.size());
+  }
+
+  @Test
+  public void testScoreChangeSendsOnlyMovedOrders() {
+    int online = 10;
+    LoadSimulator simulator = new LoadSimulator(1);
+    PacketCapture capture = simulator.getCapture();
+    TabProfileManager profiles = simulator.getApi().getProfileManager();
+    simulator.join(online);
+
+    profiles.setAutoSortEnabled(true);
+    int first = profiles.findProfile(LoadSimulator.uuidOf(0)).getSortOrder();
+    assertTrue(first > profiles.findProfile(LoadSimulator.uuidOf(9)).getSortOrder());
+    capture.reset();
+
+    // Player_5 climbs to the top, the others keep their order
+    profiles.setScore(LoadSimulator.uuidOf(5), 100);
+
+    assertEquals(online, capture.getTotal().getPackets());
+    assertEquals(online, capture.getPackets("info_update.order"));
+    assertEquals(online, capture.getTotal().getEntries());
+    assertTrue(profiles.findProfile(LoadSimulator.uuidOf(5)).getSortOrder() > first);
+    assertEquals(first, profiles.findProfile(LoadSimulator.uuidOf(0)).getSortOrder());
+  }
+
+  private List<UUID> ranking() {
+    return List.of(ALICE, BOB, CAROL).stream()
+      .sorted((a, b) -> Integer.compare(engine.listOrderOf(b), engine.listOrderOf(a)))
+      .toList();
+  }
+}
@@ -0,0 +1,132 @@
+package fr.dreamin.dreaminTabList.impl.scheduler;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A scheduler driven by hand, modelling a region-threaded server on the test thread.
+ *
+ * <p>Each {@link #tick()} first runs the due global timers in the order
+ * they were scheduled, then the player tasks that became due, in
+ * submission order, including the ones submitted by the global timers
+ * during that tick. A task submitted for a player from that player's own
+ * task runs immediately, like on the player's region thread.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class FakeTabScheduler implements TabScheduler {
+
+  private final List<Timer> timers = new ArrayList<>();
+  private final List<Delayed> delayed = new ArrayList<>();
+  private final Queue<PlayerTask> playerTasks = new ArrayDeque<>();
+  private long currentTick = 0L;
+  private Player owner;
+
+  @Override
+  @NotNull
+  public TabTask runGlobalTimer(@NotNull Runnable task, long delayTicks, long periodTicks) {
+    Timer timer = new Timer(task, currentTick + Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+    timers.add(timer);
+    return () -> timer.cancelled = true;
+  }
+
+  @Override
+  public void runForPlayer(@NotNull Player player, @NotNull Runnable task) {
+    if (owner == player) task.run();
+    else playerTasks.add(new PlayerTask(player, task));
+  }
+
+  @Override
+  @NotNull
+  public TabTask runForPlayerLater(@NotNull Player player, @NotNull Runnable task, long delayTicks) {
+    Delayed scheduled = new Delayed(new PlayerTask(player, task), currentTick + Math.max(1L, delayTicks));
+    delayed.add(scheduled);
+    return () -> delayed.removeIf(pending -> pending == scheduled);
+  }
+
+  /**
+   * Advances the clock by one tick and runs the due tasks.
+   */
+  public void tick() {
+    currentTick++;
+
+    for (Timer timer : new ArrayList<>(timers)) {
+      if (timer.cancelled || timer.nextRun > currentTick) continue;
+
+      timer.nextRun += timer.period;
+      timer.task.run();
+    }
+    timers.removeIf(timer -> timer.cancelled);
+
+    for (Iterator<Delayed> iterator = delayed.iterator(); iterator.hasNext(); ) {
+      Delayed scheduled = iterator.next();
+      if (scheduled.dueTick > currentTick) continue;
+
+      iterator.remove();
+      playerTasks.add(scheduled.task);
+    }
+
+    PlayerTask next;
+    while ((next = playerTasks.poll()) != null) {
+      owner = next.player;
+      try {
+        next.task.run();
+      } finally {
+        owner = null;
+      }
+    }
+  }
+
+  /**
+   * Advances the clock by several ticks.
+   *
+   * @param ticks the number of ticks
+   */
+  public void tick(int ticks) {
+    for (int i = 0; i < ticks; i++) tick();
+  }
+
+  /**
+   * Gets the player whose task is running.
+   *
+   * @return the player, or null outside a player task
+   */
+  public Player getOwner() {
+    return owner;
+  }
+
+  /**
+   * Gets the number of global timers still scheduled.
+   *
+   * @return the active timer count
+   */
+  public int getActiveTimerCount() {
+    return (int) timers.stream().filter(timer -> !timer.cancelled).count();
+  }
+
+  private static final class Timer {
+    private final Runnable task;
+    private final long period;
+    private long nextRun;
+    private boolean cancelled = false;
+
+    private Timer(Runnable task, long nextRun, long period) {
+      this.task = task;
+      this.nextRun = nextRun;
+      this.period = period;
+    }
+  }
+
+  private record PlayerTask(Player player, Runnable task) {
+  }
+
+  private record Delayed(PlayerTask task, long dueTick) {
+  }
+}
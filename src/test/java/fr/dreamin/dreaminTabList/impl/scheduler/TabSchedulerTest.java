@@ -0,0 +1,145 @@
+package fr.dreamin.dreaminTabList.impl.scheduler;
+
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.header.HeaderFooterTemplate;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dispatching of tab tasks between the global and player schedulers.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class TabSchedulerTest {
+
+  private FakeTabScheduler scheduler;
+  private LoadSimulator simulator;
+  private TabListAPIImpl api;
+
+  @BeforeEach
+  public void setUp() {
+    this.scheduler = new FakeTabScheduler();
+    this.simulator = new LoadSimulator(1, scheduler);
+    this.api = simulator.getApi();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    api.shutdown();
+  }
+
+  @Test
+  public void testPlayerTasksRunAfterGlobalTimers() {
+    Player player = Mockito.mock(Player.class);
+    List<String> order = new ArrayList<>();
+
+    scheduler.runGlobalTimer(() -> {
+      order.add("global");
+      scheduler.runForPlayer(player, () -> order.add("player"));
+    }, 1L, 1L);
+    scheduler.runForPlayerLater(player, () -> order.add("delayed"), 1L);
+
+    scheduler.tick();
+
+    assertEquals(List.of("global", "delayed", "player"), order);
+  }
+
+  @Test
+  public void testNestedPlayerTasksRunInline() {
+    Player player = Mockito.mock(Player.class);
+    List<String> order = new ArrayList<>();
+
+    scheduler.runForPlayerLater(player, () -> {
+      order.add("outer");
+      scheduler.runForPlayer(player, () -> order.add("inner"));
+      order.add("after");
+    }, 2L);
+
+    scheduler.tick();
+    assertTrue(order.isEmpty());
+
+    scheduler.tick();
+    assertEquals(List.of("outer", "inner", "after"), order);
+  }
+
+  @Test
+  public void testCancelledTasksDoNotRun() {
+    Player player = Mockito.mock(Player.class);
+    List<String> order = new ArrayList<>();
+
+    scheduler.runGlobalTimer(() -> order.add("global"), 1L, 1L).cancel();
+    scheduler.runForPlayerLater(player, () -> order.add("delayed"), 1L).cancel();
+    scheduler.tick(3);
+
+    assertTrue(order.isEmpty());
+    assertEquals(0, scheduler.getActiveTimerCount());
+  }
+
+  @Test
+  public void testTemplatesRenderOnTheOwningPlayer() {
+    List<Player> players = simulator.join(3);
+    HeaderFooterTemplate template = HeaderFooterTemplate.compile(List.of("%probe%"));
+    for (Player player : players) {
+      api.findPlayerManager(player.getUniqueId()).setHeaderAndFooterTemplates(template, null);
+    }
+    scheduler.tick();
+
+    // Placeholders must be resolved on the thread owning the viewer
+    List<Player> renders = new ArrayList<>();
+    List<Player> owners = new ArrayList<>();
+    api.getPlaceholders().register("probe", viewer -> {
+      renders.add(viewer);
+      owners.add(scheduler.getOwner());
+      return "x";
+    });
+
+    api.initialize();
+    assertEquals(3, scheduler.getActiveTimerCount());
+
+    // The refresh runs every 20 ticks by default
+    scheduler.tick(19);
+    assertTrue(renders.isEmpty());
+
+    scheduler.tick();
+    assertEquals(3, renders.size());
+    assertTrue(renders.containsAll(players));
+    assertEquals(renders, owners);
+  }
+
+  @Test
+  public void testTemplateChangesRenderOnTheOwningPlayer() {
+    Player player = simulator.join(1).getFirst();
+    simulator.getCapture().reset();
+    List<Player> owners = new ArrayList<>();
+    api.getPlaceholders().register("probe", viewer -> {
+      owners.add(scheduler.getOwner());
+      return "x";
+    });
+
+    // Set from outside the player's thread, the render waits for it
+    api.findPlayerManager(player.getUniqueId()).setHeaderAndFooterTemplates(HeaderFooterTemplate.compile("%probe%"), null);
+    assertTrue(owners.isEmpty());
+
+    scheduler.tick();
+    assertEquals(List.of(player), owners);
+    assertEquals(1, simulator.getCapture().getPackets("header_footer"));
+  }
+
+  @Test
+  public void testShutdownCancelsTimers() {
+    api.initialize();
+    api.shutdown();
+
+    assertEquals(0, scheduler.getActiveTimerCount());
+  }
+}
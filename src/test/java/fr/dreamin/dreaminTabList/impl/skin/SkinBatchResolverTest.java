@@ -0,0 +1,116 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import fr.dreamin.dreaminTabList.api.exceptions.InvalidProfileException;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileBuilder;
+import fr.dreamin.dreaminTabList.impl.concurrent.LookupExecutor;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the batched resolution of skins by name.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class SkinBatchResolverTest {
+
+  private static final Duration WINDOW = Duration.ofMillis(20);
+
+  private final LookupExecutor executor = new LookupExecutor(16, Duration.ofSeconds(5));
+
+  @AfterEach
+  public void tearDown() {
+    SkinBatchResolver.reset();
+    executor.shutdown();
+  }
+
+  @Test
+  public void testRosterIsResolvedInBulk() throws Exception {
+    String[] names = new String[100];
+    for (int i = 0; i < names.length; i++) names[i] = "Roster_" + i;
+
+    StubMojangEndpoint endpoint = new StubMojangEndpoint().withPlayers(names);
+    SkinBatchResolver.install(new SkinBatchResolver(endpoint, WINDOW, () -> executor));
+
+    List<CompletableFuture<TabProfileBuilder>> builders = new ArrayList<>();
+    for (String name : names) {
+      builders.add(new TabProfileBuilderImpl().name(name).skinFromPlayerAsync(name));
+    }
+    CompletableFuture.allOf(builders.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+    assertEquals(10, endpoint.getBulkRequests());
+    assertEquals(10, endpoint.getMaxBulkNames());
+    assertEquals(100, endpoint.getTextureRequests());
+
+    for (int i = 0; i < names.length; i++) {
+      TabProfileImpl profile = (TabProfileImpl) builders.get(i).get().build();
+      List<TextureProperty> skin = profile.getSkinProperties();
+      assertEquals(1, skin.size());
+      assertEquals("texture-" + StubMojangEndpoint.uuidOf(names[i]), skin.get(0).getValue());
+    }
+  }
+
+  @Test
+  public void testPartialChunkWaitsForTheWindow() throws Exception {
+    StubMojangEndpoint endpoint = new StubMojangEndpoint().withPlayers("Alpha", "Beta", "Gamma");
+    SkinBatchResolver resolver = new SkinBatchResolver(endpoint, WINDOW, () -> executor);
+
+    CompletableFuture<TextureProperty> alpha = resolver.resolve("Alpha");
+    CompletableFuture<TextureProperty> beta = resolver.resolve("Beta");
+    CompletableFuture<TextureProperty> gamma = resolver.resolve("Gamma");
+    CompletableFuture.allOf(alpha, beta, gamma).get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, endpoint.getBulkRequests());
+    assertEquals(3, endpoint.getMaxBulkNames());
+  }
+
+  @Test
+  public void testSameNameSharesOneLookup() throws Exception {
+    StubMojangEndpoint endpoint = new StubMojangEndpoint().withPlayers("Notch");
+    SkinBatchResolver resolver = new SkinBatchResolver(endpoint, WINDOW, () -> executor);
+
+    CompletableFuture<TextureProperty> first = resolver.resolve("Notch");
+    CompletableFuture<TextureProperty> second = resolver.resolve("notch");
+
+    assertSame(first, second);
+    assertNotNull(first.get(5, TimeUnit.SECONDS));
+    assertEquals(1, endpoint.getTextureRequests());
+  }
+
+  @Test
+  public void testUnknownNameFails() {
+    StubMojangEndpoint endpoint = new StubMojangEndpoint().withPlayers("Known");
+    SkinBatchResolver resolver = new SkinBatchResolver(endpoint, WINDOW, () -> executor);
+
+    CompletableFuture<TextureProperty> known = resolver.resolve("Known");
+    CompletableFuture<TextureProperty> unknown = resolver.resolve("Unknown");
+
+    ExecutionException error = assertThrows(ExecutionException.class, () -> unknown.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(InvalidProfileException.class, error.getCause());
+    assertDoesNotThrow(() -> known.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testEndpointErrorFailsTheChunk() {
+    StubMojangEndpoint endpoint = new StubMojangEndpoint().withPlayers("Down").failingFor("Down");
+    SkinBatchResolver resolver = new SkinBatchResolver(endpoint, WINDOW, () -> executor);
+
+    CompletableFuture<TextureProperty> down = resolver.resolve("Down");
+
+    ExecutionException error = assertThrows(ExecutionException.class, () -> down.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(InvalidProfileException.class, error.getCause());
+    assertEquals(0, endpoint.getTextureRequests());
+  }
+}
@@ -0,0 +1,122 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileManagerImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the cache of skins resolved during login.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class SkinPrefetchCacheTest {
+
+  private static final UUID PLAYER = new UUID(0L, 1L);
+  private static final TextureProperty TEXTURES = new TextureProperty("textures", "value", "signature");
+
+  private final AtomicLong now = new AtomicLong();
+  private final List<String> resolved = new ArrayList<>();
+  private final SkinPrefetchCache cache = new SkinPrefetchCache(name -> {
+    resolved.add(name);
+    return CompletableFuture.completedFuture(new TextureProperty("textures", "resolved-" + name, "signature"));
+  }, Duration.ofSeconds(60), now::get);
+
+  @AfterEach
+  public void tearDown() {
+    SkinPrefetchCache.reset();
+  }
+
+  @Test
+  public void testKnownTexturesSkipTheLookup() {
+    cache.prefetch(PLAYER, "Notch", TEXTURES);
+
+    assertSame(TEXTURES, SkinPrefetchCache.completedTextures(cache.take(PLAYER)));
+    assertTrue(resolved.isEmpty());
+  }
+
+  @Test
+  public void testMissingTexturesAreResolvedByName() {
+    cache.prefetch(PLAYER, "Notch", null);
+
+    assertEquals(List.of("Notch"), resolved);
+    assertEquals("resolved-Notch", SkinPrefetchCache.completedTextures(cache.take(PLAYER)).getValue());
+  }
+
+  @Test
+  public void testTakeRemovesTheEntry() {
+    cache.prefetch(PLAYER, "Notch", TEXTURES);
+
+    assertSame(TEXTURES, cache.peek(PLAYER));
+    assertNotNull(cache.take(PLAYER));
+    assertNull(cache.take(PLAYER));
+    assertNull(cache.peek(PLAYER));
+  }
+
+  @Test
+  public void testEntriesExpire() {
+    cache.prefetch(PLAYER, "Notch", TEXTURES);
+    now.addAndGet(Duration.ofSeconds(61).toNanos());
+
+    assertNull(cache.peek(PLAYER));
+    assertNull(cache.take(PLAYER));
+  }
+
+  @Test
+  public void testExpiredEntriesArePurged() {
+    cache.prefetch(PLAYER, "Notch", TEXTURES);
+    now.addAndGet(Duration.ofSeconds(61).toNanos());
+    cache.prefetch(new UUID(0L, 2L), "Jeb", TEXTURES);
+
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testUnfinishedResolutionsHaveNoTextures() {
+    assertNull(SkinPrefetchCache.completedTextures(new CompletableFuture<>()));
+    assertNull(SkinPrefetchCache.completedTextures(CompletableFuture.failedFuture(new IllegalStateException())));
+    assertNull(SkinPrefetchCache.completedTextures(CompletableFuture.completedFuture(new TextureProperty("textures", "value", null))));
+  }
+
+  @Test
+  public void testRegistrationUsesPrefetchedSkins() {
+    SkinPrefetchCache.install(cache);
+    LoadSimulator simulator = new LoadSimulator(1);
+    TabProfileManagerImpl profiles = (TabProfileManagerImpl) simulator.getApi().getProfileManager();
+    profiles.setPlayerProfileFactory(player -> new TabProfileBuilderImpl()
+      .uuid(player.getUniqueId())
+      .name(player.getName())
+      .build());
+
+    CompletableFuture<TextureProperty> pending = new CompletableFuture<>();
+    cache.prefetch(LoadSimulator.uuidOf(0), TEXTURES);
+    cache.prefetch(LoadSimulator.uuidOf(1), pending);
+    simulator.join(2);
+
+    assertEquals("value", profiles.findProfile(LoadSimulator.uuidOf(0)).getSkinTexture());
+    TabProfile unresolved = profiles.findProfile(LoadSimulator.uuidOf(1));
+    assertNull(unresolved.getSkinTexture());
+
+    simulator.getCapture().reset();
+    pending.complete(new TextureProperty("textures", "late", "signature"));
+
+    // The late skin replaces the entry for both viewers
+    assertEquals("late", profiles.findProfile(LoadSimulator.uuidOf(1)).getSkinTexture());
+    assertEquals(2, simulator.getCapture().getPackets("info_remove"));
+    assertEquals(2, simulator.getCapture().getPackets("info_update.add"));
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,108 @@
+package fr.dreamin.dreaminTabList.impl.skin;
+
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local Mojang endpoint knowing a fixed set of players, counting the requests it serves.
+ *
+ * <p>Every known player has a texture derived from its name, and its
+ * unique id is derived from its lowercase name. Names can be made to fail
+ * to simulate an outage.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class StubMojangEndpoint implements MojangEndpoint {
+
+  private final Set<String> known = ConcurrentHashMap.newKeySet();
+  private final Set<String> failing = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger bulkRequests = new AtomicInteger();
+  private final AtomicInteger textureRequests = new AtomicInteger();
+  private final AtomicInteger maxBulkNames = new AtomicInteger();
+
+  /**
+   * Makes players known to this endpoint.
+   *
+   * @param names the player names
+   * @return this endpoint
+   */
+  public StubMojangEndpoint withPlayers(String... names) {
+    for (String name : names) known.add(name);
+    return this;
+  }
+
+  /**
+   * Makes bulk lookups containing a name fail.
+   *
+   * @param name the player name
+   * @return this endpoint
+   */
+  public StubMojangEndpoint failingFor(String name) {
+    failing.add(name.toLowerCase(Locale.ROOT));
+    return this;
+  }
+
+  @Override
+  public int getMaxBulkSize() {
+    return 10;
+  }
+
+  @Override
+  @NotNull
+  public Map<String, UUID> lookupUniqueIds(@NotNull Collection<String> names) throws IOException {
+    bulkRequests.incrementAndGet();
+    maxBulkNames.accumulateAndGet(names.size(), Math::max);
+
+    Map<String, UUID> found = new HashMap<>();
+    for (String name : names) {
+      if (failing.contains(name.toLowerCase(Locale.ROOT))) throw new IOException("HTTP 503");
+
+      for (String player : known) {
+        if (player.equalsIgnoreCase(name)) found.put(player, uuidOf(player));
+      }
+    }
+    return found;
+  }
+
+  @Override
+  @Nullable
+  public TextureProperty fetchTextures(@NotNull UUID uuid) {
+    textureRequests.incrementAndGet();
+    return new TextureProperty("textures", "texture-" + uuid, "signature-" + uuid);
+  }
+
+  /**
+   * Gets the unique id this endpoint gives to a player.
+   *
+   * @param name the player name
+   * @return the unique id
+   */
+  public static UUID uuidOf(String name) {
+    return UUID.nameUUIDFromBytes(name.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public int getBulkRequests() {
+    return bulkRequests.get();
+  }
+
+  public int getTextureRequests() {
+    return textureRequests.get();
+  }
+
+  public int getMaxBulkNames() {
+    return maxBulkNames.get();
+  }
+}
@@ -0,0 +1,137 @@
+package fr.dreamin.dreaminTabList.impl.store;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the storage of global profiles across restarts.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ProfileStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final ProfileStore store = simulator.getApi().getProfileStore();
+  private final TabProfileManager profiles = simulator.getApi().getProfileManager();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    assertEquals(0, store.open(directory));
+    profiles.addGlobalProfile(bot("Bot_1", "bots"));
+    profiles.addGlobalProfile(bot("Bot_2", "bots"));
+    profiles.addGlobalProfile(new TabProfileBuilderImpl().name("ServerInfo").displayName(Component.text("Info")).build());
+  }
+
+  @Test
+  public void testProfilesComeBackAfterRestart() throws IOException {
+    store.close();
+    assertEquals(8L, Files.size(directory.resolve(ProfileStore.LOG_FILE)));
+
+    TabProfileManager restarted = restart(3);
+    TabProfile first = restarted.findProfile("Bot_1");
+    TabProfile second = restarted.findProfile("Bot_2");
+    assertNotNull(first);
+    assertEquals("bots", first.getGroup());
+    assertEquals(LoadSimulator.SIGNATURE, first.getSkinSignature());
+    assertEquals(Component.text("Info"), restarted.findProfile("ServerInfo").getDisplayName());
+
+    // The skin is stored once and shared by the profiles wearing it
+    assertSame(first.getSkinTexture(), second.getSkinTexture());
+  }
+
+  @Test
+  public void testChangesAreReplayedFromTheLog() throws Exception {
+    profiles.removeGlobalProfile(profiles.findProfile("Bot_2"));
+    profiles.updateGlobalProfile(profiles.findProfile("Bot_1").toBuilder().latency(250).build());
+    store.flush();
+    store.awaitWrites();
+
+    // Not closed, as after a crash
+    TabProfileManager restarted = restart(2);
+    assertNull(restarted.findProfile("Bot_2"));
+    assertEquals(250, restarted.findProfile("Bot_1").getLatency());
+  }
+
+  @Test
+  public void testTornRecordIsDiscarded() throws Exception {
+    store.flush();
+    store.awaitWrites();
+    Path log = directory.resolve(ProfileStore.LOG_FILE);
+    long size = Files.size(log);
+    try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.allocate(7).putInt(120).put((byte) 0).flip());
+    }
+
+    restart(3);
+    assertEquals(size, Files.size(log));
+  }
+
+  @Test
+  public void testRemovedProfilesAreNotStored() throws IOException {
+    profiles.clearProfilesByGroup("bots");
+    store.close();
+
+    TabProfileManager restarted = restart(1);
+    assertTrue(restarted.hasProfile("ServerInfo"));
+    assertFalse(restarted.hasProfile("Bot_1"));
+  }
+
+  @Test
+  public void testLoadedProfilesAreRankedWhenSortingAutomatically() throws IOException {
+    store.close();
+
+    LoadSimulator restarted = new LoadSimulator(1);
+    TabProfileManager manager = restarted.getApi().getProfileManager();
+    manager.setAutoSortEnabled(true);
+    assertEquals(3, restarted.getApi().getProfileStore().open(directory));
+
+    int first = manager.findProfile("Bot_1").getSortOrder();
+    int second = manager.findProfile("Bot_2").getSortOrder();
+    assertTrue(first > second);
+    assertTrue(second > manager.findProfile("ServerInfo").getSortOrder());
+  }
+
+  @Test
+  public void testCorruptedSnapshotLeavesTheStoreClosed() throws IOException {
+    store.close();
+    Files.write(directory.resolve(ProfileStore.SNAPSHOT_FILE), new byte[] { 1, 2, 3 });
+
+    ProfileStore other = new LoadSimulator(1).getApi().getProfileStore();
+    assertThrows(IOException.class, () -> other.open(directory));
+    assertFalse(other.isOpen());
+  }
+
+  private TabProfileManager restart(int expected) throws IOException {
+    LoadSimulator restarted = new LoadSimulator(1);
+    assertEquals(expected, restarted.getApi().getProfileStore().open(directory));
+    assertEquals(expected, restarted.getApi().getProfileManager().getGlobalProfileCount());
+    return restarted.getApi().getProfileManager();
+  }
+
+  private static TabProfile bot(String name, String group) {
+    return new TabProfileBuilderImpl()
+      .name(name)
+      .group(group)
+      .customSkin(LoadSimulator.TEXTURE, LoadSimulator.SIGNATURE)
+      .build();
+  }
+}
@@ -0,0 +1,112 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the encoding of replicated profile changes.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ProfileDeltaTest {
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+
+  @Test
+  public void testCompleteDeltaRoundTrip() throws IOException {
+    TabProfile profile = simulator.profile(3, 0);
+
+    ProfileDelta read = roundTrip(ProfileDelta.upsert(profile, 5L, null, 0L));
+
+    assertTrue(read.isComplete());
+    assertEquals(5L, read.getVersion());
+    TabProfile applied = read.applyTo(null);
+    assertEquals(profile.getUniqueId(), applied.getUniqueId());
+    assertEquals(profile.getName(), applied.getName());
+    assertEquals(profile.getDisplayName(), applied.getDisplayName());
+    assertEquals(profile.getLatency(), applied.getLatency());
+    assertEquals(profile.getGroup(), applied.getGroup());
+    assertEquals(profile.getSkinSignature(), applied.getSkinSignature());
+  }
+
+  @Test
+  public void testPartialDeltaOnlyCarriesChangedFields() throws IOException {
+    TabProfile previous = simulator.profile(3, 0);
+    TabProfile changed = simulator.profile(3, 40);
+
+    ProfileDelta delta = ProfileDelta.upsert(changed, 2L, previous, 1L);
+    byte[] bytes = encode(delta);
+
+    // Type, UUID, versions, field mask and latency
+    assertTrue(bytes.length < 24, "Latency delta took " + bytes.length + " bytes");
+    assertFalse(delta.isComplete());
+
+    TabProfile applied = roundTrip(delta).applyTo(previous);
+    assertEquals(changed.getLatency(), applied.getLatency());
+    assertEquals(previous.getName(), applied.getName());
+    assertEquals(previous.getSkinTexture(), applied.getSkinTexture());
+  }
+
+  @Test
+  public void testPartialDeltaNeedsItsBase() throws IOException {
+    TabProfile previous = simulator.profile(3, 0);
+    TabProfile changed = previous.toBuilder().displayName(Component.text("Renamed")).build();
+
+    ProfileDelta read = roundTrip(ProfileDelta.upsert(changed, 2L, previous, 1L));
+
+    assertEquals(1L, read.getBaseVersion());
+    assertThrows(IllegalStateException.class, () -> read.applyTo(null));
+  }
+
+  @Test
+  public void testUnchangedProfile() {
+    TabProfile profile = simulator.profile(3, 0);
+
+    assertTrue(ProfileDelta.upsert(profile, 2L, profile, 1L).isUnchanged());
+  }
+
+  @Test
+  public void testMessageRoundTrip() throws IOException {
+    SyncMessage message = SyncMessage.snapshot("lobby", 7L, 3L, List.of(
+      ProfileDelta.upsert(simulator.profile(0, 0), 1L, null, 0L),
+      ProfileDelta.remove(LoadSimulator.uuidOf(1), 2L)
+    ), true, false);
+
+    SyncMessage read = SyncMessage.decode(message.encode());
+
+    assertEquals(SyncMessage.Type.SNAPSHOT, read.getType());
+    assertEquals("lobby", read.getOrigin());
+    assertEquals(7L, read.getEpoch());
+    assertEquals(3L, read.getSequence());
+    assertTrue(read.isFirst());
+    assertFalse(read.isLast());
+    assertEquals(2, read.getDeltas().size());
+    assertTrue(read.getDeltas().get(1).isRemoval());
+  }
+
+  @Test
+  public void testMalformedMessagesAreRejected() {
+    assertThrows(IOException.class, () -> SyncMessage.decode(new byte[] { 9 }));
+    assertThrows(IOException.class, () -> SyncMessage.decode(new byte[] { 1, 0 }));
+  }
+
+  private static byte[] encode(ProfileDelta delta) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      delta.write(out);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static ProfileDelta roundTrip(ProfileDelta delta) throws IOException {
+    return ProfileDelta.read(new DataInputStream(new ByteArrayInputStream(encode(delta))));
+  }
+}
@@ -0,0 +1,117 @@
+package fr.dreamin.dreaminTabList.impl.sync;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.api.profile.TabProfileManager;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the synchronization of global profiles across servers.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ProfileReplicatorTest {
+
+  private static final int PLAYERS = 3;
+
+  private final LoopbackTransport.Hub hub = new LoopbackTransport.Hub();
+  private final LoadSimulator lobby = new LoadSimulator(1);
+  private final LoadSimulator game = new LoadSimulator(1);
+  private final TabProfileManager lobbyProfiles = lobby.getApi().getProfileManager();
+  private final TabProfileManager gameProfiles = game.getApi().getProfileManager();
+
+  @BeforeEach
+  public void setUp() {
+    lobby.join(PLAYERS);
+    lobby.getApi().setSyncTransport(hub.connect());
+    game.getApi().setSyncTransport(hub.connect());
+    lobby.getApi().getReplicator().flush();
+  }
+
+  @Test
+  public void testSnapshotIsAppliedAsGlobalProfiles() {
+    assertEquals(PLAYERS, gameProfiles.getGlobalProfileCount());
+    assertTrue(game.getApi().getReplicator().isRemote(LoadSimulator.uuidOf(0)));
+    assertEquals(lobbyProfiles.findProfile(LoadSimulator.uuidOf(2)).getDisplayName(), gameProfiles.findProfile(LoadSimulator.uuidOf(2)).getDisplayName());
+  }
+
+  @Test
+  public void testChangesAreCoalescedPerInterval() {
+    long delivered = hub.getDelivered();
+    for (int tick = 1; tick <= 5; tick++) lobby.updateAllProfiles(tick);
+
+    for (int i = 0; i < ProfileReplicator.DEFAULT_INTERVAL; i++) lobby.tick();
+
+    assertEquals(delivered + 1, hub.getDelivered());
+    assertEquals(lobbyProfiles.findProfile(LoadSimulator.uuidOf(1)).getLatency(), gameProfiles.findProfile(LoadSimulator.uuidOf(1)).getLatency());
+  }
+
+  @Test
+  public void testRemovalsArePublished() {
+    lobbyProfiles.removeGlobalProfile(LoadSimulator.uuidOf(1));
+    lobby.getApi().getReplicator().flush();
+
+    assertEquals(PLAYERS - 1, gameProfiles.getGlobalProfileCount());
+    assertNull(gameProfiles.findProfile(LoadSimulator.uuidOf(1)));
+  }
+
+  @Test
+  public void testLostMessagesAreRecoveredFromASnapshot() {
+    hub.setPaused(true);
+    TabProfile renamed = lobbyProfiles.findProfile(LoadSimulator.uuidOf(0)).toBuilder().displayName(Component.text("Renamed")).build();
+    lobbyProfiles.updateGlobalProfile(renamed);
+    lobbyProfiles.removeGlobalProfile(LoadSimulator.uuidOf(1));
+    lobby.getApi().getReplicator().flush();
+    hub.setPaused(false);
+
+    // The next message reveals the gap, the game server asks for a snapshot
+    lobbyProfiles.updateGlobalProfile(lobby.profile(2, 7));
+    lobby.getApi().getReplicator().flush();
+    assertEquals(Component.text("[Rank] Player_0"), gameProfiles.findProfile(LoadSimulator.uuidOf(0)).getDisplayName());
+
+    game.getApi().getReplicator().flush();
+    lobby.getApi().getReplicator().flush();
+
+    assertEquals(Component.text("Renamed"), gameProfiles.findProfile(LoadSimulator.uuidOf(0)).getDisplayName());
+    assertNull(gameProfiles.findProfile(LoadSimulator.uuidOf(1)));
+    assertEquals(lobby.profile(2, 7).getLatency(), gameProfiles.findProfile(LoadSimulator.uuidOf(2)).getLatency());
+  }
+
+  @Test
+  public void testLocalPlayersWinOverRemoteProfiles() {
+    // Player 0 moves from the lobby to the game server
+    game.join(1);
+    TabProfile local = gameProfiles.findProfile(LoadSimulator.uuidOf(0));
+
+    lobbyProfiles.updateGlobalProfile(lobby.profile(0, 42));
+    lobby.getApi().getReplicator().flush();
+
+    assertFalse(game.getApi().getReplicator().isRemote(LoadSimulator.uuidOf(0)));
+    assertEquals(local.getLatency(), gameProfiles.findProfile(LoadSimulator.uuidOf(0)).getLatency());
+  }
+
+  @Test
+  public void testLargeSnapshotsAreSplit() {
+    lobby.getApi().setSyncTransport(hub.connect(2048));
+    long delivered = hub.getDelivered();
+
+    lobby.getApi().getReplicator().flush();
+
+    // Profiles with a skin take about a kilobyte each
+    assertEquals(delivered + PLAYERS, hub.getDelivered());
+    assertEquals(PLAYERS, gameProfiles.getGlobalProfileCount());
+  }
+
+  @Test
+  public void testProfilesAreDroppedWhenTheOriginLeaves() {
+    lobby.getApi().setSyncTransport(null);
+
+    assertEquals(0, gameProfiles.getGlobalProfileCount());
+    assertEquals(PLAYERS, lobbyProfiles.getGlobalProfileCount());
+  }
+}
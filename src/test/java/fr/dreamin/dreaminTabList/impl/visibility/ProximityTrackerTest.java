@@ -0,0 +1,179 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the tab list limited by distance.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class ProximityTrackerTest {
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final TabListAPIImpl api = simulator.getApi();
+  private final PacketCapture capture = simulator.getCapture();
+  private final ProximityTracker tracker = api.getProximityTracker();
+
+  @BeforeEach
+  public void setUp() {
+    simulator.join(4);
+    move(0, "world", 0, 0);
+    move(1, "world", 10, 0);
+    move(2, "world", 100, 0);
+    move(3, "nether", 0, 0);
+
+    tracker.setRange(64, 8, 1);
+    tracker.setEnabled(true);
+    tracker.update();
+    capture.reset();
+  }
+
+  @Test
+  public void testFirstUpdateUnlistsPlayersTooFar() {
+    tracker.setEnabled(false);
+    tracker.setEnabled(true);
+    capture.reset();
+
+    tracker.update();
+
+    // One unlisting per viewer: 0 and 1 lose 2 and 3, 2 and 3 lose everyone
+    assertEquals(4, capture.getPackets("info_update.listed"));
+    assertEquals(0, capture.getPackets("info_remove"));
+    assertEquals(0, capture.getPackets("info_update.add"));
+    assertEquals(2 + 2 + 3 + 3, capture.getTotal().getEntries());
+    assertTrue(tracker.canSee(uuid(0), uuid(1)));
+    assertFalse(tracker.canSee(uuid(0), uuid(2)));
+    assertFalse(tracker.canSee(uuid(0), uuid(3)));
+  }
+
+  @Test
+  public void testEnteringPlayersAreListedAgain() {
+    move(2, "world", 50, 0);
+    tracker.update();
+
+    // The clients still hold the entries: the newcomer gets both players in one packet, each of them gets the newcomer
+    assertEquals(3, capture.getPackets("info_update.update"));
+    assertEquals(0, capture.getPackets("info_update.add"));
+    assertEquals(0, capture.getPackets("info_remove"));
+    assertEquals(2 + 1 + 1, capture.getTotal().getEntries());
+    assertTrue(tracker.canSee(uuid(2), uuid(0)));
+  }
+
+  @Test
+  public void testPlayersNeverInRangeAreAdded() {
+    simulator.join(1);
+    move(4, "world", 5, 0);
+    capture.reset();
+
+    tracker.update();
+
+    // Admitted out of every range, the clients never got the entries
+    assertEquals(3, capture.getPackets("info_update.add"));
+    assertEquals(0, capture.getPackets("info_update.update"));
+    assertEquals(2 + 1 + 1, capture.getTotal().getEntries());
+  }
+
+  @Test
+  public void testRenamedPlayersAreReplacedOnEntering() {
+    TabProfile profile = api.getProfileManager().findProfile(uuid(2));
+    api.getProfileManager().updateGlobalProfile(profile.toBuilder().name("Renamed_2").build());
+    capture.reset();
+
+    move(2, "world", 50, 0);
+    tracker.update();
+
+    // Clients only read names on addition, the old entry is removed first
+    assertEquals(2, capture.getPackets("info_remove"));
+    assertEquals(2, capture.getPackets("info_update.add"));
+    assertEquals(1, capture.getPackets("info_update.update"));
+  }
+
+  @Test
+  public void testHysteresisKeepsPlayersAtTheEdge() {
+    move(1, "world", 70, 0);
+    tracker.update();
+
+    assertEquals(0, capture.getPackets("info_remove"));
+    assertTrue(tracker.canSee(uuid(0), uuid(1)));
+
+    move(1, "world", 80, 0);
+    tracker.update();
+
+    // Still tracked in the world, the entries are kept unlisted
+    assertEquals(2, capture.getPackets("info_update.listed"));
+    assertEquals(0, capture.getPackets("info_remove"));
+    assertFalse(tracker.canSee(uuid(0), uuid(1)));
+  }
+
+  @Test
+  public void testPlayersOutsideTheRadiusDoNotEnter() {
+    move(2, "world", 70, 0);
+    tracker.update();
+
+    // Within the leave distance of player 0, but never in range
+    assertFalse(tracker.canSee(uuid(0), uuid(2)));
+    assertTrue(tracker.canSee(uuid(1), uuid(2)));
+  }
+
+  @Test
+  public void testDistantCellsAreIgnored() {
+    move(2, "world", 1_000_000, -1_000_000);
+    move(3, "world", -1_000_000, 1_000_000);
+    tracker.update();
+
+    assertEquals(0, capture.getTotal().getPackets());
+    assertFalse(tracker.canSee(uuid(2), uuid(3)));
+  }
+
+  @Test
+  public void testRangesUpdateEveryInterval() {
+    tracker.setRange(64, 8, 10);
+    move(2, "world", 50, 0);
+
+    for (int i = 0; i < 9; i++) simulator.tick();
+    assertEquals(0, capture.getPackets("info_update.add"));
+
+    simulator.tick();
+    assertEquals(3, capture.getPackets("info_update.add"));
+  }
+
+  @Test
+  public void testFakeProfilesAreAlwaysVisible() {
+    api.getProfileManager().addGlobalProfile(new TabProfileBuilderImpl()
+      .uuid(new UUID(0L, 42L))
+      .name("ServerInfo")
+      .build());
+
+    assertEquals(4, capture.getPackets("info_update.add"));
+  }
+
+  @Test
+  public void testDisablingListsPlayersBack() {
+    api.setProximityRadius(0);
+
+    assertEquals(4, capture.getPackets("info_update.update"));
+    assertEquals(0, capture.getPackets("info_update.add"));
+    assertEquals(2 + 2 + 3 + 3, capture.getTotal().getEntries());
+    assertEquals(0D, api.getProximityRadius());
+    assertTrue(tracker.canSee(uuid(0), uuid(3)));
+  }
+
+  private void move(int index, String world, double x, double z) {
+    tracker.update(uuid(index), world, x, z);
+  }
+
+  private static UUID uuid(int index) {
+    return LoadSimulator.uuidOf(index);
+  }
+}
@@ -0,0 +1,141 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-viewer visibility rules.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class VisibilityManagerImplTest {
+
+  private static final int ONLINE = 10;
+  private static final UUID STAFF = LoadSimulator.uuidOf(0);
+  private static final UUID PLAYER = LoadSimulator.uuidOf(2);
+
+  private final LoadSimulator simulator = new LoadSimulator(2);
+  private final TabListAPIImpl api = simulator.getApi();
+  private final PacketCapture capture = simulator.getCapture();
+  private final VisibilityManagerImpl visibility = api.getVisibilityManager();
+
+  @BeforeEach
+  public void setUp() {
+    simulator.join(ONLINE);
+    capture.reset();
+  }
+
+  @Test
+  public void testEverythingIsVisibleWithoutRules() {
+    assertTrue(visibility.seesEverything(PLAYER));
+    assertTrue(visibility.canSee(PLAYER, profile(1)));
+    assertEquals(ONLINE, api.getPlayerManager(simulator.getPlayers().get(2)).getVisibleProfileCount());
+  }
+
+  @Test
+  public void testRuleUnlistsRestrictedGroupsOnly() {
+    visibility.setRule("staff", Set.of("group-1"));
+
+    // Every viewer loses the five profiles of group-1 in one packet, but keeps its own
+    assertEquals(ONLINE, capture.getTotal().getPackets());
+    assertEquals(ONLINE, capture.getPackets("info_update.listed"));
+    assertEquals(5L * 5 + 5L * 4, capture.getTotal().getEntries());
+
+    assertFalse(visibility.canSee(PLAYER, profile(1)));
+    assertTrue(visibility.canSee(LoadSimulator.uuidOf(1), profile(1)));
+    assertTrue(visibility.canSee(PLAYER, profile(2)));
+    assertEquals(ONLINE / 2, api.getPlayerManager(simulator.getPlayers().get(2)).getVisibleProfileCount());
+  }
+
+  @Test
+  public void testAttributeChangeOnlyReachesTheViewer() {
+    visibility.setRule("staff", Set.of("group-1"));
+    capture.reset();
+
+    visibility.addViewerAttribute(STAFF, "staff");
+
+    assertEquals(1, capture.getPackets("info_update.add"));
+    assertEquals(ONLINE / 2L, capture.getTotal().getEntries());
+    assertTrue(visibility.canSee(STAFF, profile(1)));
+    assertTrue(visibility.seesEverything(STAFF));
+
+    // A rule held by nobody, on an already restricted group, leaves every viewer alone
+    capture.reset();
+    visibility.setRule("builder", Set.of("group-1"));
+    assertEquals(0, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testBroadcastsSkipHiddenProfiles() {
+    visibility.setRule("staff", Set.of("group-1"));
+    visibility.addViewerAttribute(STAFF, "staff");
+    capture.reset();
+
+    api.getProfileManager().updateGlobalProfile(simulator.profile(1, 1));
+
+    assertEquals(1, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testGroupChangeAddsAndUnlists() {
+    visibility.setRule("staff", Set.of("group-1"));
+    visibility.addViewerAttribute(STAFF, "staff");
+    capture.reset();
+
+    // Profile 1 leaves the restricted group: the others get it added, the staff member an update
+    api.getProfileManager().updateGlobalProfile(profile(1).toBuilder().group("group-0").build());
+    assertEquals(ONLINE - 1, capture.getPackets("info_update.add"));
+    assertEquals(1, capture.getPackets("info_update.update"));
+
+    // And back
+    capture.reset();
+    api.getProfileManager().updateGlobalProfile(profile(1).toBuilder().group("group-1").build());
+    assertEquals(ONLINE - 1, capture.getPackets("info_update.listed"));
+    assertEquals(1, capture.getPackets("info_update.update"));
+  }
+
+  @Test
+  public void testClearingRulesRevealsEverything() {
+    visibility.setRule("staff", Set.of("group-1"));
+    capture.reset();
+
+    visibility.clearRules();
+
+    assertEquals(ONLINE, capture.getPackets("info_update.add"));
+    assertTrue(visibility.seesEverything(PLAYER));
+  }
+
+  @Test
+  public void testGroupIdsAreReleasedWithTheirRules() {
+    visibility.setRule("staff", Set.of("released-1"));
+    visibility.setRule("builder", Set.of("released-1"));
+    int id = GroupIds.find("released-1");
+    assertNotEquals(GroupIds.NONE, id);
+
+    // Held until the last rule naming the group is removed
+    visibility.removeRule("staff");
+    assertEquals(id, GroupIds.find("released-1"));
+    visibility.removeRule("builder");
+    assertEquals(GroupIds.NONE, GroupIds.find("released-1"));
+
+    // A reused id does not hide the group it was released by
+    visibility.setRule("staff", Set.of("group-1"));
+    visibility.setRule("builder", Set.of("released-2"));
+    assertTrue(visibility.canSee(PLAYER, profile(3).toBuilder().group("released-1").build()));
+    assertFalse(visibility.canSee(PLAYER, profile(3).toBuilder().group("released-2").build()));
+  }
+
+  private TabProfile profile(int index) {
+    return api.getProfileManager().findProfile(LoadSimulator.uuidOf(index));
+  }
+}
@@ -0,0 +1,89 @@
+package fr.dreamin.dreaminTabList.impl.visibility;
+
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.simulator.LoadSimulator;
+import fr.dreamin.dreaminTabList.simulator.PacketCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the tab list scoped per world.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class WorldScopesTest {
+
+  private static final int PER_WORLD = 3;
+
+  private final LoadSimulator simulator = new LoadSimulator(1);
+  private final TabListAPIImpl api = simulator.getApi();
+  private final PacketCapture capture = simulator.getCapture();
+  private final WorldScopes scopes = api.getWorldScopes();
+
+  @BeforeEach
+  public void setUp() {
+    simulator.join(2 * PER_WORLD);
+    for (int i = 0; i < 2 * PER_WORLD; i++) {
+      scopes.join(LoadSimulator.uuidOf(i), i < PER_WORLD ? "world" : "nether");
+    }
+    api.setTabScopedPerWorld(true);
+    capture.reset();
+  }
+
+  @Test
+  public void testEnablingRemovesOtherWorlds() {
+    api.setTabScopedPerWorld(false);
+    capture.reset();
+
+    api.setTabScopedPerWorld(true);
+
+    assertEquals(2 * PER_WORLD, capture.getPackets("info_remove"));
+    assertEquals(2L * PER_WORLD * PER_WORLD, capture.getTotal().getEntries());
+    assertFalse(scopes.canSee(LoadSimulator.uuidOf(0), LoadSimulator.uuidOf(PER_WORLD)));
+    assertTrue(scopes.canSee(LoadSimulator.uuidOf(0), LoadSimulator.uuidOf(1)));
+  }
+
+  @Test
+  public void testUpdatesOnlyReachTheirWorld() {
+    api.getProfileManager().updateGlobalProfile(simulator.profile(0, 1));
+
+    assertEquals(PER_WORLD, capture.getTotal().getPackets());
+  }
+
+  @Test
+  public void testFakeProfilesAreNotScoped() {
+    api.getProfileManager().addGlobalProfile(new TabProfileBuilderImpl()
+      .uuid(new UUID(0L, 42L))
+      .name("ServerInfo")
+      .build());
+
+    assertEquals(2 * PER_WORLD, capture.getPackets("info_update.add"));
+  }
+
+  @Test
+  public void testWorldChangeSendsOnlyTheDiff() {
+    scopes.move(LoadSimulator.uuidOf(0), "nether");
+
+    // The mover loses two entries and gets three, in one packet each
+    // The world left loses the mover, the world joined gets it
+    assertEquals(1 + (PER_WORLD - 1), capture.getPackets("info_remove"));
+    assertEquals(1 + PER_WORLD, capture.getPackets("info_update.add"));
+    assertEquals((PER_WORLD - 1) + PER_WORLD + (PER_WORLD - 1) + PER_WORLD, capture.getTotal().getEntries());
+    assertTrue(scopes.canSee(LoadSimulator.uuidOf(0), LoadSimulator.uuidOf(PER_WORLD)));
+    assertEquals(PER_WORLD + 1, scopes.membersOf("nether").size());
+  }
+
+  @Test
+  public void testDisablingAddsOtherWorlds() {
+    api.setTabScopedPerWorld(false);
+
+    assertEquals(2 * PER_WORLD, capture.getPackets("info_update.add"));
+    assertEquals(2L * PER_WORLD * PER_WORLD, capture.getTotal().getEntries());
+  }
+}
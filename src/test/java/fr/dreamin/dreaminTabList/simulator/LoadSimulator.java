@@ -0,0 +1,267 @@
+package fr.dreamin.dreaminTabList.simulator;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.PacketEventsAPI;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.player.GameMode;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import fr.dreamin.dreaminTabList.DreaminTabList;
+import fr.dreamin.dreaminTabList.api.profile.TabProfile;
+import fr.dreamin.dreaminTabList.impl.TabListAPIImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileBuilderImpl;
+import fr.dreamin.dreaminTabList.impl.profile.TabProfileManagerImpl;
+import fr.dreamin.dreaminTabList.impl.scheduler.TabScheduler;
+import io.github.retrooper.packetevents.impl.netty.NettyManagerImpl;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the tab list API against simulated players, without a server.
+ *
+ * <p>Players are Bukkit {@link Player} mocks and their connections are
+ * PacketEvents {@link User} mocks feeding a shared {@link PacketCapture}.
+ * PacketEvents itself is backed by a stub API reporting a fixed server
+ * version and the real Netty buffer allocator, so packets are encoded
+ * exactly as on a live server.
+ *
+ * <p>Profiles of joining players are generated from their index instead
+ * of fetching skins, so every run sends the same data.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class LoadSimulator {
+
+  /**
+   * Server version the packets are encoded for.
+   */
+  public static final ServerVersion SERVER_VERSION = ServerVersion.V_1_21_4;
+
+  /**
+   * A texture payload sized like the ones returned by Mojang.
+   */
+  public static final String TEXTURE = "ewogICJ0aW1lc3RhbXAiIDogMTcwMDAwMDAwMDAwMCwKICAicHJvZmlsZUlkIiA6ICIwMDAwMDAwMDAwMDAwMDAwMDAw"
+    + "MDAwMDAwMDAwMDAwMCIsCiAgInByb2ZpbGVOYW1lIiA6ICJTaW11bGF0b3IiLAogICJ0ZXh0dXJlcyIgOiB7CiAgICAiU0tJTiIgOiB7CiAgICAg"
+    + "ICJ1cmwiIDogImh0dHA6Ly90ZXh0dXJlcy5taW5lY3JhZnQubmV0L3RleHR1cmUvMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMDAwMCIKICAgIH0KICB9Cn0=";
+
+  /**
+   * Signature of {@link #TEXTURE}, sized like a real one.
+   */
+  public static final String SIGNATURE = "c2lnbmF0dXJlLWZvci10aGUtbG9hZC1zaW11bGF0b3Itb25seS1ub3QtYS1yZWFsLXNpZ25hdHVyZQ==".repeat(8);
+
+  private static boolean packetEventsInstalled = false;
+
+  private final int groups;
+  private final PacketCapture capture = new PacketCapture();
+  private final TabListAPIImpl api;
+  private final Map<UUID, User> users = new ConcurrentHashMap<>();
+  private final List<Player> players = new ArrayList<>();
+
+  /**
+   * Creates a simulator with no player.
+   *
+   * @param groups the number of groups profiles are spread across
+   */
+  public LoadSimulator(int groups) {
+    this(groups, null);
+  }
+
+  /**
+   * Creates a simulator with no player, scheduling tab tasks with a given scheduler.
+   *
+   * @param groups the number of groups profiles are spread across
+   * @param scheduler the scheduler of the API, or null for the one matching the server
+   */
+  public LoadSimulator(int groups, TabScheduler scheduler) {
+    installPacketEvents();
+    Mockito.when(PacketEvents.getAPI().getPlayerManager().getUser(Mockito.any()))
+      .thenAnswer(invocation -> users.get(((Player) invocation.getArgument(0)).getUniqueId()));
+
+    Logger logger = Logger.getLogger("DreaminTabList-Simulator");
+    logger.setLevel(Level.OFF);
+
+    DreaminTabList plugin = Mockito.mock(DreaminTabList.class);
+    Mockito.when(plugin.getLogger()).thenReturn(logger);
+    Mockito.when(plugin.isEnabled()).thenReturn(true);
+
+    this.groups = groups;
+    this.api = scheduler != null ? new TabListAPIImpl(plugin, scheduler) : new TabListAPIImpl(plugin);
+    ((TabProfileManagerImpl) this.api.getProfileManager()).setPlayerProfileFactory(player -> profile(indexOf(player.getUniqueId()), 0));
+  }
+
+  /**
+   * Installs the stub PacketEvents API, once per JVM.
+   */
+  private static synchronized void installPacketEvents() {
+    if (packetEventsInstalled) return;
+
+    PacketEventsAPI<?> api = Mockito.mock(PacketEventsAPI.class, Answers.RETURNS_DEEP_STUBS);
+    Mockito.when(api.getServerManager().getVersion()).thenReturn(SERVER_VERSION);
+    Mockito.when(api.getNettyManager()).thenReturn(new NettyManagerImpl());
+    PacketEvents.setAPI(api);
+
+    packetEventsInstalled = true;
+  }
+
+  /**
+   * Connects and registers new players, one after the other, each admitted
+   * into the tab list before the next one joins.
+   *
+   * @param count the number of players joining
+   * @return the joined players
+   */
+  public List<Player> join(int count) {
+    List<Player> joined = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      joined.addAll(joinWave(1));
+      api.getAdmissionQueue().run();
+    }
+    return joined;
+  }
+
+  /**
+   * Connects and registers new players within the same tick. They are
+   * admitted into the tab list by the next calls to {@link #tick()}.
+   *
+   * @param count the number of players joining
+   * @return the joined players
+   */
+  public List<Player> joinWave(int count) {
+    List<Player> joined = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Player player = connect(players.size());
+      players.add(player);
+      api.registerPlayer(player);
+      joined.add(player);
+    }
+    return joined;
+  }
+
+  /**
+   * Sends a new latency for every global profile.
+   *
+   * @param tick the simulated tick, used to vary the latency
+   */
+  public void updateAllProfiles(int tick) {
+    for (int i = 0; i < players.size(); i++) {
+      api.getProfileManager().updateGlobalProfile(profile(i, tick));
+    }
+  }
+
+  /**
+   * Admits joining players and releases the pending cosmetic updates, as
+   * the flush task does every tick.
+   */
+  public void tick() {
+    api.tick();
+  }
+
+  /**
+   * Creates the profile of a simulated player.
+   *
+   * @param index the player index
+   * @param tick the simulated tick, used to vary the latency
+   * @return the profile
+   */
+  public TabProfile profile(int index, int tick) {
+    return new TabProfileBuilderImpl()
+      .uuid(uuidOf(index))
+      .name(nameOf(index))
+      .displayName(Component.text("[Rank] " + nameOf(index)))
+      .gameMode(GameMode.SURVIVAL)
+      .latency((index + tick) % 300)
+      .sortOrder(index)
+      .group(groupOf(index))
+      .customSkin(TEXTURE, SIGNATURE)
+      .build();
+  }
+
+  /**
+   * Gets the group of a simulated player.
+   *
+   * @param index the player index
+   * @return the group name
+   */
+  public String groupOf(int index) {
+    return "group-" + (index % groups);
+  }
+
+  /**
+   * Gets the API under test.
+   *
+   * @return the API implementation
+   */
+  public TabListAPIImpl getApi() {
+    return api;
+  }
+
+  /**
+   * Gets the capture of every packet sent.
+   *
+   * @return the packet capture
+   */
+  public PacketCapture getCapture() {
+    return capture;
+  }
+
+  /**
+   * Gets the players joined so far.
+   *
+   * @return the players, in join order
+   */
+  public List<Player> getPlayers() {
+    return Collections.unmodifiableList(players);
+  }
+
+  private Player connect(int index) {
+    UUID uuid = uuidOf(index);
+
+    // Stub-only mocks do not record invocations, which would retain every packet sent
+    Player player = Mockito.mock(Player.class, Mockito.withSettings().stubOnly());
+    Mockito.when(player.getUniqueId()).thenReturn(uuid);
+    Mockito.when(player.getName()).thenReturn(nameOf(index));
+    Mockito.when(player.isOnline()).thenReturn(true);
+
+    User user = Mockito.mock(User.class, Mockito.withSettings().stubOnly().defaultAnswer(invocation -> {
+      if (!invocation.getMethod().getName().equals("sendPacket")) return Answers.RETURNS_DEFAULTS.answer(invocation);
+
+      Object packet = invocation.getArgument(0);
+      if (packet instanceof PacketWrapper<?> wrapper) capture.record(wrapper);
+      else capture.recordEncoded(packet);
+      return null;
+    }));
+    users.put(uuid, user);
+
+    return player;
+  }
+
+  /**
+   * Gets the unique id of a simulated player.
+   *
+   * @param index the player index
+   * @return the player unique id
+   */
+  public static UUID uuidOf(int index) {
+    return new UUID(0x51B0L, index);
+  }
+
+  private static int indexOf(UUID uuid) {
+    return (int) uuid.getLeastSignificantBits();
+  }
+
+  private static String nameOf(int index) {
+    return "Player_" + index;
+  }
+}
@@ -0,0 +1,117 @@
+package fr.dreamin.dreaminTabList.simulator;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scripted load scenarios run against simulated players.
+ *
+ * <p>Each scenario asserts the packets it must produce, and records what
+ * it sent in a report written to the path of the {@code simulator.report}
+ * system property (set by the Gradle test task), so runs of two versions
+ * can be compared.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class LoadSimulatorTest {
+
+  private static final int JOIN_WAVE_PLAYERS = 1000;
+  private static final int PLAYERS = 200;
+  private static final int GROUPS = 4;
+
+  private static final SimulationReport REPORT = new SimulationReport(System.getProperty("simulator.version", "dev"));
+
+  @AfterAll
+  public static void writeReport() throws IOException {
+    REPORT.write(Path.of(System.getProperty("simulator.report", "build/reports/simulator/report.json")));
+  }
+
+  @Test
+  public void testJoinWave() {
+    LoadSimulator simulator = new LoadSimulator(GROUPS);
+
+    long start = System.nanoTime();
+    simulator.join(JOIN_WAVE_PLAYERS);
+    REPORT.add("join-wave", JOIN_WAVE_PLAYERS, System.nanoTime() - start, simulator.getCapture());
+
+    // Every joining player is added to the tab list of everyone online, itself included
+    long expected = (long) JOIN_WAVE_PLAYERS * (JOIN_WAVE_PLAYERS + 1) / 2;
+    assertEquals(JOIN_WAVE_PLAYERS, simulator.getApi().getManagedPlayerCount());
+    assertEquals(expected, simulator.getCapture().getPackets("info_update.add"));
+  }
+
+  @Test
+  public void testMassProfileUpdates() {
+    LoadSimulator simulator = new LoadSimulator(GROUPS);
+    simulator.join(PLAYERS);
+    simulator.getCapture().reset();
+
+    long start = System.nanoTime();
+    simulator.updateAllProfiles(1);
+    REPORT.add("mass-updates", PLAYERS, System.nanoTime() - start, simulator.getCapture());
+
+    assertEquals((long) PLAYERS * PLAYERS, simulator.getCapture().getPackets("info_update.update"));
+    assertEquals(0, simulator.getCapture().getPackets("info_update.add"));
+  }
+
+  @Test
+  public void testRateLimitedProfileUpdates() {
+    int ticks = 20;
+    LoadSimulator simulator = new LoadSimulator(GROUPS);
+    simulator.join(PLAYERS);
+    simulator.getApi().setDefaultUpdateRate(20, 40);
+    simulator.getCapture().reset();
+
+    long start = System.nanoTime();
+    for (int tick = 1; tick <= ticks; tick++) {
+      simulator.updateAllProfiles(tick);
+      simulator.tick();
+    }
+    REPORT.add("rate-limited-updates", PLAYERS, System.nanoTime() - start, simulator.getCapture());
+
+    // Pending updates are coalesced and released in batches instead of one packet each
+    long packets = simulator.getCapture().getPackets("info_update.update");
+    assertTrue(packets > 0);
+    assertTrue(packets < (long) ticks * PLAYERS * PLAYERS);
+  }
+
+  @Test
+  public void testHideShowToggles() {
+    int toggles = 10;
+    LoadSimulator simulator = new LoadSimulator(GROUPS);
+    simulator.join(PLAYERS);
+    simulator.getCapture().reset();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < toggles; i++) {
+      simulator.getApi().hideTabForAll();
+      simulator.getApi().showTabForAll();
+    }
+    REPORT.add("hide-show", PLAYERS, System.nanoTime() - start, simulator.getCapture());
+
+    // A single listed packet per player and toggle, whatever the number of profiles
+    assertEquals(2L * toggles * PLAYERS, simulator.getCapture().getPackets("info_update.listed"));
+  }
+
+  @Test
+  public void testGroupClears() {
+    LoadSimulator simulator = new LoadSimulator(GROUPS);
+    simulator.join(PLAYERS);
+    simulator.getCapture().reset();
+
+    long start = System.nanoTime();
+    for (int group = 0; group < GROUPS; group++) {
+      simulator.getApi().getProfileManager().clearProfilesByGroup(simulator.groupOf(group));
+    }
+    REPORT.add("group-clears", PLAYERS, System.nanoTime() - start, simulator.getCapture());
+
+    assertEquals(0, simulator.getApi().getProfileManager().getGlobalProfileCount());
+    assertTrue(simulator.getCapture().getTotal().getEntries() >= (long) PLAYERS * PLAYERS);
+  }
+}
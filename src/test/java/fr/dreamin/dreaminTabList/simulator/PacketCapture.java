@@ -0,0 +1,170 @@
+package fr.dreamin.dreaminTabList.simulator;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoRemove;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerListHeaderAndFooter;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records every packet sent to the simulated users.
+ *
+ * <p>Each packet is encoded exactly like PacketEvents would before writing
+ * it to the channel, so the capture measures both the encoded size and the
+ * time spent encoding. Packets are classified by type and, for player info
+ * updates, by the kind of update they carry.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class PacketCapture {
+
+  private static final EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> LISTED_ONLY =
+    EnumSet.of(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED);
+  private static final EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> LIST_ORDER_ONLY =
+    EnumSet.of(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LIST_ORDER);
+
+  private final Map<String, Stats> stats = new TreeMap<>();
+
+  /**
+   * Records a packet wrapper.
+   *
+   * @param wrapper the packet sent
+   */
+  public synchronized void record(PacketWrapper<?> wrapper) {
+    long start = System.nanoTime();
+    Object buffer = UnpooledByteBufAllocationHelper.buffer();
+    try {
+      wrapper.setBuffer(buffer);
+      wrapper.writeVarInt(wrapper.getPacketTypeData().getNativePacketId());
+      wrapper.write();
+      long encodeNanos = System.nanoTime() - start;
+
+      stats.computeIfAbsent(kindOf(wrapper), key -> new Stats())
+        .add(entriesOf(wrapper), ByteBufHelper.readableBytes(buffer), encodeNanos);
+    } finally {
+      ByteBufHelper.release(buffer);
+    }
+  }
+
+  /**
+   * Records a packet sent already encoded.
+   *
+   * @param buffer the encoded packet
+   */
+  public synchronized void recordEncoded(Object buffer) {
+    stats.computeIfAbsent("encoded", key -> new Stats()).add(0, ByteBufHelper.readableBytes(buffer), 0L);
+    ByteBufHelper.release(buffer);
+  }
+
+  /**
+   * Gets the statistics per packet kind.
+   *
+   * @return a copy of the statistics, sorted by kind
+   */
+  public synchronized Map<String, Stats> getStats() {
+    Map<String, Stats> copy = new TreeMap<>();
+    stats.forEach((kind, value) -> copy.put(kind, value.copy()));
+    return copy;
+  }
+
+  /**
+   * Gets the statistics of every packet kind combined.
+   *
+   * @return the combined statistics
+   */
+  public synchronized Stats getTotal() {
+    Stats total = new Stats();
+    stats.values().forEach(total::merge);
+    return total;
+  }
+
+  /**
+   * Gets the number of packets of a kind.
+   *
+   * @param kind the packet kind
+   * @return the packet count
+   */
+  public synchronized long getPackets(String kind) {
+    Stats value = stats.get(kind);
+    return value != null ? value.packets : 0L;
+  }
+
+  /**
+   * Forgets every recorded packet.
+   */
+  public synchronized void reset() {
+    stats.clear();
+  }
+
+  private static String kindOf(PacketWrapper<?> wrapper) {
+    if (wrapper instanceof WrapperPlayServerPlayerInfoUpdate update) {
+      EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> actions = update.getActions();
+      if (actions.contains(WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER)) return "info_update.add";
+      if (actions.equals(LISTED_ONLY)) return "info_update.listed";
+      if (actions.equals(LIST_ORDER_ONLY)) return "info_update.order";
+      return "info_update.update";
+    }
+    if (wrapper instanceof WrapperPlayServerPlayerInfoRemove) return "info_remove";
+    if (wrapper instanceof WrapperPlayServerPlayerListHeaderAndFooter) return "header_footer";
+    return wrapper.getClass().getSimpleName();
+  }
+
+  private static int entriesOf(PacketWrapper<?> wrapper) {
+    if (wrapper instanceof WrapperPlayServerPlayerInfoUpdate update) return update.getEntries().size();
+    if (wrapper instanceof WrapperPlayServerPlayerInfoRemove remove) return remove.getProfileIds().size();
+    return 0;
+  }
+
+  /**
+   * Totals of a kind of packet.
+   */
+  public static class Stats {
+
+    private long packets;
+    private long entries;
+    private long bytes;
+    private long encodeNanos;
+
+    void add(int entries, int bytes, long encodeNanos) {
+      this.packets++;
+      this.entries += entries;
+      this.bytes += bytes;
+      this.encodeNanos += encodeNanos;
+    }
+
+    void merge(Stats other) {
+      this.packets += other.packets;
+      this.entries += other.entries;
+      this.bytes += other.bytes;
+      this.encodeNanos += other.encodeNanos;
+    }
+
+    Stats copy() {
+      Stats copy = new Stats();
+      copy.merge(this);
+      return copy;
+    }
+
+    public long getPackets() {
+      return packets;
+    }
+
+    public long getEntries() {
+      return entries;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    public long getEncodeNanos() {
+      return encodeNanos;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package fr.dreamin.dreaminTabList.simulator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the results of simulated scenarios and writes them as JSON.
+ *
+ * <p>Scenarios and packet kinds are sorted by name, and the report holds
+ * the plugin version, so reports of two releases can be diffed directly.
+ * Encode times depend on the machine and are only comparable between
+ * runs on the same hardware.
+ *
+ * @author DreaminTabList Tests
+ * @version 1.0.0
+ */
+public class SimulationReport {
+
+  private final String version;
+  private final Map<String, Scenario> scenarios = new TreeMap<>();
+
+  /**
+   * Creates an empty report.
+   *
+   * @param version the version of the plugin being simulated
+   */
+  public SimulationReport(String version) {
+    this.version = version;
+  }
+
+  /**
+   * Adds the result of a scenario.
+   *
+   * @param name the scenario name
+   * @param players the number of simulated players
+   * @param durationNanos the time spent running the scenario
+   * @param capture the packets captured during the scenario
+   */
+  public synchronized void add(String name, int players, long durationNanos, PacketCapture capture) {
+    scenarios.put(name, new Scenario(players, durationNanos, capture.getStats(), capture.getTotal()));
+  }
+
+  /**
+   * Writes the report, creating parent directories as needed.
+   *
+   * @param path the report file
+   * @throws IOException if the report cannot be written
+   */
+  public synchronized void write(Path path) throws IOException {
+    if (path.getParent() != null) Files.createDirectories(path.getParent());
+    Files.writeString(path, toJson(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Formats the report as JSON.
+   *
+   * @return the JSON report
+   */
+  public synchronized String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"version\": \"").append(version).append("\",\n  \"scenarios\": {");
+
+    String separator = "\n";
+    for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+      Scenario scenario = entry.getValue();
+      json.append(separator).append("    \"").append(entry.getKey()).append("\": {\n")
+        .append("      \"players\": ").append(scenario.players()).append(",\n")
+        .append("      \"durationMs\": ").append(scenario.durationNanos() / 1_000_000L).append(",\n")
+        .append("      \"total\": ");
+      appendStats(json, scenario.total());
+      json.append(",\n      \"packets\": {");
+
+      String kindSeparator = "\n";
+      for (Map.Entry<String, PacketCapture.Stats> kind : scenario.packets().entrySet()) {
+        json.append(kindSeparator).append("        \"").append(kind.getKey()).append("\": ");
+        appendStats(json, kind.getValue());
+        kindSeparator = ",\n";
+      }
+      json.append("\n      }\n    }");
+      separator = ",\n";
+    }
+
+    return json.append("\n  }\n}\n").toString();
+  }
+
+  private static void appendStats(StringBuilder json, PacketCapture.Stats stats) {
+    json.append("{\"packets\": ").append(stats.getPackets())
+      .append(", \"entries\": ").append(stats.getEntries())
+      .append(", \"bytes\": ").append(stats.getBytes())
+      .append(", \"encodeMs\": ").append(stats.getEncodeNanos() / 1_000_000L)
+      .append('}');
+  }
+
+  private record Scenario(int players, long durationNanos, Map<String, PacketCapture.Stats> packets, PacketCapture.Stats total) {
+  }
+}